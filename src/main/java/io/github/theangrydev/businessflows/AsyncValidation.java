@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Runs the {@link AsyncValidator}s of one {@link ValidationPath#validateAllAsync(List, Duration)} concurrently.
+ * <p>
+ * Every validator is started on the calling thread before any result is looked at. The result completes as soon as
+ * the last validator completes, the first technical failure happens or the deadline passes, whichever is first. No
+ * thread ever waits: the deadline is a task on the {@link SharedTimer} that is cancelled when the result completes. When
+ * the deadline passes, the result is completed on the given {@link Executor} rather than on the timer thread, so the
+ * stages that depend on it do not hold up the other timers. If the {@link Executor} rejects it, the rejection is the
+ * technical failure instead.
+ */
+final class AsyncValidation<Happy, Sad, SadAggregate> {
+
+    private final Happy happy;
+    private final Mapping<List<Sad>, SadAggregate> sadAggregateMapping;
+    private final Object[] potentialFailures;
+    private final AtomicInteger remaining;
+    private final CompletableFuture<ValidationPath<Happy, Sad, SadAggregate>> result = new CompletableFuture<>();
+
+    private AsyncValidation(Happy happy, Mapping<List<Sad>, SadAggregate> sadAggregateMapping, int validators) {
+        this.happy = happy;
+        this.sadAggregateMapping = sadAggregateMapping;
+        this.potentialFailures = new Object[validators];
+        this.remaining = new AtomicInteger(validators);
+    }
+
+    static <Happy, Sad, SadAggregate> CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAll(Happy happy, Mapping<List<Sad>, SadAggregate> sadAggregateMapping, List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline, Executor executor) {
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException(format("The deadline must be positive but was %s", deadline));
+        }
+        AsyncValidation<Happy, Sad, SadAggregate> validation = new AsyncValidation<>(happy, sadAggregateMapping, validators.size());
+        if (validators.isEmpty()) {
+            validation.aggregate();
+            return validation.result;
+        }
+        Future<?> timeout = SharedTimer.runAfter(deadline.toNanos(), Runnable::run, () -> {
+            try {
+                executor.execute(() -> validation.fail(new TimeoutException(format("Validation did not finish within %s", deadline))));
+            } catch (RuntimeException rejected) {
+                validation.fail(rejected);
+            }
+        });
+        validation.result.whenComplete((ignored, failure) -> timeout.cancel(false));
+        for (int index = 0; index < validators.size() && !validation.result.isDone(); index++) {
+            validation.start(index, validators.get(index));
+        }
+        return validation.result;
+    }
+
+    private void start(int index, AsyncValidator<Happy, Sad> validator) {
+        CompletionStage<PotentialFailure<Sad>> potentialFailure;
+        try {
+            potentialFailure = validator.attempt(happy);
+        } catch (Exception technicalFailure) {
+            fail(technicalFailure);
+            return;
+        }
+        if (potentialFailure == null) {
+            fail(new NullPointerException(format("Validator %d returned null instead of a CompletionStage", index)));
+            return;
+        }
+        potentialFailure.whenComplete((completed, technicalFailure) -> {
+            if (technicalFailure != null) {
+                fail(unwrap(technicalFailure));
+            } else {
+                completed(index, completed);
+            }
+        });
+    }
+
+    private void completed(int index, PotentialFailure<Sad> potentialFailure) {
+        potentialFailures[index] = potentialFailure;
+        if (remaining.decrementAndGet() == 0) {
+            aggregate();
+        }
+    }
+
+    @SuppressWarnings("unchecked") // Only PotentialFailure<Sad> are stored
+    private void aggregate() {
+        try {
+            List<Sad> validationFailures = new ArrayList<>(potentialFailures.length);
+            for (Object potentialFailure : potentialFailures) {
+                ((PotentialFailure<Sad>) potentialFailure).ifPresent(validationFailures::add);
+            }
+            if (validationFailures.isEmpty()) {
+                result.complete(ValidationPath.validationPathInto(happy, sadAggregateMapping));
+            } else {
+                result.complete(ValidationPath.validationFailure(sadAggregateMapping.map(validationFailures)));
+            }
+        } catch (Exception technicalFailure) {
+            fail(technicalFailure);
+        }
+    }
+
+    private void fail(Exception technicalFailure) {
+        result.complete(ValidationPath.technicalFailure(technicalFailure));
+    }
+
+    private static Exception unwrap(Throwable technicalFailure) {
+        Throwable cause = technicalFailure instanceof CompletionException && technicalFailure.getCause() != null ? technicalFailure.getCause() : technicalFailure;
+        return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+    }
+}
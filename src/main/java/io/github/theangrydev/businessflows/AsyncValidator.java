@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.CompletionStage;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link Validator} that does not block while it validates, e.g. because it calls a remote service. It is used with
+ * {@link ValidationPath#validateAllAsync(java.util.List, java.time.Duration)}.
+ *
+ * @param <Happy> The type to validate
+ * @param <Sad>   The type of validation failure
+ */
+@FunctionalInterface
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface AsyncValidator<Happy, Sad> {
+
+    /**
+     * Start validating the happy object.
+     *
+     * @param happy The happy object to validate
+     * @return A {@link CompletionStage} of {@link PotentialFailure#success()} if the happy object is valid, else of a
+     * {@link PotentialFailure#failure(Object) PotentialFailure#failure(Sad)}, that completes exceptionally if there was a
+     * technical failure
+     * @throws Exception If there was a technical failure when starting to validate
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    CompletionStage<PotentialFailure<Sad>> attempt(Happy happy) throws Exception;
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link Bounce} is one step of {@link HappyPath#thenTrampolined(Mapping)}. It either bounces, which means the step
+ * should be applied again to the happy object in the next flow, or lands, which means the next flow is the result.
+ * <p>
+ * This is how a recursive {@code then(page -> fetch(next).then(this::loop))} can be written so that it runs in
+ * constant stack: the recursive call is returned as a {@link #bounce(BusinessFlow)} instead of being made directly.
+ *
+ * @param <Happy>    The type of happy object the step is applied to
+ * @param <NewHappy> The type of happy object in the flow that is landed on
+ * @param <Sad>      The type of sad object in the flows
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class Bounce<Happy, NewHappy, Sad> {
+
+    final BusinessFlow<Happy, Sad> next;
+    final BusinessFlow<NewHappy, Sad> landed;
+
+    private Bounce(BusinessFlow<Happy, Sad> next, BusinessFlow<NewHappy, Sad> landed) {
+        this.next = next;
+        this.landed = landed;
+    }
+
+    /**
+     * Apply the step again if the next flow is happy. If it is sad or a technical failure, that is the result.
+     *
+     * @param next       The flow to continue with
+     * @param <Happy>    The type of happy object the step is applied to
+     * @param <NewHappy> The type of happy object in the flow that is landed on
+     * @param <Sad>      The type of sad object in the flows
+     * @return A {@link Bounce} that continues with the given flow
+     * @throws IllegalArgumentException If the flow is null
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, NewHappy, Sad> Bounce<Happy, NewHappy, Sad> bounce(BusinessFlow<Happy, Sad> next) {
+        if (next == null) {
+            throw new IllegalArgumentException("The flow to bounce to must not be null");
+        }
+        return new Bounce<>(next, null);
+    }
+
+    /**
+     * Stop bouncing, the given flow is the result.
+     *
+     * @param result     The flow that is the result
+     * @param <Happy>    The type of happy object the step is applied to
+     * @param <NewHappy> The type of happy object in the flow that is landed on
+     * @param <Sad>      The type of sad object in the flows
+     * @return A {@link Bounce} that lands on the given flow
+     * @throws IllegalArgumentException If the flow is null
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, NewHappy, Sad> Bounce<Happy, NewHappy, Sad> land(BusinessFlow<NewHappy, Sad> result) {
+        if (result == null) {
+            throw new IllegalArgumentException("The flow to land on must not be null");
+        }
+        return new Bounce<>(null, result);
+    }
+
+    boolean bouncing() {
+        return landed == null;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return bouncing() ? "Bounce: " + next : "Land: " + landed;
+    }
+}
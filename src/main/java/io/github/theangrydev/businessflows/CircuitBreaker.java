@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.CircuitBreakerState.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link CircuitBreaker} protects a dependency by refusing to call it while it is failing.
+ * <p>
+ * While {@link CircuitBreakerState#CLOSED} the outcome of each call is tracked in a sliding window. When the failure rate
+ * in the window reaches the threshold the breaker becomes {@link CircuitBreakerState#OPEN} and every call is rejected
+ * with a preallocated {@link CircuitBreakerOpenException}, without attempting it. After the wait in the open state a
+ * bounded number of probe calls are let through in the {@link CircuitBreakerState#HALF_OPEN} state: if they all succeed
+ * the breaker closes again, if any of them fail it opens again.
+ * <p>
+ * Use {@link #protect(Attempt)} with {@link HappyPath#happyAttempt(Attempt)} to turn a rejection into a technical
+ * failure, or with {@link HappyPath#happyAttempt(Attempt, Mapping)} to map it to a sad object.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public class CircuitBreaker {
+
+    private static final int WINDOW_BUCKETS = 10;
+
+    private final double failureRateThreshold;
+    private final int minimumNumberOfCalls;
+    private final long waitInOpenStateNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final LongSupplier nanoTime;
+    private final long createdAtNanos;
+
+    private final FailureRateWindow window;
+    private final CircuitBreakerOpenException openException = new CircuitBreakerOpenException();
+    private final AtomicReference<Phase> phase = new AtomicReference<>(Phase.closed());
+
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder transitionsToOpen = new LongAdder();
+    private final LongAdder transitionsToHalfOpen = new LongAdder();
+    private final LongAdder transitionsToClosed = new LongAdder();
+
+    CircuitBreaker(double failureRateThreshold, int minimumNumberOfCalls, Duration slidingWindow, Duration waitInOpenState, int permittedCallsInHalfOpenState, LongSupplier nanoTime) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException(format("Failure rate threshold must be in (0, 1] but was %s", failureRateThreshold));
+        }
+        if (minimumNumberOfCalls < 1 || permittedCallsInHalfOpenState < 1) {
+            throw new IllegalArgumentException("The minimum number of calls and the permitted calls in the half open state must be positive");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.waitInOpenStateNanos = waitInOpenState.toNanos();
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.nanoTime = nanoTime;
+        this.createdAtNanos = nanoTime.getAsLong();
+        this.window = new FailureRateWindow(WINDOW_BUCKETS, slidingWindow.toNanos());
+    }
+
+    /**
+     * Produces a {@link CircuitBreaker} that starts off {@link CircuitBreakerState#CLOSED}.
+     *
+     * @param failureRateThreshold          The failure rate in (0, 1] at which the breaker opens
+     * @param minimumNumberOfCalls          The number of calls there must be in the sliding window before the failure rate is considered
+     * @param slidingWindow                 How far back in time calls are tracked
+     * @param waitInOpenState               How long to reject calls for before probing the dependency again
+     * @param permittedCallsInHalfOpenState How many probe calls must succeed before the breaker closes again
+     * @return The circuit breaker
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static CircuitBreaker circuitBreaker(double failureRateThreshold, int minimumNumberOfCalls, Duration slidingWindow, Duration waitInOpenState, int permittedCallsInHalfOpenState) {
+        return new CircuitBreaker(failureRateThreshold, minimumNumberOfCalls, slidingWindow, waitInOpenState, permittedCallsInHalfOpenState, System::nanoTime);
+    }
+
+    /**
+     * Wrap an {@link Attempt} so that it is only attempted if the breaker permits it.
+     *
+     * @param attempt  The {@link Attempt} to protect
+     * @param <Result> The type of happy object the {@link Attempt} produces
+     * @return An {@link Attempt} that throws a {@link CircuitBreakerOpenException} without attempting if the call is rejected
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Result> Attempt<Result> protect(Attempt<Result> attempt) {
+        return () -> {
+            Phase permittedIn = acquirePermission();
+            try {
+                Result result = attempt.attempt();
+                onSuccess(permittedIn);
+                return result;
+            } catch (Throwable failure) {
+                onFailure(permittedIn);
+                throw failure;
+            }
+        };
+    }
+
+    /**
+     * Wrap a {@link Mapping} so that it is only applied if the breaker permits it.
+     *
+     * @param mapping The {@link Mapping} to protect
+     * @param <Old>   The old type (before mapping)
+     * @param <New>   The new type (after mapping)
+     * @return A {@link Mapping} that throws a {@link CircuitBreakerOpenException} without mapping if the call is rejected
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Old, New> Mapping<Old, New> protect(Mapping<Old, New> mapping) {
+        return old -> {
+            Phase permittedIn = acquirePermission();
+            try {
+                New result = mapping.map(old);
+                onSuccess(permittedIn);
+                return result;
+            } catch (Throwable failure) {
+                onFailure(permittedIn);
+                throw failure;
+            }
+        };
+    }
+
+    /**
+     * @return The current state of the breaker
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public CircuitBreakerState state() {
+        return phase.get().state;
+    }
+
+    /**
+     * @return The failure rate in the sliding window, between 0 and 1
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public double failureRate() {
+        return window.failureRate(now());
+    }
+
+    /**
+     * @return The number of calls that were rejected without being attempted
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long rejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    /**
+     * @return The number of times the breaker has moved to {@link CircuitBreakerState#OPEN}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long transitionsToOpen() {
+        return transitionsToOpen.sum();
+    }
+
+    /**
+     * @return The number of times the breaker has moved to {@link CircuitBreakerState#HALF_OPEN}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long transitionsToHalfOpen() {
+        return transitionsToHalfOpen.sum();
+    }
+
+    /**
+     * @return The number of times the breaker has moved back to {@link CircuitBreakerState#CLOSED}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long transitionsToClosed() {
+        return transitionsToClosed.sum();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("CircuitBreaker{state=%s, failureRate=%s, rejectedCalls=%d}", state(), failureRate(), rejectedCalls());
+    }
+
+    /**
+     * A call is permitted in a particular phase, so that its outcome only ever settles that phase: a late failure from a
+     * call that was permitted before the breaker opened cannot move the time it opened at, and a late failure from a call
+     * that was permitted before the breaker last closed cannot count against it now.
+     */
+    private Phase acquirePermission() throws CircuitBreakerOpenException {
+        while (true) {
+            Phase current = phase.get();
+            if (current.state == CLOSED) {
+                return current;
+            }
+            if (current.state == OPEN) {
+                if (now() - current.openedAtNanos < waitInOpenStateNanos) {
+                    throw reject();
+                }
+                if (phase.compareAndSet(current, Phase.halfOpen(permittedCallsInHalfOpenState))) {
+                    transitionsToHalfOpen.increment();
+                }
+                continue;
+            }
+            if (current.takeHalfOpenPermit()) {
+                return current;
+            }
+            throw reject();
+        }
+    }
+
+    private CircuitBreakerOpenException reject() {
+        rejectedCalls.increment();
+        return openException;
+    }
+
+    private void onSuccess(Phase permittedIn) {
+        if (permittedIn.state == HALF_OPEN) {
+            if (permittedIn.halfOpenSuccesses.incrementAndGet() >= permittedCallsInHalfOpenState && phase.compareAndSet(permittedIn, Phase.closed())) {
+                window.reset();
+                transitionsToClosed.increment();
+            }
+            return;
+        }
+        if (phase.get() == permittedIn) {
+            window.recordSuccess(now());
+        }
+    }
+
+    private void onFailure(Phase permittedIn) {
+        long now = now();
+        if (permittedIn.state == HALF_OPEN) {
+            open(permittedIn, now);
+            return;
+        }
+        if (phase.get() != permittedIn) {
+            return;
+        }
+        window.recordFailure(now);
+        if (window.calls(now) >= minimumNumberOfCalls && window.failureRate(now) >= failureRateThreshold) {
+            open(permittedIn, now);
+        }
+    }
+
+    private void open(Phase from, long now) {
+        if (phase.compareAndSet(from, Phase.open(now))) {
+            transitionsToOpen.increment();
+        }
+    }
+
+    private long now() {
+        return nanoTime.getAsLong() - createdAtNanos;
+    }
+
+    /**
+     * The state of the breaker together with when it opened and the probes of the half open state, so that they are
+     * always read and changed together. Every phase is a new instance, so a phase that has ended is never current again.
+     */
+    private static final class Phase {
+
+        private final CircuitBreakerState state;
+        private final long openedAtNanos;
+        private final AtomicInteger halfOpenPermits;
+        private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+        private Phase(CircuitBreakerState state, long openedAtNanos, int halfOpenPermits) {
+            this.state = state;
+            this.openedAtNanos = openedAtNanos;
+            this.halfOpenPermits = new AtomicInteger(halfOpenPermits);
+        }
+
+        static Phase closed() {
+            return new Phase(CLOSED, 0, 0);
+        }
+
+        static Phase open(long openedAtNanos) {
+            return new Phase(OPEN, openedAtNanos, 0);
+        }
+
+        static Phase halfOpen(int permits) {
+            return new Phase(HALF_OPEN, 0, permits);
+        }
+
+        boolean takeHalfOpenPermit() {
+            while (true) {
+                int permits = halfOpenPermits.get();
+                if (permits <= 0) {
+                    return false;
+                }
+                if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * The states that a {@link CircuitBreaker} can be in.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public enum CircuitBreakerState {
+
+    /**
+     * Calls are permitted and their outcomes are tracked.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    CLOSED,
+
+    /**
+     * Calls are rejected immediately, without being attempted.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    OPEN,
+
+    /**
+     * A limited number of probe calls are permitted to find out if it is safe to close again.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    HALF_OPEN
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.Double.doubleToRawLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.String.format;
+
+/**
+ * A {@link ConcurrencyLimiter} caps how many calls against a dependency may be in flight at once.
+ * <p>
+ * The cap is not fixed: it is adjusted from the round trip time of each call, in the style of a gradient limiter. While
+ * the round trip time stays close to its long term average the limit is allowed to grow, and as soon as calls start to
+ * queue up inside the dependency (so the round trip time grows) the limit shrinks. A call that fails after longer than
+ * the round trip time the limiter tolerates, e.g. because it timed out, is taken as a sign of overload and cuts the limit
+ * straight away, while a call that fails faster than that is ignored, since it says nothing about how loaded the
+ * dependency is. A call that arrives when the limit is
+ * reached is rejected immediately with a preallocated {@link ConcurrencyLimitExceededException}, so overload turns into
+ * quick rejections rather than a queue of waiting threads.
+ * <p>
+ * Use {@link #protect(Attempt)} with {@link HappyPath#happyAttempt(Attempt)} to turn a rejection into a technical
+ * failure, or with {@link HappyPath#happyAttempt(Attempt, Mapping)} to map it to a sad object.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public class ConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MINIMUM_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+    private static final int LONG_RTT_WINDOW = 600;
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final LongSupplier nanoTime;
+
+    private final ConcurrencyLimitExceededException limitExceededException = new ConcurrencyLimitExceededException();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong estimatedLimit;
+    private final AtomicLong longRttNanos = new AtomicLong(doubleToRawLongBits(0));
+    private volatile int limit;
+
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    ConcurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit, LongSupplier nanoTime) {
+        if (minimumLimit < 1 || minimumLimit > initialLimit || initialLimit > maximumLimit) {
+            throw new IllegalArgumentException(format("Limits must satisfy 1 <= minimum <= initial <= maximum but were minimum=%d, initial=%d, maximum=%d", minimumLimit, initialLimit, maximumLimit));
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.nanoTime = nanoTime;
+        this.estimatedLimit = new AtomicLong(doubleToRawLongBits(initialLimit));
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Produces a {@link ConcurrencyLimiter} that adapts its limit between the given bounds.
+     *
+     * @param initialLimit The limit to start with
+     * @param minimumLimit The limit will never drop below this
+     * @param maximumLimit The limit will never grow above this
+     * @return The concurrency limiter
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static ConcurrencyLimiter concurrencyLimiter(int initialLimit, int minimumLimit, int maximumLimit) {
+        return new ConcurrencyLimiter(initialLimit, minimumLimit, maximumLimit, System::nanoTime);
+    }
+
+    /**
+     * Wrap an {@link Attempt} so that it is only attempted if there is room under the limit.
+     *
+     * @param attempt  The {@link Attempt} to protect
+     * @param <Result> The type of happy object the {@link Attempt} produces
+     * @return An {@link Attempt} that throws a {@link ConcurrencyLimitExceededException} without attempting if the call is rejected
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Result> Attempt<Result> protect(Attempt<Result> attempt) {
+        return () -> {
+            int inFlightAtStart = acquire();
+            long start = nanoTime.getAsLong();
+            Result result;
+            try {
+                result = attempt.attempt();
+            } catch (Throwable failure) {
+                failed(start);
+                throw failure;
+            }
+            release(inFlightAtStart, start);
+            return result;
+        };
+    }
+
+    /**
+     * Wrap a {@link Mapping} so that it is only applied if there is room under the limit.
+     *
+     * @param mapping The {@link Mapping} to protect
+     * @param <Old>   The old type (before mapping)
+     * @param <New>   The new type (after mapping)
+     * @return A {@link Mapping} that throws a {@link ConcurrencyLimitExceededException} without mapping if the call is rejected
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Old, New> Mapping<Old, New> protect(Mapping<Old, New> mapping) {
+        return old -> {
+            int inFlightAtStart = acquire();
+            long start = nanoTime.getAsLong();
+            New result;
+            try {
+                result = mapping.map(old);
+            } catch (Throwable failure) {
+                failed(start);
+                throw failure;
+            }
+            release(inFlightAtStart, start);
+            return result;
+        };
+    }
+
+    /**
+     * @return The current limit on the number of calls in flight
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * @return The number of calls that are currently in flight
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The number of calls that were rejected without being attempted
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long rejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("ConcurrencyLimiter{limit=%d, inFlight=%d, rejectedCalls=%d}", limit(), inFlight(), rejectedCalls());
+    }
+
+    private int acquire() throws ConcurrencyLimitExceededException {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCalls.increment();
+                throw limitExceededException;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(int inFlightAtStart, long start) {
+        long rttNanos = Math.max(1, nanoTime.getAsLong() - start);
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart);
+    }
+
+    private void failed(long start) {
+        long rttNanos = Math.max(1, nanoTime.getAsLong() - start);
+        inFlight.decrementAndGet();
+        if (rttNanos > RTT_TOLERANCE * longBitsToDouble(longRttNanos.get())) {
+            onDrop();
+        }
+    }
+
+    private void onDrop() {
+        while (true) {
+            long currentBits = estimatedLimit.get();
+            double next = Math.max(minimumLimit, longBitsToDouble(currentBits) * DROP_BACKOFF);
+            if (estimatedLimit.compareAndSet(currentBits, doubleToRawLongBits(next))) {
+                limit = (int) next;
+                return;
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        double longRtt = updateLongRtt(rttNanos);
+        double gradient = Math.max(MINIMUM_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRtt / rttNanos));
+        while (true) {
+            long currentBits = estimatedLimit.get();
+            double current = longBitsToDouble(currentBits);
+            if (gradient >= 1.0 && inFlightAtStart < current / 2) {
+                return; // The dependency is not being pushed, so there is nothing to learn about how far it can be pushed
+            }
+            double queueSize = Math.sqrt(current);
+            double target = current * gradient + queueSize;
+            double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+            double next = Math.max(minimumLimit, Math.min(maximumLimit, smoothed));
+            if (estimatedLimit.compareAndSet(currentBits, doubleToRawLongBits(next))) {
+                limit = (int) next;
+                return;
+            }
+        }
+    }
+
+    private double updateLongRtt(long rttNanos) {
+        while (true) {
+            long currentBits = longRttNanos.get();
+            double current = longBitsToDouble(currentBits);
+            double next = current == 0 ? rttNanos : current + (rttNanos - current) / LONG_RTT_WINDOW;
+            if (longRttNanos.compareAndSet(currentBits, doubleToRawLongBits(next))) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link ContextKey} names a value in a {@link FlowContext}. Keys are declared once per pipeline with
+ * {@link FlowContextLayout#key(String)}, which gives each of them a dense slot, so looking a value up is an array index.
+ *
+ * @param <Value> The type of value the key names
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class ContextKey<Value> {
+
+    final FlowContextLayout layout;
+    final int slot;
+    private final String name;
+
+    ContextKey(FlowContextLayout layout, int slot, String name) {
+        this.layout = layout;
+        this.slot = slot;
+        this.name = name;
+    }
+
+    /**
+     * @return The name the key was declared with
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String name() {
+        return name;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * The technical failure that a {@link FlowCodec} reads back. Only the class name and the message of the original
+ * technical failure are written, so this stands in for it and has no stack trace.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public class DecodedTechnicalFailure extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String exceptionClassName;
+
+    DecodedTechnicalFailure(String exceptionClassName, String message) {
+        super(message, null, false, false);
+        this.exceptionClassName = exceptionClassName;
+    }
+
+    /**
+     * @return The name of the class of the original technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String exceptionClassName() {
+        return exceptionClassName;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        String message = getLocalizedMessage();
+        return message == null ? exceptionClassName : exceptionClassName + ": " + message;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs a task after a delay, without blocking the thread that asks for it.
+ */
+@FunctionalInterface
+interface Delay {
+
+    /**
+     * @param delayNanos  How long to wait before running the task
+     * @param task        The task to run
+     * @param couldNotRun Called instead of the task if the task could not be handed to where it runs
+     */
+    void runAfter(long delayNanos, Runnable task, Consumer<RuntimeException> couldNotRun);
+}
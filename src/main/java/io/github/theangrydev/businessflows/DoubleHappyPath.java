@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link DoubleHappyPath} is a {@link HappyPath} that is specialised to a happy {@code double}, so that the happy
+ * value is never boxed, in the same way that a {@link java.util.stream.DoubleStream} is specialised from a
+ * {@link java.util.stream.Stream}. Use {@link #mapToObj(DoubleToObjectMapping)} or {@link #boxed()} to go back to a
+ * {@link HappyPath}.
+ *
+ * @param <Sad> The type of sad object this {@link DoubleHappyPath} may represent
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface DoubleHappyPath<Sad> {
+
+    /**
+     * Provides a {@link DoubleHappyPath} view over a known happy {@code double}.
+     *
+     * @param happy The happy value to initiate the flow with
+     * @param <Sad> The type of sad object the resulting {@link DoubleHappyPath} may represent
+     * @return A {@link DoubleHappyPath} that is happy on the inside
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static <Sad> DoubleHappyPath<Sad> happyPath(double happy) {
+        return new HappyCaseDoubleHappyPath<>(happy);
+    }
+
+    /**
+     * Provides a {@link DoubleHappyPath} view over a known {@link Sad} object.
+     *
+     * @param sad   The sad object to initiate the flow with
+     * @param <Sad> The type of sad object the resulting {@link DoubleHappyPath} may represent
+     * @return A {@link DoubleHappyPath} that is sad on the inside
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static <Sad> DoubleHappyPath<Sad> sadPath(Sad sad) {
+        return new SadCaseDoubleHappyPath<>(sad);
+    }
+
+    /**
+     * Provides a {@link DoubleHappyPath} view over a known {@link Exception} object.
+     *
+     * @param technicalFailure The technical failure object to initiate the flow with
+     * @param <Sad>            The type of sad object the resulting {@link DoubleHappyPath} may represent
+     * @return A {@link DoubleHappyPath} that is a technical failure on the inside
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static <Sad> DoubleHappyPath<Sad> technicalFailure(Exception technicalFailure) {
+        return new TechnicalFailureCaseDoubleHappyPath<>(technicalFailure);
+    }
+
+    /**
+     * If the underlying business case is happy, then apply the given action, otherwise do nothing to the underlying case.
+     *
+     * @param action The action to apply to an existing happy case
+     * @return The result of applying the action to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    DoubleHappyPath<Sad> then(DoubleToObjectMapping<? extends DoubleHappyPath<Sad>> action);
+
+    /**
+     * If the underlying business case is happy, then apply the given mapping, otherwise do nothing to the underlying case.
+     *
+     * @param mapping The mapping to apply to an existing happy case
+     * @return The result of applying the mapping to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    DoubleHappyPath<Sad> map(DoubleMapping mapping);
+
+    /**
+     * If the underlying business case is happy, then apply the given mapping to an object, otherwise do nothing to the
+     * underlying case.
+     *
+     * @param mapping    The mapping to apply to an existing happy case
+     * @param <NewHappy> The type of happy object that will be present after the mapping is applied to an existing happy value
+     * @return A {@link HappyPath} that is the result of applying the mapping to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    <NewHappy> HappyPath<NewHappy, Sad> mapToObj(DoubleToObjectMapping<NewHappy> mapping);
+
+    /**
+     * Attempt an action that might fail and be mapped to a {@link Sad} object.
+     *
+     * @param actionThatMightFail The action to apply if the underlying business case is happy
+     * @return The same {@link DoubleHappyPath} if the action did not fail; if the action failure then a {@link DoubleHappyPath} that is now sad inside
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    DoubleHappyPath<Sad> attempt(DoubleToObjectMapping<PotentialFailure<Sad>> actionThatMightFail);
+
+    /**
+     * Take a look at the happy case (if there really is one).
+     *
+     * @param peek What to do if the underlying business case is happy
+     * @return The same {@link DoubleHappyPath}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    DoubleHappyPath<Sad> peek(DoublePeek peek);
+
+    /**
+     * Box the happy {@code double}, to use the rest of the {@link HappyPath} API.
+     *
+     * @return A {@link HappyPath} that is happy, sad or a technical failure in the same way as this one
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    HappyPath<Double, Sad> boxed();
+
+    /**
+     * Join to a common {@code double} result. No matter what the underlying business case actually is, the result type is the same.
+     *
+     * @param happyJoiner            What to do if the underlying business case is happy
+     * @param sadJoiner              What to do if the underlying business case is sad
+     * @param technicalFailureJoiner What to do if the underlying business case is a technical failure, or if one of the other joiners fails
+     * @return The result after applying the joiner that corresponds to the underlying business case
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    double joinToDouble(DoubleMapping happyJoiner, ToDoubleMapping<Sad> sadJoiner, ToDoubleFunction<Exception> technicalFailureJoiner);
+
+    /**
+     * Join to a common result type. No matter what the underlying business case actually is, the result type is the same.
+     *
+     * @param happyJoiner            What to do if the underlying business case is happy
+     * @param sadJoiner              What to do if the underlying business case is sad
+     * @param technicalFailureJoiner What to do if the underlying business case is a technical failure, or if one of the other joiners fails
+     * @param <Result>               The type of the result
+     * @return The result after applying the joiner that corresponds to the underlying business case
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    <Result> Result join(DoubleToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner);
+
+    /**
+     * Consume the underlying business case.
+     *
+     * @param happyConsumer            What to do if the underlying business case is happy
+     * @param sadConsumer              What to do if the underlying business case is sad
+     * @param technicalFailureConsumer What to do if the underlying business case is a technical failure, or if one of the other consumers fails
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void consume(DoublePeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer);
+
+    /**
+     * @return True if the underlying business case is happy
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    boolean isHappy();
+
+    /**
+     * @return True if the underlying business case is sad
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    boolean isSad();
+
+    /**
+     * @return True if the underlying business case is a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    boolean isTechnicalFailure();
+
+    /**
+     * @return The happy {@code double}
+     * @throws IllegalStateException If the underlying business case is not happy
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    double getAsDouble();
+
+    /**
+     * @return The sad object
+     * @throws IllegalStateException If the underlying business case is not sad
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    Sad getSad();
+
+    /**
+     * @return The technical failure
+     * @throws IllegalStateException If the underlying business case is not a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    Exception getTechnicalFailure();
+}
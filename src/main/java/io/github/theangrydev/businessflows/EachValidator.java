@@ -0,0 +1,214 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+
+/**
+ * An {@link EachValidator} validates every element of a {@link List} that is extracted from a {@link Happy} object, for use
+ * with {@link ValidationPath#validateEach(EachValidator)}:
+ * <pre>{@code
+ * EachValidator<Order, LineItem, String> lineItems = EachValidator.<Order, LineItem, String>eachValidator(Order::lineItems, this::validateLineItem)
+ *     .maximumFailures(100)
+ *     .parallelAbove(1000, executor);
+ * }</pre>
+ * The elements are validated directly, without producing a {@link ValidationPath} for each one. The failures are
+ * accumulated in the order of the elements, and once the maximum number of failures has been found the rest of the
+ * elements are not validated, so that a collection that is completely invalid does not produce one failure per element.
+ *
+ * @param <Happy>   The type that contains the elements
+ * @param <Element> The type of element to validate
+ * @param <Sad>     The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class EachValidator<Happy, Element, Sad> {
+
+    private final Mapping<Happy, ? extends List<? extends Element>> elementsExtractor;
+    private final IndexedValidator<Element, Sad> validator;
+    private final int maximumFailures;
+    private final int parallelThreshold;
+    private final Executor executor;
+
+    private EachValidator(Mapping<Happy, ? extends List<? extends Element>> elementsExtractor, IndexedValidator<Element, Sad> validator, int maximumFailures, int parallelThreshold, Executor executor) {
+        this.elementsExtractor = elementsExtractor;
+        this.validator = validator;
+        this.maximumFailures = maximumFailures;
+        this.parallelThreshold = parallelThreshold;
+        this.executor = executor;
+    }
+
+    /**
+     * Produces an {@link EachValidator} that validates the elements one at a time and finds every failure.
+     *
+     * @param elementsExtractor Extracts the elements from the {@link Happy}
+     * @param validator         Validates an element, given its index, possibly producing a {@link Sad} failure
+     * @param <Happy>           The type that contains the elements
+     * @param <Element>         The type of element to validate
+     * @param <Sad>             The type of validation failure
+     * @return The validator
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Element, Sad> EachValidator<Happy, Element, Sad> eachValidator(Mapping<Happy, ? extends List<? extends Element>> elementsExtractor, IndexedValidator<Element, Sad> validator) {
+        return new EachValidator<>(elementsExtractor, validator, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * @param maximumFailures The number of failures to stop validating at
+     * @return A new {@link EachValidator} that reports at most the given number of failures, for the earliest elements
+     * @throws IllegalArgumentException If the maximum is not positive
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public EachValidator<Happy, Element, Sad> maximumFailures(int maximumFailures) {
+        if (maximumFailures <= 0) {
+            throw new IllegalArgumentException(format("The maximum number of failures must be positive but was %d", maximumFailures));
+        }
+        return new EachValidator<>(elementsExtractor, validator, maximumFailures, parallelThreshold, executor);
+    }
+
+    /**
+     * Validate collections that have more than the given number of elements in parallel. The collection is split into
+     * chunks of that many elements, which are validated on the executor while the calling thread waits. The failures
+     * are the same as they would be if the elements were validated one at a time.
+     *
+     * @param threshold The number of elements above which the validation is parallel, which is also the size of each chunk
+     * @param executor  Where to validate the chunks
+     * @return A new {@link EachValidator} that validates large collections in parallel
+     * @throws IllegalArgumentException If the threshold is not positive
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public EachValidator<Happy, Element, Sad> parallelAbove(int threshold, Executor executor) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException(format("The parallel threshold must be positive but was %d", threshold));
+        }
+        return new EachValidator<>(elementsExtractor, validator, maximumFailures, threshold, executor);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("EachValidator{maximumFailures=%d, parallelAbove=%s}", maximumFailures, executor == null ? "never" : parallelThreshold);
+    }
+
+    List<Sad> validationFailures(Happy happy) throws Exception {
+        List<? extends Element> elements = elementsExtractor.map(happy);
+        int size = elements.size();
+        if (executor == null || size <= parallelThreshold) {
+            Chunk chunk = new Chunk(0, 0, size);
+            chunk.validate(elements, null);
+            return failures(singletonList(chunk));
+        }
+        int numberOfChunks = (size + parallelThreshold - 1) / parallelThreshold;
+        List<Chunk> chunks = new ArrayList<>(numberOfChunks);
+        AtomicInteger firstFinishedChunk = new AtomicInteger(numberOfChunks);
+        CompletableFuture<?>[] running = new CompletableFuture<?>[numberOfChunks];
+        for (int number = 0; number < numberOfChunks; number++) {
+            int from = number * parallelThreshold;
+            Chunk chunk = new Chunk(number, from, Math.min(size, from + parallelThreshold));
+            chunks.add(chunk);
+            running[number] = CompletableFuture.runAsync(() -> chunk.validate(elements, firstFinishedChunk), executor);
+        }
+        try {
+            CompletableFuture.allOf(running).join();
+        } catch (CompletionException couldNotRun) {
+            throw couldNotRun.getCause() instanceof Exception ? (Exception) couldNotRun.getCause() : couldNotRun;
+        }
+        return failures(chunks);
+    }
+
+    /**
+     * Combine the chunks in order, the same way as if the elements had been validated one at a time. A chunk is only
+     * cut short by an earlier chunk that finished the validation, so a chunk that was cut short is never reached.
+     */
+    private List<Sad> failures(List<Chunk> chunks) throws Exception {
+        List<Sad> failures = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            for (Sad failure : chunk.failures) {
+                failures.add(failure);
+                if (failures.size() == maximumFailures) {
+                    return failures;
+                }
+            }
+            if (chunk.technicalFailure != null) {
+                throw chunk.technicalFailure;
+            }
+        }
+        return failures;
+    }
+
+    private final class Chunk {
+        private final int number;
+        private final int from;
+        private final int to;
+        private final List<Sad> failures = new ArrayList<>();
+        private Exception technicalFailure;
+
+        Chunk(int number, int from, int to) {
+            this.number = number;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * A chunk stops when it has found the maximum number of failures or a technical failure, since the elements
+         * after that point cannot change the outcome. The chunks after it stop as well.
+         */
+        void validate(List<? extends Element> elements, AtomicInteger firstFinishedChunk) {
+            for (int index = from; index < to; index++) {
+                if (firstFinishedChunk != null && firstFinishedChunk.get() < number) {
+                    return;
+                }
+                long enteredAtNanos = stageEntered(validator, VALIDATE);
+                PotentialFailure<Sad> potentialFailure;
+                Sad sad;
+                try {
+                    potentialFailure = validator.attempt(index, elements.get(index));
+                    sad = PotentialFailureFailure.sadOrNull(potentialFailure);
+                } catch (Exception technicalFailure) {
+                    this.technicalFailure = stageFailed(validator, VALIDATE, enteredAtNanos, technicalFailure);
+                    finish(firstFinishedChunk);
+                    return;
+                }
+                stageExited(validator, VALIDATE, enteredAtNanos, potentialFailure);
+                if (sad != null) {
+                    failures.add(sad);
+                    if (failures.size() == maximumFailures) {
+                        finish(firstFinishedChunk);
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void finish(AtomicInteger firstFinishedChunk) {
+            if (firstFinishedChunk != null) {
+                firstFinishedChunk.accumulateAndGet(number, Math::min);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * An {@link ExceptionMapping} is a {@link Mapping} from an {@link Exception} that dispatches on the type of the
+ * exception. It can be given to e.g. {@link HappyPath#happyAttempt(Attempt, Mapping)},
+ * {@link TechnicalFailure#recover(Mapping)} or {@link TechnicalFailure#mapToSadPath(Mapping)}:
+ * <pre>{@code
+ * ExceptionMapping<CheckoutError> checkoutErrors = ExceptionMapping.<CheckoutError>exceptionMapping()
+ *     .on(SocketTimeoutException.class, timeout -> CheckoutError.TIMED_OUT)
+ *     .on(IOException.class, io -> CheckoutError.UNAVAILABLE)
+ *     .otherwise(unexpected -> CheckoutError.UNKNOWN);
+ * }</pre>
+ * The handler that is used is the one registered for the most specific superclass of the exception. Which handler that
+ * is gets worked out once per concrete exception class and then cached, so mapping the same kind of exception again
+ * does not walk the class hierarchy. If there is no handler, the exception is thrown again, which is a technical failure.
+ *
+ * @param <Result> The type of result the exceptions are mapped to
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class ExceptionMapping<Result> implements Mapping<Exception, Result> {
+
+    private final Map<Class<?>, Mapping<? super Exception, ? extends Result>> handlers;
+    private final Mapping<? super Exception, ? extends Result> otherwise;
+    private final ClassValue<Mapping<? super Exception, ? extends Result>> resolved = new ClassValue<Mapping<? super Exception, ? extends Result>>() {
+        @Override
+        protected Mapping<? super Exception, ? extends Result> computeValue(Class<?> exceptionClass) {
+            return resolve(exceptionClass);
+        }
+    };
+
+    private ExceptionMapping(Map<Class<?>, Mapping<? super Exception, ? extends Result>> handlers, Mapping<? super Exception, ? extends Result> otherwise) {
+        this.handlers = handlers;
+        this.otherwise = otherwise;
+    }
+
+    /**
+     * @param <Result> The type of result the exceptions are mapped to
+     * @return An {@link ExceptionMapping} without any handlers, that throws every exception again
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Result> ExceptionMapping<Result> exceptionMapping() {
+        return new ExceptionMapping<>(unmodifiableMap(new LinkedHashMap<>()), exception -> {
+            throw exception;
+        });
+    }
+
+    /**
+     * Handle exceptions of the given type, and its subtypes that do not have a more specific handler.
+     *
+     * @param exceptionType The type of exception to handle
+     * @param handler       The mapping to apply to the exception
+     * @param <Handled>     The type of exception to handle
+     * @return A new {@link ExceptionMapping} that has the handler as well as all the handlers in this one
+     * @throws IllegalArgumentException If there is already a handler for the exception type
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Handled extends Exception> ExceptionMapping<Result> on(Class<Handled> exceptionType, Mapping<? super Handled, ? extends Result> handler) {
+        if (handlers.containsKey(exceptionType)) {
+            throw new IllegalArgumentException(format("There is already a handler for '%s'", exceptionType.getName()));
+        }
+        Map<Class<?>, Mapping<? super Exception, ? extends Result>> withHandler = new LinkedHashMap<>(handlers);
+        withHandler.put(exceptionType, exception -> handler.map(exceptionType.cast(exception)));
+        return new ExceptionMapping<>(unmodifiableMap(withHandler), otherwise);
+    }
+
+    /**
+     * Handle exceptions that do not have a handler for their type, instead of throwing them again.
+     *
+     * @param handler The mapping to apply to the exception
+     * @return A new {@link ExceptionMapping} that has all the handlers in this one and falls back to the given one
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public ExceptionMapping<Result> otherwise(Mapping<? super Exception, ? extends Result> handler) {
+        return new ExceptionMapping<>(handlers, handler);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public Result map(Exception exception) throws Exception {
+        return resolved.get(exception.getClass()).map(exception);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return "ExceptionMapping" + handlers.keySet();
+    }
+
+    private Mapping<? super Exception, ? extends Result> resolve(Class<?> exceptionClass) {
+        for (Class<?> type = exceptionClass; type != null; type = type.getSuperclass()) {
+            Mapping<? super Exception, ? extends Result> handler = handlers.get(type);
+            if (handler != null) {
+                return handler;
+            }
+        }
+        return otherwise;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * A {@link FailureFingerprint} stands for all the technical failures that have the same exception class and the same
+ * top stack frames. It keeps the first of them as a representative and counts how many there have been.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FailureFingerprint {
+
+    private final Class<? extends Exception> exceptionClass;
+    private final StackTraceElement[] topFrames;
+    private final int hash;
+    private final Exception representative;
+    private final LongAdder occurrences = new LongAdder();
+
+    FailureFingerprint(Class<? extends Exception> exceptionClass, StackTraceElement[] topFrames, int hash, Exception representative) {
+        this.exceptionClass = exceptionClass;
+        this.topFrames = topFrames;
+        this.hash = hash;
+        this.representative = representative;
+    }
+
+    static int hash(Class<?> exceptionClass, StackTraceElement[] stackTrace, int frames) {
+        int hash = exceptionClass.hashCode();
+        for (int frame = 0; frame < frames; frame++) {
+            hash = 31 * hash + stackTrace[frame].hashCode();
+        }
+        return hash;
+    }
+
+    boolean matches(Class<?> exceptionClass, StackTraceElement[] stackTrace, int frames, int hash) {
+        if (this.hash != hash || !this.exceptionClass.equals(exceptionClass) || topFrames.length != frames) {
+            return false;
+        }
+        for (int frame = 0; frame < frames; frame++) {
+            if (!topFrames[frame].equals(stackTrace[frame])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int hash() {
+        return hash;
+    }
+
+    void occurred() {
+        occurrences.increment();
+    }
+
+    /**
+     * @return The class of the exceptions
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Class<? extends Exception> exceptionClass() {
+        return exceptionClass;
+    }
+
+    /**
+     * @return The first exception that was seen with this fingerprint, which the others are interned to
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Exception representative() {
+        return representative;
+    }
+
+    /**
+     * @return How many exceptions have been seen with this fingerprint
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long occurrences() {
+        return occurrences.sum();
+    }
+
+    /**
+     * @return A one line summary: how many times the failure occurred, the exception and the top stack frame
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String summary() {
+        String topFrame = topFrames.length == 0 ? "" : " at " + topFrames[0];
+        return format("%d x %s%s", occurrences(), representative, topFrame);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        FailureFingerprint that = (FailureFingerprint) other;
+        return hash == that.hash && exceptionClass.equals(that.exceptionClass) && Arrays.equals(topFrames, that.topFrames);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
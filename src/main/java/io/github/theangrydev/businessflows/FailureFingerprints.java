@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * {@link FailureFingerprints} deduplicates technical failures during an outage, when many flows fail in the same way.
+ * <p>
+ * Each failure is fingerprinted by its exception class and its top stack frames. The first failure with a fingerprint
+ * becomes the representative for it, and later failures with the same fingerprint are counted and can be replaced by
+ * the representative with {@link #intern(Exception)}, e.g. with {@code technicalFailure.map(fingerprints::intern)}.
+ * That way only one stack trace per fingerprint stays on the heap, and {@link #summary()} logs one line per fingerprint
+ * rather than one stack trace per failure.
+ * <p>
+ * The number of fingerprints is bounded, so memory stays flat however many failures there are. Once the bound is
+ * reached, failures with a new fingerprint are only counted in {@link #unfingerprinted()}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FailureFingerprints {
+
+    private final int topFrames;
+    private final int maximumFingerprints;
+    private final AtomicInteger fingerprintCount = new AtomicInteger();
+    private final LongAdder unfingerprinted = new LongAdder();
+    private volatile AtomicReferenceArray<FailureFingerprint> table;
+
+    private FailureFingerprints(int topFrames, int maximumFingerprints) {
+        this.topFrames = topFrames;
+        this.maximumFingerprints = maximumFingerprints;
+        this.table = newTable(maximumFingerprints);
+    }
+
+    /**
+     * @param topFrames           How many of the top stack frames are part of the fingerprint
+     * @param maximumFingerprints How many different fingerprints to keep at most
+     * @return A {@link FailureFingerprints} that has not seen any failures yet
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FailureFingerprints failureFingerprints(int topFrames, int maximumFingerprints) {
+        if (topFrames < 0 || maximumFingerprints < 1) {
+            throw new IllegalArgumentException(format("Top frames must not be negative and maximum fingerprints must be positive but were %d and %d", topFrames, maximumFingerprints));
+        }
+        return new FailureFingerprints(topFrames, maximumFingerprints);
+    }
+
+    /**
+     * Count the failure against its fingerprint.
+     *
+     * @param technicalFailure The failure to fingerprint
+     * @return The fingerprint of the failure, or empty if it has a new fingerprint and there is no room for any more
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Optional<FailureFingerprint> fingerprint(Exception technicalFailure) {
+        return Optional.ofNullable(occurred(technicalFailure));
+    }
+
+    /**
+     * Count the failure against its fingerprint and replace it with the representative of the fingerprint.
+     *
+     * @param technicalFailure The failure to intern
+     * @return The first failure that was seen with the same fingerprint, or the failure itself if there was no room for it
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Exception intern(Exception technicalFailure) {
+        FailureFingerprint fingerprint = occurred(technicalFailure);
+        return fingerprint == null ? technicalFailure : fingerprint.representative();
+    }
+
+    /**
+     * @return The fingerprints seen so far, the most frequent first
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<FailureFingerprint> fingerprints() {
+        AtomicReferenceArray<FailureFingerprint> table = this.table;
+        List<FailureFingerprint> fingerprints = new ArrayList<>();
+        for (int index = 0; index < table.length(); index++) {
+            FailureFingerprint fingerprint = table.get(index);
+            if (fingerprint != null) {
+                fingerprints.add(fingerprint);
+            }
+        }
+        fingerprints.sort(comparingLong(FailureFingerprint::occurrences).reversed());
+        return fingerprints;
+    }
+
+    /**
+     * @return How many failures were not fingerprinted because there was no room for their fingerprint
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long unfingerprinted() {
+        return unfingerprinted.sum();
+    }
+
+    /**
+     * @return One line per fingerprint, the most frequent first, followed by how many failures were not fingerprinted
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (FailureFingerprint fingerprint : fingerprints()) {
+            summary.append(fingerprint.summary()).append(format("%n"));
+        }
+        long unfingerprinted = unfingerprinted();
+        if (unfingerprinted > 0) {
+            summary.append(format("%d x not fingerprinted%n", unfingerprinted));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Forget all the fingerprints, e.g. once an outage is over.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void reset() {
+        table = newTable(maximumFingerprints);
+        fingerprintCount.set(0);
+        unfingerprinted.reset();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("FailureFingerprints{fingerprints=%d, unfingerprinted=%d}", fingerprintCount.get(), unfingerprinted());
+    }
+
+    private FailureFingerprint occurred(Exception technicalFailure) {
+        Class<? extends Exception> exceptionClass = technicalFailure.getClass();
+        StackTraceElement[] stackTrace = technicalFailure.getStackTrace();
+        int frames = min(topFrames, stackTrace.length);
+        int hash = FailureFingerprint.hash(exceptionClass, stackTrace, frames);
+        AtomicReferenceArray<FailureFingerprint> table = this.table;
+        int mask = table.length() - 1;
+        for (int probe = 0; probe < table.length(); probe++) {
+            int index = (spread(hash) + probe) & mask;
+            FailureFingerprint fingerprint = table.get(index);
+            if (fingerprint == null) {
+                if (fingerprintCount.get() >= maximumFingerprints) {
+                    break;
+                }
+                fingerprint = claim(table, index, new FailureFingerprint(exceptionClass, Arrays.copyOf(stackTrace, frames), hash, technicalFailure));
+                if (fingerprint == null) {
+                    break;
+                }
+            }
+            if (fingerprint.matches(exceptionClass, stackTrace, frames, hash)) {
+                fingerprint.occurred();
+                return fingerprint;
+            }
+        }
+        unfingerprinted.increment();
+        return null;
+    }
+
+    private FailureFingerprint claim(AtomicReferenceArray<FailureFingerprint> table, int index, FailureFingerprint fingerprint) {
+        if (fingerprintCount.incrementAndGet() > maximumFingerprints) {
+            fingerprintCount.decrementAndGet();
+            return null;
+        }
+        if (table.compareAndSet(index, null, fingerprint)) {
+            return fingerprint;
+        }
+        fingerprintCount.decrementAndGet();
+        return table.get(index);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static AtomicReferenceArray<FailureFingerprint> newTable(int maximumFingerprints) {
+        return new AtomicReferenceArray<>(Integer.highestOneBit(maximumFingerprints * 2 - 1) << 1);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free, time based sliding window that counts successful and failed calls.
+ * <p>
+ * The window is split into buckets that are reused as time moves on. A bucket that is reused is reset by whichever
+ * thread wins the race to claim it, so counts that land in the same bucket during the reset may be dropped. This is an
+ * acceptable trade for never blocking a caller.
+ */
+class FailureRateWindow {
+
+    private static final long UNUSED = -1;
+
+    private final int buckets;
+    private final long bucketNanos;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+
+    FailureRateWindow(int buckets, long windowNanos) {
+        this.buckets = buckets;
+        this.bucketNanos = Math.max(1, windowNanos / buckets);
+        this.epochs = new AtomicLongArray(buckets);
+        this.successes = new AtomicLongArray(buckets);
+        this.failures = new AtomicLongArray(buckets);
+        reset();
+    }
+
+    void recordSuccess(long nanos) {
+        successes.incrementAndGet(bucketFor(nanos));
+    }
+
+    void recordFailure(long nanos) {
+        failures.incrementAndGet(bucketFor(nanos));
+    }
+
+    long calls(long nanos) {
+        long currentEpoch = epoch(nanos);
+        long calls = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (inWindow(bucket, currentEpoch)) {
+                calls += successes.get(bucket) + failures.get(bucket);
+            }
+        }
+        return calls;
+    }
+
+    double failureRate(long nanos) {
+        long currentEpoch = epoch(nanos);
+        long calls = 0;
+        long failed = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (inWindow(bucket, currentEpoch)) {
+                long bucketFailures = failures.get(bucket);
+                calls += successes.get(bucket) + bucketFailures;
+                failed += bucketFailures;
+            }
+        }
+        return calls == 0 ? 0 : (double) failed / calls;
+    }
+
+    final void reset() {
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            epochs.set(bucket, UNUSED);
+            successes.set(bucket, 0);
+            failures.set(bucket, 0);
+        }
+    }
+
+    private boolean inWindow(int bucket, long currentEpoch) {
+        long bucketEpoch = epochs.get(bucket);
+        return bucketEpoch != UNUSED && currentEpoch - bucketEpoch < buckets;
+    }
+
+    private int bucketFor(long nanos) {
+        long epoch = epoch(nanos);
+        int bucket = (int) (epoch % buckets);
+        long bucketEpoch = epochs.get(bucket);
+        if (bucketEpoch != epoch && epochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+            successes.set(bucket, 0);
+            failures.set(bucket, 0);
+        }
+        return bucket;
+    }
+
+    private long epoch(long nanos) {
+        return nanos / bucketNanos;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * Receives the validation failures from a {@link StreamingValidator} as they are found, e.g. to write them to a file,
+ * so that they do not have to be held in memory.
+ *
+ * @param <Record> The type of record that was validated
+ * @param <Sad>    The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+@FunctionalInterface
+public interface FailureSink<Record, Sad> {
+
+    /**
+     * Called once per validation failure, in the order of the records, always from the thread that called
+     * {@link StreamingValidator#validate(java.util.Iterator)}.
+     *
+     * @param recordNumber The position of the record in the input, starting from zero
+     * @param record       The record that failed the validation
+     * @param failure      The validation failure
+     * @throws Exception If the failure could not be handled, which stops the validation
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void failed(long recordNumber, Record record, Sad failure) throws Exception;
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * A {@link FieldView} is a {@link CharSequence} that reads a segment of a {@code byte[]} or a {@link ByteBuffer}, such as
+ * a {@link java.nio.MappedByteBuffer}, in place. Each byte is one {@code char}, the same as ISO-8859-1, which suits
+ * formats like CSV where the delimiters are ASCII.
+ * <p>
+ * Extracting a field with {@link #delimitedField(char, int)} or {@link #fixedWidthField(int, int)} and validating it
+ * with the {@link FieldViewValidators} does not copy the bytes or produce a {@link String}, so raw records can be
+ * validated with a {@link FieldValidator} without allocating a {@link String} per field:
+ * <pre>{@code
+ * Validator<FieldView, String> quantity = FieldValidator.fieldValidator(FieldView.delimitedField(',', 3), FieldViewValidators.longBetween(1, 1000, "quantity out of range"));
+ * Iterator<FieldView> lines = FieldView.lines(fileChannel.map(READ_ONLY, 0, fileChannel.size()));
+ * }</pre>
+ * A view is only valid for as long as the bytes it reads are not changed. Use {@link #toString()} to keep a copy.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FieldView implements CharSequence {
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final byte[] array;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    private FieldView(byte[] array, ByteBuffer buffer, int offset, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param bytes  The bytes to view
+     * @param offset The index of the first byte of the field
+     * @param length The number of bytes in the field
+     * @return A view of the segment of the bytes
+     * @throws IndexOutOfBoundsException If the segment is not within the bytes
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FieldView fieldView(byte[] bytes, int offset, int length) {
+        checkSegment(offset, length, bytes.length);
+        return new FieldView(bytes, null, offset, length);
+    }
+
+    /**
+     * The view reads the buffer with absolute gets, so the position and limit of the buffer are not used or changed.
+     *
+     * @param buffer The buffer to view
+     * @param offset The index of the first byte of the field
+     * @param length The number of bytes in the field
+     * @return A view of the segment of the buffer
+     * @throws IndexOutOfBoundsException If the segment is not within the capacity of the buffer
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FieldView fieldView(ByteBuffer buffer, int offset, int length) {
+        checkSegment(offset, length, buffer.capacity());
+        if (buffer.hasArray()) {
+            return new FieldView(buffer.array(), null, buffer.arrayOffset() + offset, length);
+        }
+        return new FieldView(null, buffer, offset, length);
+    }
+
+    /**
+     * Split the bytes between the position and the limit of the buffer into lines, without changing the position. A line
+     * ends with {@code \n} or {@code \r\n}, which are not part of the view, or at the limit.
+     *
+     * @param buffer The buffer to split into lines
+     * @return The lines, one at a time
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static Iterator<FieldView> lines(ByteBuffer buffer) {
+        FieldView whole = fieldView(buffer, 0, buffer.capacity());
+        int limit = buffer.limit();
+        int position = buffer.position();
+        return new Iterator<FieldView>() {
+            private int next = position;
+
+            @Override
+            public boolean hasNext() {
+                return next < limit;
+            }
+
+            @Override
+            public FieldView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int start = next;
+                int end = start;
+                while (end < limit && whole.byteAt(end) != '\n') {
+                    end++;
+                }
+                next = end + 1;
+                if (end > start && whole.byteAt(end - 1) == '\r') {
+                    end--;
+                }
+                return whole.subSequence(start, end);
+            }
+        };
+    }
+
+    /**
+     * Extracts the field at the given position from a delimited record, such as a line of a CSV file. Quoting is not
+     * supported. A field that is beyond the end of the record is empty.
+     *
+     * @param delimiter The {@code char} between fields, which must be a single byte
+     * @param field     The position of the field, starting from zero
+     * @return A {@link Mapping} from a record to a view of the field
+     * @throws IllegalArgumentException If the delimiter is not a single byte or the field is negative
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static Mapping<FieldView, FieldView> delimitedField(char delimiter, int field) {
+        if (delimiter > 0xFF || field < 0) {
+            throw new IllegalArgumentException(format("The delimiter must be a single byte and the field must not be negative but they were '%s' and %d", delimiter, field));
+        }
+        byte delimiterByte = (byte) delimiter;
+        return record -> {
+            int start = 0;
+            for (int skipped = 0; skipped < field; skipped++) {
+                int delimiterAt = record.indexOf(delimiterByte, start);
+                if (delimiterAt < 0) {
+                    return record.subSequence(record.length, record.length);
+                }
+                start = delimiterAt + 1;
+            }
+            int end = record.indexOf(delimiterByte, start);
+            return record.subSequence(start, end < 0 ? record.length : end);
+        };
+    }
+
+    /**
+     * Extracts the field at the given columns of a fixed width record. The part of the field that is beyond the end of
+     * the record is left out.
+     *
+     * @param offset The index of the first byte of the field in the record
+     * @param length The number of bytes in the field
+     * @return A {@link Mapping} from a record to a view of the field
+     * @throws IllegalArgumentException If the offset or length is negative
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static Mapping<FieldView, FieldView> fixedWidthField(int offset, int length) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException(format("The offset and length must not be negative but were %d and %d", offset, length));
+        }
+        return record -> {
+            int start = Math.min(offset, record.length);
+            return record.subSequence(start, Math.min(record.length, start + length));
+        };
+    }
+
+    /**
+     * @param index The index of the byte in the field
+     * @return The byte
+     * @throws IndexOutOfBoundsException If the index is not within the field
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public byte byteAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(format("Index %d is not within the field of length %d", index, length));
+        }
+        return array != null ? array[offset + index] : buffer.get(offset + index);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public char charAt(int index) {
+        return (char) (byteAt(index) & 0xFF);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public FieldView subSequence(int start, int end) {
+        checkSegment(start, end - start, length);
+        return new FieldView(array, buffer, offset + start, end - start);
+    }
+
+    /**
+     * @return A copy of the field as a {@link String}, which is the only method that allocates one
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        if (array != null) {
+            return new String(array, offset, length, ISO_8859_1);
+        }
+        byte[] copy = length == 0 ? NO_BYTES : new byte[length];
+        for (int index = 0; index < length; index++) {
+            copy[index] = buffer.get(offset + index);
+        }
+        return new String(copy, ISO_8859_1);
+    }
+
+    private int indexOf(byte target, int from) {
+        for (int index = from; index < length; index++) {
+            if (byteAt(index) == target) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkSegment(int offset, int length, int available) {
+        if (offset < 0 || length < 0 || offset > available - length) {
+            throw new IndexOutOfBoundsException(format("The segment at %d of length %d is not within the %d bytes", offset, length, available));
+        }
+    }
+}
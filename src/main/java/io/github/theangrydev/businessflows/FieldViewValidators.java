@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * {@link Validator}s for fields that work on any {@link CharSequence}, including a {@link FieldView}, without producing a
+ * {@link String}. Each validator produces the same {@link PotentialFailure} every time it fails, so that passing and
+ * failing do not allocate anything.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FieldViewValidators {
+
+    private FieldViewValidators() {
+    }
+
+    /**
+     * @param minimum The fewest characters the field may have
+     * @param maximum The most characters the field may have
+     * @param failure The failure if the length is not between the minimum and the maximum, inclusive
+     * @param <Field> The type of field
+     * @param <Sad>   The type of validation failure
+     * @return A validator of the length of the field
+     * @throws IllegalArgumentException If the minimum is negative or more than the maximum
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Field extends CharSequence, Sad> Validator<Field, Sad> length(int minimum, int maximum, Sad failure) {
+        if (minimum < 0 || minimum > maximum) {
+            throw new IllegalArgumentException(format("The length must be between a minimum and a maximum but they were %d and %d", minimum, maximum));
+        }
+        PotentialFailure<Sad> failed = PotentialFailure.failure(failure);
+        return field -> field.length() < minimum || field.length() > maximum ? failed : PotentialFailure.success();
+    }
+
+    /**
+     * @param failure The failure if there is a character that is not ASCII
+     * @param <Field> The type of field
+     * @param <Sad>   The type of validation failure
+     * @return A validator that every character of the field is ASCII
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Field extends CharSequence, Sad> Validator<Field, Sad> ascii(Sad failure) {
+        PotentialFailure<Sad> failed = PotentialFailure.failure(failure);
+        return field -> {
+            for (int index = 0; index < field.length(); index++) {
+                if (field.charAt(index) > 0x7F) {
+                    return failed;
+                }
+            }
+            return PotentialFailure.success();
+        };
+    }
+
+    /**
+     * Check that the bytes of the field are well formed UTF-8, without decoding them. Overlong encodings, surrogates and
+     * code points above {@code U+10FFFF} are not well formed.
+     *
+     * @param failure The failure if the bytes are not well formed UTF-8
+     * @param <Sad>   The type of validation failure
+     * @return A validator that the bytes of the field are UTF-8
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Sad> Validator<FieldView, Sad> utf8(Sad failure) {
+        PotentialFailure<Sad> failed = PotentialFailure.failure(failure);
+        return field -> wellFormedUtf8(field) ? PotentialFailure.success() : failed;
+    }
+
+    /**
+     * The {@link Matcher} for the pattern is kept per thread and reused, so only the first match on a thread allocates.
+     *
+     * @param pattern The pattern that the whole field must match
+     * @param failure The failure if the field does not match
+     * @param <Field> The type of field
+     * @param <Sad>   The type of validation failure
+     * @return A validator that the field matches the pattern
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Field extends CharSequence, Sad> Validator<Field, Sad> matches(Pattern pattern, Sad failure) {
+        PotentialFailure<Sad> failed = PotentialFailure.failure(failure);
+        ThreadLocal<Matcher> matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+        return field -> {
+            Matcher matcher = matchers.get().reset(field);
+            boolean matches = matcher.matches();
+            matcher.reset("");
+            return matches ? PotentialFailure.success() : failed;
+        };
+    }
+
+    /**
+     * @param minimum The smallest number the field may be
+     * @param maximum The largest number the field may be
+     * @param failure The failure if the field is not a decimal integer between the minimum and the maximum, inclusive
+     * @param <Field> The type of field
+     * @param <Sad>   The type of validation failure
+     * @return A validator that the field is a number in the range
+     * @throws IllegalArgumentException If the minimum is more than the maximum
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Field extends CharSequence, Sad> Validator<Field, Sad> longBetween(long minimum, long maximum, Sad failure) {
+        if (minimum > maximum) {
+            throw new IllegalArgumentException(format("The minimum must not be more than the maximum but they were %d and %d", minimum, maximum));
+        }
+        PotentialFailure<Sad> failed = PotentialFailure.failure(failure);
+        return field -> inRange(field, minimum, maximum) ? PotentialFailure.success() : failed;
+    }
+
+    /**
+     * Parse the number as a negative number, which has a larger range, so that {@link Long#MIN_VALUE} does not overflow.
+     */
+    private static boolean inRange(CharSequence field, long minimum, long maximum) {
+        int length = field.length();
+        if (length == 0) {
+            return false;
+        }
+        char sign = field.charAt(0);
+        boolean negative = sign == '-';
+        int index = negative || sign == '+' ? 1 : 0;
+        if (index == length) {
+            return false;
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long negated = 0;
+        for (; index < length; index++) {
+            int digit = field.charAt(index) - '0';
+            if (digit < 0 || digit > 9 || negated < limit / 10) {
+                return false;
+            }
+            negated *= 10;
+            if (negated < limit + digit) {
+                return false;
+            }
+            negated -= digit;
+        }
+        long number = negative ? negated : -negated;
+        return number >= minimum && number <= maximum;
+    }
+
+    private static boolean wellFormedUtf8(FieldView field) {
+        int length = field.length();
+        int index = 0;
+        while (index < length) {
+            int first = field.byteAt(index) & 0xFF;
+            if (first < 0x80) {
+                index++;
+                continue;
+            }
+            int continuations;
+            int lowest;
+            int highest = 0xBF;
+            if (first >= 0xC2 && first <= 0xDF) {
+                continuations = 1;
+                lowest = 0x80;
+            } else if (first >= 0xE0 && first <= 0xEF) {
+                continuations = 2;
+                lowest = first == 0xE0 ? 0xA0 : 0x80;
+                highest = first == 0xED ? 0x9F : 0xBF;
+            } else if (first >= 0xF0 && first <= 0xF4) {
+                continuations = 3;
+                lowest = first == 0xF0 ? 0x90 : 0x80;
+                highest = first == 0xF4 ? 0x8F : 0xBF;
+            } else {
+                return false;
+            }
+            if (index + continuations >= length) {
+                return false;
+            }
+            int second = field.byteAt(index + 1) & 0xFF;
+            if (second < lowest || second > highest) {
+                return false;
+            }
+            for (int continuation = 2; continuation <= continuations; continuation++) {
+                int next = field.byteAt(index + continuation) & 0xFF;
+                if (next < 0x80 || next > 0xBF) {
+                    return false;
+                }
+            }
+            index += continuations + 1;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Emits a {@link FlowStageEvent} for each stage, while the Java Flight Recorder is recording.
+ * <p>
+ * This is only loaded once it is known that the JVM has the {@code jdk.jfr} module, see {@link FlowFlightRecorder}.
+ */
+final class FlightRecorderFlowListener implements FlowListener, FlightRecorderListener {
+
+    static final FlightRecorderFlowListener INSTANCE = new FlightRecorderFlowListener();
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(FlowStageEvent.class);
+
+    /**
+     * Replaced when the listener is unregistered, since the stages that were in progress will not be seen to exit.
+     */
+    private volatile ThreadLocal<Deque<FlowStageEvent>> stagesInProgress = newStagesInProgress();
+    private boolean installed;
+    private boolean registered;
+
+    private FlightRecorderFlowListener() {
+    }
+
+    synchronized boolean install() {
+        if (installed) {
+            return true;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            return false;
+        }
+        installed = true;
+        FlightRecorder.addListener(this);
+        if (FlightRecorder.isInitialized()) {
+            updateRegistration();
+        }
+        return true;
+    }
+
+    synchronized void uninstall() {
+        if (!installed) {
+            return;
+        }
+        installed = false;
+        FlightRecorder.removeListener(this);
+        unregister();
+    }
+
+    @Override
+    public void recorderInitialized(FlightRecorder recorder) {
+        updateRegistration();
+    }
+
+    @Override
+    public void recordingStateChanged(Recording recording) {
+        updateRegistration();
+    }
+
+    @Override
+    public void stageEntered(StageLabel label) {
+        if (!STAGE_EVENT.isEnabled()) {
+            return;
+        }
+        FlowStageEvent event = new FlowStageEvent();
+        event.label = label;
+        event.begin();
+        stagesInProgress.get().push(event);
+    }
+
+    @Override
+    public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+        Deque<FlowStageEvent> stages = stagesInProgress.get();
+        FlowStageEvent event = stages.peek();
+        if (event == null || !label.equals(event.label)) {
+            return;
+        }
+        stages.pop();
+        event.end();
+        if (event.shouldCommit()) {
+            event.flow = label.flow();
+            event.stage = label.stage();
+            event.outcome = outcome.name();
+            if (outcome == FlowOutcome.TECHNICAL_FAILURE && result != null) {
+                event.technicalFailure = result.getClass();
+            }
+            event.commit();
+        }
+    }
+
+    private synchronized void updateRegistration() {
+        if (installed && isRecording()) {
+            register();
+        } else {
+            unregister();
+        }
+    }
+
+    private static boolean isRecording() {
+        for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register() {
+        if (!registered) {
+            registered = true;
+            FlowListeners.register(this);
+        }
+    }
+
+    private void unregister() {
+        if (registered) {
+            registered = false;
+            FlowListeners.unregister(this);
+            stagesInProgress = newStagesInProgress();
+        }
+    }
+
+    private static ThreadLocal<Deque<FlowStageEvent>> newStagesInProgress() {
+        return ThreadLocal.withInitial(ArrayDeque::new);
+    }
+}
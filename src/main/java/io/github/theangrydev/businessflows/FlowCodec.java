@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.Varints.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link FlowCodec} writes a {@link BusinessFlow} to a {@link ByteBuffer} in a compact binary form and reads it back,
+ * e.g. to cache the result of a flow or to hand it to another process.
+ * <p>
+ * A flow is written as a one byte tag for the outcome, the length of the payload as a varint and then the payload.
+ * The payload of a happy or sad flow is written by the {@link ValueCodec} for it. A technical failure is written as the
+ * class name and message of the exception, without the stack trace, and is read back as a {@link DecodedTechnicalFailure}.
+ * <p>
+ * Flows are written straight into the given buffer, which may be a heap or a direct buffer, and read straight out of it.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowCodec<Happy, Sad> {
+
+    static final byte HAPPY = 0;
+    static final byte SAD = 1;
+    static final byte TECHNICAL_FAILURE = 2;
+
+    private final ValueCodec<Happy> happyCodec;
+    private final ValueCodec<Sad> sadCodec;
+
+    private FlowCodec(ValueCodec<Happy> happyCodec, ValueCodec<Sad> sadCodec) {
+        this.happyCodec = happyCodec;
+        this.sadCodec = sadCodec;
+    }
+
+    /**
+     * @param happyCodec The {@link ValueCodec} for the happy objects
+     * @param sadCodec   The {@link ValueCodec} for the sad objects
+     * @param <Happy>    The type of happy object in the flows
+     * @param <Sad>      The type of sad object in the flows
+     * @return A {@link FlowCodec} that uses the given {@link ValueCodec ValueCodecs}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Sad> FlowCodec<Happy, Sad> flowCodec(ValueCodec<Happy> happyCodec, ValueCodec<Sad> sadCodec) {
+        return new FlowCodec<>(happyCodec, sadCodec);
+    }
+
+    /**
+     * @param flow The flow that will be written
+     * @return The exact number of bytes {@link #write(BusinessFlow, ByteBuffer)} will write for the flow
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int encodedLength(BusinessFlow<Happy, Sad> flow) {
+        return flowLength(payloadLength(flow));
+    }
+
+    /**
+     * Write the flow at the position of the buffer, advancing it by {@link #encodedLength(BusinessFlow)}.
+     *
+     * @param flow   The flow to write
+     * @param buffer The buffer to write to
+     * @throws BufferOverflowException If there is not enough room remaining in the buffer, in which case nothing is written
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @SuppressWarnings("unchecked") // The cases of a BusinessFlow<Happy, Sad> have the same Happy and Sad
+    public void write(BusinessFlow<Happy, Sad> flow, ByteBuffer buffer) {
+        int payloadLength = payloadLength(flow);
+        if (buffer.remaining() < flowLength(payloadLength)) {
+            throw new BufferOverflowException();
+        }
+        if (flow instanceof HappyCase) {
+            writeHappy(((HappyCase<Happy, Sad>) flow).happy, payloadLength, buffer);
+        } else if (flow instanceof SadCase) {
+            writeSad(((SadCase<Happy, Sad>) flow).sad, payloadLength, buffer);
+        } else {
+            writeTechnicalFailure(((TechnicalFailureCase<Happy, Sad>) flow).technicalFailure, payloadLength, buffer);
+        }
+    }
+
+    /**
+     * @param payloadLength The length of the payload of a flow
+     * @return The number of bytes the flow takes up, including the tag and the length of the payload
+     */
+    static int flowLength(int payloadLength) {
+        return 1 + varintLength(payloadLength) + payloadLength;
+    }
+
+    int happyPayloadLength(Happy happy) {
+        return happyCodec.encodedLength(happy);
+    }
+
+    int sadPayloadLength(Sad sad) {
+        return sadCodec.encodedLength(sad);
+    }
+
+    static int technicalFailurePayloadLength(Exception technicalFailure) {
+        String message = technicalFailure.getMessage();
+        int messageLength = message == null ? 0 : StringCodec.INSTANCE.encodedLength(message);
+        return stringLength(exceptionClassName(technicalFailure)) + varintLength(message == null ? 0 : messageLength + 1) + messageLength;
+    }
+
+    void writeHappy(Happy happy, int payloadLength, ByteBuffer buffer) {
+        buffer.put(HAPPY);
+        writeVarint(payloadLength, buffer);
+        happyCodec.encode(happy, buffer);
+    }
+
+    void writeSad(Sad sad, int payloadLength, ByteBuffer buffer) {
+        buffer.put(SAD);
+        writeVarint(payloadLength, buffer);
+        sadCodec.encode(sad, buffer);
+    }
+
+    static void writeTechnicalFailure(Exception technicalFailure, int payloadLength, ByteBuffer buffer) {
+        buffer.put(TECHNICAL_FAILURE);
+        writeVarint(payloadLength, buffer);
+        writeString(exceptionClassName(technicalFailure), buffer);
+        String message = technicalFailure.getMessage();
+        if (message == null) {
+            writeVarint(0, buffer);
+        } else {
+            writeVarint(StringCodec.INSTANCE.encodedLength(message) + 1, buffer);
+            StringCodec.INSTANCE.encode(message, buffer);
+        }
+    }
+
+    /**
+     * Read a flow that was written by {@link #write(BusinessFlow, ByteBuffer)} at the position of the buffer,
+     * advancing it past the flow.
+     *
+     * @param buffer The buffer to read from
+     * @return The flow that was read
+     * @throws BufferUnderflowException If the whole flow is not remaining in the buffer, in which case the position is left as it was
+     * @throws IllegalArgumentException If the bytes are not a flow
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public HappyPath<Happy, Sad> read(ByteBuffer buffer) {
+        int start = buffer.position();
+        byte tag;
+        long payloadLength;
+        try {
+            tag = buffer.get();
+            payloadLength = readVarint(buffer);
+        } catch (BufferUnderflowException incomplete) {
+            buffer.position(start);
+            throw incomplete;
+        }
+        if (payloadLength < 0) {
+            buffer.position(start);
+            throw new IllegalArgumentException(format("Payload length %d at position %d is negative", payloadLength, start));
+        }
+        if (payloadLength > buffer.remaining()) {
+            buffer.position(start);
+            throw new BufferUnderflowException();
+        }
+        int end = buffer.position() + (int) payloadLength;
+        int limit = buffer.limit();
+        buffer.limit(end);
+        try {
+            switch (tag) {
+                case HAPPY:
+                    return HappyPath.happyPath(happyCodec.decode(buffer));
+                case SAD:
+                    return HappyPath.sadPath(sadCodec.decode(buffer));
+                case TECHNICAL_FAILURE:
+                    return HappyPath.technicalFailure(readTechnicalFailure(buffer));
+                default:
+                    throw new IllegalArgumentException(format("Unknown outcome tag %d at position %d", tag, start));
+            }
+        } finally {
+            buffer.limit(limit);
+            buffer.position(end);
+        }
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("FlowCodec{happy=%s, sad=%s}", happyCodec, sadCodec);
+    }
+
+    @SuppressWarnings("unchecked") // The cases of a BusinessFlow<Happy, Sad> have the same Happy and Sad
+    private int payloadLength(BusinessFlow<Happy, Sad> flow) {
+        if (flow instanceof HappyCase) {
+            return happyPayloadLength(((HappyCase<Happy, Sad>) flow).happy);
+        }
+        if (flow instanceof SadCase) {
+            return sadPayloadLength(((SadCase<Happy, Sad>) flow).sad);
+        }
+        if (flow instanceof TechnicalFailureCase) {
+            return technicalFailurePayloadLength(((TechnicalFailureCase<Happy, Sad>) flow).technicalFailure);
+        }
+        throw new IllegalArgumentException(format("Unknown kind of flow '%s'", flow.getClass().getName()));
+    }
+
+    private static DecodedTechnicalFailure readTechnicalFailure(ByteBuffer payload) {
+        String exceptionClassName = readString(readVarint(payload), payload);
+        long messageLength = readVarint(payload);
+        String message = messageLength == 0 ? null : readString(messageLength - 1, payload);
+        return new DecodedTechnicalFailure(exceptionClassName, message);
+    }
+
+    private static String exceptionClassName(Exception technicalFailure) {
+        if (technicalFailure instanceof DecodedTechnicalFailure) {
+            return ((DecodedTechnicalFailure) technicalFailure).exceptionClassName();
+        }
+        return technicalFailure.getClass().getName();
+    }
+
+    private static int stringLength(String value) {
+        int length = StringCodec.INSTANCE.encodedLength(value);
+        return varintLength(length) + length;
+    }
+
+    private static void writeString(String value, ByteBuffer buffer) {
+        writeVarint(StringCodec.INSTANCE.encodedLength(value), buffer);
+        StringCodec.INSTANCE.encode(value, buffer);
+    }
+
+    /**
+     * The length comes from bytes that may be corrupt, so it is checked before it is narrowed to an int.
+     */
+    private static String readString(long length, ByteBuffer payload) {
+        if (length < 0 || length > payload.remaining()) {
+            throw new IllegalArgumentException(format("String of %d bytes does not fit in the %d bytes remaining", length, payload.remaining()));
+        }
+        int limit = payload.limit();
+        int end = payload.position() + (int) length;
+        payload.limit(end);
+        try {
+            return StringCodec.INSTANCE.decode(payload);
+        } finally {
+            payload.limit(limit);
+            payload.position(end);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+/**
+ * A {@link FlowContext} carries the results of earlier stages of a flow to later stages.
+ * <p>
+ * The values are held in an array with one slot per {@link ContextKey} in the {@link FlowContextLayout}, so reading one
+ * is an array index rather than a hash lookup. A context is never modified: {@link #with(ContextKey, Object)} makes a
+ * new context with one more value, so the same context can safely be shared by stages that run concurrently.
+ * <p>
+ * Use {@link #mapInto(ContextKey, Mapping)} and {@link #thenInto(ContextKey, Mapping)} to add the result of a stage:
+ * <pre>{@code
+ * happyPath(CHECKOUT.emptyContext())
+ *     .then(thenInto(BASKET, context -> basketFor(customer)))
+ *     .map(mapInto(PRICE, context -> priceOf(context.get(BASKET))))
+ *     .map(context -> receipt(context.get(BASKET), context.get(PRICE)));
+ * }</pre>
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowContext {
+
+    private final FlowContextLayout layout;
+    private final Object[] values;
+
+    FlowContext(FlowContextLayout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Wrap a {@link Mapping} so that its result is added to the context under the given key.
+     * The stage is reported to flow listeners with the label of the given {@link Mapping}.
+     *
+     * @param key     The key to add the result under
+     * @param mapping The mapping to apply to the context
+     * @param <Value> The type of value the key names
+     * @return A {@link Mapping} to give to {@link HappyPath#map(Mapping)}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Value> Mapping<FlowContext, FlowContext> mapInto(ContextKey<Value> key, Mapping<FlowContext, Value> mapping) {
+        return label(mapping, MAP).mapping(context -> context.with(key, mapping.map(context)));
+    }
+
+    /**
+     * Wrap an action so that if it is happy, its result is added to the context under the given key.
+     * The stage is reported to flow listeners with the label of the given action.
+     *
+     * @param key     The key to add the happy result under
+     * @param action  The action to apply to the context
+     * @param <Value> The type of value the key names
+     * @param <Sad>   The type of sad object the action may produce
+     * @return A {@link Mapping} to give to {@link HappyPath#then(Mapping)}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Value, Sad> Mapping<FlowContext, HappyPath<FlowContext, Sad>> thenInto(ContextKey<Value> key, Mapping<FlowContext, ? extends BusinessFlow<Value, Sad>> action) {
+        return label(action, THEN).mapping(context -> context.withResultOf(key, action.map(context)));
+    }
+
+    /**
+     * Add a value to the context. This context is left as it is.
+     *
+     * @param key     The key to add the value under
+     * @param value   The value to add
+     * @param <Value> The type of value the key names
+     * @return A new context that has the value as well as all of the values in this context
+     * @throws IllegalArgumentException If the key is not part of the layout of this context or the value is null
+     * @throws IllegalStateException    If this context already has a value for the key
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Value> FlowContext with(ContextKey<Value> key, Value value) {
+        checkLayout(key);
+        if (value == null) {
+            throw new IllegalArgumentException(format("Context value for '%s' must not be null", key));
+        }
+        if (contains(key)) {
+            throw new IllegalStateException(format("Context already contains a '%s'", key));
+        }
+        Object[] appended = Arrays.copyOf(values, max(values.length, key.slot + 1));
+        appended[key.slot] = value;
+        return new FlowContext(layout, appended);
+    }
+
+    /**
+     * @param key     The key of the value to get
+     * @param <Value> The type of value the key names
+     * @return The value for the key
+     * @throws IllegalArgumentException If the key is not part of the layout of this context
+     * @throws IllegalStateException    If this context does not have a value for the key
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Value> Value get(ContextKey<Value> key) {
+        checkLayout(key);
+        Value value = value(key);
+        if (value == null) {
+            throw new IllegalStateException(format("Context did not contain a '%s'", key));
+        }
+        return value;
+    }
+
+    /**
+     * @param key     The key of the value to find
+     * @param <Value> The type of value the key names
+     * @return The value for the key if this context has one, otherwise empty
+     * @throws IllegalArgumentException If the key is not part of the layout of this context
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Value> Optional<Value> find(ContextKey<Value> key) {
+        checkLayout(key);
+        return Optional.ofNullable(value(key));
+    }
+
+    /**
+     * @param key The key to check for
+     * @return True if this context has a value for the key
+     * @throws IllegalArgumentException If the key is not part of the layout of this context
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean contains(ContextKey<?> key) {
+        checkLayout(key);
+        return value(key) != null;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("FlowContext{");
+        String separator = "";
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                description.append(separator).append(layout.key(slot)).append('=').append(values[slot]);
+                separator = ", ";
+            }
+        }
+        return description.append('}').toString();
+    }
+
+    @SuppressWarnings("unchecked") // A happy case of a BusinessFlow<Value, Sad> is a HappyCase<Value, Sad>, otherwise only the Happy changes and it is not present
+    private <Value, Sad> HappyPath<FlowContext, Sad> withResultOf(ContextKey<Value> key, BusinessFlow<Value, Sad> result) {
+        if (result instanceof HappyCase) {
+            return HappyPath.happyPath(with(key, ((HappyCase<Value, Sad>) result).happy));
+        }
+        return (HappyPath<FlowContext, Sad>) result.ifHappy();
+    }
+
+    @SuppressWarnings("unchecked") // The value was added under the same key, so it has the same type
+    private <Value> Value value(ContextKey<Value> key) {
+        return key.slot < values.length ? (Value) values[key.slot] : null;
+    }
+
+    private void checkLayout(ContextKey<?> key) {
+        if (key.layout != layout) {
+            throw new IllegalArgumentException(format("Key '%s' is not part of the layout %s", key, layout));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link FlowContextLayout} declares the {@link ContextKey ContextKeys} that the {@link FlowContext FlowContexts} of
+ * one pipeline can hold. It is intended to be built once, e.g. in static fields next to the pipeline:
+ * <pre>{@code
+ * private static final FlowContextLayout CHECKOUT = flowContextLayout();
+ * private static final ContextKey<Basket> BASKET = CHECKOUT.key("basket");
+ * private static final ContextKey<Price> PRICE = CHECKOUT.key("price");
+ * }</pre>
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowContextLayout {
+
+    private final CopyOnWriteArrayList<ContextKey<?>> keys = new CopyOnWriteArrayList<>();
+
+    private FlowContextLayout() {
+    }
+
+    /**
+     * @return A {@link FlowContextLayout} without any keys
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FlowContextLayout flowContextLayout() {
+        return new FlowContextLayout();
+    }
+
+    /**
+     * Declare a new key, which is given the next free slot.
+     *
+     * @param name    The name of the key, which is used when describing a context
+     * @param <Value> The type of value the key names
+     * @return The key
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public synchronized <Value> ContextKey<Value> key(String name) {
+        ContextKey<Value> key = new ContextKey<>(this, keys.size(), name);
+        keys.add(key);
+        return key;
+    }
+
+    /**
+     * @return A {@link FlowContext} that has room for every key declared so far but does not hold any values yet
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowContext emptyContext() {
+        return new FlowContext(this, new Object[keys.size()]);
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    ContextKey<?> key(int slot) {
+        return keys.get(slot);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return "FlowContextLayout" + keys;
+    }
+}
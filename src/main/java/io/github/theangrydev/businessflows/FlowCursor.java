@@ -0,0 +1,311 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link FlowCursor} is a mutable, reusable stand in for a {@link HappyPath}, for tight loops over many records where
+ * allocating a new flow per stage and per record is too expensive.
+ * <p>
+ * It holds the same state as a {@link BusinessCase}: a happy object, a sad object or a technical failure. The stages
+ * work like the ones on {@link HappyPath}, {@link SadPath} and {@link TechnicalFailure}, but change the cursor in place
+ * and return it, so the cursor that is returned is the same object with new types:
+ * <pre>{@code
+ * FlowCursor<Object, String> cursor = FlowCursor.flowCursor();
+ * for (Record record : records) {
+ *     cursor.reset(record).map(this::parse).attempt(this::validate).recover(this::fallback);
+ *     if (cursor.isHappy()) {
+ *         ...
+ *     }
+ * }
+ * }</pre>
+ * The cursor itself never allocates, so if the stages do not allocate either then neither does the loop. A
+ * {@link #then(Mapping)} stage allocates whatever flow it returns. A cursor must only be used by the thread that owns
+ * it, and a reference to it with the old types must not be used after a stage changes the types. Use
+ * {@link #snapshot()} to get an immutable {@link HappyPath} with the current state when one is needed.
+ *
+ * @param <Happy> The type of happy object the cursor may hold
+ * @param <Sad>   The type of sad object the cursor may hold
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowCursor<Happy, Sad> {
+
+    private FlowOutcome outcome;
+    private Object value;
+
+    private FlowCursor() {
+    }
+
+    /**
+     * @param <Happy> The type of happy object the cursor may hold
+     * @param <Sad>   The type of sad object the cursor may hold
+     * @return A {@link FlowCursor} that must be {@link #reset(Object)} before it is used
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Sad> FlowCursor<Happy, Sad> flowCursor() {
+        return new FlowCursor<>();
+    }
+
+    /**
+     * Start again with the next record.
+     *
+     * @param happy      The happy object to start with
+     * @param <NewHappy> The type of the happy object to start with
+     * @return This cursor, holding the happy object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <NewHappy> FlowCursor<NewHappy, Sad> reset(NewHappy happy) {
+        return set(HAPPY, happy);
+    }
+
+    /**
+     * Same as {@link HappyPath#then(Mapping)}.
+     *
+     * @param action     The action to apply to the happy object, if there is one
+     * @param <NewHappy> The new type of happy object
+     * @return This cursor, holding the result of the action
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <NewHappy> FlowCursor<NewHappy, Sad> then(Mapping<Happy, ? extends BusinessFlow<NewHappy, Sad>> action) {
+        if (happyOrFail() != HAPPY) {
+            return retyped();
+        }
+        long enteredAtNanos = stageEntered(action, THEN);
+        FlowOutcome newOutcome;
+        Object newValue;
+        try {
+            BusinessFlow<NewHappy, Sad> result = action.map(currentHappy());
+            newValue = FlowListeners.result(result);
+            newOutcome = FlowListeners.outcome(result);
+        } catch (Exception technicalFailure) {
+            return exited(action, THEN, enteredAtNanos, TECHNICAL_FAILURE, technicalFailure);
+        }
+        return exited(action, THEN, enteredAtNanos, newOutcome, newValue);
+    }
+
+    /**
+     * Same as {@link HappyPath#map(Mapping)}.
+     *
+     * @param mapping    The mapping to apply to the happy object, if there is one
+     * @param <NewHappy> The new type of happy object
+     * @return This cursor, holding the result of the mapping
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <NewHappy> FlowCursor<NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping) {
+        if (happyOrFail() != HAPPY) {
+            return retyped();
+        }
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        try {
+            return exited(mapping, MAP, enteredAtNanos, HAPPY, mapping.map(currentHappy()));
+        } catch (Exception technicalFailure) {
+            return exited(mapping, MAP, enteredAtNanos, TECHNICAL_FAILURE, technicalFailure);
+        }
+    }
+
+    /**
+     * Same as {@link HappyPath#attempt(ActionThatMightFail)}.
+     *
+     * @param actionThatMightFail The action to attempt on the happy object, if there is one
+     * @return This cursor, holding the sad object if the action failed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowCursor<Happy, Sad> attempt(ActionThatMightFail<Happy, Sad> actionThatMightFail) {
+        if (happyOrFail() != HAPPY) {
+            return this;
+        }
+        long enteredAtNanos = stageEntered(actionThatMightFail, ATTEMPT);
+        Sad sad;
+        try {
+            sad = PotentialFailureFailure.sadOrNull(actionThatMightFail.attempt(currentHappy()));
+        } catch (Exception technicalFailure) {
+            return exited(actionThatMightFail, ATTEMPT, enteredAtNanos, TECHNICAL_FAILURE, technicalFailure);
+        }
+        if (sad != null) {
+            return exited(actionThatMightFail, ATTEMPT, enteredAtNanos, SAD, sad);
+        }
+        stageExited(actionThatMightFail, ATTEMPT, enteredAtNanos, HAPPY, null);
+        return this;
+    }
+
+    /**
+     * Same as {@link HappyPath#peek(Peek)}.
+     *
+     * @param peek The peek to apply to the happy object, if there is one
+     * @return This cursor
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowCursor<Happy, Sad> peek(Peek<Happy> peek) {
+        if (happyOrFail() != HAPPY) {
+            return this;
+        }
+        long enteredAtNanos = stageEntered(peek, PEEK);
+        try {
+            peek.peek(currentHappy());
+        } catch (Exception technicalFailure) {
+            return exited(peek, PEEK, enteredAtNanos, TECHNICAL_FAILURE, technicalFailure);
+        }
+        stageExited(peek, PEEK, enteredAtNanos, HAPPY, value);
+        return this;
+    }
+
+    /**
+     * Same as {@link SadPath#recover(Mapping)}.
+     *
+     * @param recovery The recovery to apply to the sad object, if there is one
+     * @return This cursor, holding the recovered happy object
+     */
+    @SuppressWarnings("unchecked") // The value is a Sad when the outcome is SAD
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowCursor<Happy, Sad> recover(Mapping<Sad, Happy> recovery) {
+        if (happyOrFail() != SAD) {
+            return this;
+        }
+        long enteredAtNanos = stageEntered(recovery, RECOVER);
+        try {
+            return exited(recovery, RECOVER, enteredAtNanos, HAPPY, recovery.map((Sad) value));
+        } catch (Exception technicalFailure) {
+            return exited(recovery, RECOVER, enteredAtNanos, TECHNICAL_FAILURE, technicalFailure);
+        }
+    }
+
+    /**
+     * @return The outcome the cursor is holding
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowOutcome outcome() {
+        return happyOrFail();
+    }
+
+    /**
+     * @return True if the cursor is holding a happy object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean isHappy() {
+        return happyOrFail() == HAPPY;
+    }
+
+    /**
+     * @return True if the cursor is holding a sad object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean isSad() {
+        return happyOrFail() == SAD;
+    }
+
+    /**
+     * @return True if the cursor is holding a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean isTechnicalFailure() {
+        return happyOrFail() == TECHNICAL_FAILURE;
+    }
+
+    /**
+     * @return The happy object
+     * @throws IllegalStateException If the cursor is not holding a happy object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Happy getHappy() {
+        expect(HAPPY);
+        return currentHappy();
+    }
+
+    /**
+     * @return The sad object
+     * @throws IllegalStateException If the cursor is not holding a sad object
+     */
+    @SuppressWarnings("unchecked") // The value is a Sad when the outcome is SAD
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Sad getSad() {
+        expect(SAD);
+        return (Sad) value;
+    }
+
+    /**
+     * @return The technical failure
+     * @throws IllegalStateException If the cursor is not holding a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Exception getTechnicalFailure() {
+        expect(TECHNICAL_FAILURE);
+        return (Exception) value;
+    }
+
+    /**
+     * @return An immutable {@link HappyPath} with the state the cursor is holding now
+     */
+    @SuppressWarnings("unchecked") // The value is a Sad when the outcome is SAD
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public HappyPath<Happy, Sad> snapshot() {
+        FlowOutcome current = happyOrFail();
+        if (current == HAPPY) {
+            return HappyPath.happyPath(currentHappy());
+        }
+        if (current == SAD) {
+            return HappyPath.sadPath((Sad) value);
+        }
+        return HappyPath.technicalFailure((Exception) value);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("FlowCursor{%s: %s}", outcome, value);
+    }
+
+    private FlowOutcome happyOrFail() {
+        if (outcome == null) {
+            throw new IllegalStateException("The cursor must be reset before it is used");
+        }
+        return outcome;
+    }
+
+    private void expect(FlowOutcome expected) {
+        if (happyOrFail() != expected) {
+            throw new IllegalStateException(format("The cursor is holding a %s not a %s: %s", outcome, expected, value));
+        }
+    }
+
+    @SuppressWarnings("unchecked") // The value is a Happy when the outcome is HAPPY
+    private Happy currentHappy() {
+        return (Happy) value;
+    }
+
+    private <NewHappy> FlowCursor<NewHappy, Sad> exited(Object function, DefaultStageLabels label, long enteredAtNanos, FlowOutcome newOutcome, Object newValue) {
+        FlowCursor<NewHappy, Sad> cursor = set(newOutcome, newValue);
+        stageExited(function, label, enteredAtNanos, newOutcome, newValue);
+        return cursor;
+    }
+
+    private <NewHappy> FlowCursor<NewHappy, Sad> set(FlowOutcome newOutcome, Object newValue) {
+        outcome = newOutcome;
+        value = newValue;
+        return retyped();
+    }
+
+    @SuppressWarnings("unchecked") // The cursor is changed in place so all that changes is the types
+    private <NewHappy> FlowCursor<NewHappy, Sad> retyped() {
+        return (FlowCursor<NewHappy, Sad>) this;
+    }
+}
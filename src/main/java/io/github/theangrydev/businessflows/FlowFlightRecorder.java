@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * Emits a Java Flight Recorder event for each stage of every {@link BusinessFlow}, so that a recording shows which
+ * business stage the time was spent in. The events are named {@code io.github.theangrydev.businessflows.FlowStage} and
+ * carry the {@link StageLabel}, the {@link FlowOutcome}, the duration and the class of any technical failure.
+ * <p>
+ * Once enabled, the stages are only instrumented while a recording is running, so there is no cost when the recorder is
+ * off. Recordings can be summarised with {@link FlowRecordingSummary}.
+ * <p>
+ * The Flight Recorder classes are only loaded if the JVM has them (Java 8u262 and later), so this is safe to call on any
+ * Java 8 JVM.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowFlightRecorder {
+
+    private FlowFlightRecorder() {
+    }
+
+    /**
+     * Start emitting Flight Recorder events for each stage whenever a recording is running.
+     *
+     * @return True if the events are enabled, false if the JVM does not have the Flight Recorder or it is disabled
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static boolean enable() {
+        return isFlightRecorderAvailable() && FlightRecorderFlowListener.INSTANCE.install();
+    }
+
+    /**
+     * Stop emitting Flight Recorder events.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static void disable() {
+        if (isFlightRecorderAvailable()) {
+            FlightRecorderFlowListener.INSTANCE.uninstall();
+        }
+    }
+
+    static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, FlowFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError notAvailable) {
+            return false;
+        }
+    }
+}
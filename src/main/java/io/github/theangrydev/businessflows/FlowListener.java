@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * Listens to the stages of every {@link BusinessFlow}, e.g. to measure where the time goes.
+ * <p>
+ * A stage is one application of a user supplied function, e.g. the {@link Mapping} given to
+ * {@link HappyPath#then(Mapping)}. Listeners are registered with {@link FlowListeners#register(FlowListener)} and are
+ * called on the thread that runs the stage, so they must be fast and must not throw.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface FlowListener {
+
+    /**
+     * Called just before a stage runs.
+     *
+     * @param label The label of the stage
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void stageEntered(StageLabel label);
+
+    /**
+     * Called just before a stage runs, with whether it is a stage of a {@link HappyPath} or of a {@link SadPath}, e.g. a
+     * recovery. By default this calls {@link #stageEntered(StageLabel)}.
+     *
+     * @param label The label of the stage
+     * @param path  {@link FlowOutcome#HAPPY} for a stage of a {@link HappyPath} or {@link FlowOutcome#SAD} for a stage of
+     *              a {@link SadPath}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    default void stageEntered(StageLabel label, FlowOutcome path) {
+        stageEntered(label);
+    }
+
+    /**
+     * Called just after a stage has run.
+     *
+     * @param label         The label of the stage
+     * @param outcome       The outcome of the stage
+     * @param result        The happy object, sad object or technical failure that the stage resulted in
+     * @param durationNanos How long the stage took to run, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos);
+}
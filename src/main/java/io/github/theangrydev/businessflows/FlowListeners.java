@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MutableCallSite;
+import java.util.Arrays;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static java.lang.invoke.MethodHandles.constant;
+
+/**
+ * Registers the {@link FlowListener FlowListeners} that the stages of every {@link BusinessFlow} report to.
+ * <p>
+ * Whether any listeners are registered is held in a {@link MutableCallSite}, so with none registered the JIT compiles
+ * the check down to a constant and the instrumentation of each stage disappears. Registering or unregistering a
+ * listener deoptimises the code that depends on the check, so it should be done rarely, e.g. at startup.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowListeners {
+
+    static final DefaultStageLabels THEN = new DefaultStageLabels("then", HAPPY);
+    static final DefaultStageLabels MAP = new DefaultStageLabels("map", HAPPY);
+    static final DefaultStageLabels PEEK = new DefaultStageLabels("peek", HAPPY);
+    static final DefaultStageLabels ATTEMPT = new DefaultStageLabels("attempt", HAPPY);
+    static final DefaultStageLabels VALIDATE = new DefaultStageLabels("validate", HAPPY);
+    static final DefaultStageLabels LOOP = new DefaultStageLabels("loop", HAPPY);
+    static final DefaultStageLabels RECOVER = new DefaultStageLabels("recover", SAD);
+    static final DefaultStageLabels SAD_THEN = new DefaultStageLabels("then", SAD);
+    static final DefaultStageLabels SAD_MAP = new DefaultStageLabels("map", SAD);
+    static final DefaultStageLabels SAD_PEEK = new DefaultStageLabels("peek", SAD);
+
+    private static final long NOT_ENTERED = Long.MIN_VALUE;
+    private static final FlowListener[] NO_LISTENERS = {};
+
+    private static final MutableCallSite ENABLED = new MutableCallSite(constant(boolean.class, false));
+    private static final MethodHandle IS_ENABLED = ENABLED.dynamicInvoker();
+    private static volatile FlowListener[] listeners = NO_LISTENERS;
+
+    private FlowListeners() {
+    }
+
+    /**
+     * Start reporting the stages of every {@link BusinessFlow} to the given listener.
+     *
+     * @param listener The listener to register
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static synchronized void register(FlowListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Cannot register a null listener");
+        }
+        FlowListener[] registered = listeners;
+        FlowListener[] updated = Arrays.copyOf(registered, registered.length + 1);
+        updated[registered.length] = listener;
+        update(updated);
+    }
+
+    /**
+     * Stop reporting to the given listener. Does nothing if the listener is not registered.
+     *
+     * @param listener The listener to unregister
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static synchronized void unregister(FlowListener listener) {
+        FlowListener[] registered = listeners;
+        for (int i = 0; i < registered.length; i++) {
+            if (registered[i] == listener) {
+                FlowListener[] updated = new FlowListener[registered.length - 1];
+                System.arraycopy(registered, 0, updated, 0, i);
+                System.arraycopy(registered, i + 1, updated, i, registered.length - i - 1);
+                update(updated);
+                return;
+            }
+        }
+    }
+
+    static long stageEntered(Object function, DefaultStageLabels defaultLabels) {
+        if (!enabled()) {
+            return NOT_ENTERED;
+        }
+        return entered(label(function, defaultLabels), defaultLabels.path);
+    }
+
+    static <Result> Result stageExited(Object function, DefaultStageLabels defaultLabels, long enteredAtNanos, Result result) {
+        if (enabled() && enteredAtNanos != NOT_ENTERED) {
+            exited(label(function, defaultLabels), result, System.nanoTime() - enteredAtNanos);
+        }
+        return result;
+    }
+
+    static <Sad> PotentialFailure<Sad> stageExited(Object function, DefaultStageLabels defaultLabels, long enteredAtNanos, PotentialFailure<Sad> result) {
+        if (enabled() && enteredAtNanos != NOT_ENTERED) {
+            exited(label(function, defaultLabels), result, System.nanoTime() - enteredAtNanos);
+        }
+        return result;
+    }
+
+    static void stageExited(Object function, DefaultStageLabels defaultLabels, long enteredAtNanos, FlowOutcome outcome, Object result) {
+        if (enabled() && enteredAtNanos != NOT_ENTERED) {
+            notifyExited(label(function, defaultLabels), outcome, result, System.nanoTime() - enteredAtNanos);
+        }
+    }
+
+    static Exception stageFailed(Object function, DefaultStageLabels defaultLabels, long enteredAtNanos, Exception technicalFailure) {
+        if (enabled() && enteredAtNanos != NOT_ENTERED) {
+            notifyExited(label(function, defaultLabels), TECHNICAL_FAILURE, technicalFailure, System.nanoTime() - enteredAtNanos);
+        }
+        return technicalFailure;
+    }
+
+    static boolean enabled() {
+        try {
+            return (boolean) IS_ENABLED.invokeExact();
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static void update(FlowListener[] updated) {
+        listeners = updated;
+        ENABLED.setTarget(constant(boolean.class, updated.length > 0));
+        MutableCallSite.syncAll(new MutableCallSite[]{ENABLED});
+    }
+
+    static StageLabel label(Object function, DefaultStageLabels defaultLabels) {
+        if (function instanceof StageLabel.Labelled) {
+            return ((StageLabel.Labelled) function).label();
+        }
+        return defaultLabels.get(function.getClass());
+    }
+
+    private static long entered(StageLabel label, FlowOutcome path) {
+        for (FlowListener listener : listeners) {
+            listener.stageEntered(label, path);
+        }
+        return System.nanoTime();
+    }
+
+    static FlowOutcome outcome(Object businessCase) {
+        if (businessCase instanceof HappyCase || businessCase instanceof PrimitiveHappyCase) {
+            return HAPPY;
+        }
+        if (businessCase instanceof SadCase) {
+            return SAD;
+        }
+        return TECHNICAL_FAILURE;
+    }
+
+    static Object result(Object businessCase) {
+        if (businessCase instanceof HappyCase) {
+            return ((HappyCase<?, ?>) businessCase).happy;
+        }
+        if (businessCase instanceof PrimitiveHappyCase) {
+            return ((PrimitiveHappyCase) businessCase).boxedHappy();
+        }
+        if (businessCase instanceof SadCase) {
+            return ((SadCase<?, ?>) businessCase).sad;
+        }
+        return ((TechnicalFailureCase<?, ?>) businessCase).technicalFailure;
+    }
+
+    private static void exited(StageLabel label, Object result, long durationNanos) {
+        notifyExited(label, outcome(result), result(result), durationNanos);
+    }
+
+    private static void exited(StageLabel label, PotentialFailure<?> result, long durationNanos) {
+        if (result instanceof PotentialFailureFailure) {
+            notifyExited(label, SAD, result.toOptional().orElse(null), durationNanos);
+        } else {
+            notifyExited(label, HAPPY, null, durationNanos);
+        }
+    }
+
+    private static void notifyExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+        for (FlowListener listener : listeners) {
+            listener.stageExited(label, outcome, result, durationNanos);
+        }
+    }
+
+    /**
+     * Labels stages that were not explicitly labelled, with the class that declared the function as the flow.
+     * The labels are cached per function class so that they are only computed once. Each kind of stage also knows
+     * whether it is a stage of a {@link HappyPath} or of a {@link SadPath}, whether or not the stage is labelled.
+     */
+    static final class DefaultStageLabels extends ClassValue<StageLabel> {
+
+        private final String stage;
+        final FlowOutcome path;
+
+        DefaultStageLabels(String stage, FlowOutcome path) {
+            this.stage = stage;
+            this.path = path;
+        }
+
+        @Override
+        protected StageLabel computeValue(Class<?> functionClass) {
+            String name = functionClass.getName();
+            int lambdaSuffix = name.indexOf("$$Lambda$");
+            String flow = lambdaSuffix < 0 ? name : name.substring(0, lambdaSuffix);
+            return StageLabel.stageLabel(flow, stage);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.StageMetrics.*;
+
+/**
+ * A {@link FlowListener} that keeps outcome counts and latency percentiles for each {@link StageLabel}.
+ * <p>
+ * Recording does not lock and, once a stage has been seen, does not allocate, so the metrics can be left on in
+ * production. Once {@link #publish() published}, each stage appears in JMX as a {@link StageMetricsMXBean} named
+ * {@code io.github.theangrydev.businessflows:type=FlowStage,flow="<flow>",stage="<stage>"}, so only one
+ * {@link FlowMetrics} can be published to each MBean server at a time.
+ * <pre>{@code
+ * FlowMetrics metrics = flowMetrics().publish();
+ * FlowListeners.register(metrics);
+ * }</pre>
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowMetrics implements FlowListener {
+
+    private static final String DOMAIN = "io.github.theangrydev.businessflows";
+    private static final ConcurrentMap<MBeanServer, FlowMetrics> PUBLISHERS = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<StageLabel, StageMetrics> stages = new ConcurrentHashMap<>();
+    private final LongAdder publicationFailures = new LongAdder();
+    private volatile MBeanServer mBeanServer;
+
+    private FlowMetrics() {
+    }
+
+    /**
+     * Produces a {@link FlowMetrics} with no stages recorded yet. It must be registered with
+     * {@link FlowListeners#register(FlowListener)} to start recording.
+     *
+     * @return The metrics
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FlowMetrics flowMetrics() {
+        return new FlowMetrics();
+    }
+
+    /**
+     * Publish the metrics of every stage, including those that have not run yet, to the platform MBean server.
+     *
+     * @return This {@link FlowMetrics}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowMetrics publish() {
+        return publish(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Publish the metrics of every stage, including those that have not run yet, to the given MBean server.
+     *
+     * @param mBeanServer The server to publish to
+     * @return This {@link FlowMetrics}
+     * @throws IllegalStateException If another {@link FlowMetrics} is published to the server
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowMetrics publish(MBeanServer mBeanServer) {
+        FlowMetrics published = PUBLISHERS.putIfAbsent(mBeanServer, this);
+        if (published != null && published != this) {
+            throw new IllegalStateException("Another FlowMetrics is already published to the MBean server, it must be unpublished first");
+        }
+        this.mBeanServer = mBeanServer;
+        for (StageMetrics stage : stages.values()) {
+            publish(mBeanServer, stage);
+        }
+        return this;
+    }
+
+    /**
+     * Remove the metrics of every stage from the MBean server they were published to.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void unpublish() {
+        MBeanServer published = mBeanServer;
+        mBeanServer = null;
+        if (published == null) {
+            return;
+        }
+        for (StageMetrics stage : stages.values()) {
+            unpublish(published, stage);
+        }
+        PUBLISHERS.remove(published, this);
+    }
+
+    /**
+     * Publishing happens when a stage is seen for the first time, so a failure to publish is counted rather than
+     * thrown, since it would otherwise fail the stage.
+     *
+     * @return How many times the metrics of a stage could not be published or unpublished
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long publicationFailures() {
+        return publicationFailures.sum();
+    }
+
+    /**
+     * @param label The label of the stage
+     * @return The metrics of the stage, if it has run
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Optional<StageMetricsMXBean> stageMetrics(StageLabel label) {
+        return Optional.ofNullable(stages.get(label));
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageEntered(StageLabel label) {
+        // Only the outcome and duration are recorded
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+        StageMetrics stage = stages.get(label);
+        if (stage == null) {
+            stage = firstSeen(label);
+        }
+        stage.record(outcome, durationNanos);
+    }
+
+    private StageMetrics firstSeen(StageLabel label) {
+        StageMetrics stage = new StageMetrics(label);
+        StageMetrics existing = stages.putIfAbsent(label, stage);
+        if (existing != null) {
+            return existing;
+        }
+        MBeanServer published = mBeanServer;
+        if (published != null) {
+            publish(published, stage);
+        }
+        return stage;
+    }
+
+    private void publish(MBeanServer mBeanServer, StageMetrics stage) {
+        if (!stage.publication.compareAndSet(UNPUBLISHED, PUBLISHING)) {
+            return; // Published concurrently with the stage being seen for the first time
+        }
+        try {
+            mBeanServer.registerMBean(stage, objectName(stage.label()));
+        } catch (JMException | RuntimeException e) {
+            stage.publication.set(UNPUBLISHED);
+            publicationFailures.increment();
+            return;
+        }
+        stage.publication.set(PUBLISHED);
+        if (this.mBeanServer != mBeanServer) {
+            unpublish(mBeanServer, stage); // Unpublished while the stage was being registered
+        }
+    }
+
+    private void unpublish(MBeanServer mBeanServer, StageMetrics stage) {
+        if (!stage.publication.compareAndSet(PUBLISHED, UNPUBLISHED)) {
+            return; // Either not published, or still being registered, in which case the registering thread removes it
+        }
+        try {
+            mBeanServer.unregisterMBean(objectName(stage.label()));
+        } catch (InstanceNotFoundException alreadyUnpublished) {
+            // Nothing to remove
+        } catch (JMException | RuntimeException e) {
+            publicationFailures.increment();
+        }
+    }
+
+    static ObjectName objectName(StageLabel label) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=FlowStage,flow=" + ObjectName.quote(label.flow()) + ",stage=" + ObjectName.quote(label.stage()));
+    }
+}
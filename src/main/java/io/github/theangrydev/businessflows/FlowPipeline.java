@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * A {@link FlowPipeline} is a chain of {@link HappyPath#then(Mapping)} and {@link HappyPath#map(Mapping)} stages that
+ * is built once and then run for many inputs:
+ * <pre>{@code
+ * FlowPipeline<Order, Receipt, CheckoutError> checkout = FlowPipeline.<Order, CheckoutError>flowPipeline()
+ *     .then(this::checkStock)
+ *     .map(this::price)
+ *     .then(this::pay)
+ *     .specialised();
+ * HappyPath<Receipt, CheckoutError> receipt = checkout.run(order);
+ * }</pre>
+ * When every flow in a service runs through the same {@link HappyPath#then(Mapping)} bytecode, the call site that
+ * applies the stage sees the stages of every flow, so the JIT cannot inline any of them. A pipeline that has been
+ * {@link #specialised()} runs on a copy of the stage running code of its own, so each stage is called from a call site
+ * that only ever sees that stage and can be inlined. The first 16 stages have call sites of their own, later stages
+ * share one. The stages of a specialised pipeline are not reported to the {@link FlowListener}s.
+ *
+ * @param <Input> The type of input the pipeline takes
+ * @param <Happy> The type of happy object the pipeline produces
+ * @param <Sad>   The type of sad object the pipeline may produce
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowPipeline<Input, Happy, Sad> {
+
+    private final boolean[] thenStages;
+    private final Object[] stages;
+    final Function<Object, HappyPath<Object, Object>> specialised;
+
+    private FlowPipeline(boolean[] thenStages, Object[] stages, Function<Object, HappyPath<Object, Object>> specialised) {
+        this.thenStages = thenStages;
+        this.stages = stages;
+        this.specialised = specialised;
+    }
+
+    /**
+     * @param <Input> The type of input the pipeline takes
+     * @param <Sad>   The type of sad object the pipeline may produce
+     * @return A {@link FlowPipeline} without any stages, that turns the input into a {@link HappyPath}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Input, Sad> FlowPipeline<Input, Input, Sad> flowPipeline() {
+        return new FlowPipeline<>(new boolean[0], new Object[0], null);
+    }
+
+    /**
+     * Add a stage that works like {@link HappyPath#then(Mapping)}.
+     *
+     * @param action     The action to apply to the happy object
+     * @param <NewHappy> The new type of happy object
+     * @return A new {@link FlowPipeline} with the stage added, that is not specialised
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <NewHappy> FlowPipeline<Input, NewHappy, Sad> then(Mapping<Happy, ? extends BusinessFlow<NewHappy, Sad>> action) {
+        return withStage(true, action);
+    }
+
+    /**
+     * Add a stage that works like {@link HappyPath#map(Mapping)}.
+     *
+     * @param mapping    The mapping to apply to the happy object
+     * @param <NewHappy> The new type of happy object
+     * @return A new {@link FlowPipeline} with the stage added, that is not specialised
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <NewHappy> FlowPipeline<Input, NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping) {
+        return withStage(false, mapping);
+    }
+
+    /**
+     * Opt in to running this pipeline on a copy of the stage running code of its own. Do this once, after all the
+     * stages have been added, and keep the result.
+     *
+     * @return A new {@link FlowPipeline} with the same stages that is specialised
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowPipeline<Input, Happy, Sad> specialised() {
+        return new FlowPipeline<>(thenStages, stages, PipelineSpecialiser.specialise(thenStages, stages));
+    }
+
+    /**
+     * @return True if this pipeline runs on a copy of the stage running code of its own
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean isSpecialised() {
+        return specialised != null && PipelineSpecialiser.isSpecialised(specialised);
+    }
+
+    /**
+     * Run the stages, in the order they were added, in the same way as a {@link HappyPath} chain would.
+     *
+     * @param input The input to the pipeline
+     * @return The result of the last stage, a sad path if a stage was sad or a technical failure if a stage threw
+     */
+    @SuppressWarnings("unchecked") // The stages are type safe when they are added
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public HappyPath<Happy, Sad> run(Input input) {
+        if (specialised != null) {
+            return (HappyPath<Happy, Sad>) (HappyPath<?, ?>) specialised.apply(input);
+        }
+        HappyPath<Object, Object> flow = HappyPath.happyPath(input);
+        for (int stage = 0; stage < stages.length; stage++) {
+            if (thenStages[stage]) {
+                flow = flow.then((Mapping<Object, BusinessFlow<Object, Object>>) stages[stage]);
+            } else {
+                flow = flow.map((Mapping<Object, Object>) stages[stage]);
+            }
+        }
+        return (HappyPath<Happy, Sad>) (HappyPath<?, ?>) flow;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("FlowPipeline{stages=%d, specialised=%s}", stages.length, isSpecialised());
+    }
+
+    private <NewHappy> FlowPipeline<Input, NewHappy, Sad> withStage(boolean thenStage, Object stage) {
+        boolean[] withThenStage = Arrays.copyOf(thenStages, thenStages.length + 1);
+        withThenStage[thenStages.length] = thenStage;
+        Object[] withStage = Arrays.copyOf(stages, stages.length + 1);
+        withStage[stages.length] = stage;
+        return new FlowPipeline<>(withThenStage, withStage, null);
+    }
+}
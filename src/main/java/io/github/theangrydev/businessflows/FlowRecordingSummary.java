@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Summarises the stage events in a Java Flight Recorder recording made with {@link FlowFlightRecorder} enabled.
+ * <p>
+ * The summary totals the time spent in each stage, grouped by flow, with the flows and stages that took the most time
+ * first. Time spent in a stage that ran inside another stage counts towards both. Run it from the command line with:
+ * <pre>
+ * java -cp business-flows.jar io.github.theangrydev.businessflows.FlowRecordingSummary recording.jfr
+ * </pre>
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowRecordingSummary {
+
+    private FlowRecordingSummary() {
+    }
+
+    /**
+     * Print the summary of each recording given.
+     *
+     * @param recordings The paths of the recordings to summarise
+     * @throws IOException If a recording could not be read
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static void main(String... recordings) throws IOException {
+        if (recordings.length == 0) {
+            System.err.println("Usage: FlowRecordingSummary <recording.jfr>...");
+            return;
+        }
+        for (String recording : recordings) {
+            System.out.print(summarise(Paths.get(recording)));
+        }
+    }
+
+    /**
+     * @param recording The path of the recording to summarise
+     * @return The summary, one line per flow followed by one line per stage in the flow
+     * @throws IOException If the recording could not be read
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static String summarise(Path recording) throws IOException {
+        Map<String, Map<String, StageSummary>> flows = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            if (!FlowStageEvent.NAME.equals(event.getEventType().getName())) {
+                continue;
+            }
+            String flow = event.getString("flow");
+            String stage = event.getString("stage");
+            flows.computeIfAbsent(flow, f -> new HashMap<>())
+                    .computeIfAbsent(stage, StageSummary::new)
+                    .add(event.getString("outcome"), event.getDuration().toNanos());
+        }
+        return summaryOf(flows);
+    }
+
+    private static String summaryOf(Map<String, Map<String, StageSummary>> flows) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(format("%-60s %10s %10s %10s %10s %14s%n", "Flow / Stage", "Count", "Happy", "Sad", "Failures", "Total ms"));
+        List<StageSummary> flowTotals = new ArrayList<>();
+        Map<StageSummary, List<StageSummary>> stagesByFlow = new HashMap<>();
+        flows.forEach((flow, stages) -> {
+            StageSummary total = new StageSummary(flow);
+            stages.values().forEach(total::add);
+            flowTotals.add(total);
+            List<StageSummary> sortedStages = new ArrayList<>(stages.values());
+            sortedStages.sort(comparingLong(StageSummary::totalNanos).reversed());
+            stagesByFlow.put(total, sortedStages);
+        });
+        flowTotals.sort(comparingLong(StageSummary::totalNanos).reversed());
+        for (StageSummary flow : flowTotals) {
+            flow.appendTo(summary, "");
+            for (StageSummary stage : stagesByFlow.get(flow)) {
+                stage.appendTo(summary, "  ");
+            }
+        }
+        return summary.toString();
+    }
+
+    private static final class StageSummary {
+
+        private final String name;
+        private long happy;
+        private long sad;
+        private long technicalFailures;
+        private long totalNanos;
+
+        StageSummary(String name) {
+            this.name = name;
+        }
+
+        void add(String outcome, long durationNanos) {
+            if (FlowOutcome.HAPPY.name().equals(outcome)) {
+                happy++;
+            } else if (FlowOutcome.SAD.name().equals(outcome)) {
+                sad++;
+            } else {
+                technicalFailures++;
+            }
+            totalNanos += durationNanos;
+        }
+
+        void add(StageSummary stage) {
+            happy += stage.happy;
+            sad += stage.sad;
+            technicalFailures += stage.technicalFailures;
+            totalNanos += stage.totalNanos;
+        }
+
+        long totalNanos() {
+            return totalNanos;
+        }
+
+        void appendTo(StringBuilder summary, String indent) {
+            summary.append(format("%-60s %10d %10d %10d %10d %14.3f%n", indent + name, happy + sad + technicalFailures, happy, sad, technicalFailures, totalNanos / 1e6));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for one stage of a {@link BusinessFlow}.
+ */
+@Name(FlowStageEvent.NAME)
+@Label("Flow Stage")
+@Category("Business Flows")
+@Description("One stage of a business flow, e.g. a then or a map")
+class FlowStageEvent extends Event {
+
+    static final String NAME = "io.github.theangrydev.businessflows.FlowStage";
+
+    @Label("Flow")
+    String flow;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Technical Failure")
+    @Description("The class of the technical failure, if the stage resulted in one")
+    Class<?> technicalFailure;
+
+    transient StageLabel label;
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * The stage by stage path that one traced {@link BusinessFlow} took, see {@link FlowTracer}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowTrace {
+
+    private final long sequence;
+    private final String flowName;
+    private final FlowOutcome outcome;
+    private final String summary;
+    private final long startedAtMillis;
+    private final long durationNanos;
+    private final List<TracedStage> stages;
+    private final boolean truncated;
+
+    FlowTrace(long sequence, String flowName, FlowOutcome outcome, String summary, long startedAtMillis, long durationNanos, List<TracedStage> stages, boolean truncated) {
+        this.sequence = sequence;
+        this.flowName = flowName;
+        this.outcome = outcome;
+        this.summary = summary;
+        this.startedAtMillis = startedAtMillis;
+        this.durationNanos = durationNanos;
+        this.stages = stages;
+        this.truncated = truncated;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The name the flow was traced with
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String flowName() {
+        return flowName;
+    }
+
+    /**
+     * @return The outcome of the flow as a whole
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowOutcome outcome() {
+        return outcome;
+    }
+
+    /**
+     * @return A truncated description of the sad object or technical failure, if the flow resulted in one
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Optional<String> summary() {
+        return Optional.ofNullable(summary);
+    }
+
+    /**
+     * @return When the flow started
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Instant startedAt() {
+        return Instant.ofEpochMilli(startedAtMillis);
+    }
+
+    /**
+     * @return How long the flow took, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return The stages of the flow, in the order they started
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<TracedStage> stages() {
+        return stages;
+    }
+
+    /**
+     * @return True if the flow had more stages than the tracer keeps, in which case the later stages are missing
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean truncated() {
+        return truncated;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        StringBuilder trace = new StringBuilder();
+        trace.append(format("%s %s %s %.3fms%s%n", startedAt(), flowName, outcome, durationNanos / 1e6, summary == null ? "" : ": " + summary));
+        for (TracedStage stage : stages) {
+            for (int indent = 0; indent <= stage.depth(); indent++) {
+                trace.append("  ");
+            }
+            trace.append(stage).append(format("%n"));
+        }
+        if (truncated) {
+            trace.append(format("  ...%n"));
+        }
+        return trace.toString();
+    }
+}
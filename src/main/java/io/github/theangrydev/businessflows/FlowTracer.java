@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowOutcome.HAPPY;
+import static java.lang.String.format;
+
+/**
+ * A {@link FlowTracer} records the stage by stage path that a sample of {@link BusinessFlow BusinessFlows} took, so
+ * that a slow or failed request can be looked at after the fact.
+ * <p>
+ * Flows are traced by running them with {@link #trace(String, Attempt)}. While a flow is traced its stages are recorded
+ * into preallocated per thread arrays, so tracing does not allocate unless the trace is kept. A fraction of all traces
+ * are kept in a ring buffer of recent traces, and a reservoir sample of the traces that ended sad or in a technical
+ * failure is kept separately, so that failures are not crowded out by the happy traces. Both are fixed size and made
+ * of preallocated slots that are written to without locking.
+ * <p>
+ * The tracer only sees stages once it is registered with {@link FlowListeners#register(FlowListener)}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowTracer implements FlowListener {
+
+    private static final int SUMMARY_LENGTH = 120;
+
+    private final double sampleRate;
+    private final TraceSlot[] recentTraces;
+    private final TraceSlot[] failedTraces;
+    private final ThreadLocal<TraceScratch> scratch;
+    private final AtomicLong recentSequence = new AtomicLong();
+    private final AtomicLong failedFlows = new AtomicLong();
+    private final LongAdder droppedTraces = new LongAdder();
+
+    private FlowTracer(int capacity, int maximumStages, double sampleRate, int reservoirSize) {
+        if (capacity < 1 || maximumStages < 1 || reservoirSize < 0) {
+            throw new IllegalArgumentException(format("Capacity and maximum stages must be positive and reservoir size must not be negative but were %d, %d and %d", capacity, maximumStages, reservoirSize));
+        }
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException(format("Sample rate must be in [0, 1] but was %s", sampleRate));
+        }
+        this.sampleRate = sampleRate;
+        this.recentTraces = slots(capacity, maximumStages);
+        this.failedTraces = slots(reservoirSize, maximumStages);
+        this.scratch = ThreadLocal.withInitial(() -> new TraceScratch(maximumStages));
+    }
+
+    /**
+     * Produces a {@link FlowTracer}.
+     *
+     * @param capacity      How many of the most recent sampled traces to keep
+     * @param maximumStages How many stages to keep per trace, later stages are dropped
+     * @param sampleRate    The fraction of traces in [0, 1] to keep in the recent traces
+     * @param reservoirSize How many traces that ended sad or in a technical failure to keep, sampled uniformly from all of them
+     * @return The tracer
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FlowTracer flowTracer(int capacity, int maximumStages, double sampleRate, int reservoirSize) {
+        return new FlowTracer(capacity, maximumStages, sampleRate, reservoirSize);
+    }
+
+    /**
+     * Run a flow, tracing its stages. A flow that is run inside another traced flow is traced as part of that flow.
+     *
+     * @param flowName The name of the flow, to tell the traces apart
+     * @param flow     The flow to run
+     * @param <Happy>  The type of happy object the flow might produce
+     * @param <Sad>    The type of sad object the flow might produce
+     * @return The result of the flow, which is a technical failure if running it threw an exception
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> HappyPath<Happy, Sad> trace(String flowName, Attempt<? extends BusinessFlow<Happy, Sad>> flow) {
+        TraceScratch trace = scratch.get();
+        if (trace.active) {
+            return run(flow);
+        }
+        trace.start(flowName);
+        try {
+            HappyPath<Happy, Sad> result = run(flow);
+            keep(trace, result);
+            return result;
+        } finally {
+            trace.finish();
+        }
+    }
+
+    /**
+     * @return The most recent sampled traces, oldest first
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<FlowTrace> recentTraces() {
+        return read(recentTraces);
+    }
+
+    /**
+     * @return A uniform sample of the traces that ended sad or in a technical failure, oldest first
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<FlowTrace> failedTraces() {
+        return read(failedTraces);
+    }
+
+    /**
+     * @return The number of traces that were dropped because the slot they were going to be kept in was busy
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long droppedTraces() {
+        return droppedTraces.sum();
+    }
+
+    /**
+     * @return A human readable dump of the recent traces followed by the failed traces
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        dump.append(format("Recent traces:%n"));
+        recentTraces().forEach(dump::append);
+        dump.append(format("Sad and technical failure traces:%n"));
+        failedTraces().forEach(dump::append);
+        return dump.toString();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageEntered(StageLabel label) {
+        TraceScratch trace = scratch.get();
+        if (trace.active) {
+            trace.entered(label);
+        }
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+        TraceScratch trace = scratch.get();
+        if (trace.active) {
+            trace.exited(outcome, result, durationNanos);
+        }
+    }
+
+    private static <Happy, Sad> HappyPath<Happy, Sad> run(Attempt<? extends BusinessFlow<Happy, Sad>> flow) {
+        try {
+            return flow.attempt().ifHappy();
+        } catch (Exception technicalFailure) {
+            return HappyPath.technicalFailure(technicalFailure);
+        }
+    }
+
+    private void keep(TraceScratch trace, BusinessCase<?, ?> result) {
+        long durationNanos = System.nanoTime() - trace.startedAtNanos;
+        FlowOutcome outcome = FlowListeners.outcome(result);
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            long sequence = recentSequence.incrementAndGet();
+            write(recentTraces[(int) (sequence % recentTraces.length)], sequence, trace, outcome, result, durationNanos);
+        }
+        if (outcome != HAPPY && failedTraces.length > 0) {
+            long failures = failedFlows.incrementAndGet();
+            long slot = failures <= failedTraces.length ? failures - 1 : ThreadLocalRandom.current().nextLong(failures);
+            if (slot < failedTraces.length) {
+                write(failedTraces[(int) slot], failures, trace, outcome, result, durationNanos);
+            }
+        }
+    }
+
+    private void write(TraceSlot slot, long sequence, TraceScratch trace, FlowOutcome outcome, BusinessCase<?, ?> result, long durationNanos) {
+        if (!slot.tryWrite(sequence, trace, outcome, FlowListeners.result(result), durationNanos)) {
+            droppedTraces.increment();
+        }
+    }
+
+    private static List<FlowTrace> read(TraceSlot[] slots) {
+        List<FlowTrace> traces = new ArrayList<>(slots.length);
+        for (TraceSlot slot : slots) {
+            FlowTrace trace = slot.read();
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        traces.sort(Comparator.comparingLong(FlowTrace::sequence));
+        return traces;
+    }
+
+    private static TraceSlot[] slots(int size, int maximumStages) {
+        TraceSlot[] slots = new TraceSlot[size];
+        for (int slot = 0; slot < size; slot++) {
+            slots[slot] = new TraceSlot(maximumStages);
+        }
+        return slots;
+    }
+
+    static String summary(FlowOutcome outcome, Object result) {
+        if (outcome == null || outcome == HAPPY) {
+            return null;
+        }
+        String description = result instanceof Exception ? result.getClass().getName() + ": " + ((Exception) result).getMessage() : String.valueOf(result);
+        if (description.length() <= SUMMARY_LENGTH) {
+            return description;
+        }
+        return description.substring(0, SUMMARY_LENGTH) + "...";
+    }
+}
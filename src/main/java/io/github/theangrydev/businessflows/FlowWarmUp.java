@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static io.github.theangrydev.businessflows.SyntheticTechnicalFailure.SYNTHETIC_TECHNICAL_FAILURE;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A {@link FlowWarmUp} drives flows through their happy, sad and technical failure outcomes at startup, before real
+ * traffic arrives.
+ * <p>
+ * The JIT compiles the branches that it has seen taken. If a service only sees happy flows for the first few minutes,
+ * the sad and technical failure branches of the stages are compiled as uncommon traps, and the first real failure
+ * causes a deoptimization and a latency spike. Warming up with synthetic inputs that cover every outcome means the
+ * branches are compiled before they are needed:
+ * <pre>{@code
+ * WarmUpReport report = FlowWarmUp.flowWarmUp()
+ *     .pipeline("checkout", checkout::run, asList(validOrder, outOfStockOrder, orderForAnUnknownCustomer))
+ *     .warmUp(10_000, Duration.ofSeconds(30));
+ * }</pre>
+ * The stages of the library itself are always warmed up as the {@code business-flows} pipeline. The warm up runs in
+ * rounds until a round does not cause any more compilation, which is when the latency should be steady.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class FlowWarmUp {
+
+    private static final long QUIET_PERIOD_MILLIS = 100;
+
+    private final List<WarmUpPipeline<?>> pipelines;
+
+    private FlowWarmUp(List<WarmUpPipeline<?>> pipelines) {
+        this.pipelines = pipelines;
+    }
+
+    /**
+     * @return A {@link FlowWarmUp} that warms up the stages of the library itself
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static FlowWarmUp flowWarmUp() {
+        List<WarmUpPipeline<?>> pipelines = new ArrayList<>();
+        pipelines.add(new WarmUpPipeline<>("business-flows", FlowWarmUp::libraryStages, Arrays.asList(FlowOutcome.values())));
+        return new FlowWarmUp(unmodifiableList(pipelines));
+    }
+
+    /**
+     * Also warm up the given pipeline. The synthetic inputs should between them lead to every outcome of the pipeline,
+     * and are used in turn.
+     *
+     * @param name            The name of the pipeline, to tell them apart in the {@link WarmUpReport}
+     * @param pipeline        The pipeline to warm up
+     * @param syntheticInputs The inputs to give the pipeline, which must not have any effect outside of the service
+     * @param <Input>         The type of input the pipeline takes
+     * @return A new {@link FlowWarmUp} that has the pipeline as well as all the pipelines in this one
+     * @throws IllegalArgumentException If there is already a pipeline with the name or there are no synthetic inputs
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Input> FlowWarmUp pipeline(String name, Mapping<Input, ? extends BusinessFlow<?, ?>> pipeline, List<? extends Input> syntheticInputs) {
+        for (WarmUpPipeline<?> existing : pipelines) {
+            if (existing.name.equals(name)) {
+                throw new IllegalArgumentException(format("There is already a pipeline called '%s'", name));
+            }
+        }
+        if (syntheticInputs.isEmpty()) {
+            throw new IllegalArgumentException(format("There are no synthetic inputs for the pipeline '%s'", name));
+        }
+        List<WarmUpPipeline<?>> withPipeline = new ArrayList<>(pipelines);
+        withPipeline.add(new WarmUpPipeline<>(name, pipeline, new ArrayList<>(syntheticInputs)));
+        return new FlowWarmUp(unmodifiableList(withPipeline));
+    }
+
+    /**
+     * Run every pipeline in rounds until the compilation settles, which is when a round and the quiet period after it
+     * do not cause any more compilation, or until the timeout. At least one round is run, however short the timeout. If
+     * the JVM does not monitor the compilation time, only one round is run.
+     *
+     * @param callsPerRound How many times to call each pipeline in a round
+     * @param timeout       How long to keep warming up for if the compilation does not settle
+     * @return What happened during the warm up
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public WarmUpReport warmUp(int callsPerRound, Duration timeout) {
+        if (callsPerRound < 1) {
+            throw new IllegalArgumentException(format("Calls per round must be positive but was %d", callsPerRound));
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException(format("Timeout must be positive but was %s", timeout));
+        }
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long[][] outcomes = new long[pipelines.size()][FlowOutcome.values().length];
+        long startedAtNanos = System.nanoTime();
+        int rounds = 0;
+        boolean settled = false;
+        do {
+            long compilationBefore = monitored ? compiler.getTotalCompilationTime() : 0;
+            runRound(callsPerRound, outcomes);
+            rounds++;
+            if (!monitored || !quietPeriod()) {
+                break;
+            }
+            settled = compiler.getTotalCompilationTime() == compilationBefore;
+        } while (!settled && System.nanoTime() - startedAtNanos < timeout.toNanos());
+        List<String> names = new ArrayList<>(pipelines.size());
+        for (WarmUpPipeline<?> pipeline : pipelines) {
+            names.add(pipeline.name);
+        }
+        return new WarmUpReport(unmodifiableList(names), outcomes, rounds, settled, Duration.ofNanos(System.nanoTime() - startedAtNanos));
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        List<String> names = new ArrayList<>(pipelines.size());
+        for (WarmUpPipeline<?> pipeline : pipelines) {
+            names.add(pipeline.name);
+        }
+        return format("FlowWarmUp{pipelines=%s}", names);
+    }
+
+    private void runRound(int callsPerRound, long[][] outcomes) {
+        for (int call = 0; call < callsPerRound; call++) {
+            for (int pipeline = 0; pipeline < pipelines.size(); pipeline++) {
+                outcomes[pipeline][pipelines.get(pipeline).call(call).ordinal()]++;
+            }
+        }
+    }
+
+    private static boolean quietPeriod() {
+        try {
+            Thread.sleep(QUIET_PERIOD_MILLIS);
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static HappyPath<Integer, String> libraryStages(FlowOutcome outcome) {
+        return HappyPath.<Integer, String>happyPath(outcome.ordinal())
+                .map(value -> value + 1)
+                .peek(value -> {
+                })
+                .attempt(value -> outcome == SAD ? PotentialFailure.failure("Synthetic sad outcome") : PotentialFailure.success())
+                .then(value -> {
+                    if (outcome == TECHNICAL_FAILURE) {
+                        throw SYNTHETIC_TECHNICAL_FAILURE;
+                    }
+                    return HappyPath.happyPath(value);
+                })
+                .ifSad()
+                .map(sad -> sad)
+                .peek(sad -> {
+                })
+                .then(sad -> SadPath.<Integer, String>sadPath(sad))
+                .ifTechnicalFailure()
+                .map(technicalFailure -> technicalFailure)
+                .peek(technicalFailure -> {
+                })
+                .ifHappy();
+    }
+
+    private static final class WarmUpPipeline<Input> {
+        private final String name;
+        private final Mapping<Input, ? extends BusinessFlow<?, ?>> pipeline;
+        private final List<? extends Input> syntheticInputs;
+
+        WarmUpPipeline(String name, Mapping<Input, ? extends BusinessFlow<?, ?>> pipeline, List<? extends Input> syntheticInputs) {
+            this.name = name;
+            this.pipeline = pipeline;
+            this.syntheticInputs = syntheticInputs;
+        }
+
+        FlowOutcome call(int call) {
+            try {
+                return FlowListeners.outcome(pipeline.map(syntheticInputs.get(call % syntheticInputs.size())));
+            } catch (Exception technicalFailure) {
+                return TECHNICAL_FAILURE;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link HappyCaseDoubleHappyPath} is a {@link DoubleHappyPath} that is actually happy.
+ */
+class HappyCaseDoubleHappyPath<Sad> implements DoubleHappyPath<Sad>, PrimitiveHappyCase {
+
+    private final double happy;
+
+    HappyCaseDoubleHappyPath(double happy) {
+        this.happy = happy;
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> then(DoubleToObjectMapping<? extends DoubleHappyPath<Sad>> action) {
+        long enteredAtNanos = stageEntered(action, THEN);
+        DoubleHappyPath<Sad> result;
+        try {
+            result = action.map(happy);
+        } catch (Exception e) {
+            result = DoubleHappyPath.technicalFailure(e);
+        }
+        return stageExited(action, THEN, enteredAtNanos, result);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> map(DoubleMapping mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        DoubleHappyPath<Sad> result;
+        try {
+            result = DoubleHappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = DoubleHappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> mapToObj(DoubleToObjectMapping<NewHappy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        HappyPath<NewHappy, Sad> result;
+        try {
+            result = HappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> attempt(DoubleToObjectMapping<PotentialFailure<Sad>> actionThatMightFail) {
+        long enteredAtNanos = stageEntered(actionThatMightFail, ATTEMPT);
+        DoubleHappyPath<Sad> result;
+        try {
+            result = actionThatMightFail.map(happy).toOptional().<DoubleHappyPath<Sad>>map(DoubleHappyPath::sadPath).orElse(this);
+        } catch (Exception e) {
+            result = DoubleHappyPath.technicalFailure(e);
+        }
+        return stageExited(actionThatMightFail, ATTEMPT, enteredAtNanos, result);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> peek(DoublePeek peek) {
+        long enteredAtNanos = stageEntered(peek, PEEK);
+        DoubleHappyPath<Sad> result;
+        try {
+            peek.peek(happy);
+            result = this;
+        } catch (Exception e) {
+            result = DoubleHappyPath.technicalFailure(e);
+        }
+        return stageExited(peek, PEEK, enteredAtNanos, result);
+    }
+
+    @Override
+    public HappyPath<Double, Sad> boxed() {
+        return HappyPath.happyPath(happy);
+    }
+
+    @Override
+    public double joinToDouble(DoubleMapping happyJoiner, ToDoubleMapping<Sad> sadJoiner, ToDoubleFunction<Exception> technicalFailureJoiner) {
+        try {
+            return happyJoiner.map(happy);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.applyAsDouble(technicalFailure);
+        }
+    }
+
+    @Override
+    public <Result> Result join(DoubleToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner) {
+        try {
+            return happyJoiner.map(happy);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.apply(technicalFailure);
+        }
+    }
+
+    @Override
+    public void consume(DoublePeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer) {
+        try {
+            happyConsumer.peek(happy);
+        } catch (Exception technicalFailure) {
+            technicalFailureConsumer.accept(technicalFailure);
+        }
+    }
+
+    @Override
+    public boolean isHappy() {
+        return true;
+    }
+
+    @Override
+    public boolean isSad() {
+        return false;
+    }
+
+    @Override
+    public boolean isTechnicalFailure() {
+        return false;
+    }
+
+    @Override
+    public double getAsDouble() {
+        return happy;
+    }
+
+    @Override
+    public Sad getSad() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Exception getTechnicalFailure() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Object boxedHappy() {
+        return happy;
+    }
+
+    @Override
+    public String toString() {
+        return "Happy: " + happy;
+    }
+}
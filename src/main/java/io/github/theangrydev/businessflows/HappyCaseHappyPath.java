@@ -19,6 +19,9 @@ package io.github.theangrydev.businessflows;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
+
+import static io.github.theangrydev.businessflows.FlowListeners.*;
 
 /**
  * A {@link HappyCaseHappyPath} is a {@link HappyPath} that is actually a {@link HappyCase}.
@@ -46,39 +49,148 @@ class HappyCaseHappyPath<Happy, Sad> extends HappyCase<Happy, Sad> implements Ha
 
     @Override
     public <NewHappy> HappyPath<NewHappy, Sad> then(Mapping<Happy, ? extends BusinessFlow<NewHappy, Sad>> action) {
+        long enteredAtNanos = stageEntered(action, THEN);
+        HappyPath<NewHappy, Sad> result;
+        try {
+            result = action.map(happy).ifHappy();
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(action, THEN, enteredAtNanos, result);
+    }
+
+    @SuppressWarnings("unchecked") // Only the Happy changes and it is not present so all that changes is the types
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> thenTrampolined(Mapping<Happy, Bounce<Happy, NewHappy, Sad>> step) {
+        long enteredAtNanos = stageEntered(step, THEN);
+        HappyPath<NewHappy, Sad> result;
+        try {
+            Bounce<Happy, NewHappy, Sad> bounce = step.map(happy);
+            while (bounce.bouncing() && bounce.next instanceof HappyCase) {
+                bounce = step.map(((HappyCase<Happy, Sad>) bounce.next).happy);
+            }
+            result = bounce.bouncing() ? (HappyPath<NewHappy, Sad>) bounce.next.ifHappy() : bounce.landed.ifHappy();
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(step, THEN, enteredAtNanos, result);
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> iterate(Predicate<? super Happy> condition, Mapping<Happy, Happy> step) {
+        long enteredAtNanos = stageEntered(step, LOOP);
+        HappyPath<Happy, Sad> result;
+        try {
+            Happy state = happy;
+            while (condition.test(state)) {
+                state = step.map(state);
+            }
+            result = HappyPath.happyPath(state);
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(step, LOOP, enteredAtNanos, result);
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> loopWhile(Predicate<? super Happy> condition, Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body) {
+        return loop(body, condition, true);
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> repeatUntil(Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body, Predicate<? super Happy> condition) {
+        return loop(body, condition.negate(), false);
+    }
+
+    @SuppressWarnings("unchecked") // A happy case of a BusinessFlow<Happy, Sad> is a HappyCase<Happy, Sad>
+    private HappyPath<Happy, Sad> loop(Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body, Predicate<? super Happy> condition, boolean checkFirst) {
+        long enteredAtNanos = stageEntered(body, LOOP);
+        HappyPath<Happy, Sad> result;
         try {
-            return action.map(happy).ifHappy();
+            BusinessFlow<Happy, Sad> flow = this;
+            if (!checkFirst || condition.test(happy)) {
+                do {
+                    flow = body.map(((HappyCase<Happy, Sad>) flow).happy);
+                } while (flow instanceof HappyCase && condition.test(((HappyCase<Happy, Sad>) flow).happy));
+            }
+            result = flow.ifHappy();
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = HappyPath.technicalFailure(e);
         }
+        return stageExited(body, LOOP, enteredAtNanos, result);
     }
 
     @Override
     public <NewHappy> HappyPath<NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        HappyPath<NewHappy, Sad> result;
+        try {
+            result = HappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public IntHappyPath<Sad> mapToInt(ToIntMapping<Happy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        IntHappyPath<Sad> result;
+        try {
+            result = IntHappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = IntHappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public LongHappyPath<Sad> mapToLong(ToLongMapping<Happy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        LongHappyPath<Sad> result;
+        try {
+            result = LongHappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = LongHappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> mapToDouble(ToDoubleMapping<Happy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        DoubleHappyPath<Sad> result;
         try {
-            return HappyPath.happyPath(mapping.map(happy));
+            result = DoubleHappyPath.happyPath(mapping.map(happy));
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = DoubleHappyPath.technicalFailure(e);
         }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
     }
 
     @Override
     public HappyPath<Happy, Sad> peek(Peek<Happy> peek) {
+        long enteredAtNanos = stageEntered(peek, PEEK);
+        HappyPath<Happy, Sad> result;
         try {
             peek.peek(happy);
-            return this;
+            result = this;
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = HappyPath.technicalFailure(e);
         }
+        return stageExited(peek, PEEK, enteredAtNanos, result);
     }
 
     @Override
     public HappyPath<Happy, Sad> attempt(ActionThatMightFail<Happy, Sad> actionThatMightFail) {
+        long enteredAtNanos = stageEntered(actionThatMightFail, ATTEMPT);
+        HappyPath<Happy, Sad> result;
         try {
-            return actionThatMightFail.attempt(happy).toHappyPath(happy);
+            result = actionThatMightFail.attempt(happy).toHappyPath(happy);
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = HappyPath.technicalFailure(e);
         }
+        return stageExited(actionThatMightFail, ATTEMPT, enteredAtNanos, result);
     }
 
     @Override
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link HappyCaseLongHappyPath} is a {@link LongHappyPath} that is actually happy.
+ */
+class HappyCaseLongHappyPath<Sad> implements LongHappyPath<Sad>, PrimitiveHappyCase {
+
+    private final long happy;
+
+    HappyCaseLongHappyPath(long happy) {
+        this.happy = happy;
+    }
+
+    @Override
+    public LongHappyPath<Sad> then(LongToObjectMapping<? extends LongHappyPath<Sad>> action) {
+        long enteredAtNanos = stageEntered(action, THEN);
+        LongHappyPath<Sad> result;
+        try {
+            result = action.map(happy);
+        } catch (Exception e) {
+            result = LongHappyPath.technicalFailure(e);
+        }
+        return stageExited(action, THEN, enteredAtNanos, result);
+    }
+
+    @Override
+    public LongHappyPath<Sad> map(LongMapping mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        LongHappyPath<Sad> result;
+        try {
+            result = LongHappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = LongHappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> mapToObj(LongToObjectMapping<NewHappy> mapping) {
+        long enteredAtNanos = stageEntered(mapping, MAP);
+        HappyPath<NewHappy, Sad> result;
+        try {
+            result = HappyPath.happyPath(mapping.map(happy));
+        } catch (Exception e) {
+            result = HappyPath.technicalFailure(e);
+        }
+        return stageExited(mapping, MAP, enteredAtNanos, result);
+    }
+
+    @Override
+    public LongHappyPath<Sad> attempt(LongToObjectMapping<PotentialFailure<Sad>> actionThatMightFail) {
+        long enteredAtNanos = stageEntered(actionThatMightFail, ATTEMPT);
+        LongHappyPath<Sad> result;
+        try {
+            result = actionThatMightFail.map(happy).toOptional().<LongHappyPath<Sad>>map(LongHappyPath::sadPath).orElse(this);
+        } catch (Exception e) {
+            result = LongHappyPath.technicalFailure(e);
+        }
+        return stageExited(actionThatMightFail, ATTEMPT, enteredAtNanos, result);
+    }
+
+    @Override
+    public LongHappyPath<Sad> peek(LongPeek peek) {
+        long enteredAtNanos = stageEntered(peek, PEEK);
+        LongHappyPath<Sad> result;
+        try {
+            peek.peek(happy);
+            result = this;
+        } catch (Exception e) {
+            result = LongHappyPath.technicalFailure(e);
+        }
+        return stageExited(peek, PEEK, enteredAtNanos, result);
+    }
+
+    @Override
+    public HappyPath<Long, Sad> boxed() {
+        return HappyPath.happyPath(happy);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> asDoubleHappyPath() {
+        return DoubleHappyPath.happyPath(happy);
+    }
+
+    @Override
+    public long joinToLong(LongMapping happyJoiner, ToLongMapping<Sad> sadJoiner, ToLongFunction<Exception> technicalFailureJoiner) {
+        try {
+            return happyJoiner.map(happy);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.applyAsLong(technicalFailure);
+        }
+    }
+
+    @Override
+    public <Result> Result join(LongToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner) {
+        try {
+            return happyJoiner.map(happy);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.apply(technicalFailure);
+        }
+    }
+
+    @Override
+    public void consume(LongPeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer) {
+        try {
+            happyConsumer.peek(happy);
+        } catch (Exception technicalFailure) {
+            technicalFailureConsumer.accept(technicalFailure);
+        }
+    }
+
+    @Override
+    public boolean isHappy() {
+        return true;
+    }
+
+    @Override
+    public boolean isSad() {
+        return false;
+    }
+
+    @Override
+    public boolean isTechnicalFailure() {
+        return false;
+    }
+
+    @Override
+    public long getAsLong() {
+        return happy;
+    }
+
+    @Override
+    public Sad getSad() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Exception getTechnicalFailure() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Object boxedHappy() {
+        return happy;
+    }
+
+    @Override
+    public String toString() {
+        return "Happy: " + happy;
+    }
+}
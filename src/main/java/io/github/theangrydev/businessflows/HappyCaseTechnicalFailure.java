@@ -18,6 +18,9 @@
 package io.github.theangrydev.businessflows;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 /**
  * A {@link HappyCaseTechnicalFailure} is a {@link TechnicalFailure} that is actually a {@link HappyCase}.
@@ -63,6 +66,11 @@ class HappyCaseTechnicalFailure<Happy, Sad> extends HappyCase<Happy, Sad> implem
         return SadPath.happyPath(happy);
     }
 
+    @Override
+    public CompletionStage<HappyPath<Happy, Sad>> retry(Retry retry, Attempt<Happy> attempt) {
+        return completedFuture(HappyPath.happyPath(happy));
+    }
+
     @Override
     public TechnicalFailure<Happy, Sad> peek(Peek<Exception> peek) {
         return this;
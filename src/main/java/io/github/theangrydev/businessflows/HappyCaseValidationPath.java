@@ -17,8 +17,14 @@
  */
 package io.github.theangrydev.businessflows;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static io.github.theangrydev.businessflows.FlowListeners.*;
 
 /**
  * A {@link HappyCaseValidationPath} is a {@link ValidationPath} that is actually a {@link HappyCase}.
@@ -40,22 +46,69 @@ class HappyCaseValidationPath<Happy, Sad, SadAggregate> extends HappyCaseHappyPa
     @Override
     public ValidationPath<Happy, Sad, SadAggregate> validateAllInto(Mapping<List<Sad>, SadAggregate> sadAggregateMapping, List<? extends Validator<Happy, Sad>> validators) {
         try {
-            List<Sad> validationFailures = validationFailures(validators);
-            if (validationFailures.isEmpty()) {
-                return ValidationPath.validationPathInto(happy, sadAggregateMapping);
-            }
-            SadAggregate sadAggregate = sadAggregateMapping.map(validationFailures);
-            return ValidationPath.validationFailure(sadAggregate);
+            return aggregate(sadAggregateMapping, validationFailures(validators));
+        } catch (Exception technicalFailure) {
+            return ValidationPath.technicalFailure(technicalFailure);
+        }
+    }
+
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators) {
+        try {
+            return aggregate(sadAggregateMapping, validators.validationFailures(happy));
         } catch (Exception technicalFailure) {
             return ValidationPath.technicalFailure(technicalFailure);
         }
     }
 
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators, Executor executor) {
+        try {
+            return aggregate(sadAggregateMapping, validators.validationFailures(happy, executor));
+        } catch (Exception technicalFailure) {
+            return ValidationPath.technicalFailure(technicalFailure);
+        }
+    }
+
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateEach(EachValidator<Happy, ?, Sad> validator) {
+        try {
+            return aggregate(sadAggregateMapping, validator.validationFailures(happy));
+        } catch (Exception technicalFailure) {
+            return ValidationPath.technicalFailure(technicalFailure);
+        }
+    }
+
+    private ValidationPath<Happy, Sad, SadAggregate> aggregate(Mapping<List<Sad>, SadAggregate> sadAggregateMapping, List<Sad> validationFailures) throws Exception {
+        if (validationFailures.isEmpty()) {
+            return ValidationPath.validationPathInto(happy, sadAggregateMapping);
+        }
+        SadAggregate sadAggregate = sadAggregateMapping.map(validationFailures);
+        return ValidationPath.validationFailure(sadAggregate);
+    }
+
     private List<Sad> validationFailures(List<? extends Validator<Happy, Sad>> validators) throws Exception {
         List<Sad> validationFailures = new ArrayList<>(validators.size());
         for (Validator<Happy, Sad> validator : validators) {
-            validator.attempt(happy).ifPresent(validationFailures::add);
+            long enteredAtNanos = stageEntered(validator, VALIDATE);
+            PotentialFailure<Sad> potentialFailure;
+            try {
+                potentialFailure = validator.attempt(happy);
+            } catch (Exception technicalFailure) {
+                throw stageFailed(validator, VALIDATE, enteredAtNanos, technicalFailure);
+            }
+            stageExited(validator, VALIDATE, enteredAtNanos, potentialFailure).ifPresent(validationFailures::add);
         }
         return validationFailures;
     }
+
+    @Override
+    public CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline) {
+        return validateAllAsync(validators, deadline, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline, Executor executor) {
+        return AsyncValidation.validateAll(happy, sadAggregateMapping, validators, deadline, executor);
+    }
 }
@@ -19,7 +19,9 @@ package io.github.theangrydev.businessflows;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
 import static io.github.theangrydev.businessflows.ApiFeatureStability.STABLE;
 import static io.github.theangrydev.businessflows.ApiVersionHistory.*;
 
@@ -134,6 +136,55 @@ public interface HappyPath<Happy, Sad> extends BusinessFlow<Happy, Sad>, WithOpt
     @ApiFeature(since = VERSION_1_0_0, stability = STABLE)
     <NewHappy> HappyPath<NewHappy, Sad> then(Mapping<Happy, ? extends BusinessFlow<NewHappy, Sad>> action);
 
+    /**
+     * If the underlying business case is happy, then apply the given step until it lands, otherwise do nothing to the
+     * underlying case. Each time the step bounces it is applied again to the happy object in the flow it bounced with,
+     * in a loop rather than recursively, so there is no limit to the number of bounces. The first sad or technical
+     * failure stops the bouncing and is the result.
+     *
+     * @param step       The step to apply to an existing happy case and then to each happy case it bounces with
+     * @param <NewHappy> The type of happy object that will be present after the step lands
+     * @return The flow the step landed on, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    <NewHappy> HappyPath<NewHappy, Sad> thenTrampolined(Mapping<Happy, Bounce<Happy, NewHappy, Sad>> step);
+
+    /**
+     * If the underlying business case is happy, then apply the given step to it for as long as the condition holds,
+     * otherwise do nothing to the underlying case. The happy object is carried from one step to the next as it is,
+     * without a {@link HappyPath} in between. If a step or the condition throws, that is a technical failure.
+     *
+     * @param condition The condition to check before each step
+     * @param step      The step that produces the next happy object from the previous one
+     * @return The happy object after the last step, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    HappyPath<Happy, Sad> iterate(Predicate<? super Happy> condition, Mapping<Happy, Happy> step);
+
+    /**
+     * If the underlying business case is happy, then apply the given body to it for as long as the condition holds,
+     * otherwise do nothing to the underlying case. The condition is checked before each iteration, so the body may not
+     * be applied at all. Iterations run in a loop in constant stack and the first sad or technical failure stops it.
+     *
+     * @param condition The condition to check before each iteration
+     * @param body      The body that produces the next flow from the previous happy object
+     * @return The flow after the last iteration, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    HappyPath<Happy, Sad> loopWhile(Predicate<? super Happy> condition, Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body);
+
+    /**
+     * If the underlying business case is happy, then apply the given body to it until the condition holds, otherwise do
+     * nothing to the underlying case. The condition is checked after each iteration, so the body is applied at least
+     * once. Iterations run in a loop in constant stack and the first sad or technical failure stops it.
+     *
+     * @param body      The body that produces the next flow from the previous happy object
+     * @param condition The condition to check after each iteration
+     * @return The flow after the last iteration, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    HappyPath<Happy, Sad> repeatUntil(Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body, Predicate<? super Happy> condition);
+
     /**
      * If the underlying business case is happy, then apply the given mapping, otherwise do nothing to the underlying case.
      *
@@ -144,6 +195,36 @@ public interface HappyPath<Happy, Sad> extends BusinessFlow<Happy, Sad>, WithOpt
     @ApiFeature(since = VERSION_1_0_0, stability = STABLE)
     <NewHappy> HappyPath<NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping);
 
+    /**
+     * If the underlying business case is happy, then apply the given mapping to a {@code int}, otherwise do nothing to
+     * the underlying case. The rest of the flow is specialised to a {@code int}, so the happy value is not boxed.
+     *
+     * @param mapping The mapping to apply to an existing happy case
+     * @return An {@link IntHappyPath} that is the result of applying the mapping to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    IntHappyPath<Sad> mapToInt(ToIntMapping<Happy> mapping);
+
+    /**
+     * If the underlying business case is happy, then apply the given mapping to a {@code long}, otherwise do nothing to
+     * the underlying case. The rest of the flow is specialised to a {@code long}, so the happy value is not boxed.
+     *
+     * @param mapping The mapping to apply to an existing happy case
+     * @return An {@link LongHappyPath} that is the result of applying the mapping to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    LongHappyPath<Sad> mapToLong(ToLongMapping<Happy> mapping);
+
+    /**
+     * If the underlying business case is happy, then apply the given mapping to a {@code double}, otherwise do nothing to
+     * the underlying case. The rest of the flow is specialised to a {@code double}, so the happy value is not boxed.
+     *
+     * @param mapping The mapping to apply to an existing happy case
+     * @return An {@link DoubleHappyPath} that is the result of applying the mapping to the existing happy path, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    DoubleHappyPath<Sad> mapToDouble(ToDoubleMapping<Happy> mapping);
+
     /**
      * Attempt an action that might fail and be mapped to a {@link Sad} object.
      *
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link Validator} for one element of a collection, that is told where the element is in the collection so that the
+ * validation failure can say which element it is about.
+ *
+ * @param <Element> The type of element to validate
+ * @param <Sad>     The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+@FunctionalInterface
+public interface IndexedValidator<Element, Sad> {
+
+    /**
+     * Validate an element of a collection.
+     *
+     * @param index   The index of the element in the collection
+     * @param element The element
+     * @return The outcome of the validation
+     * @throws Exception If the validation could not be performed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    PotentialFailure<Sad> attempt(int index, Element element) throws Exception;
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.ByteBuffer;
+
+import static io.github.theangrydev.businessflows.Varints.*;
+
+/**
+ * The {@link ValueCodec#ints()} codec.
+ */
+final class IntCodec implements ValueCodec<Integer> {
+
+    static final IntCodec INSTANCE = new IntCodec();
+
+    private IntCodec() {
+    }
+
+    @Override
+    public int encodedLength(Integer value) {
+        return varintLength(zigZag(value));
+    }
+
+    @Override
+    public void encode(Integer value, ByteBuffer buffer) {
+        writeVarint(zigZag(value), buffer);
+    }
+
+    @Override
+    public Integer decode(ByteBuffer payload) {
+        return (int) unZigZag(readVarint(payload));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * Similar to a {@link java.util.function.IntUnaryOperator} but is allowed to throw an {@link Exception}.
+ */
+@FunctionalInterface
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface IntMapping {
+
+    /**
+     * Map the old {@code int} to a new {@code int}.
+     *
+     * @param old The old argument
+     * @return The new result
+     * @throws Exception If there is a technical failure during the mapping
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    int map(int old) throws Exception;
+}
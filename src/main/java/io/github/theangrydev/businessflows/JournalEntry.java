@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link JournalEntry} is one flow outcome that was read back from an {@link OutcomeJournal}.
+ *
+ * @param <Happy> The type of happy object in the flow
+ * @param <Sad>   The type of sad object in the flow
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class JournalEntry<Happy, Sad> {
+
+    private final long timestampMillis;
+    private final HappyPath<Happy, Sad> flow;
+
+    JournalEntry(long timestampMillis, HappyPath<Happy, Sad> flow) {
+        this.timestampMillis = timestampMillis;
+        this.flow = flow;
+    }
+
+    /**
+     * @return When the outcome was appended, in milliseconds since the epoch
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long timestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return The outcome, which is a {@link DecodedTechnicalFailure} if it was a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public HappyPath<Happy, Sad> flow() {
+        return flow;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return timestampMillis + " " + flow;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static io.github.theangrydev.businessflows.JournalSegment.*;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * The {@link Iterator} that {@link OutcomeJournal#replay(Path, FlowCodec)} reads the records of the segments with.
+ */
+class JournalReplay<Happy, Sad> implements Iterator<JournalEntry<Happy, Sad>> {
+
+    private final Iterator<Path> segments;
+    private final FlowCodec<Happy, Sad> codec;
+    private MappedByteBuffer segment;
+    private JournalEntry<Happy, Sad> next;
+
+    JournalReplay(Iterator<Path> segments, FlowCodec<Happy, Sad> codec) {
+        this.segments = segments;
+        this.codec = codec;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (segment == null) {
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                segment = map(segments.next());
+            }
+            next = readRecord();
+        }
+        return true;
+    }
+
+    @Override
+    public JournalEntry<Happy, Sad> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JournalEntry<Happy, Sad> entry = next;
+        next = null;
+        return entry;
+    }
+
+    private JournalEntry<Happy, Sad> readRecord() {
+        while (segment.remaining() >= HEADER_LENGTH) {
+            int start = segment.position();
+            int state = segment.getInt(start + STATE_OFFSET);
+            if (state == END_OF_SEGMENT) {
+                break;
+            }
+            if (state == UNCLAIMED) {
+                segment.position(start + RECORD_ALIGNMENT);
+                continue;
+            }
+            int length = Math.abs(state);
+            int next = start + recordLength(length);
+            if (state < 0) {
+                segment.position(next);
+                continue;
+            }
+            long timestampMillis = segment.getLong(start + TIMESTAMP_OFFSET);
+            segment.position(start + HEADER_LENGTH);
+            JournalEntry<Happy, Sad> entry = new JournalEntry<>(timestampMillis, codec.read(segment));
+            segment.position(next);
+            return entry;
+        }
+        segment = null;
+        return null;
+    }
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            return channel.map(READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
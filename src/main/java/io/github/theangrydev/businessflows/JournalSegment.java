@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * One memory-mapped file of an {@link OutcomeJournal}.
+ * <p>
+ * A record is a header followed by the flow as written by a {@link FlowCodec}. The header is the state of the record,
+ * which is the length of the flow once the record has been committed, then the time it was appended. The state is:
+ * <ul>
+ * <li>{@link #UNCLAIMED} if no writer has got this far yet</li>
+ * <li>minus the length of the flow while a writer has claimed the record but not committed it yet</li>
+ * <li>the length of the flow once the record has been committed</li>
+ * <li>{@link #END_OF_SEGMENT} if the rest of the segment was skipped because the next record did not fit</li>
+ * </ul>
+ * Records start on a multiple of {@link #RECORD_ALIGNMENT} bytes. A writer that stopped after claiming a record but
+ * before writing its header leaves a gap of zeros, so the next record is the next aligned state that is not
+ * {@link #UNCLAIMED}. A writer that could not write its record aborts it, which leaves it claimed but counts it as
+ * committed, so that the segment can still be retired.
+ * <p>
+ * The file is only mapped while the segment is in use. The channel is closed as soon as the file is mapped, and the
+ * mapping is released once the segment is retired, rather than when the garbage collector gets round to it. If the JVM
+ * does not allow the mapping to be released, it is left to the garbage collector.
+ */
+final class JournalSegment {
+
+    static final int UNCLAIMED = 0;
+    static final int END_OF_SEGMENT = Integer.MIN_VALUE;
+    static final int STATE_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 4;
+    static final int HEADER_LENGTH = 12;
+    static final int RECORD_ALIGNMENT = 8;
+    static final String SUFFIX = ".journal";
+
+    private static final Consumer<ByteBuffer> UNMAP = unmapper();
+
+    final long index;
+    final MappedByteBuffer buffer;
+    final AtomicInteger claimed = new AtomicInteger();
+    final AtomicInteger committed = new AtomicInteger();
+    private final AtomicInteger sealedAt = new AtomicInteger(Integer.MAX_VALUE);
+    private boolean released;
+
+    private JournalSegment(long index, MappedByteBuffer buffer) {
+        this.index = index;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long index, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName(index)), CREATE_NEW, READ, WRITE)) {
+            return new JournalSegment(index, channel.map(READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * @param length The length of the flow
+     * @return The number of bytes the record for the flow takes up, including the header and the alignment
+     */
+    static int recordLength(int length) {
+        return (HEADER_LENGTH + length + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+    }
+
+    /**
+     * @param end The position the first claim that did not fit started at, which is where the records end
+     */
+    void seal(int end) {
+        sealedAt.accumulateAndGet(end, Math::min);
+    }
+
+    /**
+     * @return True if the segment has been sealed and every record that was claimed in it has been committed
+     */
+    boolean allCommitted() {
+        return committed.get() == sealedAt.get();
+    }
+
+    /**
+     * Force the segment to disk, unless it has been released.
+     */
+    synchronized void force() {
+        if (!released) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Force the segment to disk for the last time and release the mapping. Nothing must touch the buffer after this.
+     */
+    synchronized void release() {
+        if (!released) {
+            released = true;
+            buffer.force();
+            UNMAP.accept(buffer);
+        }
+    }
+
+    static String fileName(long index) {
+        return format("%016d%s", index, SUFFIX);
+    }
+
+    static long index(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    }
+
+    static boolean isSegment(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.length() == 16 + SUFFIX.length() && fileName.endsWith(SUFFIX) && fileName.substring(0, 16).chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Java 9 onwards releases a mapping through {@code Unsafe.invokeCleaner}, and Java 8 through the cleaner of the buffer.
+     */
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeQuietly(invokeCleaner, unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException notJava9) {
+            return buffer -> {
+                try {
+                    Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(buffer);
+                    if (cleaner != null) {
+                        invokeQuietly(cleaner.getClass().getMethod("clean"), cleaner);
+                    }
+                } catch (ReflectiveOperationException | RuntimeException couldNotRelease) {
+                    // Left to the garbage collector
+                }
+            };
+        }
+    }
+
+    private static void invokeQuietly(Method method, Object target, Object... arguments) {
+        try {
+            method.setAccessible(true);
+            method.invoke(target, arguments);
+        } catch (ReflectiveOperationException | RuntimeException couldNotRelease) {
+            // Left to the garbage collector
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.ByteBuffer;
+
+import static io.github.theangrydev.businessflows.Varints.*;
+
+/**
+ * The {@link ValueCodec#longs()} codec.
+ */
+final class LongCodec implements ValueCodec<Long> {
+
+    static final LongCodec INSTANCE = new LongCodec();
+
+    private LongCodec() {
+    }
+
+    @Override
+    public int encodedLength(Long value) {
+        return varintLength(zigZag(value));
+    }
+
+    @Override
+    public void encode(Long value, ByteBuffer buffer) {
+        writeVarint(zigZag(value), buffer);
+    }
+
+    @Override
+    public Long decode(ByteBuffer payload) {
+        return unZigZag(readVarint(payload));
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.JournalSegment.*;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An {@link OutcomeJournal} is an append-only record of flow outcomes, e.g. for an audit trail, that is cheap enough to
+ * write to on every flow. Feed it from the end of a flow:
+ * <pre>{@code
+ * flow.consume(journal::appendHappy, journal::appendSad, journal::appendTechnicalFailure);
+ * }</pre>
+ * Outcomes are written with a {@link FlowCodec} into segment files in a directory, which are memory-mapped, so an
+ * append is a write to memory rather than a system call. When a segment is full the journal rolls on to a new one.
+ * <p>
+ * Concurrent writers do not lock. Each one claims the room for its record by advancing the claimed position of the
+ * segment atomically, then writes the record and commits it by writing its length into the header last. If the
+ * {@link FlowCodec} throws part way through, the record is aborted and skipped by replay. Appending does not allocate, apart from anything the {@link ValueCodec ValueCodecs} allocate to write the happy and sad objects.
+ * <p>
+ * Use {@link #replay(Path, FlowCodec)} to read the outcomes back. Segments, including the ones the journal has already
+ * rolled on from, are forced to disk when the journal is {@link #flush() flushed} or {@link #close() closed}; until then
+ * it is up to the operating system when they are written.
+ *
+ * @param <Happy> The type of happy object in the flows
+ * @param <Sad>   The type of sad object in the flows
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class OutcomeJournal<Happy, Sad> implements Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FlowCodec<Happy, Sad> codec;
+    private final ThreadLocal<SegmentWriter> writers = ThreadLocal.withInitial(SegmentWriter::new);
+    private final List<JournalSegment> unforced = new ArrayList<>();
+    private final AtomicInteger appending = new AtomicInteger();
+    private volatile JournalSegment current;
+    private volatile boolean closed;
+
+    private OutcomeJournal(Path directory, int segmentSize, FlowCodec<Happy, Sad> codec, JournalSegment current) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        this.current = current;
+    }
+
+    /**
+     * Open a journal that appends to a new segment after any segments that are already in the directory.
+     *
+     * @param directory   The directory to keep the segment files in, which is created if need be
+     * @param segmentSize The size of each segment file, in bytes
+     * @param codec       The {@link FlowCodec} to write the outcomes with
+     * @param <Happy>     The type of happy object in the flows
+     * @param <Sad>       The type of sad object in the flows
+     * @return An {@link OutcomeJournal} that is ready to append to
+     * @throws IOException If the first segment could not be created
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Sad> OutcomeJournal<Happy, Sad> outcomeJournal(Path directory, int segmentSize, FlowCodec<Happy, Sad> codec) throws IOException {
+        if (segmentSize <= HEADER_LENGTH || segmentSize > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException(format("Segment size must be more than %d and at most %d bytes but was %d", HEADER_LENGTH, Integer.MAX_VALUE / 2, segmentSize));
+        }
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        long next = existing.isEmpty() ? 0 : JournalSegment.index(existing.get(existing.size() - 1)) + 1;
+        return new OutcomeJournal<>(directory, segmentSize, codec, JournalSegment.create(directory, next, segmentSize));
+    }
+
+    /**
+     * Read back the outcomes in a journal directory, in the order the records were claimed in. Records that were
+     * claimed but never committed, e.g. because the process stopped part way through appending, are skipped, but the
+     * committed records after them are not.
+     *
+     * @param directory The directory the segment files are in
+     * @param codec     The {@link FlowCodec} the outcomes were written with
+     * @param <Happy>   The type of happy object in the flows
+     * @param <Sad>     The type of sad object in the flows
+     * @return An {@link Iterator} over the outcomes, that maps the segment files one at a time as it goes
+     * @throws IOException If the directory could not be listed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Sad> Iterator<JournalEntry<Happy, Sad>> replay(Path directory, FlowCodec<Happy, Sad> codec) throws IOException {
+        return new JournalReplay<>(segments(directory).iterator(), codec);
+    }
+
+    /**
+     * @param happy The happy outcome to append
+     * @throws IllegalArgumentException If the record would not fit in a segment
+     * @throws UncheckedIOException     If a new segment was needed and could not be created
+     * @throws IllegalStateException    If the journal has been closed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void appendHappy(Happy happy) {
+        int payloadLength = codec.happyPayloadLength(happy);
+        int length = FlowCodec.flowLength(payloadLength);
+        SegmentWriter writer = claim(length);
+        try {
+            codec.writeHappy(happy, payloadLength, writer.buffer);
+            writer.commit(length);
+        } finally {
+            finish(writer, length);
+        }
+    }
+
+    /**
+     * @param sad The sad outcome to append
+     * @throws IllegalArgumentException If the record would not fit in a segment
+     * @throws UncheckedIOException     If a new segment was needed and could not be created
+     * @throws IllegalStateException    If the journal has been closed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void appendSad(Sad sad) {
+        int payloadLength = codec.sadPayloadLength(sad);
+        int length = FlowCodec.flowLength(payloadLength);
+        SegmentWriter writer = claim(length);
+        try {
+            codec.writeSad(sad, payloadLength, writer.buffer);
+            writer.commit(length);
+        } finally {
+            finish(writer, length);
+        }
+    }
+
+    /**
+     * @param technicalFailure The technical failure outcome to append, which is written as its class name and message
+     * @throws IllegalArgumentException If the record would not fit in a segment
+     * @throws UncheckedIOException     If a new segment was needed and could not be created
+     * @throws IllegalStateException    If the journal has been closed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void appendTechnicalFailure(Exception technicalFailure) {
+        int payloadLength = FlowCodec.technicalFailurePayloadLength(technicalFailure);
+        int length = FlowCodec.flowLength(payloadLength);
+        SegmentWriter writer = claim(length);
+        try {
+            FlowCodec.writeTechnicalFailure(technicalFailure, payloadLength, writer.buffer);
+            writer.commit(length);
+        } finally {
+            finish(writer, length);
+        }
+    }
+
+    /**
+     * Force the current segment to disk, along with the segments the journal has rolled on from since the last flush. A
+     * rolled segment is forced again on every flush until all of the records that were claimed in it are committed, and
+     * then it is retired.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public void flush() {
+        List<JournalSegment> rolled;
+        synchronized (this) {
+            rolled = new ArrayList<>(unforced);
+        }
+        for (JournalSegment segment : rolled) {
+            if (segment.allCommitted()) {
+                segment.release();
+                synchronized (this) {
+                    unforced.remove(segment);
+                }
+            } else {
+                segment.force();
+            }
+        }
+        current.force();
+    }
+
+    /**
+     * Stop accepting appends, wait for the appends that are in progress to finish, then force the segments to disk, as
+     * in {@link #flush()}, and release them.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void close() {
+        closed = true;
+        while (appending.get() != 0) {
+            Thread.yield();
+        }
+        flush();
+        current.release();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("OutcomeJournal{directory=%s, segment=%d}", directory, current.index);
+    }
+
+    synchronized int unforcedSegments() {
+        return unforced.size();
+    }
+
+    /**
+     * An append counts as in progress from its claim to its {@link #finish}, so that {@link #close()} can wait for it
+     * before the segment it writes to is forced and released.
+     */
+    private SegmentWriter claim(int length) {
+        int recordLength = recordLength(length);
+        if (recordLength > segmentSize) {
+            throw new IllegalArgumentException(format("A record of %d bytes does not fit in a segment of %d bytes", recordLength, segmentSize));
+        }
+        appending.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The journal has been closed");
+            }
+            return claimInSegment(length, recordLength);
+        } catch (RuntimeException | Error e) {
+            appending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void finish(SegmentWriter writer, int length) {
+        writer.abortIfUncommitted(length);
+        appending.decrementAndGet();
+    }
+
+    private SegmentWriter claimInSegment(int length, int recordLength) {
+        while (true) {
+            JournalSegment segment = current;
+            int start = segment.claimed.getAndAdd(recordLength);
+            if (start + recordLength <= segmentSize) {
+                SegmentWriter writer = writers.get();
+                writer.claimed(segment, start, length);
+                return writer;
+            }
+            if (start <= segmentSize - HEADER_LENGTH) {
+                segment.buffer.putInt(start + STATE_OFFSET, END_OF_SEGMENT);
+            }
+            segment.seal(start);
+            roll(segment);
+        }
+    }
+
+    private synchronized void roll(JournalSegment full) {
+        if (current != full) {
+            return;
+        }
+        try {
+            current = JournalSegment.create(directory, full.index + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unforced.add(full);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().collect(toList());
+        }
+    }
+
+    /**
+     * The view of a segment that one thread writes its records through, so that writers do not share a buffer position.
+     */
+    private static final class SegmentWriter {
+        private final AtomicInteger fence = new AtomicInteger();
+        private JournalSegment segment;
+        private ByteBuffer buffer;
+        private int start;
+        private boolean committed;
+
+        void claimed(JournalSegment segment, int start, int length) {
+            if (this.segment != segment) {
+                this.segment = segment;
+                this.buffer = segment.buffer.duplicate();
+            }
+            this.start = start;
+            this.committed = false;
+            buffer.putInt(start + STATE_OFFSET, -length);
+            // The increment is a full fence, so a record is never written without its header, which replay relies on to
+            // tell a gap left by a writer that stopped from a record
+            fence.incrementAndGet();
+            buffer.putLong(start + TIMESTAMP_OFFSET, System.currentTimeMillis());
+            buffer.position(start + HEADER_LENGTH);
+        }
+
+        void commit(int length) {
+            // The increment is a full fence, so the record is written before the state says it is committed
+            segment.committed.addAndGet(recordLength(length));
+            buffer.putInt(start + STATE_OFFSET, length);
+            committed = true;
+        }
+
+        /**
+         * The record keeps its claimed state, so replay skips it, but it counts as committed so the segment can retire.
+         */
+        void abortIfUncommitted(int length) {
+            if (!committed) {
+                segment.committed.addAndGet(recordLength(length));
+                committed = true;
+            }
+        }
+    }
+}
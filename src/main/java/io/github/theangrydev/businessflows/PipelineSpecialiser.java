@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.function.Function;
+
+/**
+ * Defines a fresh copy of {@link PipelineStages} for each pipeline, in a class loader of its own.
+ * <p>
+ * The JIT keeps the profile of each call site with the bytecode of the class it is in, so each copy has call sites
+ * that only see the stages of the one pipeline that uses it. If the template cannot be copied, e.g. because the class
+ * files are not readable as resources, the shared template is used instead, which behaves the same but is not
+ * specialised.
+ */
+final class PipelineSpecialiser {
+
+    private static final byte[] TEMPLATE = template();
+
+    private PipelineSpecialiser() {
+    }
+
+    static Function<Object, HappyPath<Object, Object>> specialise(boolean[] thenStages, Object[] stages) {
+        if (TEMPLATE.length == 0) {
+            return new PipelineStages(thenStages, stages);
+        }
+        try {
+            Class<?> copy = new CopyLoader(PipelineStages.class.getClassLoader()).define(TEMPLATE);
+            Constructor<?> constructor = copy.getDeclaredConstructor(boolean[].class, Object[].class);
+            constructor.setAccessible(true);
+            @SuppressWarnings("unchecked") // The copy is a PipelineStages, which is a Function<Object, HappyPath<Object, Object>>
+            Function<Object, HappyPath<Object, Object>> specialised = (Function<Object, HappyPath<Object, Object>>) constructor.newInstance(thenStages, stages);
+            return specialised;
+        } catch (ReflectiveOperationException | LinkageError | SecurityException couldNotCopy) {
+            return new PipelineStages(thenStages, stages);
+        }
+    }
+
+    static boolean isSpecialised(Function<Object, HappyPath<Object, Object>> stages) {
+        return stages.getClass().getClassLoader() instanceof CopyLoader;
+    }
+
+    private static byte[] template() {
+        try (InputStream input = PipelineStages.class.getResourceAsStream(PipelineStages.class.getSimpleName() + ".class")) {
+            if (input == null) {
+                return new byte[0];
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } catch (IOException | SecurityException couldNotRead) {
+            return new byte[0];
+        }
+    }
+
+    private static final class CopyLoader extends ClassLoader {
+
+        CopyLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(byte[] template) {
+            return defineClass(PipelineStages.class.getName(), template, 0, template.length);
+        }
+    }
+}
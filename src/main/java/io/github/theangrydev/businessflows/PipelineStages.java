@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Function;
+
+/**
+ * The stages of a {@link FlowPipeline}, run one after the other.
+ * <p>
+ * This class is also the template that {@link PipelineSpecialiser} copies for each specialised pipeline, so it must
+ * only use the public API of the library and must not have any nested classes or lambdas. Each of the first
+ * {@link #UNROLLED_STAGES} stages is called from its own call site, so that in a copy that only one pipeline uses each
+ * call site only ever sees one class of {@link Mapping} and the JIT can inline it.
+ */
+final class PipelineStages implements Function<Object, HappyPath<Object, Object>> {
+
+    static final int UNROLLED_STAGES = 16;
+
+    private final boolean[] thenStages;
+    private final Object[] stages;
+
+    PipelineStages(boolean[] thenStages, Object[] stages) {
+        this.thenStages = thenStages;
+        this.stages = stages;
+    }
+
+    @SuppressWarnings("unchecked") // The stages of a FlowPipeline are type safe when they are added
+    @Override
+    public HappyPath<Object, Object> apply(Object input) {
+        Object happy = input;
+        try {
+            for (int stage = 0; stage < stages.length; stage++) {
+                Object result = stage(stage, happy);
+                if (thenStages[stage]) {
+                    HappyPath<Object, Object> flow = ((BusinessFlow<Object, Object>) result).ifHappy();
+                    if (!flow.isHappy()) {
+                        return flow;
+                    }
+                    happy = flow.get();
+                } else {
+                    happy = result;
+                }
+            }
+        } catch (Exception technicalFailure) {
+            return HappyPath.technicalFailure(technicalFailure);
+        }
+        return HappyPath.happyPath(happy);
+    }
+
+    @SuppressWarnings("unchecked") // The stages of a FlowPipeline are type safe when they are added
+    private Object stage(int stage, Object happy) throws Exception {
+        switch (stage) {
+            case 0:
+                return ((Mapping<Object, Object>) stages[0]).map(happy);
+            case 1:
+                return ((Mapping<Object, Object>) stages[1]).map(happy);
+            case 2:
+                return ((Mapping<Object, Object>) stages[2]).map(happy);
+            case 3:
+                return ((Mapping<Object, Object>) stages[3]).map(happy);
+            case 4:
+                return ((Mapping<Object, Object>) stages[4]).map(happy);
+            case 5:
+                return ((Mapping<Object, Object>) stages[5]).map(happy);
+            case 6:
+                return ((Mapping<Object, Object>) stages[6]).map(happy);
+            case 7:
+                return ((Mapping<Object, Object>) stages[7]).map(happy);
+            case 8:
+                return ((Mapping<Object, Object>) stages[8]).map(happy);
+            case 9:
+                return ((Mapping<Object, Object>) stages[9]).map(happy);
+            case 10:
+                return ((Mapping<Object, Object>) stages[10]).map(happy);
+            case 11:
+                return ((Mapping<Object, Object>) stages[11]).map(happy);
+            case 12:
+                return ((Mapping<Object, Object>) stages[12]).map(happy);
+            case 13:
+                return ((Mapping<Object, Object>) stages[13]).map(happy);
+            case 14:
+                return ((Mapping<Object, Object>) stages[14]).map(happy);
+            case 15:
+                return ((Mapping<Object, Object>) stages[15]).map(happy);
+            default:
+                return ((Mapping<Object, Object>) stages[stage]).map(happy);
+        }
+    }
+}
@@ -49,7 +49,7 @@ public interface PotentialFailure<Sad> extends WithOptional<Sad> {
      */
     @ApiFeature(since = VERSION_3_0_0, stability = STABLE)
     static <Sad> PotentialFailure<Sad> success() {
-        return new PotentialFailureSuccess<>();
+        return PotentialFailureSuccess.success();
     }
 
     /**
@@ -24,12 +24,30 @@ import java.util.Optional;
  */
 class PotentialFailureFailure<Sad> implements PotentialFailure<Sad> {
 
-    private final Sad sad;
+    final Sad sad;
 
     PotentialFailureFailure(Sad sad) {
         this.sad = sad;
     }
 
+    /**
+     * The sad object of a failure, without going through {@link #toOptional()} when it is one of these. Like
+     * {@link #ifPresent}, a null potential failure, or a failure of null, throws a {@link NullPointerException}.
+     *
+     * @param potentialFailure The potential failure to look inside
+     * @param <Sad>            The type of sad object that represents a failure
+     * @return The sad object if the potential failure is a failure, or null if it is a success
+     */
+    static <Sad> Sad sadOrNull(PotentialFailure<Sad> potentialFailure) {
+        if (potentialFailure instanceof PotentialFailureFailure) {
+            Sad sad = ((PotentialFailureFailure<Sad>) potentialFailure).sad;
+            if (sad != null) {
+                return sad;
+            }
+        }
+        return potentialFailure.toOptional().orElse(null);
+    }
+
     @Override
     public <Happy> HappyPath<Happy, Sad> toHappyPath(Happy happy) {
         return HappyPath.sadPath(sad);
@@ -24,6 +24,13 @@ import java.util.Optional;
  */
 class PotentialFailureSuccess<Sad> implements PotentialFailure<Sad> {
 
+    private static final PotentialFailureSuccess<?> SUCCESS = new PotentialFailureSuccess<>();
+
+    @SuppressWarnings("unchecked") // A success does not contain a Sad so it is the same for every Sad
+    static <Sad> PotentialFailure<Sad> success() {
+        return (PotentialFailure<Sad>) SUCCESS;
+    }
+
     @Override
     public <Happy> HappyPath<Happy, Sad> toHappyPath(Happy happy) {
         return HappyPath.happyPath(happy);
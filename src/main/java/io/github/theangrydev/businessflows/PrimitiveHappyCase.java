@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+/**
+ * A happy case of a primitive specialised flow, e.g. an {@link IntHappyPath}, that keeps its happy value unboxed.
+ */
+interface PrimitiveHappyCase {
+
+    /**
+     * @return The happy value, boxed, for reporting it to the {@link FlowListener FlowListeners}
+     */
+    Object boxedHappy();
+}
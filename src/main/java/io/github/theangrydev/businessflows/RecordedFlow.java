@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.theangrydev.businessflows.FlowOutcome.HAPPY;
+import static io.github.theangrydev.businessflows.FlowOutcome.SAD;
+import static io.github.theangrydev.businessflows.SyntheticTechnicalFailure.SYNTHETIC_TECHNICAL_FAILURE;
+
+/**
+ * One flow that was recorded by a {@link WorkloadRecorder}, ready to be replayed as a chain of stub stages that
+ * reproduce the outcome and latency of each of the top level stages that ran. A stage that ran on a {@link SadPath},
+ * e.g. a recovery, is replayed on a {@link SadPath} too.
+ */
+final class RecordedFlow {
+
+    private static final Object REPLAYED_SAD = "Replayed sad outcome";
+    private static final long SPIN_NANOS = 100_000;
+
+    final String flowName;
+    final FlowOutcome outcome;
+    final long durationNanos;
+    private final List<Mapping<Object, HappyPath<Object, Object>>> stages;
+    private final BitSet sadPathStages;
+
+    RecordedFlow(String flowName, FlowOutcome outcome, long durationNanos, List<Mapping<Object, HappyPath<Object, Object>>> stages, BitSet sadPathStages) {
+        this.flowName = flowName;
+        this.outcome = outcome;
+        this.durationNanos = durationNanos;
+        this.stages = stages;
+        this.sadPathStages = sadPathStages;
+    }
+
+    static Mapping<Object, HappyPath<Object, Object>> stubStage(StageLabel label, FlowOutcome outcome, long latencyNanos) {
+        return label.mapping(happy -> {
+            takeAsLongAs(latencyNanos);
+            if (outcome == HAPPY) {
+                return HappyPath.happyPath(happy);
+            }
+            if (outcome == SAD) {
+                return HappyPath.sadPath(REPLAYED_SAD);
+            }
+            throw SYNTHETIC_TECHNICAL_FAILURE;
+        });
+    }
+
+    HappyPath<Object, Object> replay() {
+        HappyPath<Object, Object> path = HappyPath.happyPath(flowName);
+        for (int stage = 0; stage < stages.size(); stage++) {
+            if (sadPathStages.get(stage)) {
+                path = path.ifSad().then(stages.get(stage)).ifHappy();
+            } else {
+                path = path.then(stages.get(stage));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Stand in for the work the stage did when it was recorded. Parking is not precise enough for short stages, so the
+     * last part of the wait is spun.
+     */
+    private static void takeAsLongAs(long latencyNanos) {
+        long enteredAtNanos = System.nanoTime();
+        long remainingNanos;
+        while ((remainingNanos = latencyNanos - (System.nanoTime() - enteredAtNanos)) > 0) {
+            if (remainingNanos > SPIN_NANOS) {
+                LockSupport.parkNanos(remainingNanos - SPIN_NANOS);
+            }
+        }
+    }
+}
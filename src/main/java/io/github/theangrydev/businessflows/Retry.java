@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Predicate;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * A {@link Retry} attempts an action again when it results in a transient technical failure.
+ * <p>
+ * Each retry waits for an exponentially growing backoff with full jitter. The waiting is scheduled on a shared timer
+ * rather than done with {@link Thread#sleep(long)}, so no thread is blocked between tries; the retries themselves are
+ * run on the given {@link Executor}. The result arrives as a {@link HappyPath} once there are no more tries to make.
+ * <p>
+ * Retries are limited by a budget that is shared by everything using the same {@link Retry}: each original call adds a
+ * fraction of a retry to the budget, and each retry spends a whole one. This keeps retries to a bounded share of the
+ * traffic during an outage, rather than multiplying the load on a dependency that is already struggling.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public class Retry {
+
+    private static final long ONE_RETRY = 1000;
+    private static final long RESERVED_RETRIES = 10 * ONE_RETRY;
+    private static final long MAXIMUM_SAVED_RETRIES = 100 * ONE_RETRY;
+
+    private final int maximumAttempts;
+    private final long initialBackoffNanos;
+    private final long maximumBackoffNanos;
+    private final long budgetPerCall;
+    private final Predicate<Exception> retryable;
+    private final Delay delay;
+    private final DoubleSupplier jitter;
+
+    private final AtomicLong budget = new AtomicLong(RESERVED_RETRIES);
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDeniedByBudget = new LongAdder();
+
+    Retry(int maximumAttempts, Duration initialBackoff, Duration maximumBackoff, double retryBudget, Predicate<Exception> retryable, Delay delay, DoubleSupplier jitter) {
+        if (maximumAttempts < 1) {
+            throw new IllegalArgumentException(format("Maximum attempts must be positive but was %d", maximumAttempts));
+        }
+        if (retryBudget < 0 || retryBudget > 1) {
+            throw new IllegalArgumentException(format("Retry budget must be in [0, 1] but was %s", retryBudget));
+        }
+        this.maximumAttempts = maximumAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maximumBackoffNanos = maximumBackoff.toNanos();
+        this.budgetPerCall = (long) (retryBudget * ONE_RETRY);
+        this.retryable = retryable;
+        this.delay = delay;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Produces a {@link Retry} that runs retries on the {@link ForkJoinPool#commonPool()}.
+     *
+     * @param maximumAttempts The maximum number of times to attempt an action, including the first time
+     * @param initialBackoff  The backoff before the first retry; it doubles for each retry after that
+     * @param maximumBackoff  The backoff will never grow above this
+     * @param retryBudget     The maximum share of retries relative to original calls, in [0, 1]
+     * @param retryable       Decides which technical failures are transient and worth retrying
+     * @return The retry
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static Retry retry(int maximumAttempts, Duration initialBackoff, Duration maximumBackoff, double retryBudget, Predicate<Exception> retryable) {
+        return retry(maximumAttempts, initialBackoff, maximumBackoff, retryBudget, retryable, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Produces a {@link Retry} that runs retries on the given {@link Executor}.
+     *
+     * @param maximumAttempts The maximum number of times to attempt an action, including the first time
+     * @param initialBackoff  The backoff before the first retry; it doubles for each retry after that
+     * @param maximumBackoff  The backoff will never grow above this
+     * @param retryBudget     The maximum share of retries relative to original calls, in [0, 1]
+     * @param retryable       Decides which technical failures are transient and worth retrying
+     * @param executor        Where the retries are run once their backoff is over
+     * @return The retry
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static Retry retry(int maximumAttempts, Duration initialBackoff, Duration maximumBackoff, double retryBudget, Predicate<Exception> retryable, Executor executor) {
+        return new Retry(maximumAttempts, initialBackoff, maximumBackoff, retryBudget, retryable, (delayNanos, task, couldNotRun) -> SharedTimer.runAfter(delayNanos, Runnable::run, () -> {
+            try {
+                executor.execute(task);
+            } catch (RuntimeException rejected) {
+                couldNotRun.accept(rejected);
+            }
+        }), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * A predicate that decides a technical failure is retryable if it is an instance of one of the given types.
+     *
+     * @param exceptionTypes The types of {@link Exception} to retry
+     * @return A predicate that can be used when producing a {@link Retry}
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static Predicate<Exception> retryOn(Class<? extends Exception>... exceptionTypes) {
+        List<Class<? extends Exception>> types = Arrays.asList(exceptionTypes);
+        return technicalFailure -> types.stream().anyMatch(type -> type.isInstance(technicalFailure));
+    }
+
+    /**
+     * Attempt an action that produces a {@link Happy}, retrying it if it results in a retryable technical failure.
+     * The first attempt is made on the calling thread.
+     *
+     * @param attempt The {@link Attempt} to execute
+     * @param <Happy> The type of happy object the resulting {@link HappyPath} may represent
+     * @param <Sad>   The type of sad object the resulting {@link HappyPath} may represent
+     * @return A {@link CompletionStage} of a {@link HappyPath} that is either happy on the inside or the last technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> CompletionStage<HappyPath<Happy, Sad>> happyAttempt(Attempt<Happy> attempt) {
+        return happyPathAttempt(() -> HappyPath.happyPath(attempt.attempt()));
+    }
+
+    /**
+     * Attempt an action that produces a {@link HappyPath}, retrying it if it results in a retryable technical failure.
+     * A sad result is not retried. The first attempt is made on the calling thread.
+     *
+     * @param happyPathAttempt The {@link Attempt} to execute
+     * @param <Happy>          The type of happy object the resulting {@link HappyPath} may represent
+     * @param <Sad>            The type of sad object the resulting {@link HappyPath} may represent
+     * @return A {@link CompletionStage} of a {@link HappyPath} that is happy or sad or the last technical failure on the inside
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> CompletionStage<HappyPath<Happy, Sad>> happyPathAttempt(Attempt<? extends BusinessFlow<Happy, Sad>> happyPathAttempt) {
+        CompletableFuture<HappyPath<Happy, Sad>> result = new CompletableFuture<>();
+        depositForOriginalCall();
+        retryOrComplete(happyPathAttempt, HappyPath.happyPathAttempt(happyPathAttempt), 1, result);
+        return result;
+    }
+
+    /**
+     * @return The number of retries that have been made
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return The number of retries that were not made because the retry budget was used up
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long retriesDeniedByBudget() {
+        return retriesDeniedByBudget.sum();
+    }
+
+    /**
+     * The failed call was made before the {@link Retry} was involved, so it is not deposited: it may already have been
+     * paid for, and depositing for it would let repeated calls refill the budget that limits them.
+     */
+    <Happy, Sad> CompletionStage<HappyPath<Happy, Sad>> retryAfter(Exception technicalFailure, Attempt<Happy> attempt) {
+        CompletableFuture<HappyPath<Happy, Sad>> result = new CompletableFuture<>();
+        retryOrComplete(() -> HappyPath.happyPath(attempt.attempt()), HappyPath.technicalFailure(technicalFailure), 1, result);
+        return result;
+    }
+
+    /**
+     * This runs on the timer or the executor for a retry, where an exception would be lost, so anything that goes wrong
+     * completes the result with a technical failure instead of leaving it incomplete.
+     */
+    private <Happy, Sad> void retryOrComplete(Attempt<? extends BusinessFlow<Happy, Sad>> happyPathAttempt, HappyPath<Happy, Sad> outcome, int attempts, CompletableFuture<HappyPath<Happy, Sad>> result) {
+        try {
+            if (!shouldRetry(outcome, attempts)) {
+                result.complete(outcome);
+                return;
+            }
+            retries.increment();
+            delay.runAfter(backoffNanos(attempts),
+                    () -> retryOrComplete(happyPathAttempt, HappyPath.happyPathAttempt(happyPathAttempt), attempts + 1, result),
+                    couldNotRun -> result.complete(HappyPath.technicalFailure(couldNotRun)));
+        } catch (RuntimeException technicalFailure) {
+            result.complete(HappyPath.technicalFailure(technicalFailure));
+        }
+    }
+
+    private boolean shouldRetry(HappyPath<?, ?> outcome, int attempts) {
+        if (attempts >= maximumAttempts || !outcome.isTechnicalFailure()) {
+            return false;
+        }
+        return retryable.test(outcome.getTechnicalFailure()) && withdrawRetry();
+    }
+
+    private long backoffNanos(int attempts) {
+        long exponentialBackoff = initialBackoffNanos << Math.min(attempts - 1, 30);
+        long cappedBackoff = exponentialBackoff < 0 ? maximumBackoffNanos : Math.min(maximumBackoffNanos, exponentialBackoff);
+        return (long) (jitter.getAsDouble() * cappedBackoff);
+    }
+
+    private void depositForOriginalCall() {
+        while (true) {
+            long current = budget.get();
+            long next = Math.min(MAXIMUM_SAVED_RETRIES, current + budgetPerCall);
+            if (next == current || budget.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private boolean withdrawRetry() {
+        while (true) {
+            long current = budget.get();
+            if (current < ONE_RETRY) {
+                retriesDeniedByBudget.increment();
+                return false;
+            }
+            if (budget.compareAndSet(current, current - ONE_RETRY)) {
+                return true;
+            }
+        }
+    }
+}
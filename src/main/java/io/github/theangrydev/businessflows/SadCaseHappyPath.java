@@ -19,6 +19,7 @@ package io.github.theangrydev.businessflows;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * A {@link SadCaseHappyPath} is a {@link HappyPath} that is actually a {@link SadCase}.
@@ -35,12 +36,48 @@ class SadCaseHappyPath<Happy, Sad> extends SadCase<Happy, Sad> implements HappyP
         return (HappyPath<NewHappy, Sad>) this;
     }
 
+    @SuppressWarnings("unchecked") // Only the Happy changes and it is not present so all that changes is the types
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> thenTrampolined(Mapping<Happy, Bounce<Happy, NewHappy, Sad>> step) {
+        return (HappyPath<NewHappy, Sad>) this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> iterate(Predicate<? super Happy> condition, Mapping<Happy, Happy> step) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> loopWhile(Predicate<? super Happy> condition, Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> repeatUntil(Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body, Predicate<? super Happy> condition) {
+        return this;
+    }
+
     @SuppressWarnings("unchecked") // Only the Happy changes and it is not present so all that changes is the types
     @Override
     public <NewHappy> HappyPath<NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping) {
         return (HappyPath<NewHappy, Sad>) this;
     }
 
+    @Override
+    public IntHappyPath<Sad> mapToInt(ToIntMapping<Happy> mapping) {
+        return IntHappyPath.sadPath(sad);
+    }
+
+    @Override
+    public LongHappyPath<Sad> mapToLong(ToLongMapping<Happy> mapping) {
+        return LongHappyPath.sadPath(sad);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> mapToDouble(ToDoubleMapping<Happy> mapping) {
+        return DoubleHappyPath.sadPath(sad);
+    }
+
     @Override
     public HappyPath<Happy, Sad> peek(Peek<Happy> peek) {
         return this;
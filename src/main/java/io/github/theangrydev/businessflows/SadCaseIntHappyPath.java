@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link SadCaseIntHappyPath} is a {@link IntHappyPath} that is actually a {@link SadCase}.
+ */
+class SadCaseIntHappyPath<Sad> extends SadCase<Integer, Sad> implements IntHappyPath<Sad> {
+
+    SadCaseIntHappyPath(Sad sad) {
+        super(sad);
+    }
+
+    @Override
+    public IntHappyPath<Sad> then(IntToObjectMapping<? extends IntHappyPath<Sad>> action) {
+        return this;
+    }
+
+    @Override
+    public IntHappyPath<Sad> map(IntMapping mapping) {
+        return this;
+    }
+
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> mapToObj(IntToObjectMapping<NewHappy> mapping) {
+        return HappyPath.sadPath(sad);
+    }
+
+    @Override
+    public IntHappyPath<Sad> attempt(IntToObjectMapping<PotentialFailure<Sad>> actionThatMightFail) {
+        return this;
+    }
+
+    @Override
+    public IntHappyPath<Sad> peek(IntPeek peek) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Integer, Sad> boxed() {
+        return HappyPath.sadPath(sad);
+    }
+
+    @Override
+    public LongHappyPath<Sad> asLongHappyPath() {
+        return LongHappyPath.sadPath(sad);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> asDoubleHappyPath() {
+        return DoubleHappyPath.sadPath(sad);
+    }
+
+    @Override
+    public int joinToInt(IntMapping happyJoiner, ToIntMapping<Sad> sadJoiner, ToIntFunction<Exception> technicalFailureJoiner) {
+        try {
+            return sadJoiner.map(sad);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.applyAsInt(technicalFailure);
+        }
+    }
+
+    @Override
+    public <Result> Result join(IntToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner) {
+        try {
+            return sadJoiner.map(sad);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.apply(technicalFailure);
+        }
+    }
+
+    @Override
+    public void consume(IntPeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer) {
+        try {
+            sadConsumer.peek(sad);
+        } catch (Exception technicalFailure) {
+            technicalFailureConsumer.accept(technicalFailure);
+        }
+    }
+
+    @Override
+    public boolean isHappy() {
+        return false;
+    }
+
+    @Override
+    public boolean isSad() {
+        return true;
+    }
+
+    @Override
+    public boolean isTechnicalFailure() {
+        return false;
+    }
+
+    @Override
+    public int getAsInt() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Sad getSad() {
+        return sad;
+    }
+
+    @Override
+    public Exception getTechnicalFailure() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+}
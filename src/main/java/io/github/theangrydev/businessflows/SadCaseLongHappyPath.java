@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link SadCaseLongHappyPath} is a {@link LongHappyPath} that is actually a {@link SadCase}.
+ */
+class SadCaseLongHappyPath<Sad> extends SadCase<Long, Sad> implements LongHappyPath<Sad> {
+
+    SadCaseLongHappyPath(Sad sad) {
+        super(sad);
+    }
+
+    @Override
+    public LongHappyPath<Sad> then(LongToObjectMapping<? extends LongHappyPath<Sad>> action) {
+        return this;
+    }
+
+    @Override
+    public LongHappyPath<Sad> map(LongMapping mapping) {
+        return this;
+    }
+
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> mapToObj(LongToObjectMapping<NewHappy> mapping) {
+        return HappyPath.sadPath(sad);
+    }
+
+    @Override
+    public LongHappyPath<Sad> attempt(LongToObjectMapping<PotentialFailure<Sad>> actionThatMightFail) {
+        return this;
+    }
+
+    @Override
+    public LongHappyPath<Sad> peek(LongPeek peek) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Long, Sad> boxed() {
+        return HappyPath.sadPath(sad);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> asDoubleHappyPath() {
+        return DoubleHappyPath.sadPath(sad);
+    }
+
+    @Override
+    public long joinToLong(LongMapping happyJoiner, ToLongMapping<Sad> sadJoiner, ToLongFunction<Exception> technicalFailureJoiner) {
+        try {
+            return sadJoiner.map(sad);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.applyAsLong(technicalFailure);
+        }
+    }
+
+    @Override
+    public <Result> Result join(LongToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner) {
+        try {
+            return sadJoiner.map(sad);
+        } catch (Exception technicalFailure) {
+            return technicalFailureJoiner.apply(technicalFailure);
+        }
+    }
+
+    @Override
+    public void consume(LongPeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer) {
+        try {
+            sadConsumer.peek(sad);
+        } catch (Exception technicalFailure) {
+            technicalFailureConsumer.accept(technicalFailure);
+        }
+    }
+
+    @Override
+    public boolean isHappy() {
+        return false;
+    }
+
+    @Override
+    public boolean isSad() {
+        return true;
+    }
+
+    @Override
+    public boolean isTechnicalFailure() {
+        return false;
+    }
+
+    @Override
+    public long getAsLong() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Sad getSad() {
+        return sad;
+    }
+
+    @Override
+    public Exception getTechnicalFailure() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+}
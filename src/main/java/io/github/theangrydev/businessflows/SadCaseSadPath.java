@@ -19,6 +19,8 @@ package io.github.theangrydev.businessflows;
 
 import java.util.Optional;
 
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+
 /**
  * A {@link SadCaseSadPath} is a {@link SadPath} that is actually a {@link SadCase}.
  */
@@ -45,47 +47,62 @@ class SadCaseSadPath<Happy, Sad> extends SadCase<Happy, Sad> implements SadPath<
 
     @Override
     public <NewSad> SadPath<Happy, NewSad> then(Mapping<Sad, ? extends BusinessFlow<Happy, NewSad>> action) {
+        long enteredAtNanos = stageEntered(action, SAD_THEN);
+        SadPath<Happy, NewSad> result;
         try {
-            return action.map(sad).ifSad();
+            result = action.map(sad).ifSad();
         } catch (Exception e) {
-            return SadPath.technicalFailure(e);
+            result = SadPath.technicalFailure(e);
         }
+        return stageExited(action, SAD_THEN, enteredAtNanos, result);
     }
 
     @Override
     public <NewSad> SadPath<Happy, NewSad> map(Mapping<Sad, NewSad> mapping) {
+        long enteredAtNanos = stageEntered(mapping, SAD_MAP);
+        SadPath<Happy, NewSad> result;
         try {
-            return SadPath.sadPath(mapping.map(sad));
+            result = SadPath.sadPath(mapping.map(sad));
         } catch (Exception e) {
-            return SadPath.technicalFailure(e);
+            result = SadPath.technicalFailure(e);
         }
+        return stageExited(mapping, SAD_MAP, enteredAtNanos, result);
     }
 
     @Override
     public HappyPath<Happy, Sad> recover(Mapping<Sad, Happy> recovery) {
+        long enteredAtNanos = stageEntered(recovery, RECOVER);
+        HappyPath<Happy, Sad> result;
         try {
-            return HappyPath.happyPath(recovery.map(sad));
+            result = HappyPath.happyPath(recovery.map(sad));
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = HappyPath.technicalFailure(e);
         }
+        return stageExited(recovery, RECOVER, enteredAtNanos, result);
     }
 
     @Override
     public HappyPath<Happy, Sad> recover(Attempt<Happy> recovery) {
+        long enteredAtNanos = stageEntered(recovery, RECOVER);
+        HappyPath<Happy, Sad> result;
         try {
-            return HappyPath.happyPath(recovery.attempt());
+            result = HappyPath.happyPath(recovery.attempt());
         } catch (Exception e) {
-            return HappyPath.technicalFailure(e);
+            result = HappyPath.technicalFailure(e);
         }
+        return stageExited(recovery, RECOVER, enteredAtNanos, result);
     }
 
     @Override
     public SadPath<Happy, Sad> peek(Peek<Sad> peek) {
+        long enteredAtNanos = stageEntered(peek, SAD_PEEK);
+        SadPath<Happy, Sad> result;
         try {
             peek.peek(sad);
-            return this;
+            result = this;
         } catch (Exception e) {
-            return SadPath.technicalFailure(e);
+            result = SadPath.technicalFailure(e);
         }
+        return stageExited(peek, SAD_PEEK, enteredAtNanos, result);
     }
 }
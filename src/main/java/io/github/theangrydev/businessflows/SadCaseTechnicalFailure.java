@@ -18,6 +18,9 @@
 package io.github.theangrydev.businessflows;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 /**
  * A {@link SadCaseTechnicalFailure} is a {@link TechnicalFailure} that is actually a {@link SadCase}.
@@ -63,6 +66,11 @@ class SadCaseTechnicalFailure<Happy, Sad> extends SadCase<Happy, Sad> implements
         return SadPath.sadPath(sad);
     }
 
+    @Override
+    public CompletionStage<HappyPath<Happy, Sad>> retry(Retry retry, Attempt<Happy> attempt) {
+        return completedFuture(HappyPath.sadPath(sad));
+    }
+
     @Override
     public TechnicalFailure<Happy, Sad> peek(Peek<Exception> peek) {
         return this;
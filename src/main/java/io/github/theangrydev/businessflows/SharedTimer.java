@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A single daemon timer thread that is shared by everything that needs to wait without blocking a caller.
+ * <p>
+ * Only the waiting happens on the timer thread; the work that follows is handed to an {@link Executor} so that a slow
+ * task can never hold up the other timers.
+ */
+final class SharedTimer {
+
+    private static final ScheduledThreadPoolExecutor SCHEDULER = scheduler();
+
+    private SharedTimer() {
+    }
+
+    static Future<?> runAfter(long delayNanos, Executor executor, Runnable task) {
+        return SCHEDULER.schedule(() -> executor.execute(task), delayNanos, NANOSECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor scheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "business-flows-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * A {@link StageLabel} names a stage of a {@link BusinessFlow} for the {@link FlowListener FlowListeners}.
+ * <p>
+ * Stages that are not explicitly labelled are labelled with the class that declared the function as the flow and the
+ * operation (e.g. "then" or "map") as the stage. To label a stage explicitly, wrap the function before passing it in:
+ * <pre>{@code
+ * private static final StageLabel PRICE = stageLabel("checkout", "price");
+ * ...
+ * happyPath.then(PRICE.mapping(this::price))
+ * }</pre>
+ * Labels should be created once and reused, so that labelling a stage costs nothing when it runs.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class StageLabel {
+
+    private final String flow;
+    private final String stage;
+
+    private StageLabel(String flow, String stage) {
+        this.flow = flow;
+        this.stage = stage;
+    }
+
+    /**
+     * Produces a {@link StageLabel}.
+     *
+     * @param flow  The name of the flow the stage is part of
+     * @param stage The name of the stage within the flow
+     * @return The label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static StageLabel stageLabel(String flow, String stage) {
+        if (flow == null || stage == null) {
+            throw new IllegalArgumentException(format("The flow and stage must be given but were '%s' and '%s'", flow, stage));
+        }
+        return new StageLabel(flow, stage);
+    }
+
+    /**
+     * @return The name of the flow the stage is part of
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String flow() {
+        return flow;
+    }
+
+    /**
+     * @return The name of the stage within the flow
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public String stage() {
+        return stage;
+    }
+
+    /**
+     * Label a {@link Mapping}, e.g. one that will be given to {@link HappyPath#then(Mapping)}.
+     *
+     * @param mapping The {@link Mapping} to label
+     * @param <Old>   The old type (before mapping)
+     * @param <New>   The new type (after mapping)
+     * @return A {@link Mapping} that behaves the same but is labelled with this label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Old, New> Mapping<Old, New> mapping(Mapping<Old, New> mapping) {
+        return new LabelledMapping<>(this, mapping);
+    }
+
+    /**
+     * Label an {@link Attempt}, e.g. one that will be given to {@link SadPath#recover(Attempt)}.
+     *
+     * @param attempt  The {@link Attempt} to label
+     * @param <Result> The type of result the {@link Attempt} produces
+     * @return An {@link Attempt} that behaves the same but is labelled with this label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Result> Attempt<Result> attempt(Attempt<Result> attempt) {
+        return new LabelledAttempt<>(this, attempt);
+    }
+
+    /**
+     * Label an {@link ActionThatMightFail}, e.g. one that will be given to {@link HappyPath#attempt(ActionThatMightFail)}.
+     *
+     * @param actionThatMightFail The {@link ActionThatMightFail} to label
+     * @param <Happy>             The type of happy object the action acts on
+     * @param <Sad>               The type of sad object the action might produce
+     * @return An {@link ActionThatMightFail} that behaves the same but is labelled with this label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> ActionThatMightFail<Happy, Sad> action(ActionThatMightFail<Happy, Sad> actionThatMightFail) {
+        return new LabelledValidator<>(this, actionThatMightFail);
+    }
+
+    /**
+     * Label a {@link Validator}, e.g. one that will be given to {@link ValidationPath#validateAll(java.util.List)}.
+     *
+     * @param validator The {@link Validator} to label
+     * @param <Happy>   The type of happy object the validator validates
+     * @param <Sad>     The type of sad object the validator might produce
+     * @return A {@link Validator} that behaves the same but is labelled with this label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> Validator<Happy, Sad> validator(Validator<Happy, Sad> validator) {
+        return new LabelledValidator<>(this, validator);
+    }
+
+    /**
+     * Label a {@link Peek}, e.g. one that will be given to {@link HappyPath#peek(Peek)}.
+     *
+     * @param peek The {@link Peek} to label
+     * @param <T>  The type of object being peeked at
+     * @return A {@link Peek} that behaves the same but is labelled with this label
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <T> Peek<T> peek(Peek<T> peek) {
+        return new LabelledPeek<>(this, peek);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        StageLabel that = (StageLabel) other;
+        return flow.equals(that.flow) && stage.equals(that.stage);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public int hashCode() {
+        return 31 * flow.hashCode() + stage.hashCode();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return flow + "/" + stage;
+    }
+
+    /**
+     * A function that has been labelled with a {@link StageLabel}.
+     */
+    interface Labelled {
+        StageLabel label();
+    }
+
+    private static final class LabelledMapping<Old, New> implements Mapping<Old, New>, Labelled {
+        private final StageLabel label;
+        private final Mapping<Old, New> mapping;
+
+        LabelledMapping(StageLabel label, Mapping<Old, New> mapping) {
+            this.label = label;
+            this.mapping = mapping;
+        }
+
+        @Override
+        public New map(Old old) throws Exception {
+            return mapping.map(old);
+        }
+
+        @Override
+        public StageLabel label() {
+            return label;
+        }
+    }
+
+    private static final class LabelledAttempt<Result> implements Attempt<Result>, Labelled {
+        private final StageLabel label;
+        private final Attempt<Result> attempt;
+
+        LabelledAttempt(StageLabel label, Attempt<Result> attempt) {
+            this.label = label;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public Result attempt() throws Exception {
+            return attempt.attempt();
+        }
+
+        @Override
+        public StageLabel label() {
+            return label;
+        }
+    }
+
+    private static final class LabelledValidator<Happy, Sad> implements Validator<Happy, Sad>, Labelled {
+        private final StageLabel label;
+        private final ActionThatMightFail<Happy, Sad> actionThatMightFail;
+
+        LabelledValidator(StageLabel label, ActionThatMightFail<Happy, Sad> actionThatMightFail) {
+            this.label = label;
+            this.actionThatMightFail = actionThatMightFail;
+        }
+
+        @Override
+        public PotentialFailure<Sad> attempt(Happy happy) throws Exception {
+            return actionThatMightFail.attempt(happy);
+        }
+
+        @Override
+        public StageLabel label() {
+            return label;
+        }
+    }
+
+    private static final class LabelledPeek<T> implements Peek<T>, Labelled {
+        private final StageLabel label;
+        private final Peek<T> peek;
+
+        LabelledPeek(StageLabel label, Peek<T> peek) {
+            this.label = label;
+            this.peek = peek;
+        }
+
+        @Override
+        public void peek(T instance) throws Exception {
+            peek.peek(instance);
+        }
+
+        @Override
+        public StageLabel label() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link StageMetricsMXBean} for one {@link StageLabel}.
+ */
+class StageMetrics implements StageMetricsMXBean {
+
+    static final int UNPUBLISHED = 0;
+    static final int PUBLISHING = 1;
+    static final int PUBLISHED = 2;
+
+    /**
+     * Whether this stage is registered with the MBean server, which is only changed by the thread that wins a CAS.
+     */
+    final AtomicInteger publication = new AtomicInteger(UNPUBLISHED);
+
+    private final StageLabel label;
+    private final LongAdder happyCount = new LongAdder();
+    private final LongAdder sadCount = new LongAdder();
+    private final LongAdder technicalFailureCount = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    StageMetrics(StageLabel label) {
+        this.label = label;
+    }
+
+    void record(FlowOutcome outcome, long durationNanos) {
+        if (outcome == FlowOutcome.HAPPY) {
+            happyCount.increment();
+        } else if (outcome == FlowOutcome.SAD) {
+            sadCount.increment();
+        } else {
+            technicalFailureCount.increment();
+        }
+        latencies.record(durationNanos);
+    }
+
+    StageLabel label() {
+        return label;
+    }
+
+    @Override
+    public String getFlow() {
+        return label.flow();
+    }
+
+    @Override
+    public String getStage() {
+        return label.stage();
+    }
+
+    @Override
+    public long getHappyCount() {
+        return happyCount.sum();
+    }
+
+    @Override
+    public long getSadCount() {
+        return sadCount.sum();
+    }
+
+    @Override
+    public long getTechnicalFailureCount() {
+        return technicalFailureCount.sum();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.valueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.valueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latencies.valueAtQuantile(0.999);
+    }
+
+    @Override
+    public void reset() {
+        happyCount.reset();
+        sadCount.reset();
+        technicalFailureCount.reset();
+        latencies.reset();
+    }
+}
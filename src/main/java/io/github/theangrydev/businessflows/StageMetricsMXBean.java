@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * The metrics that {@link FlowMetrics} keeps for one stage, as published through JMX.
+ * <p>
+ * Counts and latencies are cumulative since the stage first ran, or since the last {@link #reset()}.
+ * Latencies are reported to within 1/16 of their true value.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface StageMetricsMXBean {
+
+    /**
+     * @return The name of the flow the stage is part of
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    String getFlow();
+
+    /**
+     * @return The name of the stage within the flow
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    String getStage();
+
+    /**
+     * @return The number of times the stage resulted in a happy object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getHappyCount();
+
+    /**
+     * @return The number of times the stage resulted in a sad object
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getSadCount();
+
+    /**
+     * @return The number of times the stage resulted in a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getTechnicalFailureCount();
+
+    /**
+     * @return The median latency of the stage, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getP50Nanos();
+
+    /**
+     * @return The 99th percentile latency of the stage, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getP99Nanos();
+
+    /**
+     * @return The 99.9th percentile latency of the stage, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    long getP999Nanos();
+
+    /**
+     * Set the counts back to zero and forget the latencies recorded so far.
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void reset();
+}
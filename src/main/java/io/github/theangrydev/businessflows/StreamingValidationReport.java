@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The counts and example failures from a {@link StreamingValidator}.
+ *
+ * @param <Sad> The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class StreamingValidationReport<Sad> {
+
+    private final long records;
+    private final long failedRecords;
+    private final long failures;
+    private final Map<Object, Long> failuresByType;
+    private final Map<Object, List<Sad>> examplesByType;
+
+    StreamingValidationReport(long records, long failedRecords, long failures, Map<Object, Long> failuresByType, Map<Object, List<Sad>> examplesByType) {
+        this.records = records;
+        this.failedRecords = failedRecords;
+        this.failures = failures;
+        this.failuresByType = failuresByType;
+        this.examplesByType = examplesByType;
+    }
+
+    /**
+     * @return How many records were validated
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long records() {
+        return records;
+    }
+
+    /**
+     * @return How many records had at least one validation failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long failedRecords() {
+        return failedRecords;
+    }
+
+    /**
+     * @return How many validation failures there were in total
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * @return The types of validation failure that were found, in the order they were first found
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<Object> failureTypes() {
+        return unmodifiableList(new ArrayList<>(failuresByType.keySet()));
+    }
+
+    /**
+     * @param failureType The type of validation failure
+     * @return How many validation failures there were of the given type
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long failures(Object failureType) {
+        return failuresByType.getOrDefault(failureType, 0L);
+    }
+
+    /**
+     * @param failureType The type of validation failure
+     * @return The first few validation failures of the given type
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<Sad> examples(Object failureType) {
+        return examplesByType.getOrDefault(failureType, emptyList());
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("Validated %d records, %d failed with %d failures %s", records, failedRecords, failures, new LinkedHashMap<>(failuresByType));
+    }
+}
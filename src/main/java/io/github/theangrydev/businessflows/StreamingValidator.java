@@ -0,0 +1,344 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * A {@link StreamingValidator} validates an input that is too big to hold in memory, such as a large file, one record
+ * at a time:
+ * <pre>{@code
+ * StreamingValidationReport<LineFailure> report = StreamingValidator.<Line, LineFailure>streamingValidator(validators)
+ *     .failureType(LineFailure::code)
+ *     .sink(failureWriter::write)
+ *     .parallel(10_000, 8, executor)
+ *     .validate(lines.iterator());
+ * }</pre>
+ * Each record is validated directly, without producing a {@link ValidationPath} for it. Rather than being collected, the
+ * failures are handed to a {@link FailureSink} as they are found. The {@link StreamingValidationReport} only keeps
+ * running counts and the first few failures of each type, so the memory used does not depend on the size of the input
+ * as long as the number of failure types is small.
+ *
+ * @param <Record> The type of record to validate
+ * @param <Sad>    The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class StreamingValidator<Record, Sad> {
+
+    private static final int DEFAULT_EXAMPLES_PER_TYPE = 10;
+
+    private final List<Validator<Record, Sad>> validators;
+    private final Mapping<? super Sad, ?> failureType;
+    private final int examplesPerType;
+    private final FailureSink<? super Record, ? super Sad> sink;
+    private final int chunkSize;
+    private final int chunksInFlight;
+    private final Executor executor;
+
+    private StreamingValidator(List<Validator<Record, Sad>> validators, Mapping<? super Sad, ?> failureType, int examplesPerType, FailureSink<? super Record, ? super Sad> sink, int chunkSize, int chunksInFlight, Executor executor) {
+        this.validators = validators;
+        this.failureType = failureType;
+        this.examplesPerType = examplesPerType;
+        this.sink = sink;
+        this.chunkSize = chunkSize;
+        this.chunksInFlight = chunksInFlight;
+        this.executor = executor;
+    }
+
+    /**
+     * Produces a {@link StreamingValidator} that validates the records one at a time on the calling thread, uses the
+     * class of a failure as its type and does not send the failures anywhere.
+     *
+     * @param validators The validators to apply to each record
+     * @param <Record>   The type of record to validate
+     * @param <Sad>      The type of validation failure
+     * @return The validator
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Record, Sad> StreamingValidator<Record, Sad> streamingValidator(List<? extends Validator<Record, Sad>> validators) {
+        return new StreamingValidator<>(unmodifiableList(new ArrayList<>(validators)), Object::getClass, DEFAULT_EXAMPLES_PER_TYPE, (recordNumber, record, failure) -> {
+        }, 0, 0, null);
+    }
+
+    /**
+     * @param failureType Decides the type of a failure, for counting and keeping examples, which should only produce a
+     *                    small number of different types
+     * @return A new {@link StreamingValidator} that classifies the failures with the given mapping
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidator<Record, Sad> failureType(Mapping<? super Sad, ?> failureType) {
+        return new StreamingValidator<>(validators, failureType, examplesPerType, sink, chunkSize, chunksInFlight, executor);
+    }
+
+    /**
+     * @param examplesPerType How many of the first failures of each type to keep in the report
+     * @return A new {@link StreamingValidator} that keeps the given number of examples
+     * @throws IllegalArgumentException If the number of examples is negative
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidator<Record, Sad> examplesPerType(int examplesPerType) {
+        if (examplesPerType < 0) {
+            throw new IllegalArgumentException(format("The number of examples per type must not be negative but was %d", examplesPerType));
+        }
+        return new StreamingValidator<>(validators, failureType, examplesPerType, sink, chunkSize, chunksInFlight, executor);
+    }
+
+    /**
+     * @param sink Where to send each failure as it is found
+     * @return A new {@link StreamingValidator} that sends the failures to the sink
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidator<Record, Sad> sink(FailureSink<? super Record, ? super Sad> sink) {
+        return new StreamingValidator<>(validators, failureType, examplesPerType, sink, chunkSize, chunksInFlight, executor);
+    }
+
+    /**
+     * Validate the records in parallel. The records are read in chunks on the calling thread and each chunk is validated
+     * on the executor. At most the given number of chunks are held in memory at once, so reading waits for the oldest
+     * chunk to be validated. The failures are still sent to the sink in the order of the records, from the calling
+     * thread, so the sink does not need to be thread safe.
+     *
+     * @param chunkSize      How many records to validate in each task
+     * @param chunksInFlight How many chunks can be read but not yet reported at once
+     * @param executor       Where to validate the chunks
+     * @return A new {@link StreamingValidator} that validates in parallel
+     * @throws IllegalArgumentException If the chunk size or the number of chunks in flight is not positive
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidator<Record, Sad> parallel(int chunkSize, int chunksInFlight, Executor executor) {
+        if (chunkSize <= 0 || chunksInFlight <= 0) {
+            throw new IllegalArgumentException(format("The chunk size and chunks in flight must be positive but were %d and %d", chunkSize, chunksInFlight));
+        }
+        return new StreamingValidator<>(validators, failureType, examplesPerType, sink, chunkSize, chunksInFlight, executor);
+    }
+
+    /**
+     * Validate every record. The first technical failure, from a validator, the failure type mapping or the sink, stops
+     * the validation.
+     *
+     * @param records The records to validate, which are only read once
+     * @return The counts and example failures
+     * @throws Exception If there was a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidationReport<Sad> validate(Iterator<? extends Record> records) throws Exception {
+        Tally tally = new Tally();
+        if (executor == null) {
+            validateSequentially(records, tally);
+        } else {
+            validateInParallel(records, tally);
+        }
+        return tally.report();
+    }
+
+    /**
+     * Same as {@link #validate(Iterator)} for a {@link Spliterator}, e.g. from {@link java.util.stream.Stream#spliterator()}.
+     *
+     * @param records The records to validate, which are only read once
+     * @return The counts and example failures
+     * @throws Exception If there was a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StreamingValidationReport<Sad> validate(Spliterator<? extends Record> records) throws Exception {
+        return validate(Spliterators.iterator(records));
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("StreamingValidator{validators=%d, examplesPerType=%d, %s}", validators.size(), examplesPerType,
+                executor == null ? "sequential" : format("parallel in %d chunks of %d", chunksInFlight, chunkSize));
+    }
+
+    private void validateSequentially(Iterator<? extends Record> records, Tally tally) throws Exception {
+        long recordNumber = 0;
+        while (records.hasNext()) {
+            Record record = records.next();
+            tally.records++;
+            for (Validator<Record, Sad> validator : validators) {
+                Sad failure = validate(validator, record);
+                if (failure != null) {
+                    tally.failed(recordNumber, record, failure);
+                }
+            }
+            recordNumber++;
+        }
+    }
+
+    private void validateInParallel(Iterator<? extends Record> records, Tally tally) throws Exception {
+        ArrayDeque<Chunk> inFlight = new ArrayDeque<>(chunksInFlight);
+        long recordNumber = 0;
+        try {
+            while (records.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < chunksInFlight && records.hasNext()) {
+                    Chunk chunk = new Chunk(recordNumber);
+                    while (chunk.size < chunkSize && records.hasNext()) {
+                        chunk.records[chunk.size++] = records.next();
+                    }
+                    recordNumber += chunk.size;
+                    chunk.validating = CompletableFuture.runAsync(chunk::validate, executor);
+                    inFlight.add(chunk);
+                }
+                Chunk oldest = inFlight.remove();
+                try {
+                    oldest.validating.join();
+                } catch (CompletionException couldNotRun) {
+                    throw couldNotRun.getCause() instanceof Exception ? (Exception) couldNotRun.getCause() : couldNotRun;
+                }
+                oldest.report(tally);
+            }
+        } finally {
+            for (Chunk abandoned : inFlight) {
+                abandoned.abandoned = true;
+            }
+        }
+    }
+
+    private Sad validate(Validator<Record, Sad> validator, Record record) throws Exception {
+        long enteredAtNanos = stageEntered(validator, VALIDATE);
+        PotentialFailure<Sad> potentialFailure;
+        Sad sad;
+        try {
+            potentialFailure = validator.attempt(record);
+            sad = PotentialFailureFailure.sadOrNull(potentialFailure);
+        } catch (Exception technicalFailure) {
+            throw stageFailed(validator, VALIDATE, enteredAtNanos, technicalFailure);
+        }
+        stageExited(validator, VALIDATE, enteredAtNanos, potentialFailure);
+        return sad;
+    }
+
+    private final class Chunk {
+        private final long firstRecordNumber;
+        private final Object[] records = new Object[chunkSize];
+        private int size;
+        private int validated;
+        private int[] failedRecords = new int[4];
+        private Object[] failures = new Object[4];
+        private int numberOfFailures;
+        private Exception technicalFailure;
+        private CompletableFuture<Void> validating;
+        private volatile boolean abandoned;
+
+        Chunk(long firstRecordNumber) {
+            this.firstRecordNumber = firstRecordNumber;
+        }
+
+        @SuppressWarnings("unchecked") // Only Record are read into the chunk
+        void validate() {
+            for (int record = 0; record < size && !abandoned; record++) {
+                validated++;
+                for (Validator<Record, Sad> validator : validators) {
+                    Sad failure;
+                    try {
+                        failure = StreamingValidator.this.validate(validator, (Record) records[record]);
+                    } catch (Exception technicalFailure) {
+                        this.technicalFailure = technicalFailure;
+                        return;
+                    }
+                    if (failure != null) {
+                        add(record, failure);
+                    }
+                }
+            }
+        }
+
+        private void add(int record, Sad failure) {
+            if (numberOfFailures == failures.length) {
+                failedRecords = Arrays.copyOf(failedRecords, numberOfFailures * 2);
+                failures = Arrays.copyOf(failures, numberOfFailures * 2);
+            }
+            failedRecords[numberOfFailures] = record;
+            failures[numberOfFailures++] = failure;
+        }
+
+        /**
+         * A technical failure is only reported after the failures that came before it, and only the records up to the
+         * one that failed are counted, the same as if the records had been validated one at a time.
+         */
+        @SuppressWarnings("unchecked") // Only Record and Sad are stored in the chunk
+        void report(Tally tally) throws Exception {
+            tally.records += validated;
+            for (int failure = 0; failure < numberOfFailures; failure++) {
+                int record = failedRecords[failure];
+                tally.failed(firstRecordNumber + record, (Record) records[record], (Sad) failures[failure]);
+            }
+            if (technicalFailure != null) {
+                throw technicalFailure;
+            }
+        }
+    }
+
+    private final class Tally {
+        private final Map<Object, long[]> failuresByType = new LinkedHashMap<>();
+        private final Map<Object, List<Sad>> examplesByType = new LinkedHashMap<>();
+        private long records;
+        private long failedRecords;
+        private long failures;
+        private long lastFailedRecord = -1;
+
+        void failed(long recordNumber, Record record, Sad failure) throws Exception {
+            sink.failed(recordNumber, record, failure);
+            failures++;
+            if (recordNumber != lastFailedRecord) {
+                failedRecords++;
+                lastFailedRecord = recordNumber;
+            }
+            Object type = failureType.map(failure);
+            long[] count = failuresByType.get(type);
+            if (count == null) {
+                count = new long[1];
+                failuresByType.put(type, count);
+                examplesByType.put(type, new ArrayList<>());
+            }
+            count[0]++;
+            List<Sad> examples = examplesByType.get(type);
+            if (examples.size() < examplesPerType) {
+                examples.add(failure);
+            }
+        }
+
+        StreamingValidationReport<Sad> report() {
+            Map<Object, Long> counts = new LinkedHashMap<>();
+            Map<Object, List<Sad>> examples = new LinkedHashMap<>();
+            for (Map.Entry<Object, long[]> type : failuresByType.entrySet()) {
+                counts.put(type.getKey(), type.getValue()[0]);
+                examples.put(type.getKey(), unmodifiableList(examplesByType.get(type.getKey())));
+            }
+            return new StreamingValidationReport<>(records, failedRecords, failures, unmodifiableMap(counts), unmodifiableMap(examples));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The {@link ValueCodec#strings()} codec, which encodes UTF-8 directly into the buffer rather than via a {@code byte[]}.
+ * Unpaired surrogates are written as {@code '?'}, the same as {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+final class StringCodec implements ValueCodec<String> {
+
+    static final StringCodec INSTANCE = new StringCodec();
+
+    private StringCodec() {
+    }
+
+    @Override
+    public int encodedLength(String value) {
+        int length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char next = value.charAt(index);
+            if (next < 0x80) {
+                length += 1;
+            } else if (next < 0x800) {
+                length += 2;
+            } else if (isSurrogatePair(value, index)) {
+                length += 4;
+                index++;
+            } else if (Character.isSurrogate(next)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void encode(String value, ByteBuffer buffer) {
+        for (int index = 0; index < value.length(); index++) {
+            char next = value.charAt(index);
+            if (next < 0x80) {
+                buffer.put((byte) next);
+            } else if (next < 0x800) {
+                buffer.put((byte) (0xC0 | (next >> 6)));
+                buffer.put((byte) (0x80 | (next & 0x3F)));
+            } else if (isSurrogatePair(value, index)) {
+                int codePoint = Character.toCodePoint(next, value.charAt(++index));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(next)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (next >> 12)));
+                buffer.put((byte) (0x80 | ((next >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (next & 0x3F)));
+            }
+        }
+    }
+
+    @Override
+    public String decode(ByteBuffer payload) {
+        return UTF_8.decode(payload).toString();
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+}
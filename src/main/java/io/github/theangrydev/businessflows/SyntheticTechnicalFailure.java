@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+/**
+ * A preallocated {@link Exception} without a stack trace, for technical failures that are made up rather than real,
+ * e.g. when flows are replayed or warmed up.
+ */
+final class SyntheticTechnicalFailure extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    static final SyntheticTechnicalFailure SYNTHETIC_TECHNICAL_FAILURE = new SyntheticTechnicalFailure();
+
+    private SyntheticTechnicalFailure() {
+        super("Synthetic technical failure", null, false, false);
+    }
+}
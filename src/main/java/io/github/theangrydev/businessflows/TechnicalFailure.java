@@ -17,6 +17,9 @@
  */
 package io.github.theangrydev.businessflows;
 
+import java.util.concurrent.CompletionStage;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
 import static io.github.theangrydev.businessflows.ApiFeatureStability.STABLE;
 import static io.github.theangrydev.businessflows.ApiVersionHistory.*;
 
@@ -121,6 +124,17 @@ public interface TechnicalFailure<Happy, Sad> extends BusinessFlow<Happy, Sad>,
     @ApiFeature(since = VERSION_2_5_0, stability = STABLE)
     SadPath<Happy, Sad> mapToSadPath(Attempt<Sad> mapping);
 
+    /**
+     * If the underlying business case is a technical failure that the {@link Retry} considers retryable, retry the given
+     * {@link Attempt} with backoff, without blocking the calling thread. Otherwise the underlying case is passed on as it is.
+     *
+     * @param retry   The {@link Retry} that decides whether and when to try again
+     * @param attempt The {@link Attempt} to retry
+     * @return A {@link CompletionStage} of a {@link HappyPath} that is the result of the last try, if applicable
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    CompletionStage<HappyPath<Happy, Sad>> retry(Retry retry, Attempt<Happy> attempt);
+
     /**
      * Take a look at the technical failure (if there really is one).
      *
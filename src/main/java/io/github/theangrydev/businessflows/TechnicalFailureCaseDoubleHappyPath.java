@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link TechnicalFailureCaseDoubleHappyPath} is a {@link DoubleHappyPath} that is actually a {@link TechnicalFailureCase}.
+ */
+class TechnicalFailureCaseDoubleHappyPath<Sad> extends TechnicalFailureCase<Double, Sad> implements DoubleHappyPath<Sad> {
+
+    TechnicalFailureCaseDoubleHappyPath(Exception technicalFailure) {
+        super(technicalFailure);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> then(DoubleToObjectMapping<? extends DoubleHappyPath<Sad>> action) {
+        return this;
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> map(DoubleMapping mapping) {
+        return this;
+    }
+
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> mapToObj(DoubleToObjectMapping<NewHappy> mapping) {
+        return HappyPath.technicalFailure(technicalFailure);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> attempt(DoubleToObjectMapping<PotentialFailure<Sad>> actionThatMightFail) {
+        return this;
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> peek(DoublePeek peek) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Double, Sad> boxed() {
+        return HappyPath.technicalFailure(technicalFailure);
+    }
+
+    @Override
+    public double joinToDouble(DoubleMapping happyJoiner, ToDoubleMapping<Sad> sadJoiner, ToDoubleFunction<Exception> technicalFailureJoiner) {
+        return technicalFailureJoiner.applyAsDouble(technicalFailure);
+    }
+
+    @Override
+    public <Result> Result join(DoubleToObjectMapping<Result> happyJoiner, Mapping<Sad, Result> sadJoiner, Function<Exception, Result> technicalFailureJoiner) {
+        return technicalFailureJoiner.apply(technicalFailure);
+    }
+
+    @Override
+    public void consume(DoublePeek happyConsumer, Peek<Sad> sadConsumer, Consumer<Exception> technicalFailureConsumer) {
+        technicalFailureConsumer.accept(technicalFailure);
+    }
+
+    @Override
+    public boolean isHappy() {
+        return false;
+    }
+
+    @Override
+    public boolean isSad() {
+        return false;
+    }
+
+    @Override
+    public boolean isTechnicalFailure() {
+        return true;
+    }
+
+    @Override
+    public double getAsDouble() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Sad getSad() {
+        throw new IllegalStateException(format("Not present. This is: '%s'.", this));
+    }
+
+    @Override
+    public Exception getTechnicalFailure() {
+        return technicalFailure;
+    }
+}
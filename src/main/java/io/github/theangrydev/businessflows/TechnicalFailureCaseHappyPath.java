@@ -19,6 +19,7 @@ package io.github.theangrydev.businessflows;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * A {@link TechnicalFailureCaseHappyPath} is a {@link HappyPath} that is actually a {@link TechnicalFailureCase}.
@@ -45,12 +46,48 @@ class TechnicalFailureCaseHappyPath<Happy, Sad> extends TechnicalFailureCase<Hap
         return (HappyPath<NewHappy, Sad>) this;
     }
 
+    @SuppressWarnings("unchecked") // Only the Happy changes and it is not present so all that changes is the types
+    @Override
+    public <NewHappy> HappyPath<NewHappy, Sad> thenTrampolined(Mapping<Happy, Bounce<Happy, NewHappy, Sad>> step) {
+        return (HappyPath<NewHappy, Sad>) this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> iterate(Predicate<? super Happy> condition, Mapping<Happy, Happy> step) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> loopWhile(Predicate<? super Happy> condition, Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body) {
+        return this;
+    }
+
+    @Override
+    public HappyPath<Happy, Sad> repeatUntil(Mapping<Happy, ? extends BusinessFlow<Happy, Sad>> body, Predicate<? super Happy> condition) {
+        return this;
+    }
+
     @SuppressWarnings("unchecked") // Only the Happy changes and it is not present so all that changes is the types
     @Override
     public <NewHappy> HappyPath<NewHappy, Sad> map(Mapping<Happy, NewHappy> mapping) {
         return (HappyPath<NewHappy, Sad>) this;
     }
 
+    @Override
+    public IntHappyPath<Sad> mapToInt(ToIntMapping<Happy> mapping) {
+        return IntHappyPath.technicalFailure(technicalFailure);
+    }
+
+    @Override
+    public LongHappyPath<Sad> mapToLong(ToLongMapping<Happy> mapping) {
+        return LongHappyPath.technicalFailure(technicalFailure);
+    }
+
+    @Override
+    public DoubleHappyPath<Sad> mapToDouble(ToDoubleMapping<Happy> mapping) {
+        return DoubleHappyPath.technicalFailure(technicalFailure);
+    }
+
     @Override
     public HappyPath<Happy, Sad> peek(Peek<Happy> peek) {
         return this;
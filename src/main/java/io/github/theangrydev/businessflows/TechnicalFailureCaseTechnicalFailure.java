@@ -18,6 +18,7 @@
 package io.github.theangrydev.businessflows;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
 /**
  * A {@link TechnicalFailureCaseTechnicalFailure} is a {@link TechnicalFailure} that is actually a {@link TechnicalFailureCase}.
@@ -92,6 +93,11 @@ class TechnicalFailureCaseTechnicalFailure<Happy, Sad> extends TechnicalFailureC
         }
     }
 
+    @Override
+    public CompletionStage<HappyPath<Happy, Sad>> retry(Retry retry, Attempt<Happy> attempt) {
+        return retry.retryAfter(technicalFailure, attempt);
+    }
+
     @Override
     public TechnicalFailure<Happy, Sad> peek(Peek<Exception> peek) {
         try {
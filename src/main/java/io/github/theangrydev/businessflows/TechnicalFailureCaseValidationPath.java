@@ -17,7 +17,11 @@
  */
 package io.github.theangrydev.businessflows;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 /**
  * A {@link TechnicalFailureCaseValidationPath} is a {@link ValidationPath} that is actually a {@link TechnicalFailureCase}.
@@ -37,4 +41,29 @@ class TechnicalFailureCaseValidationPath<Happy, Sad, SadAggregate> extends Techn
     public ValidationPath<Happy, Sad, SadAggregate> validateAllInto(Mapping<List<Sad>, SadAggregate> sadAggregateMapping, List<? extends Validator<Happy, Sad>> validators) {
         return this;
     }
+
+    @Override
+    public CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline) {
+        return CompletableFuture.completedFuture(this);
+    }
+
+    @Override
+    public CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline, Executor executor) {
+        return CompletableFuture.completedFuture(this);
+    }
+
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators) {
+        return this;
+    }
+
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators, Executor executor) {
+        return this;
+    }
+
+    @Override
+    public ValidationPath<Happy, Sad, SadAggregate> validateEach(EachValidator<Happy, ?, Sad> validator) {
+        return this;
+    }
 }
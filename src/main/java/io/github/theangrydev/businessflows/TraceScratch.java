@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.Arrays;
+
+/**
+ * The stages of the flow that is being traced on the current thread, recorded into preallocated arrays so that
+ * tracing a flow does not allocate unless the trace is kept.
+ */
+final class TraceScratch {
+
+    final StageLabel[] labels;
+    final FlowOutcome[] outcomes;
+    final FlowOutcome[] paths;
+    final long[] durations;
+    final int[] depths;
+    final Object[] results;
+    private final int[] openStages;
+
+    boolean active;
+    String flowName;
+    long startedAtMillis;
+    long startedAtNanos;
+    int stageCount;
+    boolean truncated;
+    private int depth;
+
+    TraceScratch(int maximumStages) {
+        labels = new StageLabel[maximumStages];
+        outcomes = new FlowOutcome[maximumStages];
+        paths = new FlowOutcome[maximumStages];
+        durations = new long[maximumStages];
+        depths = new int[maximumStages];
+        results = new Object[maximumStages];
+        openStages = new int[maximumStages];
+    }
+
+    void start(String flowName) {
+        this.active = true;
+        this.flowName = flowName;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.startedAtNanos = System.nanoTime();
+        this.stageCount = 0;
+        this.truncated = false;
+        this.depth = 0;
+    }
+
+    void entered(StageLabel label) {
+        entered(label, null);
+    }
+
+    void entered(StageLabel label, FlowOutcome path) {
+        int stage = -1;
+        if (stageCount < labels.length) {
+            stage = stageCount++;
+            labels[stage] = label;
+            paths[stage] = path;
+            outcomes[stage] = null;
+            depths[stage] = depth;
+        } else {
+            truncated = true;
+        }
+        if (depth < openStages.length) {
+            openStages[depth] = stage;
+        }
+        depth++;
+    }
+
+    void exited(FlowOutcome outcome, Object result, long durationNanos) {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        if (depth >= openStages.length) {
+            return;
+        }
+        int stage = openStages[depth];
+        if (stage >= 0) {
+            outcomes[stage] = outcome;
+            results[stage] = result;
+            durations[stage] = durationNanos;
+        }
+    }
+
+    void finish() {
+        Arrays.fill(labels, 0, stageCount, null);
+        Arrays.fill(results, 0, stageCount, null);
+        active = false;
+        flowName = null;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A preallocated slot that holds one {@link FlowTrace}.
+ * <p>
+ * Writers and readers take the slot with a compare and swap rather than waiting for it. A writer that finds the slot
+ * busy drops its trace, and a reader skips the slot. A writer that takes the slot only writes to it if its trace is
+ * newer than the one in the slot, so a writer that was slow to get to the slot cannot replace a newer trace with its
+ * older one.
+ */
+final class TraceSlot {
+
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private final StageLabel[] labels;
+    private final FlowOutcome[] outcomes;
+    private final long[] durations;
+    private final int[] depths;
+    private final String[] summaries;
+
+    private long sequence;
+    private String flowName;
+    private FlowOutcome outcome;
+    private String summary;
+    private long startedAtMillis;
+    private long durationNanos;
+    private int stageCount;
+    private boolean truncated;
+
+    TraceSlot(int maximumStages) {
+        labels = new StageLabel[maximumStages];
+        outcomes = new FlowOutcome[maximumStages];
+        durations = new long[maximumStages];
+        depths = new int[maximumStages];
+        summaries = new String[maximumStages];
+    }
+
+    boolean tryWrite(long sequence, TraceScratch scratch, FlowOutcome outcome, Object result, long durationNanos) {
+        if (!busy.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (this.sequence >= sequence) {
+                return false;
+            }
+            this.sequence = sequence;
+            this.flowName = scratch.flowName;
+            this.outcome = outcome;
+            this.summary = FlowTracer.summary(outcome, result);
+            this.startedAtMillis = scratch.startedAtMillis;
+            this.durationNanos = durationNanos;
+            this.stageCount = scratch.stageCount;
+            this.truncated = scratch.truncated;
+            for (int stage = 0; stage < scratch.stageCount; stage++) {
+                labels[stage] = scratch.labels[stage];
+                outcomes[stage] = scratch.outcomes[stage];
+                durations[stage] = scratch.durations[stage];
+                depths[stage] = scratch.depths[stage];
+                summaries[stage] = FlowTracer.summary(scratch.outcomes[stage], scratch.results[stage]);
+            }
+            return true;
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * @return The trace in the slot, or null if the slot is empty or is being written to
+     */
+    FlowTrace read() {
+        if (!busy.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            if (flowName == null) {
+                return null;
+            }
+            List<TracedStage> stages = new ArrayList<>(stageCount);
+            for (int stage = 0; stage < stageCount; stage++) {
+                stages.add(new TracedStage(labels[stage], outcomes[stage], durations[stage], depths[stage], summaries[stage]));
+            }
+            return new FlowTrace(sequence, flowName, outcome, summary, startedAtMillis, durationNanos, stages, truncated);
+        } finally {
+            busy.set(false);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.Optional;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * One stage of a {@link FlowTrace}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class TracedStage {
+
+    private final StageLabel label;
+    private final FlowOutcome outcome;
+    private final long durationNanos;
+    private final int depth;
+    private final String summary;
+
+    TracedStage(StageLabel label, FlowOutcome outcome, long durationNanos, int depth, String summary) {
+        this.label = label;
+        this.outcome = outcome;
+        this.durationNanos = durationNanos;
+        this.depth = depth;
+        this.summary = summary;
+    }
+
+    /**
+     * @return The label of the stage
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public StageLabel label() {
+        return label;
+    }
+
+    /**
+     * @return The outcome of the stage
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public FlowOutcome outcome() {
+        return outcome;
+    }
+
+    /**
+     * @return How long the stage took, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return How many stages this stage ran inside of, zero for a stage of the traced flow itself
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return A truncated description of the sad object or technical failure, if the stage resulted in one
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Optional<String> summary() {
+        return Optional.ofNullable(summary);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("%s %s %.3fms%s", label, outcome, durationNanos / 1e6, summary == null ? "" : ": " + summary);
+    }
+}
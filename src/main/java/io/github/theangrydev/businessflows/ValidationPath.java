@@ -18,9 +18,13 @@
 package io.github.theangrydev.businessflows;
 
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
 import static io.github.theangrydev.businessflows.ApiFeatureStability.STABLE;
 import static io.github.theangrydev.businessflows.ApiVersionHistory.*;
 import static io.github.theangrydev.businessflows.Mapping.identity;
@@ -188,6 +192,70 @@ public interface ValidationPath<Happy, Sad, SadAggregate> extends HappyPath<Happ
     @ApiFeature(since = VERSION_7_0_0, stability = STABLE)
     ValidationPath<Happy, Sad, SadAggregate> validateAllInto(Mapping<List<Sad>, SadAggregate> sadAggregateMapping, List<? extends Validator<Happy, Sad>> validators);
 
+    /**
+     * Perform a subsequent round of validation with validators that do not block, which will take place if the previous
+     * one succeeded. Every validator is started straight away, so the round takes as long as the slowest validator
+     * rather than the sum of them. The validation failures are accumulated in the order of the validators, not the
+     * order they completed in. The first technical failure, or the deadline passing, results in a technical failure
+     * overall without waiting for the other validators.
+     *
+     * <p>
+     * If the deadline passes, the result is completed on the {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     *
+     * @param validators Actions that act on the happy object and may indicate a validation failure by completing with {@link Sad}
+     * @param deadline   How long to wait for all the validators, after which the result is a {@link java.util.concurrent.TimeoutException}
+     * @return A {@link CompletionStage} of the result of applying all the validators
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline);
+
+    /**
+     * Same as {@link #validateAllAsync(List, Duration)}, but if the deadline passes the result is completed on the given
+     * {@link Executor}, which is where the stages that depend on it run.
+     *
+     * @param validators Actions that act on the happy object and may indicate a validation failure by completing with {@link Sad}
+     * @param deadline   How long to wait for all the validators, after which the result is a {@link java.util.concurrent.TimeoutException}
+     * @param executor   The {@link Executor} to complete the result on if the deadline passes
+     * @return A {@link CompletionStage} of the result of applying all the validators
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    CompletionStage<ValidationPath<Happy, Sad, SadAggregate>> validateAllAsync(List<? extends AsyncValidator<Happy, Sad>> validators, Duration deadline, Executor executor);
+
+    /**
+     * Perform a subsequent round of validation with validators that depend on each other, which will take place if the
+     * previous one succeeded. The validators are run one at a time in the order they were added to the graph. A
+     * validator is skipped if any of its prerequisites failed or were skipped, and the failures of the others are all
+     * accumulated.
+     *
+     * @param validators The validators and their prerequisites
+     * @return The result of applying the validators that were not skipped
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators);
+
+    /**
+     * Same as {@link #validateGraph(ValidatorGraph)}, but the validators are run level by level, where each level only
+     * depends on the levels before it, and the validators in a level are run in parallel on the given executor. The
+     * calling thread waits for each level to finish.
+     *
+     * @param validators The validators and their prerequisites
+     * @param executor   Where to run the validators
+     * @return The result of applying the validators that were not skipped
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    ValidationPath<Happy, Sad, SadAggregate> validateGraph(ValidatorGraph<Happy, Sad> validators, Executor executor);
+
+    /**
+     * Perform a subsequent round of validation over every element of a collection in the happy object, which will take
+     * place if the previous one succeeded. The failures are accumulated in the order of the elements, up to the maximum
+     * number of failures of the {@link EachValidator}.
+     *
+     * @param validator The validator for the elements
+     * @return The result of validating the elements
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    ValidationPath<Happy, Sad, SadAggregate> validateEach(EachValidator<Happy, ?, Sad> validator);
+
     /**
      * Helper method to turn an array of {@link Validator} into a list of {@link Validator}.
      *
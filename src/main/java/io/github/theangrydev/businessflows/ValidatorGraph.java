@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowListeners.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link ValidatorGraph} is a set of named {@link Validator}s that may depend on each other, for use with
+ * {@link ValidationPath#validateGraph(ValidatorGraph)}. A validator is skipped if any of its prerequisites failed or were
+ * skipped, since e.g. there is no point in checking the mail server of an email address that is blank:
+ * <pre>{@code
+ * ValidatorGraph<Registration, String> registration = ValidatorGraph.<Registration, String>validatorGraph()
+ *     .validator("email present", this::emailPresent)
+ *     .validator("email well formed", this::emailWellFormed, "email present")
+ *     .validator("email has mail server", this::emailHasMailServer, "email well formed")
+ *     .validator("name present", this::namePresent);
+ * }</pre>
+ * The failures of the validators that are independent of each other are all accumulated, in the order the validators
+ * were added. A prerequisite must be added before the validators that depend on it, so there can never be a cycle.
+ *
+ * @param <Happy> The type to validate
+ * @param <Sad>   The type of validation failure
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class ValidatorGraph<Happy, Sad> {
+
+    private static final byte PASSED = 0;
+    private static final byte FAILED = 1;
+    private static final byte SKIPPED = 2;
+
+    private final String[] names;
+    private final Object[] validators;
+    private final int[][] prerequisites;
+    private final int[] levels;
+
+    private ValidatorGraph(String[] names, Object[] validators, int[][] prerequisites, int[] levels) {
+        this.names = names;
+        this.validators = validators;
+        this.prerequisites = prerequisites;
+        this.levels = levels;
+    }
+
+    /**
+     * @param <Happy> The type to validate
+     * @param <Sad>   The type of validation failure
+     * @return A {@link ValidatorGraph} without any validators
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static <Happy, Sad> ValidatorGraph<Happy, Sad> validatorGraph() {
+        return new ValidatorGraph<>(new String[0], new Object[0], new int[0][], new int[0]);
+    }
+
+    /**
+     * Add a validator that only runs if all of its prerequisites passed.
+     *
+     * @param name          The name of the validator, for other validators to refer to
+     * @param validator     The validator
+     * @param prerequisites The names of the validators that must pass before this one is run, which must already have been added
+     * @return A new {@link ValidatorGraph} that has the validator as well as all the validators in this one
+     * @throws IllegalArgumentException If there is already a validator with the name or a prerequisite has not been added
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public ValidatorGraph<Happy, Sad> validator(String name, Validator<Happy, Sad> validator, String... prerequisites) {
+        if (indexOf(name) >= 0) {
+            throw new IllegalArgumentException(format("There is already a validator called '%s'", name));
+        }
+        int[] prerequisiteIndexes = new int[prerequisites.length];
+        int level = 0;
+        for (int prerequisite = 0; prerequisite < prerequisites.length; prerequisite++) {
+            int index = indexOf(prerequisites[prerequisite]);
+            if (index < 0) {
+                throw new IllegalArgumentException(format("The prerequisite '%s' of '%s' must be added before it", prerequisites[prerequisite], name));
+            }
+            prerequisiteIndexes[prerequisite] = index;
+            level = Math.max(level, levels[index] + 1);
+        }
+        int added = names.length;
+        String[] withName = Arrays.copyOf(names, added + 1);
+        withName[added] = name;
+        Object[] withValidator = Arrays.copyOf(validators, added + 1);
+        withValidator[added] = validator;
+        int[][] withPrerequisites = Arrays.copyOf(this.prerequisites, added + 1);
+        withPrerequisites[added] = prerequisiteIndexes;
+        int[] withLevel = Arrays.copyOf(levels, added + 1);
+        withLevel[added] = level;
+        return new ValidatorGraph<>(withName, withValidator, withPrerequisites, withLevel);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        List<String> validatorsWithPrerequisites = new ArrayList<>(names.length);
+        for (int validator = 0; validator < names.length; validator++) {
+            List<String> prerequisiteNames = new ArrayList<>(prerequisites[validator].length);
+            for (int prerequisite : prerequisites[validator]) {
+                prerequisiteNames.add(names[prerequisite]);
+            }
+            validatorsWithPrerequisites.add(names[validator] + " after " + prerequisiteNames);
+        }
+        return format("ValidatorGraph{%s}", validatorsWithPrerequisites);
+    }
+
+    /**
+     * Run the validators one at a time, in the order they were added, which is a topological order.
+     */
+    List<Sad> validationFailures(Happy happy) throws Exception {
+        byte[] states = new byte[validators.length];
+        Object[] sads = new Object[validators.length];
+        for (int validator = 0; validator < validators.length; validator++) {
+            if (prerequisitesPassed(validator, states)) {
+                validate(validator, happy, states, sads);
+            } else {
+                states[validator] = SKIPPED;
+            }
+        }
+        return failures(states, sads);
+    }
+
+    /**
+     * Run the validators level by level, where the validators in a level only depend on validators in earlier levels,
+     * with the validators in each level running in parallel on the executor.
+     */
+    List<Sad> validationFailures(Happy happy, Executor executor) throws Exception {
+        byte[] states = new byte[validators.length];
+        Object[] sads = new Object[validators.length];
+        Exception[] technicalFailures = new Exception[validators.length];
+        int deepestLevel = 0;
+        for (int level : levels) {
+            deepestLevel = Math.max(deepestLevel, level);
+        }
+        for (int level = 0; level <= deepestLevel && validators.length > 0; level++) {
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (int validator = 0; validator < validators.length; validator++) {
+                if (levels[validator] != level) {
+                    continue;
+                }
+                if (!prerequisitesPassed(validator, states)) {
+                    states[validator] = SKIPPED;
+                    continue;
+                }
+                int toRun = validator;
+                running.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        validate(toRun, happy, states, sads);
+                    } catch (Exception technicalFailure) {
+                        technicalFailures[toRun] = technicalFailure;
+                    }
+                }, executor));
+            }
+            try {
+                CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[running.size()])).join();
+            } catch (CompletionException couldNotRun) {
+                throw couldNotRun.getCause() instanceof Exception ? (Exception) couldNotRun.getCause() : couldNotRun;
+            }
+            for (Exception technicalFailure : technicalFailures) {
+                if (technicalFailure != null) {
+                    throw technicalFailure;
+                }
+            }
+        }
+        return failures(states, sads);
+    }
+
+    @SuppressWarnings("unchecked") // Only Validator<Happy, Sad> are added
+    private void validate(int validator, Happy happy, byte[] states, Object[] sads) throws Exception {
+        Validator<Happy, Sad> toValidate = (Validator<Happy, Sad>) validators[validator];
+        long enteredAtNanos = stageEntered(toValidate, VALIDATE);
+        PotentialFailure<Sad> potentialFailure;
+        Sad sad;
+        try {
+            potentialFailure = toValidate.attempt(happy);
+            sad = PotentialFailureFailure.sadOrNull(potentialFailure);
+        } catch (Exception technicalFailure) {
+            throw stageFailed(toValidate, VALIDATE, enteredAtNanos, technicalFailure);
+        }
+        stageExited(toValidate, VALIDATE, enteredAtNanos, potentialFailure);
+        if (sad != null) {
+            sads[validator] = sad;
+            states[validator] = FAILED;
+        } else {
+            states[validator] = PASSED;
+        }
+    }
+
+    private boolean prerequisitesPassed(int validator, byte[] states) {
+        for (int prerequisite : prerequisites[validator]) {
+            if (states[prerequisite] != PASSED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked") // Only the Sad of failed validators are stored
+    private List<Sad> failures(byte[] states, Object[] sads) {
+        List<Sad> failures = new ArrayList<>();
+        for (int validator = 0; validator < states.length; validator++) {
+            if (states[validator] == FAILED) {
+                failures.add((Sad) sads[validator]);
+            }
+        }
+        return failures;
+    }
+
+    private int indexOf(String name) {
+        for (int index = 0; index < names.length; index++) {
+            if (names[index].equals(name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.nio.ByteBuffer;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+
+/**
+ * A {@link ValueCodec} writes the happy or sad objects of a flow for a {@link FlowCodec}.
+ * <p>
+ * Values are written straight into the {@link ByteBuffer} the {@link FlowCodec} was given, which may be a heap or a
+ * direct buffer, so there is no need for an intermediate {@code byte[]}.
+ *
+ * @param <Value> The type of value the codec writes
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public interface ValueCodec<Value> {
+
+    /**
+     * @param value The value that will be encoded
+     * @return The exact number of bytes {@link #encode(Object, ByteBuffer)} will write for the value
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    int encodedLength(Value value);
+
+    /**
+     * Write the value at the position of the buffer, advancing it by {@link #encodedLength(Object)}.
+     *
+     * @param value  The value to encode
+     * @param buffer The buffer to write to
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    void encode(Value value, ByteBuffer buffer);
+
+    /**
+     * Read a value that was written by {@link #encode(Object, ByteBuffer)}.
+     *
+     * @param payload The buffer to read from, which has exactly the bytes of the value remaining
+     * @return The value
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    Value decode(ByteBuffer payload);
+
+    /**
+     * @return A {@link ValueCodec} that writes a {@link String} as UTF-8
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static ValueCodec<String> strings() {
+        return StringCodec.INSTANCE;
+    }
+
+    /**
+     * @return A {@link ValueCodec} that writes an {@link Integer} as a zig-zag varint, so small values take fewer bytes
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static ValueCodec<Integer> ints() {
+        return IntCodec.INSTANCE;
+    }
+
+    /**
+     * @return A {@link ValueCodec} that writes a {@link Long} as a zig-zag varint, so small values take fewer bytes
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    static ValueCodec<Long> longs() {
+        return LongCodec.INSTANCE;
+    }
+}
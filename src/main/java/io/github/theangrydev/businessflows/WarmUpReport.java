@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * What happened during a {@link FlowWarmUp}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class WarmUpReport {
+
+    private final List<String> pipelines;
+    private final long[][] outcomes;
+    private final int rounds;
+    private final boolean settled;
+    private final Duration elapsed;
+
+    WarmUpReport(List<String> pipelines, long[][] outcomes, int rounds, boolean settled, Duration elapsed) {
+        this.pipelines = pipelines;
+        this.outcomes = outcomes;
+        this.rounds = rounds;
+        this.settled = settled;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return The names of the pipelines that were warmed up
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public List<String> pipelines() {
+        return pipelines;
+    }
+
+    /**
+     * @return How many rounds were run
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * @return True if the last round did not cause any more compilation, false if the warm up timed out first or the
+     * compilation could not be monitored
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public boolean settled() {
+        return settled;
+    }
+
+    /**
+     * @return How long the warm up took
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @param pipeline The name of the pipeline
+     * @return How many times the pipeline ended in each outcome
+     * @throws IllegalArgumentException If there was no pipeline with the name
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Map<FlowOutcome, Long> outcomes(String pipeline) {
+        long[] counts = outcomes[index(pipeline)];
+        Map<FlowOutcome, Long> outcomes = new EnumMap<>(FlowOutcome.class);
+        for (FlowOutcome outcome : FlowOutcome.values()) {
+            outcomes.put(outcome, counts[outcome.ordinal()]);
+        }
+        return unmodifiableMap(outcomes);
+    }
+
+    /**
+     * @param pipeline The name of the pipeline
+     * @return The outcomes that the pipeline never ended in, so were not warmed up
+     * @throws IllegalArgumentException If there was no pipeline with the name
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public Set<FlowOutcome> untrainedOutcomes(String pipeline) {
+        long[] counts = outcomes[index(pipeline)];
+        Set<FlowOutcome> untrained = EnumSet.noneOf(FlowOutcome.class);
+        for (FlowOutcome outcome : FlowOutcome.values()) {
+            if (counts[outcome.ordinal()] == 0) {
+                untrained.add(outcome);
+            }
+        }
+        return unmodifiableSet(untrained);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        List<String> untrained = new ArrayList<>();
+        for (String pipeline : pipelines) {
+            for (FlowOutcome outcome : untrainedOutcomes(pipeline)) {
+                untrained.add(pipeline + " " + outcome);
+            }
+        }
+        return format("Warmed up %d pipelines in %d rounds over %d ms, compilation %s, untrained outcomes %s",
+                pipelines.size(), rounds, elapsed.toMillis(), settled ? "settled" : "did not settle", untrained);
+    }
+
+    private int index(String pipeline) {
+        int index = pipelines.indexOf(pipeline);
+        if (index < 0) {
+            throw new IllegalArgumentException(format("There was no pipeline called '%s'", pipeline));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowOutcome.HAPPY;
+import static java.lang.String.format;
+
+/**
+ * A {@link WorkloadRecorder} captures the shape of real flows to a file, so that {@link WorkloadReplay} can replay the
+ * same mix of outcomes and stage latencies against another build of the library, e.g. before upgrading it.
+ * <p>
+ * For each recorded flow it captures the stages that ran, their outcomes and how long they took. It has to be
+ * registered with {@link FlowListeners#register(FlowListener)} to see the stages, and only the flows that are run with
+ * {@link #record(String, Attempt)} are captured.
+ * <p>
+ * Each flow is serialised on the thread that ran it and handed to a writer thread through a bounded queue, so the file
+ * is never written to on the thread that ran the flow. If the writer falls behind, the flows that do not fit in the
+ * queue are dropped rather than slowing the flows down.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class WorkloadRecorder implements FlowListener, Closeable {
+
+    static final int MAGIC = 0x4246574C;
+    static final int VERSION = 3;
+    static final byte NOT_EXITED = -1;
+    static final int MAXIMUM_RECORD_LENGTH = 16 * 1024 * 1024;
+    static final int PENDING_FLOWS = 1024;
+
+    private static final byte[] END_OF_FLOWS = {};
+
+    private final double sampleRate;
+    private final ThreadLocal<TraceScratch> scratch;
+    private final ThreadLocal<RecordBuffer> records = ThreadLocal.withInitial(RecordBuffer::new);
+    private final BlockingQueue<byte[]> pendingFlows = new ArrayBlockingQueue<>(PENDING_FLOWS);
+    private final DataOutputStream output;
+    private final Thread writer;
+    private final LongAdder recordedFlows = new LongAdder();
+    private final LongAdder droppedFlows = new LongAdder();
+    private volatile boolean closed;
+    private boolean failed;
+
+    private WorkloadRecorder(double sampleRate, int maximumStages, DataOutputStream output) {
+        this.sampleRate = sampleRate;
+        this.scratch = ThreadLocal.withInitial(() -> new TraceScratch(maximumStages));
+        this.output = output;
+        this.writer = new Thread(this::writeFlows, "business-flows-workload-recorder");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * @param file          The file to write the workload to, which is replaced if it exists
+     * @param maximumStages How many stages to record per flow, later stages are dropped
+     * @param sampleRate    The fraction of flows in [0, 1] to record
+     * @return A {@link WorkloadRecorder} that has not recorded any flows yet
+     * @throws IOException If the file could not be created
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static WorkloadRecorder workloadRecorder(Path file, int maximumStages, double sampleRate) throws IOException {
+        return workloadRecorder(Files.newOutputStream(file), maximumStages, sampleRate);
+    }
+
+    static WorkloadRecorder workloadRecorder(OutputStream file, int maximumStages, double sampleRate) throws IOException {
+        if (maximumStages < 1) {
+            throw new IllegalArgumentException(format("Maximum stages must be positive but was %d", maximumStages));
+        }
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException(format("Sample rate must be in [0, 1] but was %s", sampleRate));
+        }
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        WorkloadRecorder recorder = new WorkloadRecorder(sampleRate, maximumStages, output);
+        recorder.writer.start();
+        return recorder;
+    }
+
+    /**
+     * Run a flow, recording its stages if it is sampled. A flow that is run inside another recorded flow is recorded as
+     * part of that flow.
+     *
+     * @param flowName The name of the flow, to tell the flows apart when replaying
+     * @param flow     The flow to run
+     * @param <Happy>  The type of happy object the flow might produce
+     * @param <Sad>    The type of sad object the flow might produce
+     * @return The result of the flow, which is a technical failure if running it threw an exception
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public <Happy, Sad> HappyPath<Happy, Sad> record(String flowName, Attempt<? extends BusinessFlow<Happy, Sad>> flow) {
+        TraceScratch recording = scratch.get();
+        if (recording.active || sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return run(flow);
+        }
+        recording.start(flowName);
+        try {
+            HappyPath<Happy, Sad> result = run(flow);
+            enqueue(recording, FlowListeners.outcome(result), System.nanoTime() - recording.startedAtNanos);
+            return result;
+        } finally {
+            recording.finish();
+        }
+    }
+
+    /**
+     * @return How many flows have been written to the file
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long recordedFlows() {
+        return recordedFlows.sum();
+    }
+
+    /**
+     * @return How many sampled flows were not written to the file, because the writer had fallen behind or because the
+     * file could not be written to, after which every flow is dropped
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long droppedFlows() {
+        return droppedFlows.sum();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageEntered(StageLabel label) {
+        stageEntered(label, HAPPY);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageEntered(StageLabel label, FlowOutcome path) {
+        TraceScratch recording = scratch.get();
+        if (recording.active) {
+            recording.entered(label, path);
+        }
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+        TraceScratch recording = scratch.get();
+        if (recording.active) {
+            recording.exited(outcome, null, durationNanos);
+        }
+    }
+
+    /**
+     * Wait for the writer to write the flows that are still queued and close the file. Flows that finish after this
+     * are dropped.
+     *
+     * @throws IOException If the file could not be written to
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            pendingFlows.put(END_OF_FLOWS);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the recorded flows to be written");
+        }
+        output.close();
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("WorkloadRecorder{recordedFlows=%d, droppedFlows=%d}", recordedFlows(), droppedFlows());
+    }
+
+    private void enqueue(TraceScratch recording, FlowOutcome outcome, long durationNanos) {
+        if (closed) {
+            droppedFlows.increment();
+            return;
+        }
+        RecordBuffer record = records.get();
+        try {
+            record.reset();
+            record.data.writeUTF(recording.flowName);
+            record.data.writeByte(outcome.ordinal());
+            record.data.writeLong(durationNanos);
+            record.data.writeInt(recording.stageCount);
+            for (int stage = 0; stage < recording.stageCount; stage++) {
+                StageLabel label = recording.labels[stage];
+                FlowOutcome stageOutcome = recording.outcomes[stage];
+                record.data.writeUTF(label.flow());
+                record.data.writeUTF(label.stage());
+                record.data.writeByte(stageOutcome == null ? NOT_EXITED : stageOutcome.ordinal());
+                record.data.writeByte(recording.paths[stage].ordinal());
+                record.data.writeLong(recording.durations[stage]);
+                record.data.writeInt(recording.depths[stage]);
+            }
+        } catch (IOException e) {
+            // Only thrown for a name that is too long to write, which the file could not hold either
+            droppedFlows.increment();
+            return;
+        }
+        if (record.size() > MAXIMUM_RECORD_LENGTH || !pendingFlows.offer(record.toByteArray())) {
+            droppedFlows.increment();
+        }
+    }
+
+    private void writeFlows() {
+        while (true) {
+            byte[] flow;
+            try {
+                flow = pendingFlows.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (flow == END_OF_FLOWS) {
+                return;
+            }
+            write(flow);
+        }
+    }
+
+    private void write(byte[] flow) {
+        if (failed) {
+            droppedFlows.increment();
+            return;
+        }
+        try {
+            output.writeInt(flow.length);
+            output.write(flow);
+            recordedFlows.increment();
+        } catch (IOException e) {
+            // Part of the record may have reached the file, so anything written after it could not be replayed
+            failed = true;
+            droppedFlows.increment();
+        }
+    }
+
+    private static <Happy, Sad> HappyPath<Happy, Sad> run(Attempt<? extends BusinessFlow<Happy, Sad>> flow) {
+        try {
+            return flow.attempt().ifHappy();
+        } catch (Exception technicalFailure) {
+            return HappyPath.technicalFailure(technicalFailure);
+        }
+    }
+
+    /**
+     * A whole flow is serialised here before it is queued, so that each flow goes to the file as one length-prefixed
+     * record. There is one per thread, so only the copy that is queued is allocated per flow.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        final DataOutputStream data = new DataOutputStream(this);
+    }
+}
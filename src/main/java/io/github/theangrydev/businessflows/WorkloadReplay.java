@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static io.github.theangrydev.businessflows.FlowOutcome.HAPPY;
+import static io.github.theangrydev.businessflows.FlowOutcome.SAD;
+import static io.github.theangrydev.businessflows.RecordedFlow.stubStage;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+import static io.github.theangrydev.businessflows.WorkloadRecorder.*;
+import static java.lang.String.format;
+
+/**
+ * A {@link WorkloadReplay} replays the flows captured by a {@link WorkloadRecorder} against the build of the library
+ * that it is run with, and measures the throughput, the latency per flow and the allocation per flow.
+ * <p>
+ * Each recorded flow is replayed as a {@link HappyPath} with one {@link HappyPath#then(Mapping)} per top level stage that
+ * was recorded, or one {@link SadPath#then(Mapping)} for a stage that ran on a {@link SadPath}. Each stage is a stub that waits for the recorded latency of the stage, scaled by the latency scale, and
+ * then has the recorded outcome, so the replay has the same mix of outcomes and chain lengths as the real traffic. Use a
+ * latency scale of 0 to measure only the overhead of the library. Run it from the command line with:
+ * <pre>
+ * java -cp business-flows.jar io.github.theangrydev.businessflows.WorkloadReplay workload.bin [iterations] [latency scale]
+ * </pre>
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class WorkloadReplay {
+
+    private final List<RecordedFlow> flows;
+
+    private WorkloadReplay(List<RecordedFlow> flows) {
+        this.flows = flows;
+    }
+
+    /**
+     * Replay a recording and print the report.
+     *
+     * @param arguments The path of the recording, then optionally the number of iterations and the latency scale
+     * @throws IOException If the recording could not be read
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static void main(String... arguments) throws IOException {
+        if (arguments.length == 0) {
+            System.err.println("Usage: WorkloadReplay <workload> [iterations] [latency scale]");
+            return;
+        }
+        int iterations = arguments.length > 1 ? Integer.parseInt(arguments[1]) : 10;
+        double latencyScale = arguments.length > 2 ? Double.parseDouble(arguments[2]) : 1;
+        WorkloadReplay replay = workloadReplay(Paths.get(arguments[0]), latencyScale);
+        replay.run(1);
+        System.out.println(replay.run(iterations));
+    }
+
+    /**
+     * @param recording    The file a {@link WorkloadRecorder} wrote
+     * @param latencyScale What to multiply the recorded stage latencies by, 0 to not wait at all
+     * @return A {@link WorkloadReplay} of the flows in the recording
+     * @throws IOException If the recording could not be read
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public static WorkloadReplay workloadReplay(Path recording, double latencyScale) throws IOException {
+        if (latencyScale < 0) {
+            throw new IllegalArgumentException(format("Latency scale must not be negative but was %s", latencyScale));
+        }
+        long unread = Files.size(recording);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(recording)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IllegalArgumentException(format("'%s' is not a workload recording", recording));
+            }
+            unread -= 8;
+            List<RecordedFlow> flows = new ArrayList<>();
+            while (true) {
+                byte[] record;
+                try {
+                    int length = input.readInt();
+                    unread -= 4;
+                    if (length < 0 || length > MAXIMUM_RECORD_LENGTH || length > unread) {
+                        // The length is torn, so there is no telling where the record ends
+                        return new WorkloadReplay(flows);
+                    }
+                    record = new byte[length];
+                    input.readFully(record);
+                    unread -= length;
+                } catch (EOFException endOfRecording) {
+                    // The last record is torn if the recorder stopped part-way through writing it
+                    return new WorkloadReplay(flows);
+                }
+                flows.add(readFlow(new DataInputStream(new ByteArrayInputStream(record)), latencyScale));
+            }
+        }
+    }
+
+    /**
+     * @return How many flows there are in the recording
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public int flows() {
+        return flows.size();
+    }
+
+    /**
+     * Replay every flow in the recording, in the order they were recorded in, on the current thread.
+     *
+     * @param iterations How many times to replay the whole recording
+     * @return The measurements
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public WorkloadReport run(int iterations) {
+        LatencyHistogram latencies = new LatencyHistogram();
+        long happyFlows = 0;
+        long sadFlows = 0;
+        long technicalFailureFlows = 0;
+        long allocatedBefore = allocatedBytes();
+        long startedAtNanos = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (RecordedFlow flow : flows) {
+                long flowStartedAtNanos = System.nanoTime();
+                HappyPath<Object, Object> result = flow.replay();
+                latencies.record(System.nanoTime() - flowStartedAtNanos);
+                FlowOutcome outcome = FlowListeners.outcome(result);
+                if (outcome == HAPPY) {
+                    happyFlows++;
+                } else if (outcome == SAD) {
+                    sadFlows++;
+                } else {
+                    technicalFailureFlows++;
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startedAtNanos;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        return new WorkloadReport((long) iterations * flows.size(), elapsedNanos, latencies.valueAtQuantile(0.5), latencies.valueAtQuantile(0.99), latencies.valueAtQuantile(0.999),
+                allocated, happyFlows, sadFlows, technicalFailureFlows);
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("WorkloadReplay{flows=%d}", flows.size());
+    }
+
+    private static RecordedFlow readFlow(DataInputStream input, double latencyScale) throws IOException {
+        String flowName = input.readUTF();
+        FlowOutcome outcome = FlowOutcome.values()[input.readByte()];
+        long durationNanos = input.readLong();
+        int stageCount = input.readInt();
+        List<Mapping<Object, HappyPath<Object, Object>>> stages = new ArrayList<>();
+        BitSet sadPathStages = new BitSet();
+        for (int stage = 0; stage < stageCount; stage++) {
+            StageLabel label = stageLabel(input.readUTF(), input.readUTF());
+            byte stageOutcome = input.readByte();
+            FlowOutcome path = FlowOutcome.values()[input.readByte()];
+            long stageDurationNanos = input.readLong();
+            int depth = input.readInt();
+            if (depth == 0 && stageOutcome != NOT_EXITED) {
+                sadPathStages.set(stages.size(), path == SAD);
+                stages.add(stubStage(label, FlowOutcome.values()[stageOutcome], (long) (stageDurationNanos * latencyScale)));
+            }
+        }
+        return new RecordedFlow(flowName, outcome, durationNanos, stages, sadPathStages);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import static io.github.theangrydev.businessflows.ApiFeatureStability.EXPERIMENTAL;
+import static io.github.theangrydev.businessflows.ApiVersionHistory.VERSION_10_4_0;
+import static java.lang.String.format;
+
+/**
+ * The measurements from a {@link WorkloadReplay}.
+ */
+@ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+public final class WorkloadReport {
+
+    private final long flows;
+    private final long elapsedNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long allocatedBytes;
+    private final long happyFlows;
+    private final long sadFlows;
+    private final long technicalFailureFlows;
+
+    WorkloadReport(long flows, long elapsedNanos, long p50Nanos, long p99Nanos, long p999Nanos, long allocatedBytes, long happyFlows, long sadFlows, long technicalFailureFlows) {
+        this.flows = flows;
+        this.elapsedNanos = elapsedNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.happyFlows = happyFlows;
+        this.sadFlows = sadFlows;
+        this.technicalFailureFlows = technicalFailureFlows;
+    }
+
+    /**
+     * @return How many flows were replayed
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long flows() {
+        return flows;
+    }
+
+    /**
+     * @return How many flows were replayed per second
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public double throughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : flows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return The median time it took to replay a flow, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long p50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return The 99th percentile of the time it took to replay a flow, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long p99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return The 99.9th percentile of the time it took to replay a flow, in nanoseconds
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long p999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * @return How many bytes were allocated per flow, or -1 if the JVM does not measure allocation per thread
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long allocatedBytesPerFlow() {
+        return allocatedBytes < 0 || flows == 0 ? -1 : allocatedBytes / flows;
+    }
+
+    /**
+     * @return How many of the replayed flows ended happy
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long happyFlows() {
+        return happyFlows;
+    }
+
+    /**
+     * @return How many of the replayed flows ended sad
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long sadFlows() {
+        return sadFlows;
+    }
+
+    /**
+     * @return How many of the replayed flows ended in a technical failure
+     */
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    public long technicalFailureFlows() {
+        return technicalFailureFlows;
+    }
+
+    @ApiFeature(since = VERSION_10_4_0, stability = EXPERIMENTAL)
+    @Override
+    public String toString() {
+        return format("%d flows (%d happy, %d sad, %d technical failure): %.1f flows/s, p50 %d ns, p99 %d ns, p99.9 %d ns, %d bytes allocated per flow",
+                flows, happyFlows, sadFlows, technicalFailureFlows, throughputPerSecond(), p50Nanos, p99Nanos, p999Nanos, allocatedBytesPerFlow());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Runs the {@link ComparativeFlowBenchmark} with 1, 2, 4, ... up to N threads and writes two CSV files: the raw JMH
+ * results for each thread count, and {@code comparative.csv} with every score relative to the {@code ifChecks} baseline
+ * for the same mix, depth and thread count. A ratio that grows between two builds is a regression even if the absolute
+ * nanoseconds moved because of the machine. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) benchmarks.ComparativeBenchmarkSuite [max threads] [output directory]
+ * </pre>
+ */
+public final class ComparativeBenchmarkSuite {
+
+    private static final String BASELINE = "ifChecks";
+
+    private ComparativeBenchmarkSuite() {
+    }
+
+    public static void main(String... arguments) throws RunnerException, IOException {
+        int maximumThreads = arguments.length > 0 ? Integer.parseInt(arguments[0]) : Runtime.getRuntime().availableProcessors();
+        Path outputDirectory = Paths.get(arguments.length > 1 ? arguments[1] : "target/benchmarks");
+        Files.createDirectories(outputDirectory);
+
+        List<Row> rows = new ArrayList<>();
+        for (int threads = 1; threads <= maximumThreads; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(ComparativeFlowBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.CSV)
+                    .result(outputDirectory.resolve(format("comparative-%d-threads.csv", threads)).toString())
+                    .build();
+            rows.addAll(rows(threads, new Runner(options).run()));
+        }
+        writeRelativeToBaseline(rows, outputDirectory.resolve("comparative.csv"));
+    }
+
+    private static List<Row> rows(int threads, Collection<RunResult> results) {
+        List<Row> rows = new ArrayList<>(results.size());
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String style = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            rows.add(new Row(threads, result.getParams().getParam("mix"), result.getParams().getParam("depth"), style, result.getPrimaryResult().getScore()));
+        }
+        return rows;
+    }
+
+    private static void writeRelativeToBaseline(List<Row> rows, Path file) throws IOException {
+        Map<String, Double> baselines = new HashMap<>();
+        for (Row row : rows) {
+            if (BASELINE.equals(row.style)) {
+                baselines.put(row.scenario(), row.nanosPerFlow);
+            }
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("threads,mix,depth,style,nanosPerFlow,relativeToBaseline");
+            for (Row row : rows) {
+                Double baseline = baselines.get(row.scenario());
+                double relative = baseline == null || baseline == 0 ? Double.NaN : row.nanosPerFlow / baseline;
+                writer.println(format(Locale.ROOT, "%d,%s,%s,%s,%.3f,%.3f", row.threads, row.mix, row.depth, row.style, row.nanosPerFlow, relative));
+            }
+        }
+    }
+
+    private static class Row {
+        private final int threads;
+        private final String mix;
+        private final String depth;
+        private final String style;
+        private final double nanosPerFlow;
+
+        Row(int threads, String mix, String depth, String style, double nanosPerFlow) {
+            this.threads = threads;
+            this.mix = mix;
+            this.depth = depth;
+            this.style = style;
+            this.nanosPerFlow = nanosPerFlow;
+        }
+
+        String scenario() {
+            return threads + "," + mix + "," + depth;
+        }
+    }
+}
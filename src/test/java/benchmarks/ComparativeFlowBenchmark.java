@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmarks;
+
+import io.github.theangrydev.businessflows.HappyPath;
+import io.github.theangrydev.businessflows.Mapping;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the same flow written as a {@link HappyPath} chain against the ways it would be written without
+ * business-flows: with exceptions for the sad cases, with {@link Optional} and with hand-written {@code if} checks.
+ * <p>
+ * Each flow is a chain of {@code depth} stages. Halfway along the chain the input decides whether the flow stays happy,
+ * turns sad or fails technically, in the proportions given by the {@code mix}. The {@code ifChecks} benchmark is the
+ * baseline the others should be compared to. Use {@link ComparativeBenchmarkSuite} to run it with 1 to N threads and
+ * write the results, relative to the baseline, as CSV.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparativeFlowBenchmark {
+
+    private static final int INPUTS = 1024;
+    private static final int HAPPY = 0;
+    private static final int SAD = 1;
+    private static final int TECHNICAL_FAILURE = 2;
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = 3;
+    private static final int SAD_RESULT = -1;
+    private static final int TECHNICAL_FAILURE_RESULT = -2;
+
+    @Param({"happy-heavy", "sad-heavy", "failure-heavy"})
+    public String mix;
+
+    @Param({"1", "5", "10", "50"})
+    public int depth;
+
+    private int[] inputs;
+    private int next;
+    private int decidingStage;
+    private Mapping<Integer, HappyPath<Integer, String>>[] flowStages;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"}) // There is no generic array creation
+    public void prepareInputs() {
+        int[] percentages = percentages(mix);
+        SplittableRandom random = new SplittableRandom(42);
+        inputs = new int[INPUTS];
+        for (int input = 0; input < INPUTS; input++) {
+            int roll = random.nextInt(100);
+            int kind = roll < percentages[HAPPY] ? HAPPY : roll < percentages[HAPPY] + percentages[SAD] ? SAD : TECHNICAL_FAILURE;
+            inputs[input] = (input << KIND_BITS) | kind;
+        }
+        decidingStage = depth / 2;
+        flowStages = new Mapping[depth];
+        for (int stage = 0; stage < depth; stage++) {
+            int thisStage = stage;
+            flowStages[stage] = value -> {
+                int kind = kindAt(value, thisStage);
+                if (kind == SAD) {
+                    return HappyPath.sadPath("out of stock");
+                }
+                if (kind == TECHNICAL_FAILURE) {
+                    throw new IllegalStateException("database is down");
+                }
+                return HappyPath.happyPath(value + (1 << KIND_BITS));
+            };
+        }
+    }
+
+    @Benchmark
+    public int businessFlows() {
+        HappyPath<Integer, String> flow = HappyPath.happyPath(nextInput());
+        for (int stage = 0; stage < depth; stage++) {
+            flow = flow.then(flowStages[stage]);
+        }
+        return flow.join(happy -> happy, sad -> SAD_RESULT, technicalFailure -> TECHNICAL_FAILURE_RESULT);
+    }
+
+    @Benchmark
+    public int exceptions() {
+        int value = nextInput();
+        try {
+            for (int stage = 0; stage < depth; stage++) {
+                value = stageThatThrows(value, stage);
+            }
+            return value;
+        } catch (OutOfStockException sad) {
+            return SAD_RESULT;
+        } catch (RuntimeException technicalFailure) {
+            return TECHNICAL_FAILURE_RESULT;
+        }
+    }
+
+    @Benchmark
+    public int optional() {
+        try {
+            Optional<Integer> flow = Optional.of(nextInput());
+            for (int stage = 0; stage < depth; stage++) {
+                int thisStage = stage;
+                flow = flow.flatMap(value -> stageThatIsEmpty(value, thisStage));
+            }
+            return flow.orElse(SAD_RESULT);
+        } catch (RuntimeException technicalFailure) {
+            return TECHNICAL_FAILURE_RESULT;
+        }
+    }
+
+    @Benchmark
+    public int ifChecks() {
+        int value = nextInput();
+        for (int stage = 0; stage < depth; stage++) {
+            int kind = kindAt(value, stage);
+            if (kind == SAD) {
+                return SAD_RESULT;
+            }
+            if (kind == TECHNICAL_FAILURE) {
+                return TECHNICAL_FAILURE_RESULT;
+            }
+            value += 1 << KIND_BITS;
+        }
+        return value;
+    }
+
+    private int stageThatThrows(int value, int stage) throws OutOfStockException {
+        int kind = kindAt(value, stage);
+        if (kind == SAD) {
+            throw new OutOfStockException();
+        }
+        if (kind == TECHNICAL_FAILURE) {
+            throw new IllegalStateException("database is down");
+        }
+        return value + (1 << KIND_BITS);
+    }
+
+    private Optional<Integer> stageThatIsEmpty(int value, int stage) {
+        int kind = kindAt(value, stage);
+        if (kind == SAD) {
+            return Optional.empty();
+        }
+        if (kind == TECHNICAL_FAILURE) {
+            throw new IllegalStateException("database is down");
+        }
+        return Optional.of(value + (1 << KIND_BITS));
+    }
+
+    private int kindAt(int value, int stage) {
+        return stage == decidingStage ? value & KIND_MASK : HAPPY;
+    }
+
+    private int nextInput() {
+        next = (next + 1) & (INPUTS - 1);
+        return inputs[next];
+    }
+
+    private static int[] percentages(String mix) {
+        switch (mix) {
+            case "happy-heavy":
+                return new int[]{90, 5, 5};
+            case "sad-heavy":
+                return new int[]{10, 80, 10};
+            case "failure-heavy":
+                return new int[]{10, 10, 80};
+            default:
+                throw new IllegalArgumentException("Unknown mix " + mix);
+        }
+    }
+
+    private static class OutOfStockException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmarks;
+
+import io.github.theangrydev.businessflows.FlowListener;
+import io.github.theangrydev.businessflows.FlowListeners;
+import io.github.theangrydev.businessflows.FlowOutcome;
+import io.github.theangrydev.businessflows.HappyPath;
+import io.github.theangrydev.businessflows.PotentialFailure;
+import io.github.theangrydev.businessflows.StageLabel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the {@link FlowListener} instrumentation of each stage.
+ * <p>
+ * With {@code listener=none} no listener is registered, so the instrumentation should be folded away by the JIT and the
+ * result should be within noise of running the same benchmark against a build from before the instrumentation existed.
+ * With {@code listener=noop} a listener that does nothing is registered, which shows the cost of the instrumentation
+ * itself. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main FlowListenerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class FlowListenerBenchmark {
+
+    @Param({"none", "noop"})
+    public String listener;
+
+    private Integer input = 42;
+    private String sad = "sad";
+
+    @Setup
+    public void registerListener() {
+        if ("noop".equals(listener)) {
+            FlowListeners.register(new NoOpListener());
+        }
+    }
+
+    @Benchmark
+    public Object happyChain() {
+        return HappyPath.<Integer, String>happyPath(input)
+                .map(value -> value + 1)
+                .then(value -> HappyPath.happyPath(value * 2))
+                .peek(value -> {
+                })
+                .attempt(value -> PotentialFailure.success())
+                .get();
+    }
+
+    @Benchmark
+    public Object sadChain() {
+        return HappyPath.<Integer, String>happyPath(input)
+                .attempt(value -> PotentialFailure.failure(sad))
+                .ifSad()
+                .map(value -> value + "!")
+                .peek(value -> {
+                })
+                .recover(value -> value.length())
+                .get();
+    }
+
+    private static class NoOpListener implements FlowListener {
+
+        @Override
+        public void stageEntered(StageLabel label) {
+            // Deliberately does nothing, to measure the cost of the instrumentation alone
+        }
+
+        @Override
+        public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+            // Deliberately does nothing, to measure the cost of the instrumentation alone
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmarks;
+
+import io.github.theangrydev.businessflows.FlowPipeline;
+import io.github.theangrydev.businessflows.HappyPath;
+import io.github.theangrydev.businessflows.Mapping;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures what {@link FlowPipeline#specialised()} gains when many distinct pipelines share the library.
+ * <p>
+ * There are 128 pipelines of 4 stages, and every stage is an instance of a different class, as it would be if each
+ * stage were a different lambda in a real service. The pipelines are run in turn, so with {@code mode=shared} the call
+ * sites in {@link HappyPath#then(Mapping)} and {@link HappyPath#map(Mapping)} see all 512 stage classes, while with
+ * {@code mode=specialised} each call site only sees one. Each specialised copy is compiled separately, so it needs a
+ * longer warm up. Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main SpecialisedPipelineBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class SpecialisedPipelineBenchmark {
+
+    private static final int PIPELINES = 128;
+    private static final int STAGES = 4;
+
+    @Param({"shared", "shared-template", "specialised"})
+    public String mode;
+
+    private FlowPipeline<Integer, Integer, String>[] pipelines;
+    private int next;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"}) // There is no generic array creation
+    public void buildPipelines() throws IOException, ReflectiveOperationException {
+        byte[] addOne = classFile(AddOne.class);
+        byte[] thenAddOne = classFile(ThenAddOne.class);
+        pipelines = new FlowPipeline[PIPELINES];
+        for (int pipeline = 0; pipeline < PIPELINES; pipeline++) {
+            FlowPipeline<Integer, Integer, String> stages = FlowPipeline.flowPipeline();
+            for (int stage = 0; stage < STAGES; stage++) {
+                if (stage % 2 == 0) {
+                    stages = stages.map((Mapping<Integer, Integer>) distinctInstance(AddOne.class, addOne));
+                } else {
+                    stages = stages.then((Mapping<Integer, HappyPath<Integer, String>>) distinctInstance(ThenAddOne.class, thenAddOne));
+                }
+            }
+            pipelines[pipeline] = inMode(stages);
+        }
+    }
+
+    @Benchmark
+    public Object run() {
+        next = (next + 1) & (PIPELINES - 1);
+        return pipelines[next].run(next).get();
+    }
+
+    private FlowPipeline<Integer, Integer, String> inMode(FlowPipeline<Integer, Integer, String> stages) throws ReflectiveOperationException {
+        switch (mode) {
+            case "shared":
+                return stages;
+            case "shared-template":
+                return sharedTemplate(stages);
+            case "specialised":
+                return stages.specialised();
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    /**
+     * The same stage running code that {@link FlowPipeline#specialised()} copies, without copying it. It is not part of
+     * the API, so it is reached by reflection.
+     */
+    @SuppressWarnings("unchecked") // The shared template runs the same stages as the pipeline
+    private static FlowPipeline<Integer, Integer, String> sharedTemplate(FlowPipeline<Integer, Integer, String> stages) throws ReflectiveOperationException {
+        Object thenStages = accessible(FlowPipeline.class.getDeclaredField("thenStages")).get(stages);
+        Object stageFunctions = accessible(FlowPipeline.class.getDeclaredField("stages")).get(stages);
+        Class<?> template = Class.forName(FlowPipeline.class.getPackage().getName() + ".PipelineStages");
+        Object shared = accessible(template.getDeclaredConstructor(boolean[].class, Object[].class)).newInstance(thenStages, stageFunctions);
+        Constructor<?> pipeline = accessible(FlowPipeline.class.getDeclaredConstructor(boolean[].class, Object[].class, Function.class));
+        return (FlowPipeline<Integer, Integer, String>) pipeline.newInstance(thenStages, stageFunctions, shared);
+    }
+
+    private static <T extends AccessibleObject> T accessible(T member) {
+        member.setAccessible(true);
+        return member;
+    }
+
+    private static Object distinctInstance(Class<?> type, byte[] classFile) throws ReflectiveOperationException {
+        return new DistinctClassLoader().define(type.getName(), classFile).getConstructor().newInstance();
+    }
+
+    private static byte[] classFile(Class<?> type) throws IOException {
+        String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream input = type.getResourceAsStream(resource)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    public static final class AddOne implements Mapping<Integer, Integer> {
+
+        @Override
+        public Integer map(Integer value) {
+            return value + 1;
+        }
+    }
+
+    public static final class ThenAddOne implements Mapping<Integer, HappyPath<Integer, String>> {
+
+        @Override
+        public HappyPath<Integer, String> map(Integer value) {
+            return HappyPath.happyPath(value + 1);
+        }
+    }
+
+    private static final class DistinctClassLoader extends ClassLoader {
+
+        DistinctClassLoader() {
+            super(SpecialisedPipelineBenchmark.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.assertj.core.api.WithAssertions;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Budgets for the bytes that the common operations on a flow allocate, and for the footprint of the flow objects.
+ * <p>
+ * The operations are called through a shared call site and their results are kept, so that the JIT cannot remove the
+ * allocations with escape analysis. The fewest bytes over a few rounds are taken, so that the bytes the JVM allocates for
+ * itself while compiling are not counted. The footprint of a flow object is the bytes allocated to construct it.
+ * <p>
+ * The budgets assume a 64 bit JVM with compressed oops, which is the default for heaps under 32GB. If one of these tests
+ * fails, either the change added an allocation that should be removed, or the budget should be raised on purpose.
+ */
+public class AllocationBudgetTest implements WithAssertions {
+
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int ROUNDS = 5;
+    private static final int CALLS_PER_ROUND = 20_000;
+
+    private static final List<Validator<String, String>> PASSING_VALIDATORS = Arrays.asList(
+            happy -> PotentialFailure.success(),
+            happy -> PotentialFailure.success(),
+            happy -> PotentialFailure.success());
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private Object sink;
+
+    @BeforeClass
+    public static void onlyMeasureOnAJvmThatCanMeasureAllocation() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        Assume.assumeTrue(hotSpot != null && "true".equals(hotSpot.getVMOption("UseCompressedOops").getValue()));
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    @Test
+    public void happyPath() {
+        assertAllocatesAtMost("HappyPath.happyPath", 16, () -> HappyPath.happyPath("happy"));
+    }
+
+    @Test
+    public void map() {
+        HappyPath<String, String> happyPath = HappyPath.happyPath("happy");
+
+        assertAllocatesAtMost("HappyPath.map", 16, () -> happyPath.map(happy -> happy));
+    }
+
+    @Test
+    public void then() {
+        HappyPath<String, String> happyPath = HappyPath.happyPath("happy");
+
+        assertAllocatesAtMost("HappyPath.then", 16, () -> happyPath.then(happy -> HappyPath.<String, String>happyPath(happy)));
+    }
+
+    @Test
+    public void attempt() {
+        HappyPath<String, String> happyPath = HappyPath.happyPath("happy");
+
+        assertAllocatesAtMost("HappyPath.attempt", 16, () -> happyPath.attempt(happy -> PotentialFailure.success()));
+    }
+
+    @Test
+    public void isHappy() {
+        HappyPath<String, String> happyPath = HappyPath.happyPath("happy");
+
+        assertAllocatesAtMost("HappyPath.isHappy", 16, happyPath::isHappy);
+    }
+
+    @Test
+    public void getHappy() {
+        HappyPath<String, String> happyPath = HappyPath.happyPath("happy");
+
+        assertAllocatesAtMost("HappyPath.getHappy", 32, happyPath::getHappy);
+    }
+
+    @Test
+    public void passingValidateAll() {
+        assertAllocatesAtMost("ValidationPath.validateAll with three passing validators", 184, () -> ValidationPath.validateAll("happy", PASSING_VALIDATORS));
+    }
+
+    @Test
+    public void fieldViewValidation() {
+        byte[] record = "order-1,widget,3".getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+        FieldView view = FieldView.fieldView(record, 0, record.length);
+        Validator<FieldView, String> quantity = FieldValidator.fieldValidator(FieldView.delimitedField(',', 2), FieldViewValidators.longBetween(1, 100, "quantity out of range"));
+
+        assertAllocatesAtMost("FieldValidator over a FieldView", 32, () -> {
+            try {
+                return quantity.attempt(view);
+            } catch (Exception technicalFailure) {
+                throw new IllegalStateException(technicalFailure);
+            }
+        });
+    }
+
+    @Test
+    public void happyCaseHappyPathFootprint() {
+        assertAllocatesAtMost("new HappyCaseHappyPath", 16, () -> new HappyCaseHappyPath<>("happy"));
+    }
+
+    @Test
+    public void happyCaseValidationPathFootprint() {
+        assertAllocatesAtMost("new HappyCaseValidationPath", 24, () -> new HappyCaseValidationPath<>("happy", Mapping.identity()));
+    }
+
+    private void assertAllocatesAtMost(String operation, long budget, Supplier<Object> call) {
+        long allocated = allocatedPerCall(call);
+
+        assertThat(allocated)
+                .describedAs(format("%s allocated %d bytes per call, which is over its budget of %d bytes", operation, allocated, budget))
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private long allocatedPerCall(Supplier<Object> call) {
+        long threadId = Thread.currentThread().getId();
+        for (int warmup = 0; warmup < WARMUP_CALLS; warmup++) {
+            sink = call.get();
+        }
+        long fewestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int measured = 0; measured < CALLS_PER_ROUND; measured++) {
+                sink = call.get();
+            }
+            fewestBytes = Math.min(fewestBytes, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return fewestBytes / CALLS_PER_ROUND;
+    }
+}
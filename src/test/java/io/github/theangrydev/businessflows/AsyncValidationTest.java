@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AsyncValidationTest implements WithAssertions {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(10);
+
+    private final CompletableFuture<PotentialFailure<String>> first = new CompletableFuture<>();
+    private final CompletableFuture<PotentialFailure<String>> second = new CompletableFuture<>();
+    private final CompletableFuture<PotentialFailure<String>> third = new CompletableFuture<>();
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    public void startsEveryValidatorBeforeAnyOfThemComplete() {
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Arrays.asList(validator("first", first), validator("second", second), validator("third", third)), DEADLINE);
+
+        assertThat(started).containsExactly("first", "second", "third");
+        assertThat(result.toCompletableFuture()).isNotDone();
+    }
+
+    @Test
+    public void isHappyWhenEveryValidatorSucceeds() {
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Arrays.asList(validator("first", first), validator("second", second)), DEADLINE);
+
+        second.complete(PotentialFailure.success());
+        first.complete(PotentialFailure.success());
+
+        assertThat(outcome(result).get()).isEqualTo("order");
+    }
+
+    @Test
+    public void accumulatesTheValidationFailuresInTheOrderOfTheValidators() {
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Arrays.asList(validator("first", first), validator("second", second), validator("third", third)), DEADLINE);
+
+        third.complete(PotentialFailure.failure("third failed"));
+        second.complete(PotentialFailure.success());
+        first.complete(PotentialFailure.failure("first failed"));
+
+        assertThat(outcome(result).getSad()).containsExactly("first failed", "third failed");
+    }
+
+    @Test
+    public void aggregatesTheValidationFailuresWithTheSadAggregateMapping() {
+        CompletionStage<ValidationPath<String, String, String>> result = ValidationPath.<String, String, String>validationPathInto("order", failures -> String.join(", ", failures))
+                .validateAllAsync(Arrays.asList(validator("first", first), validator("second", second)), DEADLINE);
+
+        second.complete(PotentialFailure.failure("second failed"));
+        first.complete(PotentialFailure.failure("first failed"));
+
+        assertThat(outcome(result).getSad()).isEqualTo("first failed, second failed");
+    }
+
+    @Test
+    public void theFirstTechnicalFailureWinsWithoutWaitingForTheOtherValidators() {
+        IOException technicalFailure = new IOException("sanctions screening is down");
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Arrays.asList(validator("first", first), validator("second", second)), DEADLINE);
+
+        second.completeExceptionally(technicalFailure);
+
+        assertThat(outcome(result).getTechnicalFailure()).isSameAs(technicalFailure);
+        first.completeExceptionally(new IOException("too late"));
+        assertThat(outcome(result).getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void aValidatorThatThrowsWhenStartingIsATechnicalFailure() {
+        IOException technicalFailure = new IOException("could not connect");
+
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Arrays.asList(validator("first", first), happy -> {
+                    throw technicalFailure;
+                }, validator("third", third)), DEADLINE);
+
+        assertThat(outcome(result).getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(started).containsExactly("first");
+    }
+
+    @Test
+    public void isATimeoutWhenTheValidatorsDoNotCompleteBeforeTheDeadline() throws Exception {
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Collections.singletonList(validator("first", first)), Duration.ofMillis(10));
+
+        ValidationPath<String, String, List<String>> outcome = result.toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(outcome.getTechnicalFailure()).isInstanceOf(TimeoutException.class).hasMessage("Validation did not finish within PT0.01S");
+    }
+
+    @Test
+    public void theStagesThatDependOnATimeoutRunOnTheExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "validation-executor"));
+        try {
+            CompletionStage<String> thread = ValidationPath.<String, String>validationPath("order")
+                    .validateAllAsync(Collections.singletonList(validator("first", first)), Duration.ofMillis(100), executor)
+                    .thenApply(outcome -> Thread.currentThread().getName());
+
+            assertThat(thread.toCompletableFuture().get(10, TimeUnit.SECONDS)).isEqualTo("validation-executor");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void isATechnicalFailureWhenTheExecutorRejectsTheTimeout() throws Exception {
+        RejectedExecutionException rejected = new RejectedExecutionException("rejected");
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order")
+                .validateAllAsync(Collections.singletonList(validator("first", first)), Duration.ofMillis(10), task -> {
+                    throw rejected;
+                });
+
+        ValidationPath<String, String, List<String>> outcome = result.toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(outcome.getTechnicalFailure()).isSameAs(rejected);
+    }
+
+    @Test
+    public void isHappyStraightAwayWithoutAnyValidators() {
+        CompletionStage<ValidationPath<String, String, List<String>>> result = ValidationPath.<String, String>validationPath("order").validateAllAsync(Collections.emptyList(), DEADLINE);
+
+        assertThat(outcome(result).get()).isEqualTo("order");
+    }
+
+    @Test
+    public void theDeadlineMustBePositive() {
+        assertThatThrownBy(() -> ValidationPath.<String, String>validationPath("order").validateAllAsync(Collections.emptyList(), Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The deadline must be positive but was PT0S");
+    }
+
+    private AsyncValidator<String, String> validator(String name, CompletableFuture<PotentialFailure<String>> potentialFailure) {
+        return happy -> {
+            started.add(name);
+            return potentialFailure;
+        };
+    }
+
+    private <Result> Result outcome(CompletionStage<Result> result) {
+        CompletableFuture<Result> future = result.toCompletableFuture();
+        assertThat(future).isDone();
+        return future.join();
+    }
+}
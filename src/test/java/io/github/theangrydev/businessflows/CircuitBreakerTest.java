@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.theangrydev.businessflows.CircuitBreakerState.*;
+
+public class CircuitBreakerTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+    }
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 4, Duration.ofSeconds(10), Duration.ofSeconds(5), 2, nanoTime::get);
+
+    @Test
+    public void staysClosedWhileTheFailureRateIsBelowTheThreshold() {
+        succeed();
+        succeed();
+        fail();
+
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void staysClosedUntilTheMinimumNumberOfCallsIsReached() {
+        fail();
+        fail();
+        fail();
+
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void opensWhenTheFailureRateReachesTheThreshold() {
+        openTheBreaker();
+
+        assertThat(circuitBreaker.state()).isEqualTo(OPEN);
+        assertThat(circuitBreaker.transitionsToOpen()).isEqualTo(1);
+    }
+
+    @Test
+    public void openBreakerRejectsWithAPreallocatedTechnicalFailureWithoutAttempting() {
+        openTheBreaker();
+        int attemptsBefore = attempts.get();
+
+        Exception first = HappyPath.happyAttempt(circuitBreaker.protect(this::happy)).getTechnicalFailure();
+        Exception second = HappyPath.happyAttempt(circuitBreaker.protect(this::happy)).getTechnicalFailure();
+
+        assertThat(first).isInstanceOf(CircuitBreakerOpenException.class).isSameAs(second);
+        assertThat(first.getStackTrace()).isEmpty();
+        assertThat(attempts.get()).isEqualTo(attemptsBefore);
+        assertThat(circuitBreaker.rejectedCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void openBreakerRejectionCanBeMappedToASad() {
+        openTheBreaker();
+        Sad sad = new Sad();
+
+        HappyPath<Happy, Sad> happyPath = HappyPath.happyAttempt(circuitBreaker.protect(this::happy), technicalFailure -> sad);
+
+        assertThat(happyPath.getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void protectedMappingIsRejectedWhenOpen() {
+        openTheBreaker();
+        Mapping<Happy, Happy> mapping = circuitBreaker.protect(happy -> happy);
+
+        HappyPath<Happy, Sad> happyPath = HappyPath.<Happy, Sad>happyPath(new Happy()).map(mapping);
+
+        assertThat(happyPath.getTechnicalFailure()).isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    public void halfOpensAfterTheWaitAndClosesWhenAllProbesSucceed() {
+        openTheBreaker();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(HALF_OPEN);
+        succeed();
+
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+        assertThat(circuitBreaker.transitionsToHalfOpen()).isEqualTo(1);
+        assertThat(circuitBreaker.transitionsToClosed()).isEqualTo(1);
+        assertThat(circuitBreaker.failureRate()).isZero();
+    }
+
+    @Test
+    public void reopensWhenAProbeFails() {
+        openTheBreaker();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        fail();
+
+        assertThat(circuitBreaker.state()).isEqualTo(OPEN);
+        assertThat(circuitBreaker.transitionsToOpen()).isEqualTo(2);
+    }
+
+    @Test
+    public void onlyPermitsABoundedNumberOfProbes() throws Exception {
+        openTheBreaker();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        AtomicInteger rejectedProbes = new AtomicInteger();
+        Attempt<Happy> slowProbe = circuitBreaker.protect(() -> {
+            HappyPath.happyAttempt(circuitBreaker.protect(this::happy));
+            HappyPath.happyAttempt(circuitBreaker.protect(this::happy))
+                    .ifTechnicalFailure().peek(technicalFailure -> rejectedProbes.incrementAndGet());
+            return happy();
+        });
+
+        slowProbe.attempt();
+
+        assertThat(rejectedProbes.get()).isEqualTo(1);
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void aProbeThatThrowsAnErrorCountsAsAFailedProbe() {
+        openTheBreaker();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        Attempt<Happy> overflowingProbe = circuitBreaker.protect(() -> {
+            throw new StackOverflowError();
+        });
+
+        assertThatThrownBy(overflowingProbe::attempt).isInstanceOf(StackOverflowError.class);
+
+        assertThat(circuitBreaker.state()).isEqualTo(OPEN);
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        succeed();
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void lateFailuresOfCallsPermittedWhileClosedDoNotExtendTheOpenPeriod() {
+        Attempt<Happy> slowFailure = circuitBreaker.protect(() -> {
+            openTheBreaker();
+            nanoTime.addAndGet(Duration.ofSeconds(4).toNanos());
+            throw new IllegalStateException("dependency is down");
+        });
+
+        HappyPath.happyAttempt(slowFailure);
+
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        succeed();
+
+        assertThat(circuitBreaker.state()).isEqualTo(HALF_OPEN);
+    }
+
+    @Test
+    public void lateFailuresOfCallsPermittedBeforeTheBreakerLastClosedDoNotReopenIt() {
+        Attempt<Happy> slowFailure = circuitBreaker.protect(() -> {
+            openTheBreaker();
+            nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+            succeed();
+            succeed();
+            succeed();
+            fail();
+            succeed();
+            throw new IllegalStateException("dependency is down");
+        });
+
+        HappyPath.happyAttempt(slowFailure);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+        assertThat(circuitBreaker.transitionsToOpen()).isEqualTo(1);
+    }
+
+    @Test
+    public void failuresOutsideTheSlidingWindowAreForgotten() {
+        fail();
+        fail();
+        nanoTime.addAndGet(Duration.ofSeconds(11).toNanos());
+        fail();
+        succeed();
+        succeed();
+
+        assertThat(circuitBreaker.state()).isEqualTo(CLOSED);
+    }
+
+    @Test
+    public void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> CircuitBreaker.circuitBreaker(0, 1, Duration.ofSeconds(1), Duration.ofSeconds(1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CircuitBreaker.circuitBreaker(0.5, 0, Duration.ofSeconds(1), Duration.ofSeconds(1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void openTheBreaker() {
+        succeed();
+        fail();
+        succeed();
+        fail();
+    }
+
+    private void succeed() {
+        HappyPath.happyAttempt(circuitBreaker.protect(this::happy));
+    }
+
+    private void fail() {
+        HappyPath.happyAttempt(circuitBreaker.protect(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("dependency is down");
+        }));
+    }
+
+    private Happy happy() {
+        attempts.incrementAndGet();
+        return new Happy();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrencyLimiterTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+    }
+
+    private static final long ONE_MILLISECOND = 1_000_000;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    public void rejectsCallsOverTheLimitWithAPreallocatedTechnicalFailure() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10, nanoTime::get);
+        HappyPath<Happy, Sad> rejected = nestedCall(limiter);
+
+        assertThat(rejected.getTechnicalFailure()).isInstanceOf(ConcurrencyLimitExceededException.class);
+        assertThat(rejected.getTechnicalFailure().getStackTrace()).isEmpty();
+        assertThat(limiter.rejectedCalls()).isEqualTo(1);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    public void rejectionCanBeMappedToASad() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10, nanoTime::get);
+        Sad sad = new Sad();
+
+        HappyPath<Happy, Sad> happyPath = limiter.protect(() -> HappyPath.<Happy, Sad>happyAttempt(limiter.protect(Happy::new), technicalFailure -> sad)).attempt();
+
+        assertThat(happyPath.getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void protectedMappingIsRejectedWhenOverTheLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10, nanoTime::get);
+        Mapping<Happy, Happy> mapping = limiter.protect(happy -> happy);
+
+        HappyPath<Happy, Sad> happyPath = limiter.protect(() -> HappyPath.<Happy, Sad>happyPath(new Happy()).map(mapping)).attempt();
+
+        assertThat(happyPath.getTechnicalFailure()).isInstanceOf(ConcurrencyLimitExceededException.class);
+    }
+
+    @Test
+    public void releasesThePermitWhenTheAttemptFails() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10, nanoTime::get);
+
+        HappyPath.happyAttempt(limiter.protect(() -> {
+            throw new IllegalStateException();
+        }));
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(HappyPath.happyAttempt(limiter.protect(Happy::new)).isHappy()).isTrue();
+    }
+
+    @Test
+    public void limitGrowsWhileSaturatedAndLatencyIsSteady() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 20, nanoTime::get);
+
+        for (int i = 0; i < 100; i++) {
+            saturate(limiter, ONE_MILLISECOND);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    public void limitDoesNotGrowWhenTheDependencyIsNotBeingPushed() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 20, nanoTime::get);
+
+        for (int i = 0; i < 100; i++) {
+            call(limiter, ONE_MILLISECOND);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void limitShrinksWhenLatencyGrows() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 1, 20, nanoTime::get);
+        for (int i = 0; i < 100; i++) {
+            call(limiter, ONE_MILLISECOND);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            call(limiter, 10 * ONE_MILLISECOND);
+        }
+
+        assertThat(limiter.limit()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void callsThatFailFastDoNotChangeTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 20, nanoTime::get);
+        for (int i = 0; i < 100; i++) {
+            call(limiter, ONE_MILLISECOND);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            HappyPath.happyAttempt(limiter.protect(() -> {
+                nanoTime.addAndGet(1);
+                throw new IllegalStateException();
+            }));
+        }
+        for (int i = 0; i < 100; i++) {
+            call(limiter, ONE_MILLISECOND);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void callsThatFailSlowlyShrinkTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 20, nanoTime::get);
+        for (int i = 0; i < 100; i++) {
+            call(limiter, ONE_MILLISECOND);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            HappyPath.happyAttempt(limiter.protect(() -> {
+                nanoTime.addAndGet(100 * ONE_MILLISECOND);
+                throw new IllegalStateException("timed out");
+            }));
+        }
+
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThatThrownBy(() -> ConcurrencyLimiter.concurrencyLimiter(1, 2, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConcurrencyLimiter.concurrencyLimiter(4, 2, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConcurrencyLimiter.concurrencyLimiter(0, 0, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HappyPath<Happy, Sad> nestedCall(ConcurrencyLimiter limiter) {
+        AtomicReference<HappyPath<Happy, Sad>> nested = new AtomicReference<>();
+        HappyPath.happyAttempt(limiter.protect(() -> {
+            nested.set(HappyPath.happyAttempt(limiter.protect(Happy::new)));
+            return new Happy();
+        }));
+        return nested.get();
+    }
+
+    private void saturate(ConcurrencyLimiter limiter, long latency) {
+        callNested(limiter, limiter.limit(), latency);
+    }
+
+    private void callNested(ConcurrencyLimiter limiter, int depth, long latency) {
+        if (depth == 1) {
+            call(limiter, latency);
+            return;
+        }
+        HappyPath.happyAttempt(limiter.protect(() -> {
+            callNested(limiter, depth - 1, latency);
+            return new Happy();
+        }));
+    }
+
+    private void call(ConcurrencyLimiter limiter, long latency) {
+        HappyPath.happyAttempt(limiter.protect(() -> {
+            nanoTime.addAndGet(latency);
+            return new Happy();
+        }));
+    }
+}
@@ -136,4 +136,21 @@ public class ContextTest implements WithAssertions {
         assertThat(genericContext.get(Foo.class)).isEqualTo(originalFoo);
         assertThat(genericContext.get(Bar.class)).isEqualTo(originalBar);
     }
+
+    @Test
+    public void flowContext() {
+        FlowContextLayout layout = FlowContextLayout.flowContextLayout();
+        ContextKey<Foo> fooKey = layout.key("foo");
+        ContextKey<Bar> barKey = layout.key("bar");
+        Foo originalFoo = new Foo();
+        Bar originalBar = new Bar();
+        FooAndBar fooAndBar = HappyPath.happyPath(layout.emptyContext())
+                .map(FlowContext.mapInto(fooKey, context -> originalFoo))
+                .map(FlowContext.mapInto(barKey, context -> originalBar))
+                .map(context -> new FooAndBar(context.get(fooKey), context.get(barKey)))
+                .get();
+
+        assertThat(fooAndBar.foo).isEqualTo(originalFoo);
+        assertThat(fooAndBar.bar).isEqualTo(originalBar);
+    }
 }
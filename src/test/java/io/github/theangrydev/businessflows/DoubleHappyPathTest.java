@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DoubleHappyPathTest implements WithAssertions {
+
+    private class Sad {
+
+    }
+
+    private final Sad sad = new Sad();
+    private final Exception technicalFailure = new Exception();
+
+    @Test
+    public void mapsTheHappyValueWithoutBoxing() {
+        double score = HappyPath.<String, Sad>happyPath("0.5")
+                .mapToDouble(Double::parseDouble)
+                .map(weight -> weight * 3)
+                .then(weight -> DoubleHappyPath.happyPath(weight + 1))
+                .attempt(weight -> PotentialFailure.success())
+                .joinToDouble(weight -> weight, sad -> -1, technicalFailure -> -2);
+
+        assertThat(score).isEqualTo(2.5);
+    }
+
+    @Test
+    public void sadAndTechnicalFailureAreCarriedThrough() {
+        assertThat(DoubleHappyPath.<Sad>happyPath(1).attempt(weight -> PotentialFailure.failure(sad)).map(weight -> weight + 1).getSad()).isSameAs(sad);
+        assertThat(DoubleHappyPath.<Sad>happyPath(1).peek(weight -> {
+            throw technicalFailure;
+        }).getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(DoubleHappyPath.<Sad>sadPath(sad).joinToDouble(weight -> weight, sad -> -1, technicalFailure -> -2)).isEqualTo(-1);
+        assertThat(DoubleHappyPath.<Sad>technicalFailure(technicalFailure).joinToDouble(weight -> weight, sad -> -1, technicalFailure -> -2)).isEqualTo(-2);
+        assertThat(HappyPath.<String, Sad>sadPath(sad).mapToDouble(Double::parseDouble).getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void consumesAndBoxesTheHappyValue() {
+        AtomicReference<Object> consumed = new AtomicReference<>();
+
+        DoubleHappyPath.<Sad>happyPath(1.5).consume(consumed::set, consumed::set, consumed::set);
+
+        assertThat(consumed.get()).isEqualTo(1.5);
+        assertThat(DoubleHappyPath.<Sad>happyPath(1.5).boxed().get()).isEqualTo(1.5);
+        assertThat(DoubleHappyPath.<Sad>happyPath(1.5).mapToObj(Double::toString).get()).isEqualTo("1.5");
+    }
+}
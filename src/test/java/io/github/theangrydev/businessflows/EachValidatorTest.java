@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.theangrydev.businessflows.EachValidator.eachValidator;
+import static java.util.Arrays.asList;
+
+public class EachValidatorTest implements WithAssertions {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicInteger validated = new AtomicInteger();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void tagsTheFailuresWithTheIndexOfTheElement() {
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(asList(1, -2, 3, -4))
+                .validateEach(eachValidator(lines -> lines, this::positive));
+
+        assertThat(result.getSad()).containsExactly("line 1 has quantity -2", "line 3 has quantity -4");
+    }
+
+    @Test
+    public void isHappyWhenEveryElementIsValid() {
+        List<Integer> lines = asList(1, 2, 3);
+
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(lines)
+                .validateEach(eachValidator(order -> order, this::positive));
+
+        assertThat(result.get()).isSameAs(lines);
+    }
+
+    @Test
+    public void stopsValidatingAtTheMaximumNumberOfFailures() {
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(quantities(10_000, -1))
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(lines -> lines, this::positive).maximumFailures(3));
+
+        assertThat(result.getSad()).containsExactly("line 0 has quantity -1", "line 1 has quantity -1", "line 2 has quantity -1");
+        assertThat(validated.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void aTechnicalFailureIsATechnicalFailureOverall() {
+        IOException technicalFailure = new IOException("stock lookup is down");
+
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(asList(1, -2, 0, 4))
+                .validateEach(eachValidator(lines -> lines, (index, quantity) -> {
+                    if (quantity == 0) {
+                        throw technicalFailure;
+                    }
+                    return positive(index, quantity);
+                }));
+
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void aValidatorThatReturnsNullIsATechnicalFailure() {
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(asList(1, 2))
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(lines -> lines, (index, quantity) -> null));
+
+        assertThat(result.getTechnicalFailure()).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void aTechnicalFailureAfterTheMaximumNumberOfFailuresIsNotReached() {
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(asList(-1, 0))
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(lines -> lines, (index, quantity) -> {
+                    if (quantity == 0) {
+                        throw new IOException("stock lookup is down");
+                    }
+                    return positive(index, quantity);
+                }).maximumFailures(1));
+
+        assertThat(result.getSad()).containsExactly("line 0 has quantity -1");
+    }
+
+    @Test
+    public void largeCollectionsAreValidatedInParallelWithTheSameFailuresAsSequentially() {
+        List<Integer> lines = new ArrayList<>(quantities(10_000, 1));
+        for (int index = 37; index < lines.size(); index += 101) {
+            lines.set(index, -index);
+        }
+        EachValidator<List<Integer>, Integer, String> sequential = eachValidator(order -> order, this::positive);
+        EachValidator<List<Integer>, Integer, String> parallel = sequential.parallelAbove(500, executor);
+
+        List<String> sequentialFailures = ValidationPath.<List<Integer>, String>validationPath(lines).validateEach(sequential).getSad();
+        List<String> parallelFailures = ValidationPath.<List<Integer>, String>validationPath(lines).validateEach(parallel).getSad();
+
+        assertThat(parallelFailures).hasSize(99).isEqualTo(sequentialFailures);
+    }
+
+    @Test
+    public void theParallelValidationReportsTheEarliestFailuresWhenThereAreTooMany() {
+        List<Integer> lines = quantities(10_000, -1);
+
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(lines)
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(order -> order, this::positive).maximumFailures(2).parallelAbove(100, executor));
+
+        assertThat(result.getSad()).containsExactly("line 0 has quantity -1", "line 1 has quantity -1");
+        assertThat(validated.get()).isLessThan(lines.size());
+    }
+
+    @Test
+    public void theParallelValidationReportsTheEarliestTechnicalFailure() {
+        List<Integer> lines = new ArrayList<>(quantities(1000, 1));
+        lines.set(250, 0);
+        lines.set(750, 0);
+
+        ValidationPath<List<Integer>, String, List<String>> result = ValidationPath.<List<Integer>, String>validationPath(lines)
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(order -> order, (index, quantity) -> {
+                    if (quantity == 0) {
+                        throw new IOException("line " + index);
+                    }
+                    return positive(index, quantity);
+                }).parallelAbove(100, executor));
+
+        assertThat(result.getTechnicalFailure()).hasMessage("line 250");
+    }
+
+    @Test
+    public void collectionsAtTheThresholdAreValidatedOnTheCallingThread() {
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+
+        ValidationPath.<List<Integer>, String>validationPath(asList(1, 2, 3))
+                .validateEach(EachValidator.<List<Integer>, Integer, String>eachValidator(order -> order, (index, quantity) -> {
+                    threads.add(Thread.currentThread());
+                    return PotentialFailure.success();
+                }).parallelAbove(3, executor));
+
+        assertThat(threads).containsOnly(caller);
+    }
+
+    @Test
+    public void theMaximumNumberOfFailuresMustBePositive() {
+        assertThatThrownBy(() -> EachValidator.<List<Integer>, Integer, String>eachValidator(order -> order, this::positive).maximumFailures(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The maximum number of failures must be positive but was 0");
+    }
+
+    @Test
+    public void theParallelThresholdMustBePositive() {
+        assertThatThrownBy(() -> EachValidator.<List<Integer>, Integer, String>eachValidator(order -> order, this::positive).parallelAbove(-1, executor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The parallel threshold must be positive but was -1");
+    }
+
+    @Test
+    public void toStringShowsTheSettings() {
+        EachValidator<List<Integer>, Integer, String> validator = eachValidator(order -> order, this::positive);
+
+        assertThat(validator.toString()).isEqualTo("EachValidator{maximumFailures=2147483647, parallelAbove=never}");
+        assertThat(validator.maximumFailures(10).parallelAbove(1000, executor).toString()).isEqualTo("EachValidator{maximumFailures=10, parallelAbove=1000}");
+    }
+
+    private PotentialFailure<String> positive(int index, Integer quantity) {
+        validated.incrementAndGet();
+        return quantity > 0 ? PotentialFailure.success() : PotentialFailure.failure("line " + index + " has quantity " + quantity);
+    }
+
+    private static List<Integer> quantities(int lines, int quantity) {
+        List<Integer> quantities = new ArrayList<>(lines);
+        for (int line = 0; line < lines; line++) {
+            quantities.add(quantity);
+        }
+        return quantities;
+    }
+}
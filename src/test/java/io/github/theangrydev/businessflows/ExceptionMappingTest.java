@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+import static io.github.theangrydev.businessflows.ExceptionMapping.exceptionMapping;
+
+public class ExceptionMappingTest implements WithAssertions {
+
+    private final ExceptionMapping<String> mapping = ExceptionMapping.<String>exceptionMapping()
+            .on(IOException.class, io -> "io: " + io.getMessage())
+            .on(SocketTimeoutException.class, timeout -> "timeout")
+            .on(IllegalStateException.class, illegalState -> "illegal state");
+
+    @Test
+    public void usesTheHandlerForTheExactType() throws Exception {
+        assertThat(mapping.map(new SocketTimeoutException())).isEqualTo("timeout");
+        assertThat(mapping.map(new IOException("disk"))).isEqualTo("io: disk");
+    }
+
+    @Test
+    public void usesTheHandlerForTheMostSpecificSuperclass() throws Exception {
+        assertThat(mapping.map(new FileNotFoundException("missing"))).isEqualTo("io: missing");
+    }
+
+    @Test
+    public void throwsUnhandledExceptionsAgain() {
+        TimeoutException unhandled = new TimeoutException();
+
+        assertThatThrownBy(() -> mapping.map(unhandled)).isSameAs(unhandled);
+    }
+
+    @Test
+    public void fallsBackToTheOtherwiseHandler() throws Exception {
+        ExceptionMapping<String> withFallback = mapping.otherwise(exception -> "unknown");
+
+        assertThat(withFallback.map(new TimeoutException())).isEqualTo("unknown");
+        assertThat(withFallback.map(new IOException("disk"))).isEqualTo("io: disk");
+    }
+
+    @Test
+    public void addingAHandlerLeavesTheOriginalMappingAsItIs() throws Exception {
+        ExceptionMapping<String> withTimeout = mapping.on(TimeoutException.class, timeout -> "timeout");
+
+        assertThat(withTimeout.map(new TimeoutException())).isEqualTo("timeout");
+        assertThatThrownBy(() -> mapping.map(new TimeoutException())).isInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    public void rejectsASecondHandlerForTheSameType() {
+        assertThatThrownBy(() -> mapping.on(IOException.class, io -> "again"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("There is already a handler for 'java.io.IOException'");
+    }
+
+    @Test
+    public void plugsIntoHappyAttemptRecoverAndMapToSadPath() {
+        assertThat(HappyPath.<String, String>happyAttempt(() -> {
+            throw new SocketTimeoutException();
+        }, mapping).getSad()).isEqualTo("timeout");
+        assertThat(TechnicalFailure.<String, String>technicalFailure(new IOException("disk")).recover(mapping).get()).isEqualTo("io: disk");
+        assertThat(TechnicalFailure.<String, String>technicalFailure(new IllegalStateException()).mapToSadPath(mapping).get()).isEqualTo("illegal state");
+    }
+
+    @Test
+    public void anUnhandledExceptionStaysATechnicalFailure() {
+        TimeoutException unhandled = new TimeoutException();
+
+        assertThat(HappyPath.<String, String>happyAttempt(() -> {
+            throw unhandled;
+        }, exceptionMapping()).getTechnicalFailure()).isSameAs(unhandled);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FailureFingerprints.failureFingerprints;
+import static java.lang.String.format;
+
+public class FailureFingerprintsTest implements WithAssertions {
+
+    private final FailureFingerprints fingerprints = failureFingerprints(5, 2);
+
+    @Test
+    public void internsFailuresFromTheSamePlaceToTheFirstOne() {
+        List<Exception> failures = new ArrayList<>();
+        for (int failure = 0; failure < 3; failure++) {
+            failures.add(timeout());
+        }
+
+        assertThat(fingerprints.intern(failures.get(0))).isSameAs(failures.get(0));
+        assertThat(fingerprints.intern(failures.get(1))).isSameAs(failures.get(0));
+        assertThat(fingerprints.intern(failures.get(2))).isSameAs(failures.get(0));
+        assertThat(fingerprints.fingerprints()).hasSize(1);
+        assertThat(fingerprints.fingerprints().get(0).occurrences()).isEqualTo(3);
+    }
+
+    @Test
+    public void failuresOfADifferentClassOrFromADifferentPlaceHaveDifferentFingerprints() {
+        Exception timeout = timeout();
+        Exception timeoutElsewhere = new IOException("timeout");
+        Exception illegalState = new IllegalStateException("timeout");
+
+        assertThat(fingerprints.intern(timeout)).isSameAs(timeout);
+        assertThat(fingerprints.intern(timeoutElsewhere)).isSameAs(timeoutElsewhere);
+        assertThat(fingerprints.fingerprints()).extracting(FailureFingerprint::representative).containsOnly(timeout, timeoutElsewhere);
+        assertThat(fingerprints.fingerprint(illegalState)).isEmpty();
+    }
+
+    @Test
+    public void countsFailuresThatDoNotFitOnceTheBoundIsReached() {
+        fingerprints.intern(new IOException());
+        fingerprints.intern(new IllegalStateException());
+        Exception overflow = new IllegalArgumentException();
+
+        assertThat(fingerprints.intern(overflow)).isSameAs(overflow);
+        assertThat(fingerprints.unfingerprinted()).isEqualTo(1);
+        assertThat(fingerprints.fingerprints()).hasSize(2);
+    }
+
+    @Test
+    public void summarisesOneLinePerFingerprintMostFrequentFirst() {
+        IOException frequent = new IOException("disk");
+        for (int failure = 0; failure < 3; failure++) {
+            fingerprints.intern(frequent);
+        }
+        IllegalStateException rare = new IllegalStateException("state");
+        fingerprints.intern(rare);
+        fingerprints.intern(new IllegalArgumentException());
+
+        assertThat(fingerprints.summary()).isEqualTo(format("3 x java.io.IOException: disk at %s%n1 x java.lang.IllegalStateException: state at %s%n1 x not fingerprinted%n",
+                frequent.getStackTrace()[0], rare.getStackTrace()[0]));
+    }
+
+    @Test
+    public void resetForgetsTheFingerprints() {
+        fingerprints.intern(new IOException());
+        fingerprints.intern(new IllegalStateException());
+        fingerprints.intern(new IllegalArgumentException());
+
+        fingerprints.reset();
+
+        assertThat(fingerprints.fingerprints()).isEmpty();
+        assertThat(fingerprints.unfingerprinted()).isZero();
+        Exception afterReset = new IllegalArgumentException();
+        assertThat(fingerprints.intern(afterReset)).isSameAs(afterReset);
+        assertThat(fingerprints.fingerprints()).hasSize(1);
+    }
+
+    @Test
+    public void plugsIntoTechnicalFailureMap() {
+        List<Exception> interned = new ArrayList<>();
+        for (int failure = 0; failure < 2; failure++) {
+            interned.add(TechnicalFailure.<String, String>technicalFailure(timeout()).map(fingerprints::intern).get());
+        }
+
+        assertThat(interned.get(1)).isSameAs(interned.get(0));
+    }
+
+    private static Exception timeout() {
+        return new IOException("timeout");
+    }
+}
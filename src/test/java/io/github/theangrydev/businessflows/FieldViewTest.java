@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FieldView.*;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+public class FieldViewTest implements WithAssertions {
+
+    private final byte[] record = "order-1,widget,3".getBytes(ISO_8859_1);
+
+    @Test
+    public void viewsASegmentOfAByteArrayAsCharacters() {
+        FieldView view = fieldView(record, 8, 6);
+
+        assertThat(view.length()).isEqualTo(6);
+        assertThat(view.charAt(0)).isEqualTo('w');
+        assertThat(view.byteAt(5)).isEqualTo((byte) 't');
+        assertThat(view.toString()).isEqualTo("widget");
+    }
+
+    @Test
+    public void readsTheBytesInPlace() {
+        FieldView view = fieldView(record, 8, 6);
+
+        record[8] = 'g';
+
+        assertThat(view.toString()).isEqualTo("gidget");
+    }
+
+    @Test
+    public void viewsADirectBufferWithoutUsingItsPosition() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(record.length);
+        buffer.put(record);
+
+        assertThat(fieldView(buffer, 0, 7).toString()).isEqualTo("order-1");
+        assertThat(buffer.position()).isEqualTo(record.length);
+    }
+
+    @Test
+    public void viewsASliceOfAHeapBuffer() {
+        ByteBuffer slice = ((ByteBuffer) ByteBuffer.wrap(record).position(8)).slice();
+
+        assertThat(fieldView(slice, 0, 6).toString()).isEqualTo("widget");
+    }
+
+    @Test
+    public void bytesAreCharactersInTheLatin1Range() {
+        assertThat(fieldView(new byte[]{(byte) 0xE9}, 0, 1).charAt(0)).isEqualTo('é');
+    }
+
+    @Test
+    public void theSegmentMustBeWithinTheBytes() {
+        assertThatThrownBy(() -> fieldView(record, 10, 7))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("The segment at 10 of length 7 is not within the 16 bytes");
+        assertThatThrownBy(() -> fieldView(record, 8, 6).charAt(6))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("Index 6 is not within the field of length 6");
+    }
+
+    @Test
+    public void subSequencesAreViewsOfTheSameBytes() {
+        assertThat(fieldView(record, 8, 6).subSequence(1, 4).toString()).isEqualTo("idg");
+    }
+
+    @Test
+    public void extractsDelimitedFields() throws Exception {
+        FieldView view = fieldView(record, 0, record.length);
+
+        assertThat(delimitedField(',', 0).map(view).toString()).isEqualTo("order-1");
+        assertThat(delimitedField(',', 1).map(view).toString()).isEqualTo("widget");
+        assertThat(delimitedField(',', 2).map(view).toString()).isEqualTo("3");
+    }
+
+    @Test
+    public void aDelimitedFieldBeyondTheEndOfTheRecordIsEmpty() throws Exception {
+        assertThat(delimitedField(',', 3).map(fieldView(record, 0, record.length)).length()).isZero();
+        assertThat(delimitedField(',', 1).map(fieldView(record, 0, 0)).length()).isZero();
+    }
+
+    @Test
+    public void emptyDelimitedFieldsAreEmpty() throws Exception {
+        byte[] empty = "a,,b".getBytes(ISO_8859_1);
+
+        assertThat(delimitedField(',', 1).map(fieldView(empty, 0, empty.length)).length()).isZero();
+    }
+
+    @Test
+    public void theDelimiterMustBeASingleByte() {
+        assertThatThrownBy(() -> delimitedField('€', 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The delimiter must be a single byte and the field must not be negative but they were '€' and 0");
+    }
+
+    @Test
+    public void extractsFixedWidthFieldsAndCutsThemOffAtTheEndOfTheRecord() throws Exception {
+        FieldView view = fieldView(record, 0, record.length);
+
+        assertThat(fixedWidthField(8, 6).map(view).toString()).isEqualTo("widget");
+        assertThat(fixedWidthField(15, 5).map(view).toString()).isEqualTo("3");
+        assertThat(fixedWidthField(20, 5).map(view).length()).isZero();
+    }
+
+    @Test
+    public void splitsABufferIntoLinesFromItsPositionToItsLimit() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        buffer.put("skip\na\r\n\nlast".getBytes(ISO_8859_1)).flip().position(5);
+
+        List<String> lines = new ArrayList<>();
+        Iterator<FieldView> iterator = lines(buffer);
+        iterator.forEachRemaining(line -> lines.add(line.toString()));
+
+        assertThat(lines).containsExactly("a", "", "last");
+        assertThat(buffer.position()).isEqualTo(5);
+        assertThatThrownBy(iterator::next).isInstanceOf(java.util.NoSuchElementException.class);
+    }
+}
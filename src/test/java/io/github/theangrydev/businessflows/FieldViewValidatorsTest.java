@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static io.github.theangrydev.businessflows.FieldView.fieldView;
+import static io.github.theangrydev.businessflows.FieldViewValidators.*;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class FieldViewValidatorsTest implements WithAssertions {
+
+    private static final String PASSED = "passed";
+
+    @Test
+    public void lengthIsInclusive() throws Exception {
+        Validator<CharSequence, String> validator = length(2, 3, "wrong length");
+
+        assertThat(validator.attempt("a").toHappyPath(PASSED).isSad()).isTrue();
+        assertThat(validator.attempt("ab").toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("abc")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("abcd")).toHappyPath(PASSED).getSad()).isEqualTo("wrong length");
+    }
+
+    @Test
+    public void asciiRejectsCharactersAbove127() throws Exception {
+        Validator<FieldView, String> validator = ascii("not ascii");
+
+        assertThat(validator.attempt(view("plain")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(fieldView(new byte[]{'a', (byte) 0x80}, 0, 2)).toHappyPath(PASSED).getSad()).isEqualTo("not ascii");
+    }
+
+    @Test
+    public void utf8AcceptsWellFormedBytes() throws Exception {
+        Validator<FieldView, String> validator = utf8("not utf-8");
+
+        for (String wellFormed : new String[]{"", "plain", "café", "€", "😀", "�"}) {
+            byte[] bytes = wellFormed.getBytes(UTF_8);
+            assertThat(validator.attempt(fieldView(bytes, 0, bytes.length)).toHappyPath(PASSED).isHappy()).describedAs(wellFormed).isTrue();
+        }
+    }
+
+    @Test
+    public void utf8RejectsMalformedBytes() throws Exception {
+        Validator<FieldView, String> validator = utf8("not utf-8");
+
+        int[][] malformed = {
+                {0x80},
+                {0xC0, 0xAF},
+                {0xC3},
+                {0xE0, 0x80, 0xAF},
+                {0xED, 0xA0, 0x80},
+                {0xE2, 0x82},
+                {0xF4, 0x90, 0x80, 0x80},
+                {0xF5, 0x80, 0x80, 0x80},
+                {0xC3, 0x28}
+        };
+        for (int[] sequence : malformed) {
+            byte[] bytes = new byte[sequence.length];
+            for (int index = 0; index < sequence.length; index++) {
+                bytes[index] = (byte) sequence[index];
+            }
+            assertThat(validator.attempt(fieldView(bytes, 0, bytes.length)).toHappyPath(PASSED).isSad()).describedAs(java.util.Arrays.toString(sequence)).isTrue();
+        }
+    }
+
+    @Test
+    public void matchesTheWholeField() throws Exception {
+        Validator<FieldView, String> validator = matches(Pattern.compile("[A-Z]{3}"), "not a currency");
+
+        assertThat(validator.attempt(view("GBP")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("GBPX")).toHappyPath(PASSED).isSad()).isTrue();
+        assertThat(validator.attempt(view("gbp")).toHappyPath(PASSED).isSad()).isTrue();
+    }
+
+    @Test
+    public void longBetweenIsInclusive() throws Exception {
+        Validator<FieldView, String> validator = longBetween(-5, 1000, "out of range");
+
+        assertThat(validator.attempt(view("-5")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("+1000")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("0")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("-6")).toHappyPath(PASSED).isSad()).isTrue();
+        assertThat(validator.attempt(view("1001")).toHappyPath(PASSED).isSad()).isTrue();
+    }
+
+    @Test
+    public void longBetweenRejectsFieldsThatAreNotNumbers() throws Exception {
+        Validator<FieldView, String> validator = longBetween(Long.MIN_VALUE, Long.MAX_VALUE, "not a number");
+
+        for (String notANumber : new String[]{"", "-", "+", "1.5", "12a", " 1", "9223372036854775808", "-9223372036854775809", "99999999999999999999"}) {
+            assertThat(validator.attempt(view(notANumber)).toHappyPath(PASSED).isSad()).describedAs(notANumber).isTrue();
+        }
+        assertThat(validator.attempt(view("9223372036854775807")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(validator.attempt(view("-9223372036854775808")).toHappyPath(PASSED).isHappy()).isTrue();
+    }
+
+    @Test
+    public void worksWithAFieldValidatorOverARawRecord() throws Exception {
+        Validator<FieldView, String> quantity = FieldValidator.fieldValidator(FieldView.delimitedField(',', 2), longBetween(1, 100, "quantity out of range"));
+
+        assertThat(quantity.attempt(view("order-1,widget,3")).toHappyPath(PASSED).isHappy()).isTrue();
+        assertThat(quantity.attempt(view("order-2,widget,0")).toHappyPath(PASSED).getSad()).isEqualTo("quantity out of range");
+    }
+
+    @Test
+    public void theRangesMustBeTheRightWayAround() {
+        assertThatThrownBy(() -> length(3, 2, "wrong length"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The length must be between a minimum and a maximum but they were 3 and 2");
+        assertThatThrownBy(() -> longBetween(3, 2, "out of range"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The minimum must not be more than the maximum but they were 3 and 2");
+    }
+
+    private static FieldView view(String field) {
+        byte[] bytes = field.getBytes(ISO_8859_1);
+        return fieldView(bytes, 0, bytes.length);
+    }
+}
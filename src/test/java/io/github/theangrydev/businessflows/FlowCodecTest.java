@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static io.github.theangrydev.businessflows.FlowCodec.flowCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class FlowCodecTest implements WithAssertions {
+
+    private final FlowCodec<String, Long> codec = flowCodec(ValueCodec.strings(), ValueCodec.longs());
+
+    @Test
+    public void roundTripsEachOutcomeThroughAHeapBuffer() {
+        roundTripsEachOutcome(ByteBuffer.allocate(256));
+    }
+
+    @Test
+    public void roundTripsEachOutcomeThroughADirectBuffer() {
+        roundTripsEachOutcome(ByteBuffer.allocateDirect(256));
+    }
+
+    private void roundTripsEachOutcome(ByteBuffer buffer) {
+        codec.write(HappyPath.happyPath("résumé ✓ 😀"), buffer);
+        codec.write(HappyPath.sadPath(-300L), buffer);
+        codec.write(HappyPath.technicalFailure(new IOException("disk full")), buffer);
+        buffer.flip();
+
+        assertThat(codec.read(buffer).get()).isEqualTo("résumé ✓ 😀");
+        assertThat(codec.read(buffer).getSad()).isEqualTo(-300L);
+        Exception technicalFailure = codec.read(buffer).getTechnicalFailure();
+        assertThat(technicalFailure).isInstanceOf(DecodedTechnicalFailure.class).hasMessage("disk full").hasToString("java.io.IOException: disk full");
+        assertThat(((DecodedTechnicalFailure) technicalFailure).exceptionClassName()).isEqualTo("java.io.IOException");
+        assertThat(technicalFailure.getStackTrace()).isEmpty();
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void writesAnOutcomeTagAVarintLengthAndThePayload() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+
+        codec.write(HappyPath.happyPath("hi"), buffer);
+
+        assertThat(buffer.position()).isEqualTo(codec.encodedLength(HappyPath.happyPath("hi"))).isEqualTo(4);
+        assertThat(buffer.array()).startsWith(FlowCodec.HAPPY, (byte) 2, (byte) 'h', (byte) 'i');
+    }
+
+    @Test
+    public void writesStringsAsUtf8() {
+        String text = "aé中😀";
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+
+        ValueCodec.strings().encode(text, buffer);
+
+        assertThat(ValueCodec.strings().encodedLength(text)).isEqualTo(buffer.position());
+        buffer.flip();
+        byte[] written = new byte[buffer.remaining()];
+        buffer.get(written);
+        assertThat(written).isEqualTo(text.getBytes(UTF_8));
+    }
+
+    @Test
+    public void aTechnicalFailureWithoutAMessageRoundTrips() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        codec.write(HappyPath.technicalFailure(new IllegalStateException()), buffer);
+        buffer.flip();
+
+        Exception technicalFailure = codec.read(buffer).getTechnicalFailure();
+        assertThat(technicalFailure.getMessage()).isNull();
+        assertThat(technicalFailure).hasToString("java.lang.IllegalStateException");
+    }
+
+    @Test
+    public void aDecodedTechnicalFailureKeepsTheOriginalClassNameWhenWrittenAgain() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        codec.write(HappyPath.technicalFailure(new IOException("disk full")), buffer);
+        buffer.flip();
+        HappyPath<String, Long> decoded = codec.read(buffer);
+        buffer.clear();
+
+        codec.write(decoded, buffer);
+        buffer.flip();
+
+        assertThat(codec.read(buffer).getTechnicalFailure()).hasToString("java.io.IOException: disk full");
+    }
+
+    @Test
+    public void writesVarintsInAsFewBytesAsPossible() {
+        assertThat(codec.encodedLength(HappyPath.sadPath(0L))).isEqualTo(3);
+        assertThat(codec.encodedLength(HappyPath.sadPath(-64L))).isEqualTo(3);
+        assertThat(codec.encodedLength(HappyPath.sadPath(64L))).isEqualTo(4);
+        assertThat(codec.encodedLength(HappyPath.sadPath(Long.MIN_VALUE))).isEqualTo(12);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.write(HappyPath.sadPath(Long.MIN_VALUE), buffer);
+        buffer.flip();
+        assertThat(codec.read(buffer).getSad()).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    public void writesNothingIfTheFlowDoesNotFit() {
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+
+        assertThatThrownBy(() -> codec.write(HappyPath.happyPath("hello"), buffer)).isInstanceOf(BufferOverflowException.class);
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    public void leavesThePositionAsItWasIfTheFlowIsIncomplete() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.write(HappyPath.happyPath("hello"), buffer);
+        buffer.flip().limit(4);
+
+        assertThatThrownBy(() -> codec.read(buffer)).isInstanceOf(BufferUnderflowException.class);
+        assertThat(buffer.position()).isZero();
+
+        buffer.limit(7);
+        assertThat(codec.read(buffer).get()).isEqualTo("hello");
+    }
+
+    @Test
+    public void rejectsAnUnknownTag() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{7, 0});
+
+        assertThatThrownBy(() -> codec.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown outcome tag 7 at position 0");
+    }
+
+    @Test
+    public void rejectsATechnicalFailureWithAStringLengthLongerThanThePayload() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{FlowCodec.TECHNICAL_FAILURE, 6, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0});
+
+        assertThatThrownBy(() -> codec.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("String of 4294967295 bytes does not fit in the 1 bytes remaining");
+    }
+
+    @Test
+    public void rejectsATechnicalFailureWithANegativeStringLength() {
+        byte[] negativeVarint = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        ByteBuffer buffer = ByteBuffer.allocate(2 + negativeVarint.length + 1);
+        buffer.put(FlowCodec.TECHNICAL_FAILURE).put((byte) (negativeVarint.length + 1)).put(negativeVarint).put((byte) 0).flip();
+
+        assertThatThrownBy(() -> codec.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("String of -1 bytes does not fit in the 1 bytes remaining");
+    }
+
+    @Test
+    public void rejectsANegativePayloadLength() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{FlowCodec.HAPPY, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01});
+
+        assertThatThrownBy(() -> codec.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Payload length -1 at position 0 is negative");
+        assertThat(buffer.position()).isZero();
+    }
+}
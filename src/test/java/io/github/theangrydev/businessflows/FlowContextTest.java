@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FlowContext.mapInto;
+import static io.github.theangrydev.businessflows.FlowContext.thenInto;
+import static io.github.theangrydev.businessflows.FlowContextLayout.flowContextLayout;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowContextTest implements WithAssertions {
+
+    private final FlowContextLayout layout = flowContextLayout();
+    private final ContextKey<String> customer = layout.key("customer");
+    private final ContextKey<Integer> price = layout.key("price");
+
+    private final List<String> stages = new ArrayList<>();
+    private final FlowListener listener = new FlowListener() {
+        @Override
+        public void stageEntered(StageLabel label) {
+        }
+
+        @Override
+        public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+            stages.add(label + " " + outcome);
+        }
+    };
+
+    @After
+    public void unregister() {
+        FlowListeners.unregister(listener);
+    }
+
+    @Test
+    public void laterStagesReadTheResultsOfEarlierStages() {
+        String receipt = HappyPath.<FlowContext, String>happyPath(layout.emptyContext())
+                .then(thenInto(customer, context -> HappyPath.happyPath("Alice")))
+                .map(mapInto(price, context -> context.get(customer).length() * 10))
+                .map(context -> context.get(customer) + " pays " + context.get(price))
+                .get();
+
+        assertThat(receipt).isEqualTo("Alice pays 50");
+    }
+
+    @Test
+    public void aSadStageStopsTheFlowWithoutAddingToTheContext() {
+        HappyPath<FlowContext, String> result = HappyPath.<FlowContext, String>happyPath(layout.emptyContext())
+                .then(thenInto(customer, context -> HappyPath.sadPath("unknown customer")))
+                .map(mapInto(price, context -> 10));
+
+        assertThat(result.getSad()).isEqualTo("unknown customer");
+    }
+
+    @Test
+    public void addingAValueLeavesTheOriginalContextAsItIs() {
+        FlowContext empty = layout.emptyContext();
+        FlowContext withCustomer = empty.with(customer, "Alice");
+        FlowContext withCustomerAndPrice = withCustomer.with(price, 50);
+
+        assertThat(empty.contains(customer)).isFalse();
+        assertThat(withCustomer.find(price)).isEmpty();
+        assertThat(withCustomerAndPrice.find(customer)).contains("Alice");
+        assertThat(withCustomerAndPrice.get(price)).isEqualTo(50);
+        assertThat(withCustomerAndPrice).hasToString("FlowContext{customer=Alice, price=50}");
+    }
+
+    @Test
+    public void keysDeclaredAfterTheContextWasMadeCanStillBeAdded() {
+        FlowContext context = layout.emptyContext();
+        ContextKey<String> coupon = layout.key("coupon");
+
+        assertThat(context.find(coupon)).isEmpty();
+        assertThat(context.with(coupon, "SAVE10").get(coupon)).isEqualTo("SAVE10");
+    }
+
+    @Test
+    public void aValueCanOnlyBeAddedOnce() {
+        FlowContext context = layout.emptyContext().with(customer, "Alice");
+
+        assertThatThrownBy(() -> context.with(customer, "Bob"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Context already contains a 'customer'");
+    }
+
+    @Test
+    public void gettingAMissingValueFails() {
+        assertThatThrownBy(() -> layout.emptyContext().get(price))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Context did not contain a 'price'");
+    }
+
+    @Test
+    public void nullValuesAreRejected() {
+        assertThatThrownBy(() -> layout.emptyContext().with(customer, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Context value for 'customer' must not be null");
+    }
+
+    @Test
+    public void keysFromAnotherLayoutAreRejected() {
+        ContextKey<String> otherCustomer = flowContextLayout().key("customer");
+
+        assertThatThrownBy(() -> layout.emptyContext().get(otherCustomer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Key 'customer' is not part of the layout FlowContextLayout[customer, price]");
+    }
+
+    @Test
+    public void stagesAreReportedWithTheLabelOfTheWrappedFunction() {
+        FlowListeners.register(listener);
+
+        HappyPath.<FlowContext, String>happyPath(layout.emptyContext())
+                .then(thenInto(customer, stageLabel("checkout", "customer").mapping(context -> HappyPath.happyPath("Alice"))))
+                .map(mapInto(price, context -> 50));
+
+        assertThat(stages).containsExactly("checkout/customer HAPPY", FlowContextTest.class.getName() + "/map HAPPY");
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import static io.github.theangrydev.businessflows.FlowCursor.flowCursor;
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+
+public class FlowCursorTest implements WithAssertions {
+
+    private static final int RECORDS = 1_000_000;
+    private static final PotentialFailure<String> REJECTED = PotentialFailure.failure("rejected");
+    private static final Exception PRICING_IS_DOWN = new Exception("pricing is down");
+
+    private final Exception technicalFailure = new Exception("technical failure");
+    private final FlowCursor<Object, String> cursor = flowCursor();
+
+    @Test
+    public void runsTheStagesOnTheHappyObject() {
+        FlowCursor<Integer, String> result = cursor.reset("record")
+                .map(String::length)
+                .then(length -> HappyPath.happyPath(length * 2))
+                .attempt(length -> PotentialFailure.success())
+                .peek(length -> {
+                });
+
+        assertThat(result).isSameAs(cursor);
+        assertThat(result.outcome()).isEqualTo(HAPPY);
+        assertThat(result.isHappy()).isTrue();
+        assertThat(result.getHappy()).isEqualTo(12);
+        assertThat(result.snapshot().get()).isEqualTo(12);
+        assertThat(result.toString()).isEqualTo("FlowCursor{HAPPY: 12}");
+    }
+
+    @Test
+    public void skipsTheHappyStagesOnceItIsSad() {
+        FlowCursor<Integer, String> result = cursor.reset("record")
+                .attempt(record -> PotentialFailure.failure("rejected"))
+                .map(String::length)
+                .then(length -> HappyPath.happyPath(length * 2));
+
+        assertThat(result.isSad()).isTrue();
+        assertThat(result.getSad()).isEqualTo("rejected");
+        assertThat(result.snapshot().getSad()).isEqualTo("rejected");
+    }
+
+    @Test
+    public void aThenStageCanTurnSad() {
+        FlowCursor<Integer, String> result = cursor.reset("record").then(record -> HappyPath.sadPath("rejected"));
+
+        assertThat(result.getSad()).isEqualTo("rejected");
+    }
+
+    @Test
+    public void recoversFromSad() {
+        FlowCursor<String, String> result = cursor.reset("record")
+                .attempt(record -> PotentialFailure.failure("rejected"))
+                .recover(sad -> "recovered from " + sad);
+
+        assertThat(result.getHappy()).isEqualTo("recovered from rejected");
+    }
+
+    @Test
+    public void recoverDoesNothingWhenHappy() {
+        assertThat(cursor.reset("record").recover(sad -> "recovered").getHappy()).isEqualTo("record");
+    }
+
+    @Test
+    public void anExceptionInAStageIsATechnicalFailure() {
+        FlowCursor<Object, String> result = cursor.reset("record")
+                .map(record -> {
+                    throw technicalFailure;
+                })
+                .recover(sad -> "recovered");
+
+        assertThat(result.isTechnicalFailure()).isTrue();
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(result.snapshot().getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void aThenStageThatReturnsNullIsATechnicalFailure() {
+        assertThat(cursor.reset("record").then(record -> null).getTechnicalFailure()).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void anAttemptThatReturnsNullIsATechnicalFailure() {
+        assertThat(cursor.reset("record").attempt(record -> null).getTechnicalFailure()).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void anAttemptCanFailWithAnotherKindOfPotentialFailure() {
+        PotentialFailure<String> rejected = new PotentialFailure<String>() {
+            @Override
+            public <Happy> HappyPath<Happy, String> toHappyPath(Happy happy) {
+                return HappyPath.sadPath("rejected");
+            }
+
+            @Override
+            public Optional<String> toOptional() {
+                return Optional.of("rejected");
+            }
+        };
+
+        assertThat(cursor.reset("record").attempt(record -> rejected).getSad()).isEqualTo("rejected");
+    }
+
+    @Test
+    public void resetStartsAgainWithTheNextRecord() {
+        cursor.reset("first").attempt(record -> PotentialFailure.failure("rejected"));
+
+        assertThat(cursor.reset("second").getHappy()).isEqualTo("second");
+    }
+
+    @Test
+    public void gettingAnotherOutcomeIsAnError() {
+        cursor.reset("record");
+
+        assertThatThrownBy(cursor::getSad)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The cursor is holding a HAPPY not a SAD: record");
+    }
+
+    @Test
+    public void mustBeResetBeforeItIsUsed() {
+        assertThatThrownBy(() -> cursor.map(Object::toString))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The cursor must be reset before it is used");
+    }
+
+    @Test
+    public void doesNotAllocatePerRecord() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Integer[] records = new Integer[100];
+        for (int record = 0; record < records.length; record++) {
+            records[record] = record;
+        }
+        int[] counts = processRecords(records);
+        counts = processRecords(records);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        counts = processRecords(records);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(counts[HAPPY.ordinal()] + counts[SAD.ordinal()] + counts[TECHNICAL_FAILURE.ordinal()]).isEqualTo(RECORDS);
+        assertThat(counts[SAD.ordinal()]).isPositive();
+        assertThat(counts[TECHNICAL_FAILURE.ordinal()]).isPositive();
+        assertThat(allocated).describedAs("bytes allocated by the JVM itself, e.g. when compiling, but not per record").isLessThan(RECORDS);
+    }
+
+    private static int[] processRecords(Integer[] records) {
+        int[] counts = new int[FlowOutcome.values().length];
+        FlowCursor<Integer, String> cursor = flowCursor();
+        for (int record = 0; record < RECORDS; record++) {
+            FlowCursor<Integer, String> result = cursor.reset(records[record % records.length])
+                    .map(value -> value % 50)
+                    .attempt(value -> value % 10 == 0 ? REJECTED : PotentialFailure.success())
+                    .recover(sad -> 3)
+                    .peek(value -> {
+                    })
+                    .attempt(value -> value % 7 == 3 ? REJECTED : PotentialFailure.success())
+                    .map(value -> {
+                        if (value == 1) {
+                            throw PRICING_IS_DOWN;
+                        }
+                        return value;
+                    });
+            counts[result.outcome().ordinal()]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowFlightRecorderTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+    }
+
+    private static final StageLabel PRICE = stageLabel("checkout", "price");
+    private static final StageLabel PAY = stageLabel("checkout", "pay");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void enable() {
+        assertThat(FlowFlightRecorder.enable()).isTrue();
+    }
+
+    @After
+    public void disable() {
+        FlowFlightRecorder.disable();
+    }
+
+    @Test
+    public void stagesAreOnlyInstrumentedWhileRecording() {
+        assertThat(FlowListeners.enabled()).isFalse();
+
+        try (Recording recording = new Recording()) {
+            recording.start();
+            assertThat(FlowListeners.enabled()).isTrue();
+            recording.stop();
+        }
+
+        assertThat(FlowListeners.enabled()).isFalse();
+    }
+
+    @Test
+    public void emitsAnEventForEachStage() throws IOException {
+        Path recorded = record();
+
+        List<RecordedEvent> events = flowStageEvents(recorded);
+
+        assertThat(events).extracting(event -> event.getString("stage")).containsExactly("price", "pay", "price", "pay");
+        assertThat(events).extracting(event -> event.getString("flow")).containsOnly("checkout");
+        assertThat(events).extracting(event -> event.getString("outcome")).containsExactly("HAPPY", "SAD", "HAPPY", "TECHNICAL_FAILURE");
+        assertThat(events.get(3).getClass("technicalFailure").getName()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(events.get(0).getDuration().toNanos()).isPositive();
+    }
+
+    @Test
+    public void summarisesTheTimeSpentInEachStagePerFlow() throws IOException {
+        Path recorded = record();
+
+        String summary = FlowRecordingSummary.summarise(recorded);
+
+        assertThat(summary.split(System.lineSeparator())).hasSize(4);
+        assertThat(summary).containsPattern("checkout +4 +2 +1 +1");
+        assertThat(summary).containsPattern("  price +2 +2 +0 +0");
+        assertThat(summary).containsPattern("  pay +2 +0 +1 +1");
+    }
+
+    @Test
+    public void aStageThatWasInProgressWhenTheRecordingStoppedIsNotEmittedByTheNextRecording() throws IOException {
+        Path recorded = temporaryFolder.newFile("flow.jfr").toPath();
+        try (Recording first = new Recording(); Recording second = new Recording()) {
+            first.enable(FlowStageEvent.class).withoutThreshold();
+            second.enable(FlowStageEvent.class).withoutThreshold();
+            first.start();
+            HappyPath.<Happy, Sad>happyPath(new Happy()).map(PRICE.mapping(happy -> {
+                first.stop();
+                second.start();
+                return happy;
+            }));
+            second.stop();
+            second.dump(recorded);
+        }
+
+        assertThat(flowStageEvents(recorded)).isEmpty();
+    }
+
+    private Path record() throws IOException {
+        Path recorded = temporaryFolder.newFile("flow.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable(FlowStageEvent.class).withoutThreshold();
+            recording.start();
+            HappyPath.<Happy, Sad>happyPath(new Happy())
+                    .map(PRICE.mapping(happy -> happy))
+                    .attempt(PAY.action(happy -> PotentialFailure.failure(new Sad())));
+            HappyPath.<Happy, Sad>happyPath(new Happy())
+                    .map(PRICE.mapping(happy -> happy))
+                    .attempt(PAY.action(happy -> {
+                        throw new IllegalStateException();
+                    }));
+            recording.stop();
+            recording.dump(recorded);
+        }
+        return recorded;
+    }
+
+    private List<RecordedEvent> flowStageEvents(Path recorded) throws IOException {
+        return RecordingFile.readAllEvents(recorded).stream()
+                .filter(event -> event.getEventType().getName().equals(FlowStageEvent.NAME))
+                .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
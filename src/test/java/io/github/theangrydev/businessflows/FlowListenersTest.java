@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowListenersTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+    }
+
+    private static final StageLabel PRICE = stageLabel("checkout", "price");
+    private static final StageLabel CHECK_STOCK = stageLabel("checkout", "check stock");
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @Before
+    public void register() {
+        FlowListeners.register(listener);
+    }
+
+    @After
+    public void unregister() {
+        FlowListeners.unregister(listener);
+    }
+
+    @Test
+    public void reportsTheEntryAndExitOfEachStageWithItsOutcome() {
+        Happy happy = new Happy();
+        Sad sad = new Sad();
+        RuntimeException technicalFailure = new RuntimeException();
+
+        HappyPath.<Happy, Sad>happyPath(happy)
+                .map(PRICE.mapping(price -> price))
+                .then(PRICE.mapping(price -> HappyPath.<Happy, Sad>sadPath(sad)))
+                .ifSad()
+                .peek(PRICE.peek(peeked -> {
+                    throw technicalFailure;
+                }));
+
+        assertThat(listener.events).containsExactly(
+                "entered checkout/price",
+                "exited checkout/price HAPPY " + happy,
+                "entered checkout/price",
+                "exited checkout/price SAD " + sad,
+                "entered checkout/price",
+                "exited checkout/price TECHNICAL_FAILURE " + technicalFailure);
+    }
+
+    @Test
+    public void labelsStagesWithTheClassThatDeclaredTheFunctionByDefault() {
+        HappyPath.<Happy, Sad>happyPath(new Happy()).map(happy -> happy);
+
+        assertThat(listener.labels).containsExactly(stageLabel(FlowListenersTest.class.getName(), "map"));
+    }
+
+    @Test
+    public void reportsWhetherEachStageRanOnAHappyPathOrASadPath() {
+        HappyPath.<Happy, Sad>sadPath(new Sad())
+                .ifSad()
+                .peek(PRICE.peek(sad -> {
+                }))
+                .recover(CHECK_STOCK.mapping(sad -> new Happy()))
+                .map(PRICE.mapping(happy -> happy));
+
+        assertThat(listener.paths).containsExactly(SAD, SAD, HAPPY);
+    }
+
+    @Test
+    public void reportsTheDurationOfEachStage() {
+        HappyPath.<Happy, Sad>happyPath(new Happy()).peek(happy -> Thread.sleep(5));
+
+        assertThat(listener.durations).hasSize(1);
+        assertThat(listener.durations.get(0)).isGreaterThanOrEqualTo(5_000_000L);
+    }
+
+    @Test
+    public void reportsEachValidatorAsAStage() {
+        Sad sad = new Sad();
+
+        ValidationPath.<Happy, Sad>validateAll(new Happy(),
+                CHECK_STOCK.validator(happy -> PotentialFailure.success()),
+                CHECK_STOCK.validator(happy -> PotentialFailure.failure(sad)));
+
+        assertThat(listener.events).containsExactly(
+                "entered checkout/check stock",
+                "exited checkout/check stock HAPPY null",
+                "entered checkout/check stock",
+                "exited checkout/check stock SAD " + sad);
+    }
+
+    @Test
+    public void reportsRecoveryOfASadPathAsAStage() {
+        Happy happy = new Happy();
+
+        SadPath.<Happy, Sad>sadPath(new Sad()).recover(PRICE.attempt(() -> happy));
+
+        assertThat(listener.events).containsExactly(
+                "entered checkout/price",
+                "exited checkout/price HAPPY " + happy);
+    }
+
+    @Test
+    public void stopsReportingOnceUnregistered() {
+        FlowListeners.unregister(listener);
+
+        HappyPath.<Happy, Sad>happyPath(new Happy()).map(happy -> happy);
+
+        assertThat(listener.events).isEmpty();
+        assertThat(FlowListeners.enabled()).isFalse();
+    }
+
+    @Test
+    public void labelledFunctionsBehaveTheSameAsTheFunctionsTheyLabel() throws Exception {
+        Happy happy = new Happy();
+        Sad sad = new Sad();
+
+        assertThat(PRICE.mapping(old -> happy).map(new Happy())).isSameAs(happy);
+        assertThat(PRICE.attempt(() -> happy).attempt()).isSameAs(happy);
+        assertThat(PRICE.<Happy, Sad>action(old -> PotentialFailure.failure(sad)).attempt(happy).toOptional()).contains(sad);
+    }
+
+    private static class RecordingListener implements FlowListener {
+
+        private final List<String> events = new ArrayList<>();
+        private final List<StageLabel> labels = new ArrayList<>();
+        private final List<FlowOutcome> paths = new ArrayList<>();
+        private final List<Long> durations = new ArrayList<>();
+
+        @Override
+        public void stageEntered(StageLabel label) {
+            events.add("entered " + label);
+        }
+
+        @Override
+        public void stageEntered(StageLabel label, FlowOutcome path) {
+            paths.add(path);
+            stageEntered(label);
+        }
+
+        @Override
+        public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+            events.add("exited " + label + " " + outcome + " " + result);
+            labels.add(label);
+            durations.add(durationNanos);
+        }
+    }
+}
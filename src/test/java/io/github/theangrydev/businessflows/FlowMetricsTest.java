@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowMetricsTest implements WithAssertions {
+
+    private static final StageLabel PRICE = stageLabel("FlowMetricsTest", "price");
+
+    private final FlowMetrics flowMetrics = FlowMetrics.flowMetrics();
+
+    @After
+    public void unpublish() {
+        flowMetrics.unpublish();
+    }
+
+    @Test
+    public void countsTheOutcomesOfEachStage() {
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+        flowMetrics.stageExited(PRICE, SAD, null, 10);
+        flowMetrics.stageExited(PRICE, TECHNICAL_FAILURE, null, 10);
+
+        StageMetricsMXBean stage = flowMetrics.stageMetrics(PRICE).get();
+        assertThat(stage.getHappyCount()).isEqualTo(2);
+        assertThat(stage.getSadCount()).isEqualTo(1);
+        assertThat(stage.getTechnicalFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void reportsLatencyPercentilesOfEachStage() {
+        for (int i = 0; i < 999; i++) {
+            flowMetrics.stageExited(PRICE, HAPPY, null, 1000);
+        }
+        flowMetrics.stageExited(PRICE, HAPPY, null, 1_000_000);
+
+        StageMetricsMXBean stage = flowMetrics.stageMetrics(PRICE).get();
+        assertThat(stage.getP50Nanos()).isBetween(1000L, 1063L);
+        assertThat(stage.getP99Nanos()).isBetween(1000L, 1063L);
+        assertThat(stage.getP999Nanos()).isBetween(1000L, 1063L);
+        flowMetrics.stageExited(PRICE, HAPPY, null, 1_000_000);
+        assertThat(stage.getP999Nanos()).isBetween(1_000_000L, 1_062_500L);
+    }
+
+    @Test
+    public void hasNoMetricsForAStageThatHasNotRun() {
+        assertThat(flowMetrics.stageMetrics(PRICE)).isEmpty();
+    }
+
+    @Test
+    public void publishesEachStageAsAnMBean() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        flowMetrics.publish();
+
+        flowMetrics.stageExited(PRICE, SAD, null, 10);
+
+        assertThat(mBeanServer.getAttribute(FlowMetrics.objectName(PRICE), "SadCount")).isEqualTo(1L);
+        assertThat(mBeanServer.getAttribute(FlowMetrics.objectName(PRICE), "Stage")).isEqualTo("price");
+    }
+
+    @Test
+    public void publishesStagesThatRanBeforePublishing() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        flowMetrics.publish();
+
+        assertThat(mBeanServer.getAttribute(FlowMetrics.objectName(PRICE), "HappyCount")).isEqualTo(1L);
+    }
+
+    @Test
+    public void unpublishingRemovesTheMBeans() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        flowMetrics.publish();
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        flowMetrics.unpublish();
+
+        assertThat(mBeanServer.isRegistered(FlowMetrics.objectName(PRICE))).isFalse();
+    }
+
+    @Test
+    public void onlyOneFlowMetricsCanBePublishedToAnMBeanServerAtATime() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        FlowMetrics other = FlowMetrics.flowMetrics();
+        flowMetrics.publish();
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        assertThatThrownBy(other::publish)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Another FlowMetrics is already published to the MBean server, it must be unpublished first");
+        flowMetrics.unpublish();
+        other.stageExited(PRICE, SAD, null, 10);
+        other.publish();
+        try {
+            assertThat(mBeanServer.getAttribute(FlowMetrics.objectName(PRICE), "SadCount")).isEqualTo(1L);
+        } finally {
+            other.unpublish();
+        }
+    }
+
+    @Test
+    public void aStageThatCannotBePublishedIsStillRecorded() throws Exception {
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        mBeanServer.registerMBean(new StageMetrics(PRICE), FlowMetrics.objectName(PRICE));
+        flowMetrics.publish(mBeanServer);
+
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        assertThat(flowMetrics.publicationFailures()).isEqualTo(1);
+        assertThat(flowMetrics.stageMetrics(PRICE).get().getHappyCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void aStageThatIsSeenWhileUnpublishingIsNotLeftPublished() throws Exception {
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        MBeanServer unpublishingWhileRegistering = (MBeanServer) Proxy.newProxyInstance(MBeanServer.class.getClassLoader(), new Class<?>[]{MBeanServer.class}, (proxy, method, arguments) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == arguments[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(mBeanServer, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (method.getName().equals("registerMBean")) {
+                    flowMetrics.unpublish();
+                }
+            }
+        });
+        flowMetrics.publish(unpublishingWhileRegistering);
+
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        assertThat(mBeanServer.isRegistered(FlowMetrics.objectName(PRICE))).isFalse();
+        assertThat(flowMetrics.publicationFailures()).isZero();
+    }
+
+    @Test
+    public void resetForgetsTheMetricsRecordedSoFar() {
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+        StageMetricsMXBean stage = flowMetrics.stageMetrics(PRICE).get();
+
+        stage.reset();
+
+        assertThat(stage.getHappyCount()).isZero();
+        assertThat(stage.getP50Nanos()).isZero();
+    }
+
+    @Test
+    public void doesNotAllocateWhenRecordingAStageThatHasBeenSeenBefore() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        flowMetrics.stageExited(PRICE, HAPPY, null, 10);
+
+        int recordings = 100_000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < recordings; i++) {
+            flowMetrics.stageExited(PRICE, HAPPY, null, i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated).describedAs("bytes allocated by the JVM itself, e.g. when compiling, but not per recording").isLessThan(recordings);
+    }
+}
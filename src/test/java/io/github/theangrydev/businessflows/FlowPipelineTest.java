@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FlowPipeline.flowPipeline;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowPipelineTest implements WithAssertions {
+
+    private final FlowPipeline<String, Integer, String> checkout = FlowPipeline.<String, String>flowPipeline()
+            .then(order -> "out of stock".equals(order) ? HappyPath.<String, String>sadPath(order) : HappyPath.<String, String>happyPath(order))
+            .map(order -> {
+                if ("broken".equals(order)) {
+                    throw new IOException("pricing is down");
+                }
+                return order.length();
+            })
+            .map(price -> price * 2);
+
+    @Test
+    public void runsTheStagesLikeAHappyPathChain() {
+        assertThat(checkout.run("order").get()).isEqualTo(10);
+        assertThat(checkout.run("out of stock").getSad()).isEqualTo("out of stock");
+        assertThat(checkout.run("broken").getTechnicalFailure()).isInstanceOf(IOException.class).hasMessage("pricing is down");
+        assertThat(checkout.isSpecialised()).isFalse();
+    }
+
+    @Test
+    public void aSpecialisedPipelineHasTheSameOutcomes() {
+        FlowPipeline<String, Integer, String> specialised = checkout.specialised();
+
+        assertThat(specialised.isSpecialised()).isTrue();
+        assertThat(specialised.run("order").get()).isEqualTo(10);
+        assertThat(specialised.run("out of stock").getSad()).isEqualTo("out of stock");
+        assertThat(specialised.run("broken").getTechnicalFailure()).isInstanceOf(IOException.class).hasMessage("pricing is down");
+    }
+
+    @Test
+    public void eachSpecialisedPipelineRunsOnACopyOfItsOwn() {
+        FlowPipeline<String, Integer, String> first = checkout.specialised();
+        FlowPipeline<String, Integer, String> second = checkout.specialised();
+
+        assertThat(first.run("order").getClass()).isEqualTo(second.run("order").getClass());
+        assertThat(first.toString()).isEqualTo("FlowPipeline{stages=3, specialised=true}");
+        assertThat(first.specialised.getClass()).isNotEqualTo(second.specialised.getClass()).isNotEqualTo(PipelineStages.class);
+    }
+
+    @Test
+    public void stagesAfterTheUnrolledStagesShareACallSite() {
+        FlowPipeline<Integer, Integer, String> pipeline = flowPipeline();
+        for (int stage = 0; stage < PipelineStages.UNROLLED_STAGES + 4; stage++) {
+            pipeline = pipeline.map(count -> count + 1);
+        }
+
+        assertThat(pipeline.run(0).get()).isEqualTo(PipelineStages.UNROLLED_STAGES + 4);
+        assertThat(pipeline.specialised().run(0).get()).isEqualTo(PipelineStages.UNROLLED_STAGES + 4);
+    }
+
+    @Test
+    public void addingAStageToASpecialisedPipelineIsNotSpecialised() {
+        FlowPipeline<String, String, String> pipeline = checkout.specialised().map(String::valueOf);
+
+        assertThat(pipeline.isSpecialised()).isFalse();
+        assertThat(pipeline.run("order").get()).isEqualTo("10");
+    }
+
+    @Test
+    public void theStagesAreReportedWithTheirOwnLabels() {
+        StageLabel checkStock = stageLabel("checkout", "check stock");
+        StageLabel price = stageLabel("checkout", "price");
+        FlowPipeline<String, Integer, String> labelled = FlowPipeline.<String, String>flowPipeline()
+                .then(checkStock.mapping(order -> HappyPath.<String, String>happyPath(order)))
+                .map(price.mapping(String::length));
+        List<StageLabel> labels = new ArrayList<>();
+        FlowListener listener = new FlowListener() {
+            @Override
+            public void stageEntered(StageLabel label) {
+                labels.add(label);
+            }
+
+            @Override
+            public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+
+            }
+        };
+
+        FlowListeners.register(listener);
+        try {
+            labelled.run("order");
+        } finally {
+            FlowListeners.unregister(listener);
+        }
+
+        assertThat(labels).containsExactly(checkStock, price);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class FlowTracerTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+        @Override
+        public String toString() {
+            return "Out of stock";
+        }
+    }
+
+    private static final StageLabel PRICE = stageLabel("checkout", "price");
+    private static final StageLabel CHECK_STOCK = stageLabel("checkout", "check stock");
+    private static final StageLabel PAY = stageLabel("checkout", "pay");
+
+    private FlowTracer tracer;
+
+    @After
+    public void unregister() {
+        FlowListeners.unregister(tracer);
+    }
+
+    @Test
+    public void recordsTheStagesOfASampledFlow() {
+        tracer = registeredTracer(10, 10, 1, 10);
+
+        HappyPath<Happy, Sad> result = tracer.trace("checkout", this::outOfStock);
+
+        assertThat(result.isSad()).isTrue();
+        List<FlowTrace> traces = tracer.recentTraces();
+        assertThat(traces).hasSize(1);
+        FlowTrace trace = traces.get(0);
+        assertThat(trace.flowName()).isEqualTo("checkout");
+        assertThat(trace.outcome()).isEqualTo(SAD);
+        assertThat(trace.summary()).contains("Out of stock");
+        assertThat(trace.stages()).extracting(TracedStage::label).containsExactly(PRICE, CHECK_STOCK);
+        assertThat(trace.stages()).extracting(TracedStage::outcome).containsExactly(HAPPY, SAD);
+        assertThat(trace.stages().get(1).summary()).contains("Out of stock");
+        assertThat(trace.stages().get(0).summary()).isEmpty();
+        assertThat(trace.truncated()).isFalse();
+    }
+
+    @Test
+    public void recordsTheDepthOfNestedStages() {
+        tracer = registeredTracer(10, 10, 1, 0);
+
+        tracer.trace("checkout", () -> HappyPath.<Happy, Sad>happyPath(new Happy())
+                .then(PRICE.mapping(happy -> HappyPath.<Happy, Sad>happyPath(happy).map(PAY.mapping(paid -> paid)))));
+
+        assertThat(tracer.recentTraces().get(0).stages()).extracting(TracedStage::label, TracedStage::depth)
+                .containsExactly(tuple(PRICE, 0), tuple(PAY, 1));
+    }
+
+    @Test
+    public void recordsTechnicalFailuresWithTheirClassAndMessage() {
+        tracer = registeredTracer(10, 10, 1, 10);
+
+        HappyPath<Happy, Sad> result = tracer.trace("checkout", () -> HappyPath.<Happy, Sad>happyPath(new Happy()).map(PAY.mapping(happy -> {
+            throw new IllegalStateException("Card declined");
+        })));
+
+        assertThat(result.isTechnicalFailure()).isTrue();
+        assertThat(tracer.recentTraces().get(0).stages().get(0).summary()).contains("java.lang.IllegalStateException: Card declined");
+    }
+
+    @Test
+    public void anExceptionThrownByTheFlowItselfIsATechnicalFailure() {
+        tracer = registeredTracer(10, 10, 1, 10);
+        IllegalStateException technicalFailure = new IllegalStateException();
+
+        HappyPath<Happy, Sad> result = tracer.trace("checkout", () -> {
+            throw technicalFailure;
+        });
+
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(tracer.failedTraces()).extracting(FlowTrace::outcome).containsExactly(TECHNICAL_FAILURE);
+    }
+
+    @Test
+    public void truncatesLongSummaries() {
+        tracer = registeredTracer(10, 10, 1, 10);
+        String longSad = new String(new char[500]).replace('\0', 'x');
+
+        tracer.trace("checkout", () -> HappyPath.<Happy, String>sadPath(longSad));
+
+        assertThat(tracer.recentTraces().get(0).summary().get()).hasSize(123).endsWith("...");
+    }
+
+    @Test
+    public void keepsOnlyTheMaximumNumberOfStages() {
+        tracer = registeredTracer(10, 1, 1, 10);
+
+        tracer.trace("checkout", this::outOfStock);
+
+        FlowTrace trace = tracer.recentTraces().get(0);
+        assertThat(trace.stages()).extracting(TracedStage::label).containsExactly(PRICE);
+        assertThat(trace.truncated()).isTrue();
+    }
+
+    @Test
+    public void keepsTheMostRecentTracesOldestFirst() {
+        tracer = registeredTracer(2, 10, 1, 0);
+
+        tracer.trace("first", this::happy);
+        tracer.trace("second", this::happy);
+        tracer.trace("third", this::happy);
+
+        assertThat(tracer.recentTraces()).extracting(FlowTrace::flowName).containsExactly("second", "third");
+    }
+
+    @Test
+    public void aSlotIsNotOverwrittenByAnOlderTrace() {
+        TraceSlot slot = new TraceSlot(10);
+        TraceScratch trace = new TraceScratch(10);
+
+        trace.start("newer");
+        boolean newerWritten = slot.tryWrite(3, trace, FlowOutcome.HAPPY, null, 0);
+        trace.start("older");
+        boolean olderWritten = slot.tryWrite(1, trace, FlowOutcome.HAPPY, null, 0);
+
+        assertThat(newerWritten).isTrue();
+        assertThat(olderWritten).isFalse();
+        assertThat(slot.read().flowName()).isEqualTo("newer");
+    }
+
+    @Test
+    public void keepsFailedTracesEvenWhenTheyAreNotSampled() {
+        tracer = registeredTracer(10, 10, 0, 10);
+
+        tracer.trace("happy", this::happy);
+        tracer.trace("sad", this::outOfStock);
+
+        assertThat(tracer.recentTraces()).isEmpty();
+        assertThat(tracer.failedTraces()).extracting(FlowTrace::flowName).containsExactly("sad");
+    }
+
+    @Test
+    public void theFailedTracesAreAFixedSizeSample() {
+        tracer = registeredTracer(10, 10, 0, 5);
+
+        for (int i = 0; i < 100; i++) {
+            tracer.trace("sad", this::outOfStock);
+        }
+
+        assertThat(tracer.failedTraces()).hasSize(5);
+    }
+
+    @Test
+    public void stagesOutsideOfATracedFlowAreIgnored() {
+        tracer = registeredTracer(10, 10, 1, 10);
+
+        outOfStock();
+
+        assertThat(tracer.recentTraces()).isEmpty();
+        assertThat(tracer.failedTraces()).isEmpty();
+    }
+
+    @Test
+    public void dumpsTheRecentAndFailedTraces() {
+        tracer = registeredTracer(10, 10, 1, 10);
+
+        tracer.trace("checkout", this::outOfStock);
+
+        assertThat(tracer.dump())
+                .startsWith("Recent traces:")
+                .contains("checkout SAD")
+                .contains(String.format("%n  checkout/check stock SAD"))
+                .contains("Sad and technical failure traces:");
+    }
+
+    @Test
+    public void doesNotAllocateForFlowsThatAreNotKept() {
+        tracer = registeredTracer(10, 10, 0, 10);
+        HappyPath<Happy, Sad> happyPath = HappyPath.happyPath(new Happy());
+        Attempt<HappyPath<Happy, Sad>> flow = () -> {
+            tracer.stageEntered(PRICE);
+            tracer.stageExited(PRICE, HAPPY, null, 10);
+            return happyPath;
+        };
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        tracer.trace("happy", flow);
+
+        int flows = 100_000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < flows; i++) {
+            tracer.trace("happy", flow);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated).describedAs("bytes allocated by the JVM itself, e.g. when compiling, but not per flow").isLessThan(flows);
+    }
+
+    @Test
+    public void validatesItsParameters() {
+        assertThatThrownBy(() -> FlowTracer.flowTracer(0, 10, 1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FlowTracer.flowTracer(10, 10, 1.5, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Sample rate must be in [0, 1] but was 1.5");
+    }
+
+    private FlowTracer registeredTracer(int capacity, int maximumStages, double sampleRate, int reservoirSize) {
+        FlowTracer flowTracer = FlowTracer.flowTracer(capacity, maximumStages, sampleRate, reservoirSize);
+        FlowListeners.register(flowTracer);
+        return flowTracer;
+    }
+
+    private HappyPath<Happy, Sad> happy() {
+        return HappyPath.happyPath(new Happy());
+    }
+
+    private HappyPath<Happy, Sad> outOfStock() {
+        return HappyPath.<Happy, Sad>happyPath(new Happy())
+                .map(PRICE.mapping(happy -> happy))
+                .attempt(CHECK_STOCK.action(happy -> PotentialFailure.failure(new Sad())));
+    }
+}
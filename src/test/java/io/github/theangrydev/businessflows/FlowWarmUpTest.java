@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static io.github.theangrydev.businessflows.FlowOutcome.*;
+import static io.github.theangrydev.businessflows.FlowWarmUp.flowWarmUp;
+
+public class FlowWarmUpTest implements WithAssertions {
+
+    @Test
+    public void drivesEachPipelineThroughTheOutcomesOfItsSyntheticInputs() {
+        WarmUpReport report = flowWarmUp()
+                .pipeline("checkout", this::checkout, Arrays.asList("order", "out of stock", "broken"))
+                .warmUp(300, Duration.ofSeconds(30));
+
+        assertThat(report.pipelines()).containsExactly("business-flows", "checkout");
+        assertThat(report.rounds()).isPositive();
+        assertThat(report.outcomes("checkout").get(HAPPY)).isEqualTo(100L * report.rounds());
+        assertThat(report.outcomes("checkout").get(SAD)).isEqualTo(100L * report.rounds());
+        assertThat(report.outcomes("checkout").get(TECHNICAL_FAILURE)).isEqualTo(100L * report.rounds());
+        assertThat(report.untrainedOutcomes("checkout")).isEmpty();
+        assertThat(report.untrainedOutcomes("business-flows")).isEmpty();
+        assertThat(report.toString()).contains("Warmed up 2 pipelines", "untrained outcomes []");
+    }
+
+    @Test
+    public void reportsTheOutcomesThatThereWereNoSyntheticInputsFor() {
+        WarmUpReport report = flowWarmUp()
+                .pipeline("checkout", this::checkout, Collections.singletonList("order"))
+                .warmUp(10, Duration.ofSeconds(30));
+
+        assertThat(report.untrainedOutcomes("checkout")).containsOnly(SAD, TECHNICAL_FAILURE);
+        assertThat(report.toString()).contains("untrained outcomes [checkout SAD, checkout TECHNICAL_FAILURE]");
+    }
+
+    @Test
+    public void aPipelineThatThrowsIsATechnicalFailure() {
+        WarmUpReport report = flowWarmUp()
+                .pipeline("throws", input -> {
+                    throw new IOException(input);
+                }, Collections.singletonList("broken"))
+                .warmUp(10, Duration.ofSeconds(30));
+
+        assertThat(report.untrainedOutcomes("throws")).containsOnly(HAPPY, SAD);
+    }
+
+    @Test
+    public void runsOneRoundEvenIfTheTimeoutIsTooShortForIt() {
+        WarmUpReport report = flowWarmUp()
+                .pipeline("checkout", this::checkout, Collections.singletonList("order"))
+                .warmUp(10, Duration.ofNanos(1));
+
+        assertThat(report.rounds()).isEqualTo(1);
+        assertThat(report.outcomes("checkout").get(HAPPY)).isEqualTo(10L);
+    }
+
+    @Test
+    public void theTimeoutMustBePositive() {
+        assertThatThrownBy(() -> flowWarmUp().warmUp(10, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Timeout must be positive but was PT0S");
+    }
+
+    @Test
+    public void pipelinesMustHaveDifferentNames() {
+        FlowWarmUp warmUp = flowWarmUp().pipeline("checkout", this::checkout, Collections.singletonList("order"));
+
+        assertThatThrownBy(() -> warmUp.pipeline("checkout", this::checkout, Collections.singletonList("order")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("There is already a pipeline called 'checkout'");
+    }
+
+    @Test
+    public void pipelinesMustHaveSyntheticInputs() {
+        assertThatThrownBy(() -> flowWarmUp().pipeline("checkout", this::checkout, Collections.<String>emptyList()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("There are no synthetic inputs for the pipeline 'checkout'");
+    }
+
+    @Test
+    public void thereIsNoReportForAPipelineThatWasNotWarmedUp() {
+        WarmUpReport report = flowWarmUp().warmUp(1, Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> report.outcomes("checkout"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("There was no pipeline called 'checkout'");
+    }
+
+    private HappyPath<String, String> checkout(String order) {
+        return HappyPath.<String, String>happyPath(order)
+                .attempt(happy -> "out of stock".equals(happy) ? PotentialFailure.failure(happy) : PotentialFailure.success())
+                .then(happy -> {
+                    if ("broken".equals(happy)) {
+                        throw new IOException("payment provider is down");
+                    }
+                    return HappyPath.happyPath(happy);
+                });
+    }
+}
@@ -101,4 +101,12 @@ public class HappyCaseTechnicalFailureTest {
     public void peekReturnsThis() {
         assertThat(happyCaseTechnicalFailure.peek(null)).isEqualTo(happyCaseTechnicalFailure);
     }
+
+    @Test
+    public void retryReturnsHappyCaseWithoutRetrying() {
+        HappyPath<Happy, Object> happyPath = happyCaseTechnicalFailure.retry(null, null).toCompletableFuture().join();
+
+        assertThat(happyPath).isInstanceOf(HappyCaseHappyPath.class);
+        assertThat(happyPath.get()).isSameAs(happy);
+    }
 }
\ No newline at end of file
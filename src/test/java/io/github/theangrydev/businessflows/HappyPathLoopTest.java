@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.theangrydev.businessflows.Bounce.bounce;
+import static io.github.theangrydev.businessflows.Bounce.land;
+
+public class HappyPathLoopTest implements WithAssertions {
+
+    private static final int MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD = 1_000_000;
+
+    private final Exception technicalFailure = new Exception();
+
+    @Test
+    public void thenTrampolinedBouncesWithoutGrowingTheStack() {
+        HappyPath<String, String> total = HappyPath.<Integer, String>happyPath(0)
+                .thenTrampolined(page -> page == MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD ? land(HappyPath.happyPath("pages: " + page)) : bounce(HappyPath.happyPath(page + 1)));
+
+        assertThat(total.get()).isEqualTo("pages: " + MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+    }
+
+    @Test
+    public void thenTrampolinedStopsAtTheFirstSadBounce() {
+        List<Integer> pages = new ArrayList<>();
+
+        HappyPath<String, String> result = HappyPath.<Integer, String>happyPath(0)
+                .thenTrampolined(page -> {
+                    pages.add(page);
+                    return page == 2 ? bounce(HappyPath.sadPath("page 2 is missing")) : bounce(HappyPath.happyPath(page + 1));
+                });
+
+        assertThat(result.getSad()).isEqualTo("page 2 is missing");
+        assertThat(pages).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void thenTrampolinedStopsAtTheFirstTechnicalFailure() {
+        HappyPath<String, String> result = HappyPath.<Integer, String>happyPath(0)
+                .thenTrampolined(page -> {
+                    if (page == 3) {
+                        throw technicalFailure;
+                    }
+                    return bounce(HappyPath.happyPath(page + 1));
+                });
+
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void landingOnNullIsATechnicalFailure() {
+        HappyPath<String, String> result = HappyPath.<Integer, String>happyPath(0).thenTrampolined(page -> land(null));
+
+        assertThat(result.getTechnicalFailure())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The flow to land on must not be null");
+    }
+
+    @Test
+    public void bouncingToNullIsATechnicalFailure() {
+        HappyPath<String, String> result = HappyPath.<Integer, String>happyPath(0).thenTrampolined(page -> bounce(null));
+
+        assertThat(result.getTechnicalFailure())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The flow to bounce to must not be null");
+    }
+
+    @Test
+    public void iterateAppliesTheStepWhileTheConditionHolds() {
+        HappyPath<Long, String> result = HappyPath.<Long, String>happyPath(0L).iterate(count -> count < MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD, count -> count + 1);
+
+        assertThat(result.get()).isEqualTo(MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+    }
+
+    @Test
+    public void iterateDoesNotApplyTheStepIfTheConditionDoesNotHoldToBeginWith() {
+        HappyPath<Integer, String> result = HappyPath.<Integer, String>happyPath(10).iterate(count -> count < 10, count -> count + 1);
+
+        assertThat(result.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void iterateDoesNotAllocatePerStep() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int[] state = {0};
+        HappyPath<int[], String> happyPath = HappyPath.happyPath(state);
+        happyPath.iterate(counter -> counter[0] < 1000, counter -> {
+            counter[0]++;
+            return counter;
+        });
+        state[0] = 0;
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        happyPath.iterate(counter -> counter[0] < MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD, counter -> {
+            counter[0]++;
+            return counter;
+        });
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(state[0]).isEqualTo(MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+        assertThat(allocated).describedAs("bytes allocated by the JVM itself, e.g. when compiling, but not per step").isLessThan(MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+    }
+
+    @Test
+    public void iterateTurnsAnExceptionInTheStepIntoATechnicalFailure() {
+        HappyPath<Integer, String> result = HappyPath.<Integer, String>happyPath(0).iterate(count -> true, count -> {
+            if (count == 5) {
+                throw technicalFailure;
+            }
+            return count + 1;
+        });
+
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void loopWhileChecksTheConditionBeforeEachIteration() {
+        assertThat(HappyPath.<Integer, String>happyPath(0).loopWhile(count -> count < MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD, count -> HappyPath.happyPath(count + 1)).get())
+                .isEqualTo(MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+        assertThat(HappyPath.<Integer, String>happyPath(10).loopWhile(count -> count < 10, count -> HappyPath.happyPath(count + 1)).get())
+                .isEqualTo(10);
+    }
+
+    @Test
+    public void repeatUntilChecksTheConditionAfterEachIteration() {
+        assertThat(HappyPath.<Integer, String>happyPath(0).repeatUntil(count -> HappyPath.happyPath(count + 1), count -> count >= MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD).get())
+                .isEqualTo(MORE_ITERATIONS_THAN_THE_STACK_CAN_HOLD);
+        assertThat(HappyPath.<Integer, String>happyPath(10).repeatUntil(count -> HappyPath.happyPath(count + 1), count -> count >= 10).get())
+                .isEqualTo(11);
+    }
+
+    @Test
+    public void loopsStopAtTheFirstSadOrTechnicalFailure() {
+        assertThat(HappyPath.<Integer, String>happyPath(0).loopWhile(count -> true, count -> count == 3 ? HappyPath.sadPath("three") : HappyPath.happyPath(count + 1)).getSad())
+                .isEqualTo("three");
+        assertThat(HappyPath.<Integer, String>happyPath(0).repeatUntil(count -> count == 3 ? HappyPath.technicalFailure(technicalFailure) : HappyPath.happyPath(count + 1), count -> false).getTechnicalFailure())
+                .isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void sadAndTechnicalFailuresDoNotLoop() {
+        assertThat(HappyPath.<Integer, String>sadPath("sad").iterate(count -> true, count -> count + 1).getSad()).isEqualTo("sad");
+        assertThat(HappyPath.<Integer, String>sadPath("sad").loopWhile(count -> true, HappyPath::happyPath).getSad()).isEqualTo("sad");
+        assertThat(HappyPath.<Integer, String>sadPath("sad").repeatUntil(HappyPath::happyPath, count -> true).getSad()).isEqualTo("sad");
+        assertThat(HappyPath.<Integer, String>technicalFailure(technicalFailure).thenTrampolined(count -> land(HappyPath.happyPath("done"))).getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class IntHappyPathTest implements WithAssertions {
+
+    private class Sad {
+
+    }
+
+    private final Sad sad = new Sad();
+    private final Exception technicalFailure = new Exception();
+
+    @Test
+    public void mapsTheHappyValue() {
+        IntHappyPath<Sad> result = IntHappyPath.<Sad>happyPath(20).map(price -> price * 2).map(price -> price + 1);
+
+        assertThat(result.getAsInt()).isEqualTo(41);
+    }
+
+    @Test
+    public void aMappingThatThrowsIsATechnicalFailure() {
+        IntHappyPath<Sad> result = IntHappyPath.<Sad>happyPath(20).map(price -> {
+            throw technicalFailure;
+        });
+
+        assertThat(result.getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void thenChainsToAnotherIntHappyPath() {
+        IntHappyPath<Sad> happy = IntHappyPath.<Sad>happyPath(20).then(price -> IntHappyPath.happyPath(price - 5));
+        IntHappyPath<Sad> sadResult = IntHappyPath.<Sad>happyPath(20).then(price -> IntHappyPath.sadPath(sad));
+
+        assertThat(happy.getAsInt()).isEqualTo(15);
+        assertThat(sadResult.getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void attemptCanTurnTheHappyPathSad() {
+        IntHappyPath<Sad> passed = IntHappyPath.<Sad>happyPath(20).attempt(price -> PotentialFailure.success());
+        IntHappyPath<Sad> failed = IntHappyPath.<Sad>happyPath(-1).attempt(price -> PotentialFailure.failure(sad));
+
+        assertThat(passed.getAsInt()).isEqualTo(20);
+        assertThat(failed.getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void peekLooksAtTheHappyValue() {
+        AtomicInteger peeked = new AtomicInteger();
+
+        IntHappyPath.<Sad>happyPath(20).peek(peeked::set);
+
+        assertThat(peeked.get()).isEqualTo(20);
+    }
+
+    @Test
+    public void mapsFromAndToAHappyPath() {
+        HappyPath<String, Sad> result = HappyPath.<String, Sad>happyPath("12").mapToInt(Integer::parseInt).map(price -> price * 2).mapToObj(Integer::toString);
+
+        assertThat(result.get()).isEqualTo("24");
+    }
+
+    @Test
+    public void sadAndTechnicalFailureAreCarriedThroughMapToInt() {
+        assertThat(HappyPath.<String, Sad>sadPath(sad).mapToInt(Integer::parseInt).getSad()).isSameAs(sad);
+        assertThat(HappyPath.<String, Sad>technicalFailure(technicalFailure).mapToInt(Integer::parseInt).getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(HappyPath.<String, Sad>happyPath("not a number").mapToInt(Integer::parseInt).getTechnicalFailure()).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    public void sadPathIgnoresHappyOperations() {
+        IntHappyPath<Sad> result = IntHappyPath.<Sad>sadPath(sad)
+                .map(price -> price * 2)
+                .then(price -> IntHappyPath.happyPath(1))
+                .attempt(price -> PotentialFailure.success())
+                .peek(price -> {
+                    throw technicalFailure;
+                });
+
+        assertThat(result.isSad()).isTrue();
+        assertThat(result.mapToObj(Integer::toString).getSad()).isSameAs(sad);
+        assertThat(result.boxed().getSad()).isSameAs(sad);
+    }
+
+    @Test
+    public void technicalFailureIgnoresHappyOperations() {
+        IntHappyPath<Sad> result = IntHappyPath.<Sad>technicalFailure(technicalFailure)
+                .map(price -> price * 2)
+                .then(price -> IntHappyPath.happyPath(1))
+                .attempt(price -> PotentialFailure.failure(sad))
+                .peek(price -> {
+                    throw new IllegalStateException();
+                });
+
+        assertThat(result.isTechnicalFailure()).isTrue();
+        assertThat(result.mapToObj(Integer::toString).getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(result.boxed().getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void joinsToAnInt() {
+        assertThat(IntHappyPath.<Sad>happyPath(20).joinToInt(price -> price, sad -> -1, technicalFailure -> -2)).isEqualTo(20);
+        assertThat(IntHappyPath.<Sad>sadPath(sad).joinToInt(price -> price, sad -> -1, technicalFailure -> -2)).isEqualTo(-1);
+        assertThat(IntHappyPath.<Sad>technicalFailure(technicalFailure).joinToInt(price -> price, sad -> -1, technicalFailure -> -2)).isEqualTo(-2);
+        assertThat(IntHappyPath.<Sad>happyPath(20).joinToInt(price -> {
+            throw technicalFailure;
+        }, sad -> -1, technicalFailure -> -2)).isEqualTo(-2);
+    }
+
+    @Test
+    public void joinsToAnObject() {
+        assertThat(IntHappyPath.<Sad>happyPath(20).<String>join(Integer::toString, sad -> "sad", technicalFailure -> "failure")).isEqualTo("20");
+        assertThat(IntHappyPath.<Sad>sadPath(sad).<String>join(Integer::toString, sad -> "sad", technicalFailure -> "failure")).isEqualTo("sad");
+        assertThat(IntHappyPath.<Sad>technicalFailure(technicalFailure).<String>join(Integer::toString, sad -> "sad", technicalFailure -> "failure")).isEqualTo("failure");
+    }
+
+    @Test
+    public void consumesTheUnderlyingCase() {
+        AtomicReference<Object> consumed = new AtomicReference<>();
+
+        IntHappyPath.<Sad>happyPath(20).consume(consumed::set, consumed::set, consumed::set);
+        assertThat(consumed.get()).isEqualTo(20);
+        IntHappyPath.<Sad>sadPath(sad).consume(consumed::set, consumed::set, consumed::set);
+        assertThat(consumed.get()).isSameAs(sad);
+        IntHappyPath.<Sad>technicalFailure(technicalFailure).consume(consumed::set, consumed::set, consumed::set);
+        assertThat(consumed.get()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void widensToLongAndDouble() {
+        assertThat(IntHappyPath.<Sad>happyPath(Integer.MAX_VALUE).asLongHappyPath().map(price -> price + 1).getAsLong()).isEqualTo(Integer.MAX_VALUE + 1L);
+        assertThat(IntHappyPath.<Sad>happyPath(3).asDoubleHappyPath().map(price -> price / 2).getAsDouble()).isEqualTo(1.5);
+        assertThat(IntHappyPath.<Sad>sadPath(sad).asLongHappyPath().getSad()).isSameAs(sad);
+        assertThat(IntHappyPath.<Sad>technicalFailure(technicalFailure).asDoubleHappyPath().getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void gettingWhatIsNotPresentIsAnError() {
+        assertThatThrownBy(() -> IntHappyPath.<Sad>sadPath(sad).getAsInt())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Not present. This is: 'Sad: ");
+        assertThatThrownBy(() -> IntHappyPath.<Sad>happyPath(20).getSad())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Not present. This is: 'Happy: 20'.");
+        assertThatThrownBy(() -> IntHappyPath.<Sad>happyPath(20).getTechnicalFailure()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void stagesAreReportedToListeners() {
+        AtomicReference<Object> reported = new AtomicReference<>();
+        FlowListener listener = new FlowListener() {
+            @Override
+            public void stageEntered(StageLabel label) {
+            }
+
+            @Override
+            public void stageExited(StageLabel label, FlowOutcome outcome, Object result, long durationNanos) {
+                reported.set(label + " " + outcome + " " + result);
+            }
+        };
+        FlowListeners.register(listener);
+        try {
+            IntHappyPath.<Sad>happyPath(20).map(price -> price - 5);
+        } finally {
+            FlowListeners.unregister(listener);
+        }
+
+        assertThat(reported.get()).isEqualTo(IntHappyPathTest.class.getName() + "/map HAPPY 15");
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+public class LatencyHistogramTest implements WithAssertions {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void reportsZeroWhenNothingHasBeenRecorded() {
+        assertThat(histogram.valueAtQuantile(0.99)).isZero();
+    }
+
+    @Test
+    public void smallValuesAreRecordedExactly() {
+        for (long value = 0; value < 16; value++) {
+            assertThat(LatencyHistogram.highestValueIn(LatencyHistogram.bucket(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void largeValuesAreRecordedToWithinASixteenth() {
+        for (long value = 16; value > 0 && value < Long.MAX_VALUE / 2; value = value * 3 + 1) {
+            long reported = LatencyHistogram.highestValueIn(LatencyHistogram.bucket(value));
+            assertThat(reported).isGreaterThanOrEqualTo(value);
+            assertThat(reported - value).isLessThanOrEqualTo(value / 16);
+        }
+    }
+
+    @Test
+    public void theLargestValueFitsInTheLastBucket() {
+        assertThat(LatencyHistogram.highestValueIn(LatencyHistogram.bucket(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void reportsTheValueAtAQuantile() {
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000L);
+        }
+
+        assertThat(histogram.valueAtQuantile(0.5)).isBetween(500_000L, 500_000L + 500_000L / 16);
+        assertThat(histogram.valueAtQuantile(0.99)).isBetween(990_000L, 990_000L + 990_000L / 16);
+        assertThat(histogram.valueAtQuantile(0.999)).isBetween(999_000L, 999_000L + 999_000L / 16);
+    }
+
+    @Test
+    public void resetForgetsRecordedValues() {
+        histogram.record(1000);
+
+        histogram.reset();
+
+        assertThat(histogram.valueAtQuantile(1)).isZero();
+    }
+}
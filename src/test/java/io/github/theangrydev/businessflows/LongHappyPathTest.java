@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LongHappyPathTest implements WithAssertions {
+
+    private class Sad {
+
+    }
+
+    private final Sad sad = new Sad();
+    private final Exception technicalFailure = new Exception();
+
+    @Test
+    public void mapsTheHappyValueWithoutBoxing() {
+        AtomicLong peeked = new AtomicLong();
+
+        long total = HappyPath.<String, Sad>happyPath("1000")
+                .mapToLong(Long::parseLong)
+                .map(cents -> cents * 3)
+                .then(cents -> LongHappyPath.happyPath(cents + 1))
+                .attempt(cents -> PotentialFailure.success())
+                .peek(peeked::set)
+                .joinToLong(cents -> cents, sad -> -1, technicalFailure -> -2);
+
+        assertThat(total).isEqualTo(3001);
+        assertThat(peeked.get()).isEqualTo(3001);
+    }
+
+    @Test
+    public void sadAndTechnicalFailureAreCarriedThrough() {
+        assertThat(LongHappyPath.<Sad>happyPath(1).attempt(cents -> PotentialFailure.failure(sad)).map(cents -> cents + 1).getSad()).isSameAs(sad);
+        assertThat(LongHappyPath.<Sad>happyPath(1).map(cents -> {
+            throw technicalFailure;
+        }).asDoubleHappyPath().getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(LongHappyPath.<Sad>sadPath(sad).joinToLong(cents -> cents, sad -> -1, technicalFailure -> -2)).isEqualTo(-1);
+        assertThat(LongHappyPath.<Sad>technicalFailure(technicalFailure).<String>join(cents -> "" + cents, sad -> "sad", technicalFailure -> "failure")).isEqualTo("failure");
+    }
+
+    @Test
+    public void boxesAndWidensTheHappyValue() {
+        assertThat(LongHappyPath.<Sad>happyPath(3).boxed().get()).isEqualTo(3L);
+        assertThat(LongHappyPath.<Sad>happyPath(3).asDoubleHappyPath().getAsDouble()).isEqualTo(3.0);
+        assertThat(LongHappyPath.<Sad>happyPath(3).mapToObj(Long::toString).get()).isEqualTo("3");
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.Condition;
+import org.assertj.core.api.WithAssertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static io.github.theangrydev.businessflows.FlowCodec.flowCodec;
+import static io.github.theangrydev.businessflows.OutcomeJournal.outcomeJournal;
+import static io.github.theangrydev.businessflows.OutcomeJournal.replay;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+
+public class OutcomeJournalTest implements WithAssertions {
+
+    private final FlowCodec<Long, String> codec = flowCodec(ValueCodec.longs(), ValueCodec.strings());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replaysTheOutcomesThatWereConsumedInOrder() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        long before = System.currentTimeMillis();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, codec)) {
+            HappyPath.<Long, String>happyPath(42L).consume(journal::appendHappy, journal::appendSad, journal::appendTechnicalFailure);
+            HappyPath.<Long, String>sadPath("out of stock").consume(journal::appendHappy, journal::appendSad, journal::appendTechnicalFailure);
+            HappyPath.<Long, String>technicalFailure(new IOException("disk full")).consume(journal::appendHappy, journal::appendSad, journal::appendTechnicalFailure);
+        }
+
+        List<JournalEntry<Long, String>> entries = entries(directory);
+
+        assertThat(entries).extracting(entry -> entry.flow().toString())
+                .containsExactly("Happy: 42", "Sad: out of stock", "Technical Failure: java.io.IOException: disk full" + System.lineSeparator());
+        assertThat(entries).extracting(JournalEntry::timestampMillis).are(new Condition<>(timestamp -> timestamp >= before && timestamp <= System.currentTimeMillis(), "appended during the test"));
+    }
+
+    @Test
+    public void canBeFedFromPeek() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, codec)) {
+            HappyPath.<Long, String>happyPath(1L).peek(journal::appendHappy).map(count -> count + 1).peek(journal::appendHappy);
+        }
+
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void rollsOnToANewSegmentWhenTheCurrentOneIsFull() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 64, codec)) {
+            for (long outcome = 0; outcome < 100; outcome++) {
+                journal.appendHappy(outcome);
+            }
+        }
+
+        assertThat(segmentFiles(directory).size()).isGreaterThan(20);
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsExactlyElementsOf(range(100));
+    }
+
+    @Test
+    public void appendsToANewSegmentAfterTheExistingOnesWhenReopened() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, codec)) {
+            journal.appendHappy(1L);
+        }
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, codec)) {
+            journal.appendHappy(2L);
+        }
+
+        assertThat(segmentFiles(directory)).containsExactly("0000000000000000.journal", "0000000000000001.journal");
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void concurrentWritersDoNotLoseOrCorruptOutcomes() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        int writers = 4;
+        int outcomesPerWriter = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 8192, codec)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                long first = (long) writer * outcomesPerWriter;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long outcome = first; outcome < first + outcomesPerWriter; outcome++) {
+                        journal.appendHappy(outcome);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsOnlyElementsOf(range(writers * outcomesPerWriter)).hasSize(writers * outcomesPerWriter);
+    }
+
+    @Test
+    public void appendingDoesNotAllocate() throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int appends = 10_000;
+        Long outcome = 100L;
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(temporaryFolder.getRoot().toPath(), appends * 32, codec)) {
+            for (int append = 0; append < appends; append++) {
+                journal.appendHappy(outcome);
+            }
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int append = 0; append < appends; append++) {
+                journal.appendHappy(outcome);
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            assertThat(allocated).describedAs("bytes allocated by the JVM itself, e.g. when compiling, but not per append").isLessThan(appends);
+        }
+    }
+
+    @Test
+    public void replaysTheCommittedRecordsAfterAGapLeftByAWriterThatStoppedBeforeWritingItsHeader() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, codec)) {
+            journal.appendHappy(1L);
+            journal.appendSad("never committed");
+            journal.appendHappy(3L);
+        }
+        int gapStart = JournalSegment.recordLength(codec.encodedLength(HappyPath.happyPath(1L)));
+        int gapLength = JournalSegment.recordLength(codec.encodedLength(HappyPath.sadPath("never committed")));
+        try (FileChannel channel = FileChannel.open(directory.resolve(JournalSegment.fileName(0)), READ, WRITE)) {
+            channel.write(ByteBuffer.allocate(gapLength), gapStart);
+        }
+
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void flushingForcesTheSegmentsThatWereRolledOnFromUntilTheirWritersHaveCommitted() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 64, codec)) {
+            for (long outcome = 0; outcome < 20; outcome++) {
+                journal.appendHappy(outcome);
+            }
+            assertThat(journal.unforcedSegments()).isGreaterThan(0);
+
+            journal.flush();
+
+            assertThat(journal.unforcedSegments()).isZero();
+        }
+    }
+
+    @Test
+    public void aRecordThatTheCodecFailsToWriteIsSkippedAndTheSegmentIsStillRetired() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        FlowCodec<Long, String> failingCodec = flowCodec(ValueCodec.longs(), new ValueCodec<String>() {
+            @Override
+            public int encodedLength(String value) {
+                return ValueCodec.strings().encodedLength(value);
+            }
+
+            @Override
+            public void encode(String value, ByteBuffer buffer) {
+                throw new IllegalStateException("cannot encode " + value);
+            }
+
+            @Override
+            public String decode(ByteBuffer payload) {
+                return ValueCodec.strings().decode(payload);
+            }
+        });
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(directory, 64, failingCodec)) {
+            journal.appendHappy(1L);
+            assertThatThrownBy(() -> journal.appendSad("out of stock")).hasMessage("cannot encode out of stock");
+            for (long outcome = 2; outcome < 20; outcome++) {
+                journal.appendHappy(outcome);
+            }
+
+            journal.flush();
+
+            assertThat(journal.unforcedSegments()).isZero();
+        }
+
+        assertThat(entries(directory)).extracting(entry -> entry.flow().get()).containsExactlyElementsOf(range(20).subList(1, 20));
+    }
+
+    @Test
+    public void closingWaitsForTheAppendsInProgress() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        CountDownLatch encoding = new CountDownLatch(1);
+        CountDownLatch finishEncoding = new CountDownLatch(1);
+        OutcomeJournal<Long, String> journal = outcomeJournal(directory, 4096, flowCodec(ValueCodec.longs(), new ValueCodec<String>() {
+            @Override
+            public int encodedLength(String value) {
+                return ValueCodec.strings().encodedLength(value);
+            }
+
+            @Override
+            public void encode(String value, ByteBuffer buffer) {
+                encoding.countDown();
+                try {
+                    finishEncoding.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                ValueCodec.strings().encode(value, buffer);
+            }
+
+            @Override
+            public String decode(ByteBuffer payload) {
+                return ValueCodec.strings().decode(payload);
+            }
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> append = executor.submit(() -> journal.appendSad("out of stock"));
+            encoding.await();
+            Future<?> close = executor.submit(journal::close);
+            Thread.sleep(50);
+            assertThat(close.isDone()).isFalse();
+
+            finishEncoding.countDown();
+            append.get();
+            close.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(entries(directory)).extracting(entry -> entry.flow().getSad()).containsExactly("out of stock");
+    }
+
+    @Test
+    public void rejectsAppendsAfterItIsClosed() throws IOException {
+        OutcomeJournal<Long, String> journal = outcomeJournal(temporaryFolder.getRoot().toPath(), 4096, codec);
+        journal.close();
+
+        assertThatThrownBy(() -> journal.appendHappy(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The journal has been closed");
+    }
+
+    @Test
+    public void rejectsARecordThatDoesNotFitInASegment() throws IOException {
+        try (OutcomeJournal<Long, String> journal = outcomeJournal(temporaryFolder.getRoot().toPath(), 32, codec)) {
+            assertThatThrownBy(() -> journal.appendSad("this sad reason is too long to fit"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("A record of 48 bytes does not fit in a segment of 32 bytes");
+        }
+    }
+
+    private List<JournalEntry<Long, String>> entries(Path directory) throws IOException {
+        List<JournalEntry<Long, String>> entries = new ArrayList<>();
+        for (Iterator<JournalEntry<Long, String>> replay = replay(directory, codec); replay.hasNext(); ) {
+            entries.add(replay.next());
+        }
+        return entries;
+    }
+
+    private static List<String> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(toList());
+        }
+    }
+
+    private static List<Long> range(long count) {
+        List<Long> range = new ArrayList<>();
+        for (long value = 0; value < count; value++) {
+            range.add(value);
+        }
+        return range;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static io.github.theangrydev.businessflows.Retry.retryOn;
+
+public class RetryTest implements WithAssertions {
+
+    private class Happy {
+
+    }
+
+    private class Sad {
+
+    }
+
+    private final List<Long> delays = new ArrayList<>();
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final Retry retry = new Retry(4, Duration.ofMillis(100), Duration.ofMillis(300), 0.1, retryOn(IOException.class), this::schedule, () -> 1.0);
+
+    @Test
+    public void successOnTheFirstAttemptCompletesImmediately() {
+        CompletableFuture<HappyPath<Happy, Sad>> result = retry.<Happy, Sad>happyAttempt(this::happy).toCompletableFuture();
+
+        assertThat(result.join().isHappy()).isTrue();
+        assertThat(scheduled).isEmpty();
+    }
+
+    @Test
+    public void retriesOnTheTimerWithoutBlockingTheCaller() {
+        Happy happy = new Happy();
+        CompletableFuture<HappyPath<Happy, Sad>> result = retry.<Happy, Sad>happyAttempt(failTimesThen(2, happy)).toCompletableFuture();
+
+        assertThat(result).isNotDone();
+        runScheduled();
+        assertThat(result).isNotDone();
+        runScheduled();
+
+        assertThat(result.join().get()).isSameAs(happy);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(retry.retries()).isEqualTo(2);
+    }
+
+    @Test
+    public void backoffGrowsExponentiallyUpToTheMaximum() {
+        retry.happyAttempt(failTimesThen(10, new Happy()));
+        runAllScheduled();
+
+        assertThat(delays).containsExactly(
+                TimeUnit.MILLISECONDS.toNanos(100),
+                TimeUnit.MILLISECONDS.toNanos(200),
+                TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    public void backoffIsJittered() {
+        Retry jittered = new Retry(2, Duration.ofMillis(100), Duration.ofMillis(300), 0.1, retryOn(IOException.class), this::schedule, () -> 0.25);
+
+        jittered.happyAttempt(failTimesThen(1, new Happy()));
+
+        assertThat(delays).containsExactly(TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @Test
+    public void givesUpAfterTheMaximumAttemptsWithTheLastTechnicalFailure() {
+        CompletableFuture<HappyPath<Happy, Sad>> result = retry.<Happy, Sad>happyAttempt(failTimesThen(10, new Happy())).toCompletableFuture();
+        runAllScheduled();
+
+        assertThat(result.join().getTechnicalFailure()).isInstanceOf(IOException.class).hasMessage("failure 4");
+        assertThat(attempts.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void doesNotRetryTechnicalFailuresThatAreNotRetryable() {
+        IllegalStateException notRetryable = new IllegalStateException();
+        CompletableFuture<HappyPath<Happy, Sad>> result = retry.<Happy, Sad>happyAttempt(() -> {
+            throw notRetryable;
+        }).toCompletableFuture();
+
+        assertThat(result.join().getTechnicalFailure()).isSameAs(notRetryable);
+        assertThat(scheduled).isEmpty();
+    }
+
+    @Test
+    public void doesNotRetrySadResults() {
+        Sad sad = new Sad();
+        CompletableFuture<HappyPath<Happy, Sad>> result = retry.<Happy, Sad>happyPathAttempt(() -> {
+            attempts.incrementAndGet();
+            return HappyPath.sadPath(sad);
+        }).toCompletableFuture();
+
+        assertThat(result.join().getSad()).isSameAs(sad);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryBudgetLimitsRetriesToAShareOfOriginalCalls() {
+        Retry budgeted = new Retry(2, Duration.ofMillis(1), Duration.ofMillis(1), 0.5, retryOn(IOException.class), this::schedule, () -> 1.0);
+
+        for (int call = 0; call < 30; call++) {
+            budgeted.happyAttempt(this::ioFailure);
+            runAllScheduled();
+        }
+
+        assertThat(budgeted.retries()).isEqualTo(25);
+        assertThat(budgeted.retriesDeniedByBudget()).isEqualTo(5);
+    }
+
+    @Test
+    public void retryingATechnicalFailureDoesNotAddToTheBudget() {
+        Retry budgeted = new Retry(2, Duration.ofMillis(1), Duration.ofMillis(1), 0.5, retryOn(IOException.class), this::schedule, () -> 1.0);
+
+        for (int call = 0; call < 30; call++) {
+            TechnicalFailure.<Happy, Sad>technicalFailure(new IOException()).retry(budgeted, this::ioFailure);
+            runAllScheduled();
+        }
+
+        assertThat(budgeted.retries()).isEqualTo(10);
+        assertThat(budgeted.retriesDeniedByBudget()).isEqualTo(20);
+    }
+
+    @Test
+    public void aRetryablePredicateThatThrowsCompletesWithATechnicalFailure() {
+        IllegalStateException broken = new IllegalStateException("broken predicate");
+        Retry throwing = new Retry(4, Duration.ofMillis(1), Duration.ofMillis(1), 0.1, technicalFailure -> {
+            if (attempts.get() > 1) {
+                throw broken;
+            }
+            return true;
+        }, this::schedule, () -> 1.0);
+
+        CompletableFuture<HappyPath<Happy, Sad>> result = throwing.<Happy, Sad>happyAttempt(failTimesThen(4, new Happy())).toCompletableFuture();
+        runAllScheduled();
+
+        assertThat(result.join().getTechnicalFailure()).isSameAs(broken);
+    }
+
+    @Test
+    public void anExecutorThatRejectsTheRetryCompletesWithATechnicalFailure() {
+        RejectedExecutionException rejected = new RejectedExecutionException("shut down");
+        Retry rejecting = Retry.retry(3, Duration.ofMillis(1), Duration.ofMillis(1), 0.1, retryOn(IOException.class), task -> {
+            throw rejected;
+        });
+
+        HappyPath<Happy, Sad> result = rejecting.<Happy, Sad>happyAttempt(this::ioFailure).toCompletableFuture().join();
+
+        assertThat(result.getTechnicalFailure()).isSameAs(rejected);
+    }
+
+    @Test
+    public void aDelayThatCannotScheduleTheRetryCompletesWithATechnicalFailure() {
+        RejectedExecutionException rejected = new RejectedExecutionException("timer shut down");
+        Retry unschedulable = new Retry(3, Duration.ofMillis(1), Duration.ofMillis(1), 0.1, retryOn(IOException.class), (delayNanos, task, couldNotRun) -> {
+            throw rejected;
+        }, () -> 1.0);
+
+        HappyPath<Happy, Sad> result = unschedulable.<Happy, Sad>happyAttempt(this::ioFailure).toCompletableFuture().join();
+
+        assertThat(result.getTechnicalFailure()).isSameAs(rejected);
+    }
+
+    @Test
+    public void technicalFailureCanBeRetried() {
+        Happy happy = new Happy();
+
+        CompletableFuture<HappyPath<Happy, Sad>> result = TechnicalFailure.<Happy, Sad>technicalFailure(new IOException())
+                .retry(retry, () -> happy)
+                .toCompletableFuture();
+        runScheduled();
+
+        assertThat(result.join().get()).isSameAs(happy);
+        assertThat(delays).containsExactly(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void retriesRunOnTheSharedTimerByDefault() {
+        Retry realRetry = Retry.retry(3, Duration.ofMillis(1), Duration.ofMillis(5), 0.1, retryOn(IOException.class));
+        Happy happy = new Happy();
+
+        HappyPath<Happy, Sad> result = realRetry.<Happy, Sad>happyAttempt(failTimesThen(2, happy)).toCompletableFuture().join();
+
+        assertThat(result.get()).isSameAs(happy);
+    }
+
+    @Test
+    public void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> Retry.retry(0, Duration.ZERO, Duration.ZERO, 0.1, retryOn(IOException.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Retry.retry(1, Duration.ZERO, Duration.ZERO, 1.1, retryOn(IOException.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Attempt<Happy> failTimesThen(int failures, Happy happy) {
+        return () -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt <= failures) {
+                throw new IOException("failure " + attempt);
+            }
+            return happy;
+        };
+    }
+
+    private Happy ioFailure() throws IOException {
+        throw new IOException();
+    }
+
+    private Happy happy() {
+        attempts.incrementAndGet();
+        return new Happy();
+    }
+
+    private void schedule(long delayNanos, Runnable task, Consumer<RuntimeException> couldNotRun) {
+        delays.add(delayNanos);
+        scheduled.add(task);
+    }
+
+    private void runScheduled() {
+        scheduled.remove(0).run();
+    }
+
+    private void runAllScheduled() {
+        while (!scheduled.isEmpty()) {
+            runScheduled();
+        }
+    }
+}
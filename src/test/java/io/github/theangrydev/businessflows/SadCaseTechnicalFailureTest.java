@@ -101,4 +101,12 @@ public class SadCaseTechnicalFailureTest {
     public void peekReturnsThis() {
         assertThat(sadCaseTechnicalFailure.peek(null)).isSameAs(sadCaseTechnicalFailure);
     }
+
+    @Test
+    public void retryReturnsSadCaseWithoutRetrying() {
+        HappyPath<Object, Sad> happyPath = sadCaseTechnicalFailure.retry(null, null).toCompletableFuture().join();
+
+        assertThat(happyPath).isInstanceOf(SadCaseHappyPath.class);
+        assertThat(happyPath.getSad()).isSameAs(sad);
+    }
 }
\ No newline at end of file
@@ -31,6 +31,23 @@ public class SadCaseValidationPathTest {
         assertThat(sadCaseValidationPath.validateAll(null)).isSameAs(sadCaseValidationPath);
     }
 
+    @Test
+    public void validateAsyncCompletesWithThis() {
+        assertThat(sadCaseValidationPath.validateAllAsync(null, null).toCompletableFuture().getNow(null)).isSameAs(sadCaseValidationPath);
+        assertThat(sadCaseValidationPath.validateAllAsync(null, null, null).toCompletableFuture().getNow(null)).isSameAs(sadCaseValidationPath);
+    }
+
+    @Test
+    public void validateEachReturnsThis() {
+        assertThat(sadCaseValidationPath.validateEach(null)).isSameAs(sadCaseValidationPath);
+    }
+
+    @Test
+    public void validateGraphReturnsThis() {
+        assertThat(sadCaseValidationPath.validateGraph(null)).isSameAs(sadCaseValidationPath);
+        assertThat(sadCaseValidationPath.validateGraph(null, null)).isSameAs(sadCaseValidationPath);
+    }
+
     @Test
     public void isASadCaseHappyPath() {
         assertThat(sadCaseValidationPath).isInstanceOf(SadCaseHappyPath.class);
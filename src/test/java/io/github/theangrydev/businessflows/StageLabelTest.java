@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.Test;
+
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+
+public class StageLabelTest implements WithAssertions {
+
+    @Test
+    public void labelsWithTheSameFlowAndStageAreEqual() {
+        assertThat(stageLabel("checkout", "price")).isEqualTo(stageLabel("checkout", "price"));
+        assertThat(stageLabel("checkout", "price").hashCode()).isEqualTo(stageLabel("checkout", "price").hashCode());
+        assertThat(stageLabel("checkout", "price")).isNotEqualTo(stageLabel("checkout", "pay"));
+        assertThat(stageLabel("checkout", "price")).isNotEqualTo(stageLabel("refund", "price"));
+    }
+
+    @Test
+    public void toStringIncludesTheFlowAndStage() {
+        assertThat(stageLabel("checkout", "price")).hasToString("checkout/price");
+    }
+
+    @Test
+    public void flowAndStageMustBeGiven() {
+        assertThatThrownBy(() -> stageLabel(null, "price"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The flow and stage must be given but were 'null' and 'price'");
+    }
+}
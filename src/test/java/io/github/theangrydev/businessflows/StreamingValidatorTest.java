@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static io.github.theangrydev.businessflows.StreamingValidator.streamingValidator;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+public class StreamingValidatorTest implements WithAssertions {
+
+    private static final Validator<Integer, String> NOT_NEGATIVE = line -> line < 0 ? PotentialFailure.failure("negative " + line) : PotentialFailure.success();
+    private static final Validator<Integer, String> EVEN = line -> line % 2 != 0 ? PotentialFailure.failure("odd " + line) : PotentialFailure.success();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<String> sunk = new ArrayList<>();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void sendsEachFailureToTheSinkInTheOrderOfTheRecords() throws Exception {
+        StreamingValidationReport<String> report = lines()
+                .sink((recordNumber, line, failure) -> sunk.add(recordNumber + ": " + failure))
+                .validate(asList(2, -1, 4, 3).iterator());
+
+        assertThat(sunk).containsExactly("1: negative -1", "1: odd -1", "3: odd 3");
+        assertThat(report.records()).isEqualTo(4);
+        assertThat(report.failedRecords()).isEqualTo(2);
+        assertThat(report.failures()).isEqualTo(3);
+    }
+
+    @Test
+    public void countsTheFailuresByTypeAndKeepsTheFirstFewOfEachType() throws Exception {
+        StreamingValidationReport<String> report = lines().examplesPerType(2).validate(IntStream.range(-5, 5).boxed().spliterator());
+
+        assertThat(report.failureTypes()).containsExactly("negative", "odd");
+        assertThat(report.failures("negative")).isEqualTo(5);
+        assertThat(report.examples("negative")).containsExactly("negative -5", "negative -4");
+        assertThat(report.failures("odd")).isEqualTo(5);
+        assertThat(report.examples("odd")).containsExactly("odd -5", "odd -3");
+        assertThat(report.failures("unknown")).isZero();
+        assertThat(report.examples("unknown")).isEmpty();
+    }
+
+    @Test
+    public void theFailureTypeIsTheClassOfTheFailureByDefault() throws Exception {
+        StreamingValidationReport<String> report = streamingValidator(asList(NOT_NEGATIVE, EVEN)).validate(asList(-1, 1).iterator());
+
+        assertThat(report.failureTypes()).containsExactly(String.class);
+        assertThat(report.failures(String.class)).isEqualTo(3);
+    }
+
+    @Test
+    public void keepsOnlyTheCountsAndExamplesForAHugeInput() throws Exception {
+        long[] sinkCalls = new long[1];
+
+        StreamingValidationReport<String> report = lines()
+                .sink((recordNumber, line, failure) -> sinkCalls[0]++)
+                .validate(IntStream.range(0, 2_000_000).boxed().iterator());
+
+        assertThat(report.records()).isEqualTo(2_000_000);
+        assertThat(report.failures("odd")).isEqualTo(1_000_000).isEqualTo(sinkCalls[0]);
+        assertThat(report.examples("odd")).hasSize(10);
+    }
+
+    @Test
+    public void theParallelValidationReportsTheSameFailuresInTheSameOrder() throws Exception {
+        List<String> sequentialSink = new ArrayList<>();
+        StreamingValidationReport<String> sequential = lines()
+                .sink((recordNumber, line, failure) -> sequentialSink.add(recordNumber + ": " + failure))
+                .validate(IntStream.range(-5_000, 5_000).boxed().iterator());
+
+        StreamingValidationReport<String> parallel = lines()
+                .sink((recordNumber, line, failure) -> sunk.add(recordNumber + ": " + failure))
+                .parallel(100, 8, executor)
+                .validate(IntStream.range(-5_000, 5_000).boxed().iterator());
+
+        assertThat(sunk).isEqualTo(sequentialSink);
+        assertThat(parallel.toString()).isEqualTo(sequential.toString());
+    }
+
+    @Test
+    public void theParallelValidationOnlyReadsAheadByTheChunksInFlight() throws Exception {
+        int[] read = new int[1];
+        Iterator<Integer> records = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return read[0] < 10_000;
+            }
+
+            @Override
+            public Integer next() {
+                return read[0]++;
+            }
+        };
+
+        lines()
+                .sink((recordNumber, line, failure) -> assertThat(read[0] - recordNumber).isLessThanOrEqualTo(2 * 10))
+                .parallel(10, 2, executor)
+                .validate(records);
+    }
+
+    @Test
+    public void aTechnicalFailureStopsTheValidationAfterTheFailuresBeforeIt() {
+        IOException technicalFailure = new IOException("lookup is down");
+        Validator<Integer, String> lookup = line -> {
+            if (line == 0) {
+                throw technicalFailure;
+            }
+            return PotentialFailure.success();
+        };
+        StreamingValidator<Integer, String> validator = StreamingValidator.<Integer, String>streamingValidator(asList(NOT_NEGATIVE, lookup))
+                .sink((recordNumber, line, failure) -> sunk.add(failure));
+
+        assertThatThrownBy(() -> validator.validate(asList(-1, 0, -2).iterator())).isSameAs(technicalFailure);
+        assertThat(sunk).containsExactly("negative -1");
+        sunk.clear();
+        assertThatThrownBy(() -> validator.parallel(1, 3, executor).validate(asList(-1, 0, -2).iterator())).isSameAs(technicalFailure);
+        assertThat(sunk).containsExactly("negative -1");
+    }
+
+    @Test
+    public void aValidatorThatReturnsNullIsATechnicalFailure() {
+        StreamingValidator<Integer, String> validator = StreamingValidator.<Integer, String>streamingValidator(singletonList(line -> null));
+
+        assertThatThrownBy(() -> validator.validate(asList(1, 2).iterator())).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> validator.parallel(1, 2, executor).validate(asList(1, 2).iterator())).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void aTechnicalFailureFromTheSinkStopsTheValidation() {
+        IOException technicalFailure = new IOException("disk is full");
+
+        assertThatThrownBy(() -> lines().sink((recordNumber, line, failure) -> {
+            throw technicalFailure;
+        }).validate(asList(1, 2).iterator())).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void theNumberOfExamplesMustNotBeNegative() {
+        assertThatThrownBy(() -> lines().examplesPerType(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The number of examples per type must not be negative but was -1");
+    }
+
+    @Test
+    public void theChunksMustNotBeEmpty() {
+        assertThatThrownBy(() -> lines().parallel(0, 1, executor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The chunk size and chunks in flight must be positive but were 0 and 1");
+    }
+
+    @Test
+    public void toStringShowsTheSettings() {
+        assertThat(lines().toString()).isEqualTo("StreamingValidator{validators=2, examplesPerType=10, sequential}");
+        assertThat(lines().parallel(100, 8, executor).toString()).isEqualTo("StreamingValidator{validators=2, examplesPerType=10, parallel in 8 chunks of 100}");
+    }
+
+    @Test
+    public void theReportSummarisesTheCounts() throws Exception {
+        assertThat(lines().validate(asList(-1, 2).iterator()).toString()).isEqualTo("Validated 2 records, 1 failed with 2 failures {negative=1, odd=1}");
+    }
+
+    private StreamingValidator<Integer, String> lines() {
+        return StreamingValidator.<Integer, String>streamingValidator(asList(NOT_NEGATIVE, EVEN))
+                .failureType(failure -> failure.substring(0, failure.indexOf(' ')));
+    }
+}
@@ -35,6 +35,23 @@ public class TechnicalFailureCaseValidationPathTest {
         assertThat(sadCaseValidationPath.validateAllInto(null, null)).isSameAs(sadCaseValidationPath);
     }
 
+    @Test
+    public void validateAsyncCompletesWithThis() {
+        assertThat(sadCaseValidationPath.validateAllAsync(null, null).toCompletableFuture().getNow(null)).isSameAs(sadCaseValidationPath);
+        assertThat(sadCaseValidationPath.validateAllAsync(null, null, null).toCompletableFuture().getNow(null)).isSameAs(sadCaseValidationPath);
+    }
+
+    @Test
+    public void validateEachReturnsThis() {
+        assertThat(sadCaseValidationPath.validateEach(null)).isSameAs(sadCaseValidationPath);
+    }
+
+    @Test
+    public void validateGraphReturnsThis() {
+        assertThat(sadCaseValidationPath.validateGraph(null)).isSameAs(sadCaseValidationPath);
+        assertThat(sadCaseValidationPath.validateGraph(null, null)).isSameAs(sadCaseValidationPath);
+    }
+
     @Test
     public void isATechnicalFailureCaseHappyPath() {
         assertThat(sadCaseValidationPath).isInstanceOf(TechnicalFailureCaseHappyPath.class);
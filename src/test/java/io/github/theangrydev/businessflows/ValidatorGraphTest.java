@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.github.theangrydev.businessflows.ValidatorGraph.validatorGraph;
+
+public class ValidatorGraphTest implements WithAssertions {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void skipsTheValidatorsWhosePrerequisitesFailedAndAccumulatesTheIndependentFailures() {
+        ValidatorGraph<String, String> graph = registration(false);
+
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("").validateGraph(graph);
+
+        assertThat(result.getSad()).containsExactly("email is blank", "name is blank");
+        assertThat(ran).containsExactly("email present", "name present");
+    }
+
+    @Test
+    public void runsEveryValidatorWhenThePrerequisitesPass() {
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("someone@example.com").validateGraph(registration(false));
+
+        assertThat(result.getSad()).containsExactly("no mail server for someone@example.com");
+        assertThat(ran).containsExactly("email present", "email well formed", "mail server", "name present");
+    }
+
+    @Test
+    public void isHappyWhenEveryValidatorPasses() {
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("someone@example.com").validateGraph(registration(true));
+
+        assertThat(result.get()).isEqualTo("someone@example.com");
+    }
+
+    @Test
+    public void aValidatorIsSkippedIfAPrerequisiteWasSkipped() {
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("not an email").validateGraph(registration(true));
+
+        assertThat(result.getSad()).containsExactly("not an email is not well formed");
+        assertThat(ran).doesNotContain("mail server");
+    }
+
+    @Test
+    public void runsEachLevelInParallelOnTheExecutor() {
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("").validateGraph(registration(false), executor);
+
+        assertThat(result.getSad()).containsExactly("email is blank", "name is blank");
+        assertThat(ran).containsOnly("email present", "name present").hasSize(2);
+    }
+
+    @Test
+    public void theParallelFailuresAreInTheOrderTheValidatorsWereAdded() {
+        ValidationPath<String, String, List<String>> result = ValidationPath.<String, String>validationPath("someone@example.com").validateGraph(registration(false), executor);
+
+        assertThat(result.getSad()).containsExactly("no mail server for someone@example.com");
+        assertThat(ran).containsOnly("email present", "email well formed", "mail server", "name present").hasSize(4);
+    }
+
+    @Test
+    public void aTechnicalFailureIsATechnicalFailureOverall() {
+        IOException technicalFailure = new IOException("mail server lookup is down");
+        ValidatorGraph<String, String> graph = ValidatorGraph.<String, String>validatorGraph()
+                .validator("email present", email -> PotentialFailure.success())
+                .validator("mail server", email -> {
+                    throw technicalFailure;
+                }, "email present");
+
+        assertThat(ValidationPath.<String, String>validationPath("").validateGraph(graph).getTechnicalFailure()).isSameAs(technicalFailure);
+        assertThat(ValidationPath.<String, String>validationPath("").validateGraph(graph, executor).getTechnicalFailure()).isSameAs(technicalFailure);
+    }
+
+    @Test
+    public void aValidatorThatReturnsNullIsATechnicalFailure() {
+        ValidatorGraph<String, String> graph = ValidatorGraph.<String, String>validatorGraph()
+                .validator("email present", email -> null);
+
+        assertThat(ValidationPath.<String, String>validationPath("").validateGraph(graph).getTechnicalFailure()).isInstanceOf(NullPointerException.class);
+        assertThat(ValidationPath.<String, String>validationPath("").validateGraph(graph, executor).getTechnicalFailure()).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void aPrerequisiteMustBeAddedFirst() {
+        assertThatThrownBy(() -> ValidatorGraph.<String, String>validatorGraph().validator("mail server", email -> PotentialFailure.success(), "email present"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The prerequisite 'email present' of 'mail server' must be added before it");
+    }
+
+    @Test
+    public void validatorsMustHaveDifferentNames() {
+        ValidatorGraph<String, String> graph = ValidatorGraph.<String, String>validatorGraph().validator("email present", email -> PotentialFailure.success());
+
+        assertThatThrownBy(() -> graph.validator("email present", email -> PotentialFailure.success()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("There is already a validator called 'email present'");
+    }
+
+    @Test
+    public void toStringShowsThePrerequisites() {
+        assertThat(registration(true).toString()).isEqualTo("ValidatorGraph{[email present after [], email well formed after [email present], mail server after [email well formed], name present after []]}");
+    }
+
+    @Test
+    public void anEmptyGraphIsHappy() {
+        assertThat(ValidationPath.<String, String>validationPath("").validateGraph(validatorGraph(), executor).get()).isEmpty();
+    }
+
+    private ValidatorGraph<String, String> registration(boolean mailServerExists) {
+        return ValidatorGraph.<String, String>validatorGraph()
+                .validator("email present", recording("email present", email -> email.isEmpty() ? PotentialFailure.failure("email is blank") : PotentialFailure.success()))
+                .validator("email well formed", recording("email well formed", email -> email.contains("@") ? PotentialFailure.success() : PotentialFailure.failure(email + " is not well formed")), "email present")
+                .validator("mail server", recording("mail server", email -> mailServerExists ? PotentialFailure.success() : PotentialFailure.failure("no mail server for " + email)), "email well formed")
+                .validator("name present", recording("name present", name -> name.isEmpty() ? PotentialFailure.failure("name is blank") : PotentialFailure.success()));
+    }
+
+    private Validator<String, String> recording(String name, Validator<String, String> validator) {
+        return email -> {
+            ran.add(name);
+            return validator.attempt(email);
+        };
+    }
+}
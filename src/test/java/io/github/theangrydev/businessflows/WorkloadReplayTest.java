@@ -0,0 +1,239 @@
+/*
+ * Copyright 2016-2017 Liam Williams <liam.williams@zoho.com>.
+ *
+ * This file is part of business-flows.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.theangrydev.businessflows;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+
+import static io.github.theangrydev.businessflows.StageLabel.stageLabel;
+import static io.github.theangrydev.businessflows.WorkloadRecorder.workloadRecorder;
+import static io.github.theangrydev.businessflows.WorkloadReplay.workloadReplay;
+
+public class WorkloadReplayTest implements WithAssertions {
+
+    private static final StageLabel PRICE = stageLabel("checkout", "price");
+    private static final StageLabel CHECK_STOCK = stageLabel("checkout", "check stock");
+    private static final StageLabel PAY = stageLabel("checkout", "pay");
+    private static final StageLabel RESTOCK = stageLabel("checkout", "restock");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private WorkloadRecorder recorder;
+
+    @After
+    public void unregister() {
+        FlowListeners.unregister(recorder);
+    }
+
+    @Test
+    public void replaysTheOutcomesOfTheRecordedFlows() throws IOException {
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        try (WorkloadRecorder recorder = registeredRecorder(workload, 1)) {
+            recorder.record("checkout", () -> checkout(true, true));
+            recorder.record("checkout", () -> checkout(false, true));
+            recorder.record("checkout", () -> checkout(true, false));
+        }
+        assertThat(recorder.recordedFlows()).isEqualTo(3);
+        assertThat(recorder.droppedFlows()).isZero();
+
+        WorkloadReplay replay = workloadReplay(workload, 0);
+        WorkloadReport report = replay.run(5);
+
+        assertThat(replay.flows()).isEqualTo(3);
+        assertThat(report.flows()).isEqualTo(15);
+        assertThat(report.happyFlows()).isEqualTo(5);
+        assertThat(report.sadFlows()).isEqualTo(5);
+        assertThat(report.technicalFailureFlows()).isEqualTo(5);
+        assertThat(report.p50Nanos()).isLessThanOrEqualTo(report.p99Nanos());
+        assertThat(report.p99Nanos()).isLessThanOrEqualTo(report.p999Nanos());
+        assertThat(report.throughputPerSecond()).isPositive();
+        assertThat(report.toString()).startsWith("15 flows (5 happy, 5 sad, 5 technical failure)");
+    }
+
+    @Test
+    public void replaysTheRecordedStageLatenciesScaledByTheLatencyScale() throws IOException {
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        try (WorkloadRecorder recorder = registeredRecorder(workload, 1)) {
+            recorder.record("slow", () -> HappyPath.<String, String>happyPath("order").then(PRICE.mapping(order -> {
+                Thread.sleep(20);
+                return HappyPath.happyPath(order);
+            })));
+        }
+
+        WorkloadReport report = workloadReplay(workload, 0.5).run(1);
+
+        assertThat(report.p50Nanos()).isGreaterThanOrEqualTo(10_000_000);
+    }
+
+    @Test
+    public void onlyRecordsTheSampledFlows() throws IOException {
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        try (WorkloadRecorder recorder = registeredRecorder(workload, 0)) {
+            HappyPath<String, String> result = recorder.record("checkout", () -> checkout(true, true));
+
+            assertThat(result.isHappy()).isTrue();
+            assertThat(recorder.recordedFlows()).isZero();
+        }
+
+        assertThat(workloadReplay(workload, 0).flows()).isZero();
+    }
+
+    @Test
+    public void rejectsAFileThatIsNotARecording() throws IOException {
+        Path notAWorkload = temporaryFolder.newFile().toPath();
+        Files.write(notAWorkload, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> workloadReplay(notAWorkload, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("is not a workload recording");
+    }
+
+    @Test
+    public void stopsRecordingAfterAFlowCouldNotBeWrittenSoTheRecordedFlowsCanStillBeReplayed() throws IOException {
+        String longFlowName = new String(new char[9000]).replace('\0', 'f');
+        FailingOutputStream file = new FailingOutputStream(10_000);
+        try (WorkloadRecorder recorder = workloadRecorder(file, 10, 1)) {
+            this.recorder = recorder;
+            FlowListeners.register(recorder);
+            recorder.record(longFlowName, () -> checkout(true, true));
+            recorder.record(longFlowName, () -> checkout(true, true));
+            recorder.record("checkout", () -> checkout(true, true));
+        }
+        assertThat(recorder.recordedFlows()).isEqualTo(1);
+        assertThat(recorder.droppedFlows()).isEqualTo(2);
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        Files.write(workload, file.toByteArray());
+
+        assertThat(workloadReplay(workload, 0).flows()).isEqualTo(1);
+    }
+
+    @Test
+    public void replaysTheStagesThatRanOnASadPathOnASadPath() throws IOException {
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        try (WorkloadRecorder recorder = registeredRecorder(workload, 1)) {
+            recorder.record("restocked", () -> checkout(false, true).ifSad()
+                    .recover(RESTOCK.mapping(outOfStock -> "order"))
+                    .then(PAY.mapping(HappyPath::happyPath)));
+        }
+
+        WorkloadReport report = workloadReplay(workload, 0).run(1);
+
+        assertThat(report.happyFlows()).isEqualTo(1);
+    }
+
+    @Test
+    public void stopsAtARecordWithATornLength() throws IOException {
+        Path workload = temporaryFolder.getRoot().toPath().resolve("workload.bin");
+        try (WorkloadRecorder recorder = registeredRecorder(workload, 1)) {
+            recorder.record("checkout", () -> checkout(true, true));
+        }
+        Files.write(workload, new byte[]{0x7F, -1, -1, -1, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertThat(workloadReplay(workload, 0).flows()).isEqualTo(1);
+    }
+
+    @Test
+    public void dropsTheFlowsThatDoNotFitInTheQueueWhileTheWriterIsBehind() throws IOException {
+        String longFlowName = new String(new char[9000]).replace('\0', 'f');
+        CountDownLatch diskIsSlow = new CountDownLatch(1);
+        OutputStream file = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    diskIsSlow.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+        int flows = WorkloadRecorder.PENDING_FLOWS + 10;
+        try (WorkloadRecorder recorder = workloadRecorder(file, 10, 1)) {
+            this.recorder = recorder;
+            FlowListeners.register(recorder);
+            for (int flow = 0; flow < flows; flow++) {
+                recorder.record(longFlowName, () -> checkout(true, true));
+            }
+            diskIsSlow.countDown();
+        }
+
+        assertThat(recorder.droppedFlows()).isPositive();
+        assertThat(recorder.recordedFlows() + recorder.droppedFlows()).isEqualTo(flows);
+    }
+
+    private WorkloadRecorder registeredRecorder(Path workload, double sampleRate) throws IOException {
+        recorder = workloadRecorder(workload, 10, sampleRate);
+        FlowListeners.register(recorder);
+        return recorder;
+    }
+
+    private HappyPath<String, String> checkout(boolean inStock, boolean paymentWorks) {
+        return HappyPath.<String, String>happyPath("order")
+                .then(PRICE.mapping(HappyPath::happyPath))
+                .then(CHECK_STOCK.mapping(order -> inStock ? HappyPath.happyPath(order) : HappyPath.sadPath("out of stock")))
+                .then(PAY.mapping(order -> {
+                    if (!paymentWorks) {
+                        throw new IOException("payment provider is down");
+                    }
+                    return HappyPath.happyPath(order);
+                }));
+    }
+
+    private static final class FailingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private final int capacity;
+
+        FailingOutputStream(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int fits = Math.min(len, capacity - written.size());
+            written.write(b, off, fits);
+            if (fits < len) {
+                throw new IOException("The disk is full");
+            }
+        }
+
+        byte[] toByteArray() {
+            return written.toByteArray();
+        }
+    }
+}